@@ -0,0 +1,148 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.chunk.SyntheticChunks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reading and writing of complete chunks through the
+ * {@link AnvilChunkIOService}, this includes the nbt encoding, the
+ * compression and the region file access. A synthetic world of
+ * {@code worldSize x worldSize} chunks is generated in a temporary
+ * folder before the measurements start.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AnvilChunkIOBenchmark {
+
+    // The amount of chunks that are written before the measurements
+    // start and the amount of distinct chunks that are written
+    private static final int WRITE_CHUNKS = 64;
+
+    @Param({ "32" })
+    public int worldSize;
+
+    // The amount of sections that contain blocks
+    @Param({ "4", "8" })
+    public int sections;
+
+    @Param({ "deflate:1", "deflate-dictionary:1" })
+    public String compression;
+
+    private File folder;
+    private AnvilChunkIOService service;
+    private LanternChunk[] chunks;
+    private int[] readOrder;
+    private int readIndex;
+    private int writeIndex;
+
+    @Setup
+    public void setup() throws IOException {
+        final int index = this.compression.indexOf(':');
+        final ChunkCompression chunkCompression = ChunkCompressions.get(this.compression.substring(0, index),
+                Integer.parseInt(this.compression.substring(index + 1)));
+        if (chunkCompression == null) {
+            throw new IllegalArgumentException("Unknown compression: " + this.compression);
+        }
+        this.folder = Files.createTempDirectory("lantern-jmh-chunk-io").toFile();
+        this.service = new AnvilChunkIOService(this.folder, null, chunkCompression);
+
+        final int count = this.worldSize * this.worldSize;
+        this.chunks = new LanternChunk[WRITE_CHUNKS];
+        for (int i = 0; i < count; i++) {
+            final LanternChunk chunk = SyntheticChunks.create(0L, i % this.worldSize, i / this.worldSize, this.sections);
+            this.service.write(chunk);
+            if (i < WRITE_CHUNKS) {
+                this.chunks[i] = chunk;
+            }
+        }
+
+        // Read the chunks in a random order, the way
+        // that players would request them on average
+        final Random random = new Random(0L);
+        this.readOrder = new int[count];
+        for (int i = 0; i < count; i++) {
+            this.readOrder[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int value = this.readOrder[i];
+            this.readOrder[i] = this.readOrder[j];
+            this.readOrder[j] = value;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.service.unload();
+        final File[] files = this.folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(this.folder.toPath());
+    }
+
+    @Benchmark
+    public LanternChunk read() throws IOException {
+        final int index = this.readOrder[this.readIndex];
+        this.readIndex = (this.readIndex + 1) % this.readOrder.length;
+        final LanternChunk chunk = new LanternChunk(null, index % this.worldSize, index / this.worldSize);
+        if (!this.service.read(chunk)) {
+            throw new IllegalStateException("Missing chunk: " + chunk.getX() + ", " + chunk.getZ());
+        }
+        return chunk;
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        this.service.write(this.chunks[this.writeIndex]);
+        this.writeIndex = (this.writeIndex + 1) % this.chunks.length;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import org.lanternpowered.server.data.persistence.nbt.NbtDataContainerOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.api.data.MemoryDataContainer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the compression and decompression throughput of the {@link ChunkCompression}s
+ * for a chunk with a flat terrain. The compressed size of the chunk is printed during the
+ * setup so that the sizes can be compared together with the throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ChunkCompressionBenchmark {
+
+    @Param({ "none", "deflate:1", "deflate:6", "deflate:9", "deflate-dictionary:1", "deflate-dictionary:6", "gzip" })
+    public String compression;
+
+    // The amount of sections that contain blocks
+    @Param({ "4" })
+    public int sections;
+
+    private ChunkCompression chunkCompression;
+    private byte[] chunkData;
+    private byte[] compressedData;
+    private int compressedLength;
+    private final byte[] readBuffer = new byte[8192];
+
+    @Setup
+    public void setup() throws IOException {
+        final int index = this.compression.indexOf(':');
+        this.chunkCompression = index == -1 ? ChunkCompressions.get(this.compression, 0) :
+                ChunkCompressions.get(this.compression.substring(0, index), Integer.parseInt(this.compression.substring(index + 1)));
+        if (this.chunkCompression == null) {
+            throw new IllegalArgumentException("Unknown compression: " + this.compression);
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (NbtDataContainerOutputStream nbt = new NbtDataContainerOutputStream(output)) {
+            nbt.write(this.createChunk());
+        }
+        this.chunkData = output.toByteArray();
+
+        final ChunkCompression.Buffer compressed = new ChunkCompression.Buffer(this.chunkData.length);
+        this.chunkCompression.compress(this.chunkData, this.chunkData.length, compressed);
+        this.compressedData = compressed.getBuffer();
+        this.compressedLength = compressed.size();
+        System.out.printf("%n%s: %d bytes compressed to %d bytes (%.1f%%)%n", this.compression, this.chunkData.length,
+                this.compressedLength, 100.0 * this.compressedLength / this.chunkData.length);
+    }
+
+    private DataContainer createChunk() {
+        final Random random = new Random(0L);
+        final DataContainer root = new MemoryDataContainer();
+        final DataView level = root.createView(DataQuery.of("Level"));
+        level.set(DataQuery.of("V"), (byte) 1);
+        level.set(DataQuery.of("xPos"), 0);
+        level.set(DataQuery.of("zPos"), 0);
+        level.set(DataQuery.of("TerrainPopulated"), (byte) 1);
+        level.set(DataQuery.of("LastUpdate"), 0L);
+        final List<DataView> sectionTags = new ArrayList<>();
+        for (int i = 0; i < this.sections; i++) {
+            final DataContainer section = new MemoryDataContainer();
+            section.set(DataQuery.of("Y"), (byte) i);
+            final byte[] blocks = new byte[4096];
+            for (int j = 0; j < blocks.length; j++) {
+                // Mostly stone with some ores scattered through it
+                blocks[j] = (byte) (random.nextInt(32) == 0 ? 14 + random.nextInt(3) : 1);
+            }
+            section.set(DataQuery.of("Blocks"), blocks);
+            section.set(DataQuery.of("Data"), new byte[2048]);
+            section.set(DataQuery.of("BlockLight"), new byte[2048]);
+            final byte[] skyLight = new byte[2048];
+            if (i == this.sections - 1) {
+                for (int j = 1024; j < skyLight.length; j++) {
+                    skyLight[j] = (byte) 0xff;
+                }
+            }
+            section.set(DataQuery.of("SkyLight"), skyLight);
+            sectionTags.add(section);
+        }
+        level.set(DataQuery.of("Sections"), sectionTags);
+        final int[] heightMap = new int[256];
+        for (int i = 0; i < heightMap.length; i++) {
+            heightMap[i] = this.sections * 16;
+        }
+        level.set(DataQuery.of("HeightMap"), heightMap);
+        final byte[] biomes = new byte[256];
+        for (int i = 0; i < biomes.length; i++) {
+            biomes[i] = (byte) (i < 128 ? 1 : 4);
+        }
+        level.set(DataQuery.of("Biomes"), biomes);
+        return root;
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        final ChunkCompression.Buffer output = new ChunkCompression.Buffer(this.compressedLength);
+        this.chunkCompression.compress(this.chunkData, this.chunkData.length, output);
+        return output.size();
+    }
+
+    @Benchmark
+    public int decompress() throws IOException {
+        int length = 0;
+        try (InputStream input = this.chunkCompression.decompress(this.compressedData, 0, this.compressedLength)) {
+            int count;
+            while ((count = input.read(this.readBuffer)) != -1) {
+                length += count;
+            }
+        }
+        return length;
+    }
+}
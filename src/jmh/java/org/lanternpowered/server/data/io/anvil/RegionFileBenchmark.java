@@ -0,0 +1,148 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import com.google.common.io.ByteStreams;
+import org.lanternpowered.server.world.chunk.SyntheticChunks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the access of chunks in a single {@link RegionFile} without the
+ * nbt encoding, the region file is filled with synthetic chunks through the
+ * {@link AnvilChunkIOService}. The chunks are either accessed in the order
+ * that they are stored or in a random order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RegionFileBenchmark {
+
+    // The amount of chunks in a region file
+    private static final int REGION_CHUNKS = 32 * 32;
+
+    @Param({ "sequential", "random" })
+    public String access;
+
+    // The amount of sections that contain blocks
+    @Param({ "4" })
+    public int sections;
+
+    private File folder;
+    private RegionFile regionFile;
+    private int[] order;
+    private int index;
+    private byte[] chunkData;
+    private final byte[] readBuffer = new byte[8192];
+
+    @Setup
+    public void setup() throws IOException {
+        this.folder = Files.createTempDirectory("lantern-jmh-region").toFile();
+        final AnvilChunkIOService service = new AnvilChunkIOService(this.folder, null);
+        for (int i = 0; i < REGION_CHUNKS; i++) {
+            service.write(SyntheticChunks.create(0L, i & 0x1f, i >> 5, this.sections));
+        }
+        service.unload();
+
+        this.regionFile = new RegionFile(new File(this.folder, "r.0.0.mca"));
+        try (DataInputStream input = this.regionFile.getChunkDataInputStream(0, 0)) {
+            this.chunkData = ByteStreams.toByteArray(input);
+        }
+
+        this.order = new int[REGION_CHUNKS];
+        for (int i = 0; i < REGION_CHUNKS; i++) {
+            this.order[i] = i;
+        }
+        if (this.access.equals("random")) {
+            final Random random = new Random(0L);
+            for (int i = REGION_CHUNKS - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1);
+                final int value = this.order[i];
+                this.order[i] = this.order[j];
+                this.order[j] = value;
+            }
+        } else if (!this.access.equals("sequential")) {
+            throw new IllegalArgumentException("Unknown access: " + this.access);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.regionFile.close();
+        final File[] files = this.folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(this.folder.toPath());
+    }
+
+    private int next() {
+        final int value = this.order[this.index];
+        this.index = (this.index + 1) % REGION_CHUNKS;
+        return value;
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        final int chunk = this.next();
+        int length = 0;
+        try (InputStream input = this.regionFile.getChunkDataInputStream(chunk & 0x1f, chunk >> 5)) {
+            int count;
+            while ((count = input.read(this.readBuffer)) != -1) {
+                length += count;
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        final int chunk = this.next();
+        this.regionFile.writeChunk(chunk & 0x1f, chunk >> 5, this.chunkData, this.chunkData.length);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.persistence.nbt;
+
+import com.google.common.io.ByteStreams;
+import org.lanternpowered.server.data.io.anvil.AnvilChunkIOService;
+import org.lanternpowered.server.data.io.anvil.RegionFile;
+import org.lanternpowered.server.world.chunk.SyntheticChunks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.data.DataContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the uncompressed nbt encoding and decoding of a chunk through the
+ * {@link NbtDataContainerInputStream} and {@link NbtDataContainerOutputStream}.
+ * The chunk data is the same data that the chunk i/o service stores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class NbtStreamBenchmark {
+
+    // The amount of sections that contain blocks
+    @Param({ "4", "8" })
+    public int sections;
+
+    private byte[] chunkData;
+    private DataContainer chunkContainer;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() throws IOException {
+        // Let the chunk i/o service encode the chunk, so
+        // that the data matches what is stored on the disk
+        final File folder = Files.createTempDirectory("lantern-jmh-nbt").toFile();
+        final File regionFile = new File(folder, "r.0.0.mca");
+        try {
+            final AnvilChunkIOService service = new AnvilChunkIOService(folder, null);
+            service.write(SyntheticChunks.create(0L, 0, 0, this.sections));
+            service.unload();
+            final RegionFile region = new RegionFile(regionFile);
+            try (DataInputStream input = region.getChunkDataInputStream(0, 0)) {
+                this.chunkData = ByteStreams.toByteArray(input);
+            } finally {
+                region.close();
+            }
+        } finally {
+            Files.deleteIfExists(regionFile.toPath());
+            Files.delete(folder.toPath());
+        }
+        this.chunkContainer = this.read();
+        this.output = new ByteArrayOutputStream(this.chunkData.length);
+    }
+
+    @Benchmark
+    public DataContainer read() throws IOException {
+        try (NbtDataContainerInputStream input = new NbtDataContainerInputStream(new ByteArrayInputStream(this.chunkData))) {
+            return input.read();
+        }
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        this.output.reset();
+        try (NbtDataContainerOutputStream output = new NbtDataContainerOutputStream(this.output)) {
+            output.write(this.chunkContainer);
+        }
+        return this.output.size();
+    }
+}
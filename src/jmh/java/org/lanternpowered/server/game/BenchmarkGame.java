@@ -0,0 +1,63 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.game;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Bootstraps the parts of the {@link LanternGame} that are required by the
+ * benchmarks that depend on the game registry, such as the world generators.
+ * The game is only constructed once per benchmark fork, the configuration
+ * files will be created in the working directory.
+ */
+public final class BenchmarkGame {
+
+    @Nullable private static LanternGame game;
+
+    /**
+     * Gets the game, the game and its registry will
+     * be initialized the first time that this is called.
+     *
+     * @return the game
+     * @throws IOException if the configuration files couldn't be loaded
+     */
+    public static synchronized LanternGame get() throws IOException {
+        if (game == null) {
+            final LanternGame game0 = new LanternGame();
+            game0.preInitialize();
+            final LanternGameRegistry registry = game0.getRegistry();
+            registry.preRegistry();
+            registry.preInit();
+            registry.init();
+            game = game0;
+        }
+        return game;
+    }
+
+    private BenchmarkGame() {
+    }
+}
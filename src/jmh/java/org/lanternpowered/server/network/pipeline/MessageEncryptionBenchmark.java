@@ -0,0 +1,106 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.pipeline;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Measures the cost per byte of the {@link MessageEncryptionHandler} for messages of
+ * different sizes. Every invocation ciphers {@link #BYTES_PER_INVOCATION} bytes, so the
+ * results are in nanoseconds per byte. The decrypt benchmark copies every message into
+ * a new buffer first, just like a socket read would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MessageEncryptionBenchmark {
+
+    private static final int BYTES_PER_INVOCATION = 64 * 1024;
+
+    @Param({ "16", "256", "4096", "65536" })
+    public int messageSize;
+
+    private EmbeddedChannel channel;
+    private ByteBuf message;
+    private byte[] messageBytes;
+    private int messageCount;
+
+    @Setup
+    public void setup() {
+        this.messageBytes = new byte[this.messageSize];
+        new Random(0L).nextBytes(this.messageBytes);
+        this.message = PooledByteBufAllocator.DEFAULT.directBuffer(this.messageSize).writeBytes(this.messageBytes);
+        this.messageCount = BYTES_PER_INVOCATION / this.messageSize;
+        this.channel = new EmbeddedChannel(new MessageEncryptionHandler(new SecretKeySpec(new byte[16], "AES")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.channel.finish();
+        this.message.release();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BYTES_PER_INVOCATION)
+    public void encrypt() {
+        for (int i = 0; i < this.messageCount; i++) {
+            this.channel.writeOutbound(this.message.duplicate().retain());
+            ((ByteBuf) this.channel.readOutbound()).release();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BYTES_PER_INVOCATION)
+    public void decrypt() {
+        for (int i = 0; i < this.messageCount; i++) {
+            this.channel.writeInbound(PooledByteBufAllocator.DEFAULT.directBuffer(this.messageSize)
+                    .writeBytes(this.messageBytes));
+            ((ByteBuf) this.channel.readInbound()).release();
+        }
+    }
+}
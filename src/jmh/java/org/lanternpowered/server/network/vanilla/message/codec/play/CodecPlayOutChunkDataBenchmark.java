@@ -0,0 +1,110 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.vanilla.message.codec.play;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.lanternpowered.server.network.message.codec.CodecContext;
+import org.lanternpowered.server.network.message.codec.SimpleCodecContext;
+import org.lanternpowered.server.network.message.codec.serializer.SerializerCollection;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.chunk.SyntheticChunks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encoding of chunk data messages by the {@link CodecPlayOutChunkData},
+ * both when the encoded content has to be created from the chunk and when it
+ * can be taken from the {@link ChunkDataCache}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CodecPlayOutChunkDataBenchmark {
+
+    // The amount of sections that contain blocks
+    @Param({ "4", "8" })
+    public int sections;
+
+    @Param({ "true", "false" })
+    public boolean skylight;
+
+    private final CodecPlayOutChunkData codec = new CodecPlayOutChunkData();
+
+    private EmbeddedChannel channel;
+    private CodecContext context;
+    private LanternChunk chunk;
+    private MessagePlayOutChunkData message;
+
+    @Setup
+    public void setup() {
+        this.channel = new EmbeddedChannel();
+        this.channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+        this.context = new SimpleCodecContext(PooledByteBufAllocator.DEFAULT, SerializerCollection.DEFAULT, this.channel, null);
+        this.chunk = SyntheticChunks.create(0L, 0, 0, this.sections);
+        this.message = new MessagePlayOutChunkData(this.chunk, this.skylight);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ChunkDataCache.INSTANCE.invalidate(this.chunk);
+        this.channel.finish();
+    }
+
+    @Benchmark
+    public int encode() {
+        // Force the content to be encoded again
+        ChunkDataCache.INSTANCE.invalidate(this.chunk);
+        final ByteBuf buf = this.codec.encode(this.context, this.message);
+        final int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+
+    @Benchmark
+    public int encodeCached() {
+        final ByteBuf buf = this.codec.encode(this.context, this.message);
+        final int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import org.lanternpowered.server.config.world.WorldConfig;
+import org.lanternpowered.server.data.io.anvil.AnvilChunkIOService;
+import org.lanternpowered.server.game.BenchmarkGame;
+import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.world.gen.LanternWorldGenerator;
+import org.lanternpowered.server.world.gen.SingleBiomeGenerator;
+import org.lanternpowered.server.world.gen.debug.DebugGenerationPopulator;
+import org.lanternpowered.server.world.gen.flat.FlatGenerationPopulator;
+import org.lanternpowered.server.world.gen.flat.FlatGeneratorSettings;
+import org.lanternpowered.server.world.gen.flat.FlatGeneratorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.world.biome.BiomeTypes;
+import org.spongepowered.api.world.gen.WorldGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of a single chunk through {@link LanternChunkManager#generate(LanternChunk)},
+ * with the flat and the debug world generators. The chunks aren't loaded into the chunk
+ * manager, so every invocation generates a new chunk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ChunkGenerationBenchmark {
+
+    // The chunks are generated within a square of this size
+    private static final int AREA_SIZE = 64;
+
+    @Param({ "flat", "debug" })
+    public String generator;
+
+    private Path folder;
+    private LanternChunkManager chunkManager;
+    private int index;
+
+    @Setup
+    public void setup() throws IOException {
+        final LanternGame game = BenchmarkGame.get();
+        final WorldGenerator worldGenerator;
+        if (this.generator.equals("flat")) {
+            final FlatGeneratorSettings settings = FlatGeneratorType.getDefaultSettings();
+            worldGenerator = new LanternWorldGenerator(new FlatGenerationPopulator(settings, LanternChunk.CHUNK_HEIGHT),
+                    new SingleBiomeGenerator(settings.getBiomeType()));
+        } else if (this.generator.equals("debug")) {
+            worldGenerator = new LanternWorldGenerator(new DebugGenerationPopulator(game.getRegistry()),
+                    new SingleBiomeGenerator(BiomeTypes.PLAINS));
+        } else {
+            throw new IllegalArgumentException("Unknown generator: " + this.generator);
+        }
+        this.folder = Files.createTempDirectory("lantern-jmh-generation");
+        final WorldConfig worldConfig = new WorldConfig(game.getGlobalConfig(), this.folder.resolve("world.conf"));
+        this.chunkManager = new LanternChunkManager(game, null, worldConfig, null,
+                new AnvilChunkIOService(this.folder.toFile(), null), worldGenerator, this.folder);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.chunkManager.shutdown();
+        Files.delete(this.folder);
+    }
+
+    @Benchmark
+    public LanternChunk generate() {
+        final int index = this.index;
+        this.index = (index + 1) % (AREA_SIZE * AREA_SIZE);
+        final LanternChunk chunk = new LanternChunk(null, index % AREA_SIZE, index / AREA_SIZE);
+        this.chunkManager.generate(chunk);
+        return chunk;
+    }
+}
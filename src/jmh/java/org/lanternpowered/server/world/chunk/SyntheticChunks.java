@@ -0,0 +1,137 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_AREA;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTIONS;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_SIZE;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_VOLUME;
+
+import org.lanternpowered.server.util.NibbleArray;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+
+import java.util.Random;
+
+/**
+ * Creates chunks with a synthetic terrain for the benchmarks, the content
+ * only depends on the seed and the coordinates so that every run and every
+ * fork works with the same data. No world or game registry is required.
+ */
+public final class SyntheticChunks {
+
+    // The internal ids (without data) of the blocks that are used
+    private static final int STONE = 1;
+    private static final int GRASS = 2;
+    private static final int DIRT = 3;
+    private static final int BEDROCK = 7;
+    private static final int WATER = 9;
+    private static final int GOLD_ORE = 14;
+    private static final int COAL_ORE = 16;
+
+    // The water level of the terrain
+    private static final int WATER_LEVEL = 62;
+
+    /**
+     * Creates a new chunk at the specified coordinates.
+     *
+     * @param seed the seed
+     * @param x the x coordinate of the chunk
+     * @param z the z coordinate of the chunk
+     * @param sections the amount of sections that contain blocks, the terrain
+     *                 height will be in the top section
+     * @return the chunk
+     */
+    public static LanternChunk create(long seed, int x, int z, int sections) {
+        final LanternChunk chunk = new LanternChunk(null, x, z);
+        initialize(chunk, seed, sections);
+        return chunk;
+    }
+
+    /**
+     * Initializes the content of the chunk with a synthetic terrain.
+     *
+     * @param chunk the chunk
+     * @param seed the seed
+     * @param sections the amount of sections that contain blocks
+     */
+    public static void initialize(LanternChunk chunk, long seed, int sections) {
+        final Random random = new Random(seed ^ LanternChunk.key(chunk.getX(), chunk.getZ()));
+
+        // A smooth height map that varies within the top section
+        final int baseHeight = (sections - 1) * CHUNK_SECTION_SIZE;
+        final int[] heights = new int[CHUNK_AREA];
+        final double phaseX = random.nextDouble() * Math.PI * 2.0;
+        final double phaseZ = random.nextDouble() * Math.PI * 2.0;
+        for (int i = 0; i < CHUNK_AREA; i++) {
+            final int bx = i & 0xf;
+            final int bz = i >> 4;
+            heights[i] = baseHeight + 8 + (int) (3.5 * Math.sin(phaseX + bx * 0.4) + 3.5 * Math.cos(phaseZ + bz * 0.4));
+        }
+
+        final ChunkSection[] chunkSections = new ChunkSection[CHUNK_SECTIONS];
+        for (int sy = 0; sy < sections; sy++) {
+            final short[] types = new short[CHUNK_SECTION_VOLUME];
+            final NibbleArray skyLight = new NibbleArray(CHUNK_SECTION_VOLUME);
+            final NibbleArray blockLight = new NibbleArray(CHUNK_SECTION_VOLUME);
+            for (int index = 0; index < CHUNK_SECTION_VOLUME; index++) {
+                final int y = (sy << 4) | (index >> 8);
+                final int height = heights[index & 0xff];
+                final int type;
+                if (y == 0) {
+                    type = BEDROCK;
+                } else if (y < height - 3) {
+                    final int value = random.nextInt(64);
+                    type = value == 0 ? GOLD_ORE : value < 3 ? COAL_ORE : STONE;
+                } else if (y < height) {
+                    type = DIRT;
+                } else if (y == height) {
+                    type = height < WATER_LEVEL ? DIRT : GRASS;
+                } else if (y <= WATER_LEVEL) {
+                    type = WATER;
+                } else {
+                    type = 0;
+                }
+                types[index] = (short) (type << 4);
+                if (y > height) {
+                    skyLight.set(index, (byte) (type == WATER ? Math.max(0, 15 - (WATER_LEVEL - y + 1) * 3) : 15));
+                }
+            }
+            chunkSections[sy] = new ChunkSection(types, skyLight, blockLight);
+        }
+        chunk.initializeSections(chunkSections);
+
+        final short[] biomes = new short[CHUNK_AREA];
+        final short biome = (short) random.nextInt(40);
+        for (int i = 0; i < CHUNK_AREA; i++) {
+            biomes[i] = (i & 0xf) < 12 ? biome : 1;
+        }
+        chunk.initializeBiomes(biomes);
+        chunk.automaticHeightMap();
+        chunk.setPopulated(true);
+    }
+
+    private SyntheticChunks() {
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent;
+
+import com.flowpowered.math.vector.Vector2i;
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.util.gen.biome.ShortArrayImmutableBiomeBuffer;
+import org.lanternpowered.server.util.gen.block.ShortArrayImmutableBlockBuffer;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.api.world.extent.BiomeArea;
+import org.spongepowered.api.world.extent.BlockVolume;
+import org.spongepowered.api.world.extent.ImmutableBlockVolume;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the snapshot copies of the block and biome buffers and the chunks,
+ * the array clone is the baseline that the copies should get close to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ExtentBufferHelperBenchmark {
+
+    // The size of the region that will be copied, 8x8 chunks
+    private static final Vector3i REGION_SIZE = new Vector3i(128, 128, 128);
+    private static final Vector2i AREA_SIZE = new Vector2i(REGION_SIZE.getX(), REGION_SIZE.getZ());
+
+    private short[] blocks;
+    private BlockVolume blockBuffer;
+    private BiomeArea biomeBuffer;
+    private LanternChunk chunk;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0L);
+
+        this.blocks = new short[REGION_SIZE.getX() * REGION_SIZE.getY() * REGION_SIZE.getZ()];
+        for (int i = 0; i < this.blocks.length; i++) {
+            this.blocks[i] = (short) (random.nextInt(256) << 4);
+        }
+        this.blockBuffer = ShortArrayImmutableBlockBuffer.newWithoutArrayClone(this.blocks, Vector3i.ZERO, REGION_SIZE);
+
+        final short[] biomes = new short[AREA_SIZE.getX() * AREA_SIZE.getY()];
+        for (int i = 0; i < biomes.length; i++) {
+            biomes[i] = (short) random.nextInt(40);
+        }
+        this.biomeBuffer = ShortArrayImmutableBiomeBuffer.newWithoutArrayClone(biomes, Vector2i.ZERO, AREA_SIZE);
+
+        final ChunkSection[] sections = new ChunkSection[LanternChunk.CHUNK_SECTIONS];
+        for (int i = 0; i < sections.length; i++) {
+            final short[] types = new short[LanternChunk.CHUNK_SECTION_VOLUME];
+            for (int j = 0; j < types.length; j++) {
+                types[j] = (short) ((random.nextInt(255) + 1) << 4);
+            }
+            sections[i] = new ChunkSection(types, types.length);
+        }
+        this.chunk = new LanternChunk(null, 0, 0);
+        this.chunk.initializeSections(sections);
+    }
+
+    @Benchmark
+    public short[] cloneBaseline() {
+        return this.blocks.clone();
+    }
+
+    @Benchmark
+    public short[] copyBlockBuffer() {
+        return ExtentBufferHelper.copyToArray(this.blockBuffer, this.blockBuffer.getBlockMin(),
+                this.blockBuffer.getBlockMax(), this.blockBuffer.getBlockSize());
+    }
+
+    @Benchmark
+    public short[] copyBiomeBuffer() {
+        return ExtentBufferHelper.copyToArray(this.biomeBuffer, this.biomeBuffer.getBiomeMin(),
+                this.biomeBuffer.getBiomeMax(), this.biomeBuffer.getBiomeSize());
+    }
+
+    @Benchmark
+    public ImmutableBlockVolume copyChunk() {
+        return this.chunk.getImmutableBlockCopy();
+    }
+}
@@ -137,7 +137,7 @@ public static void main(String[] args) {
             }
             // Enable the rcon server if needed
             if (globalConfig.isRconEnabled()) {
-                rconServer = new RconServer(globalConfig.getRconPassword());
+                rconServer = new RconServer(globalConfig.getRconPassword(), globalConfig.getNetworking());
             }
 
             // Create the server instance
@@ -254,7 +254,7 @@ private InetSocketAddress getBindAddress(int port) {
     public void bind() throws BindException {
         InetSocketAddress address = this.getBindAddress(this.game.getGlobalConfig().getServerPort());
 
-        ChannelFuture future = this.networkManager.init(address);
+        ChannelFuture future = this.networkManager.init(address, this.game.getGlobalConfig().getNetworking());
         Channel channel = future.awaitUninterruptibly().channel();
         if (!channel.isActive()) {
             final Throwable cause = future.cause();
@@ -399,6 +399,15 @@ public Optional<Player> getPlayer(String name) {
         return Optional.empty();
     }
 
+    /**
+     * Gets the world manager.
+     *
+     * @return the world manager
+     */
+    public LanternWorldManager getWorldManager() {
+        return this.worldManager;
+    }
+
     @Override
     public Collection<World> getWorlds() {
         return this.worldManager.getWorlds();
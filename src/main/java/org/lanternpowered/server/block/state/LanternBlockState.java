@@ -26,13 +26,12 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableTable;
 import org.lanternpowered.server.block.LanternBlockSnapshot;
 import org.lanternpowered.server.block.trait.LanternBlockTrait;
 import org.lanternpowered.server.data.property.AbstractDirectionRelativePropertyHolder;
+import org.lanternpowered.server.data.property.LanternPropertyRegistry;
 import org.lanternpowered.server.data.value.mutable.LanternValue;
 import org.spongepowered.api.CatalogType;
 import org.spongepowered.api.block.BlockSnapshot;
@@ -42,18 +41,17 @@
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.data.DataQuery;
 import org.spongepowered.api.data.MemoryDataContainer;
+import org.spongepowered.api.data.Property;
 import org.spongepowered.api.data.key.Key;
 import org.spongepowered.api.data.manipulator.ImmutableDataManipulator;
 import org.spongepowered.api.data.merge.MergeFunction;
 import org.spongepowered.api.data.value.BaseValue;
 import org.spongepowered.api.data.value.immutable.ImmutableValue;
-import org.spongepowered.api.data.value.mutable.Value;
 import org.spongepowered.api.util.Cycleable;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -65,27 +63,157 @@
 @SuppressWarnings({"rawtypes", "unchecked"})
 public final class LanternBlockState implements BlockState, AbstractDirectionRelativePropertyHolder {
 
-    // A lookup table to get a specific state when you would change a value
-    ImmutableTable<BlockTrait<?>, Comparable<?>, BlockState> propertyValueTable;
+    // A lookup table to get a specific state when you would change a value, indexed
+    // by the transition offset of the trait and the ordinal of the new value
+    LanternBlockState[] transitions;
 
     // The values for every attached trait
     final ImmutableMap<BlockTrait<?>, Comparable<?>> traitValues;
 
-    // The lookup to convert between key <--> trait
-    private final ImmutableMap<Key<Value<?>>, BlockTrait<?>> keyToBlockTrait;
+    // The ordinals of the values, indexed by the trait index
+    final int[] valueOrdinals;
 
     // The base block state
     private final LanternBlockStateMap baseState;
 
-    LanternBlockState(LanternBlockStateMap baseState, ImmutableMap<BlockTrait<?>, Comparable<?>> traitValues) {
+    // The packed internal id and data of this block state, this is assigned
+    // once by the block registry when the block type gets registered
+    private short internalIdAndData;
+
+    // The properties that are resolved for this block state, indexed by the
+    // property id, this is initialized once the property registrations are complete
+    @Nullable private volatile Optional<?>[] bakedProperties;
+
+    // The applicable properties, only cached if all of them could be baked
+    @Nullable private volatile Collection<Property<?, ?>> applicableProperties;
+
+    LanternBlockState(LanternBlockStateMap baseState, ImmutableMap<BlockTrait<?>, Comparable<?>> traitValues,
+            int[] valueOrdinals) {
+        this.valueOrdinals = valueOrdinals;
         this.traitValues = traitValues;
         this.baseState = baseState;
+    }
+
+    /**
+     * Gets the block state map this state is part of.
+     *
+     * @return the block state map
+     */
+    public LanternBlockStateMap getStateMap() {
+        return this.baseState;
+    }
+
+    /**
+     * Gets the ordinal of the value of the trait at the specified index.
+     *
+     * @param traitIndex the trait index
+     * @return the value ordinal
+     */
+    public int getValueOrdinal(int traitIndex) {
+        return this.valueOrdinals[traitIndex];
+    }
+
+    /**
+     * Gets the block state with the value of the specified ordinal for the trait
+     * at the specified index, the indexes can be obtained through the
+     * {@link LanternBlockStateMap}. This will return this state if the value
+     * doesn't change.
+     *
+     * @param traitIndex the trait index
+     * @param valueOrdinal the value ordinal
+     * @return the block state
+     */
+    public LanternBlockState withValueOrdinal(int traitIndex, int valueOrdinal) {
+        return this.transitions[this.baseState.transitionOffsets[traitIndex] + valueOrdinal];
+    }
+
+    /**
+     * Cycles to the next possible value of the trait at the specified
+     * index and returns the new block state.
+     *
+     * @param traitIndex the trait index
+     * @return the block state
+     */
+    public LanternBlockState cycleValueOrdinal(int traitIndex) {
+        return this.withValueOrdinal(traitIndex,
+                this.baseState.getCycledValueOrdinal(traitIndex, this.valueOrdinals[traitIndex]));
+    }
+
+    /**
+     * Gets the packed internal id and data of this block state, this
+     * will be {@code 0} (air) if the block type isn't registered.
+     *
+     * @return the internal id and data
+     */
+    public short getInternalIdAndData() {
+        return this.internalIdAndData;
+    }
+
+    /**
+     * Sets the packed internal id and data of this block state, this
+     * should only be called by the block registry.
+     *
+     * @param internalIdAndData the internal id and data
+     */
+    public void setInternalIdAndData(short internalIdAndData) {
+        this.internalIdAndData = internalIdAndData;
+    }
+
+    /**
+     * Resolves and caches all the properties of this block state that only depend on the
+     * block state itself, this will be done lazily if this method isn't called.
+     */
+    public void bakeProperties() {
+        final LanternPropertyRegistry registry = LanternPropertyRegistry.getInstance();
+        final Optional<?>[] bakedProperties = registry.bakeProperties(this);
+        if (registry.isFullyBaked(bakedProperties)) {
+            this.applicableProperties = registry.getPropertiesFor(this, bakedProperties);
+        }
+        this.bakedProperties = bakedProperties;
+    }
+
+    private Optional<?>[] getBakedProperties() {
+        Optional<?>[] bakedProperties = this.bakedProperties;
+        if (bakedProperties == null) {
+            this.bakeProperties();
+            bakedProperties = this.bakedProperties;
+        }
+        return bakedProperties;
+    }
 
-        ImmutableBiMap.Builder<Key<Value<?>>, BlockTrait<?>> builder = ImmutableBiMap.builder();
-        for (BlockTrait trait : traitValues.keySet()) {
-            builder.put(((LanternBlockTrait) trait).getKey(), trait);
+    /**
+     * Gets the property with the specified id, the id can be obtained through
+     * {@link LanternPropertyRegistry#getPropertyId(Class)}. Properties that only
+     * depend on the block state will be read from the baked properties.
+     *
+     * @param propertyId the property id
+     * @return the property if present
+     */
+    public <T extends Property<?, ?>> Optional<T> getProperty(int propertyId) {
+        return LanternPropertyRegistry.getInstance().getFor(this, this.getBakedProperties(), propertyId);
+    }
+
+    @Override
+    public <T extends Property<?, ?>> Optional<T> getProperty(Class<T> propertyClass) {
+        final int propertyId = LanternPropertyRegistry.getInstance().getPropertyId(propertyClass);
+        if (propertyId == -1) {
+            return AbstractDirectionRelativePropertyHolder.super.getProperty(propertyClass);
         }
-        this.keyToBlockTrait = builder.build();
+        return this.getProperty(propertyId);
+    }
+
+    @Override
+    public Collection<Property<?, ?>> getApplicableProperties() {
+        final LanternPropertyRegistry registry = LanternPropertyRegistry.getInstance();
+        if (!registry.isRegistrationComplete()) {
+            return AbstractDirectionRelativePropertyHolder.super.getApplicableProperties();
+        }
+        final Optional<?>[] bakedProperties = this.getBakedProperties();
+        final Collection<Property<?, ?>> applicableProperties = this.applicableProperties;
+        if (applicableProperties != null) {
+            return applicableProperties;
+        }
+        return registry.getPropertiesFor(this, bakedProperties);
     }
 
     @Override
@@ -146,26 +274,28 @@ public <E> Optional<BlockState> transform(Key<? extends BaseValue<E>> key, Funct
 
     @Override
     public <E> Optional<BlockState> with(Key<? extends BaseValue<E>> key, E value) {
-        BlockTrait trait;
-        if (!this.supports(key) || !(trait = this.keyToBlockTrait.get(key)).getPredicate().test(value)) {
+        final int traitIndex = this.baseState.getTraitIndex(key);
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        if (this.traitValues.get(trait) == value) {
-            return Optional.of(this);
+        return this.withValue(traitIndex, value);
+    }
+
+    private Optional<BlockState> withValue(int traitIndex, @Nullable Object value) {
+        final int valueOrdinal = this.baseState.getValueOrdinal(traitIndex, value);
+        if (valueOrdinal == -1) {
+            return Optional.empty();
         }
-        return Optional.of(this.propertyValueTable.row(trait).get(value));
+        return Optional.of(this.withValueOrdinal(traitIndex, valueOrdinal));
     }
 
     @Override
     public Optional<BlockState> with(BaseValue<?> value) {
-        if (!this.supports(value)) {
+        final int traitIndex = this.baseState.getTraitIndex(checkNotNull(value, "value").getKey());
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        BlockTrait trait = this.keyToBlockTrait.get(value.getKey());
-        if (this.traitValues.get(trait) == value.get()) {
-            return Optional.of(this);
-        }
-        return Optional.of(this.propertyValueTable.row(trait).get(value.get()));
+        return this.withValue(traitIndex, value.get());
     }
 
     @Override
@@ -225,24 +355,26 @@ public BlockState merge(BlockState that, MergeFunction function) {
 
     @Override
     public <E> Optional<E> get(Key<? extends BaseValue<E>> key) {
-        if (!this.supports(key)) {
+        final int traitIndex = this.baseState.getTraitIndex(key);
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        return Optional.ofNullable((E) this.traitValues.get(this.keyToBlockTrait.get(key)));
+        return Optional.of((E) this.baseState.values[traitIndex][this.valueOrdinals[traitIndex]]);
     }
 
     @Override
     public <E, V extends BaseValue<E>> Optional<V> getValue(Key<V> key) {
-        if (!this.supports(key)) {
+        final int traitIndex = this.baseState.getTraitIndex(key);
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        BlockTrait<?> blockTrait = this.keyToBlockTrait.get(key);
-        return Optional.of((V) new LanternValue(key, this.traitValues.get(blockTrait)));
+        final Object value = this.baseState.values[traitIndex][this.valueOrdinals[traitIndex]];
+        return Optional.of((V) new LanternValue(key, value));
     }
 
     @Override
     public boolean supports(Key<?> key) {
-        return this.keyToBlockTrait.containsKey(checkNotNull(key, "key"));
+        return this.baseState.getTraitIndex(key) != -1;
     }
 
     @Override
@@ -263,10 +395,11 @@ public ImmutableSet<ImmutableValue<?>> getValues() {
 
     @Override
     public BlockState cycleValue(Key<? extends BaseValue<? extends Cycleable<?>>> key) {
-        if (!this.supports(key)) {
+        final int traitIndex = this.baseState.getTraitIndex(key);
+        if (traitIndex == -1) {
             return this;
         }
-        return this.cycleTraitValue(this.keyToBlockTrait.get(key)).get();
+        return this.cycleValueOrdinal(traitIndex);
     }
 
     @Override
@@ -295,65 +428,21 @@ public BlockSnapshot snapshotFor(Location<World> location) {
      * @return the block state if successful
      */
     public <T extends Comparable<T>> Optional<BlockState> cycleTraitValue(BlockTrait<T> blockTrait) {
-        checkNotNull(blockTrait, "blockTrait");
-
-        if (!this.supportsTrait(blockTrait)) {
+        final int traitIndex = this.baseState.getTraitIndex(blockTrait);
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-
-        T value = (T) this.traitValues.get(blockTrait);
-        if (value instanceof Cycleable) {
-            T last = value;
-            T next;
-            while ((next = (T) ((Cycleable) last).cycleNext()) != value) {
-                if (blockTrait.getPredicate().test(next)) {
-                    value = next;
-                    break;
-                }
-                last = next;
-            }
-        } else {
-            Iterator<T> it = blockTrait.getPossibleValues().iterator();
-            while (it.hasNext()) {
-                if (it.next() == value) {
-                    if (it.hasNext()) {
-                        value = it.next();
-                    } else {
-                        value = blockTrait.getPossibleValues().iterator().next();
-                    }
-                }
-            }
-        }
-
-        return this.withTrait(blockTrait, value);
+        return Optional.of(this.cycleValueOrdinal(traitIndex));
     }
 
     @Override
     public Optional<BlockState> withTrait(BlockTrait<?> trait, Object value) {
-        checkNotNull(trait, "trait");
         checkNotNull(value, "value");
-        if (value instanceof String) {
-            if (!this.supportsTrait(trait)) {
-                return Optional.empty();
-            }
-            for (Object object : trait.getPossibleValues()) {
-                if (object.toString().equals(value) || (object instanceof CatalogType && ((CatalogType) object).getId()
-                        .equalsIgnoreCase((String) value))) {
-                    value = object;
-                    break;
-                }
-            }
-            if (value instanceof String) {
-                return Optional.empty();
-            }
-        }
-        if (!this.supportsTraitValue(trait, value)) {
+        final int traitIndex = this.baseState.getTraitIndex(trait);
+        if (traitIndex == -1) {
             return Optional.empty();
         }
-        if (this.traitValues.get(trait) == value) {
-            return Optional.of(this);
-        }
-        return Optional.of(this.propertyValueTable.row(trait).get(value));
+        return this.withValue(traitIndex, value);
     }
 
     /**
@@ -26,29 +26,35 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import org.lanternpowered.server.block.LanternBlockType;
 import org.lanternpowered.server.block.trait.LanternBlockTrait;
+import org.spongepowered.api.CatalogType;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.trait.BlockTrait;
 import org.spongepowered.api.data.key.Key;
+import org.spongepowered.api.util.Cycleable;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
 public final class LanternBlockStateMap {
 
     private final ImmutableMap<String, BlockTrait<?>> blockTraits;
@@ -56,36 +62,88 @@ public final class LanternBlockStateMap {
     final ImmutableSet<Key<?>> keys;
     private final LanternBlockType blockType;
 
-    @SuppressWarnings("rawtypes")
+    // The traits sorted by name, the index within the array is the index of the trait
+    private final BlockTrait<?>[] traits;
+
+    // The lookups to get the index of a trait by the trait or its key, -1 if absent
+    private final TObjectIntMap<BlockTrait<?>> traitIndexes;
+    private final TObjectIntMap<Key<?>> keyTraitIndexes;
+
+    // The possible values of every trait, ordered by their ordinal
+    final Comparable<?>[][] values;
+
+    // The lookups to get the ordinal of a value, for every trait
+    private final TObjectIntMap<Object>[] valueOrdinals;
+
+    // The lookups to get a value by its name or its lower case catalog id, for every trait
+    private final Map<String, Comparable<?>>[] valuesByName;
+    private final Map<String, Comparable<?>>[] valuesById;
+
+    // The ordinal of the value that follows when a value gets cycled, for every trait
+    private final int[][] cycledOrdinals;
+
+    // The offset of every trait within the transition table of a block state
+    final int[] transitionOffsets;
+
     public LanternBlockStateMap(LanternBlockType blockType, Iterable<BlockTrait<?>> blockTraits) {
         this.blockType = blockType;
 
-        // There are no block traits
-        if (!blockTraits.iterator().hasNext()) {
-            LanternBlockState blockState = new LanternBlockState(this, ImmutableMap.of());
-            blockState.propertyValueTable = ImmutableTable.of();
-            this.blockStates = ImmutableList.of(blockState);
-            this.blockTraits = ImmutableMap.of();
-            this.keys = ImmutableSet.of();
-            return;
-        }
-
         // Convert to a list so it can be sorted
         List<BlockTrait<?>> list = Lists.newArrayList(blockTraits);
 
         // Sort the traits by the name
         Collections.sort(list, (o1, o2) -> o1.getName().compareTo(o2.getName()));
 
+        final int traitCount = list.size();
+        this.traits = list.toArray(new BlockTrait<?>[traitCount]);
+        this.traitIndexes = new TObjectIntHashMap<>(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+        this.keyTraitIndexes = new TObjectIntHashMap<>(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+        this.values = new Comparable<?>[traitCount][];
+        this.valueOrdinals = new TObjectIntMap[traitCount];
+        this.valuesByName = new Map[traitCount];
+        this.valuesById = new Map[traitCount];
+        this.cycledOrdinals = new int[traitCount][];
+        this.transitionOffsets = new int[traitCount];
+
         // The builder for the name to trait lookup
         ImmutableMap.Builder<String, BlockTrait<?>> builder = ImmutableMap.builder();
         ImmutableSet.Builder<Key<?>> keys = ImmutableSet.builder();
 
-        // All the sets with all the allowed values
+        // All the sets with all the allowed values, the ordinal of a value
+        // is its position within the set
         List<Set<Comparable<?>>> allowedValues = Lists.newArrayList();
 
-        for (BlockTrait<?> trait : list) {
-            allowedValues.add(Sets.newHashSet(trait.getPossibleValues()));
-            keys.add(((LanternBlockTrait) trait).getKey());
+        int transitionCount = 0;
+        for (int i = 0; i < traitCount; i++) {
+            final BlockTrait<?> trait = this.traits[i];
+            final Set<Comparable<?>> allowed = ImmutableSet.copyOf(Sets.newHashSet(trait.getPossibleValues()));
+            allowedValues.add(allowed);
+
+            final Comparable<?>[] values = allowed.toArray(new Comparable<?>[allowed.size()]);
+            final TObjectIntMap<Object> ordinals = new TObjectIntHashMap<>(
+                    Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+            final Map<String, Comparable<?>> byName = Maps.newHashMap();
+            final Map<String, Comparable<?>> byId = Maps.newHashMap();
+            for (int j = 0; j < values.length; j++) {
+                ordinals.put(values[j], j);
+                byName.putIfAbsent(values[j].toString(), values[j]);
+                if (values[j] instanceof CatalogType) {
+                    byId.putIfAbsent(((CatalogType) values[j]).getId().toLowerCase(Locale.ENGLISH), values[j]);
+                }
+            }
+
+            this.values[i] = values;
+            this.valueOrdinals[i] = ordinals;
+            this.valuesByName[i] = byName;
+            this.valuesById[i] = byId;
+            this.cycledOrdinals[i] = createCycledOrdinals(trait, values, ordinals);
+            this.transitionOffsets[i] = transitionCount;
+            transitionCount += values.length;
+
+            final Key<?> key = ((LanternBlockTrait) trait).getKey();
+            this.traitIndexes.put(trait, i);
+            this.keyTraitIndexes.put(key, i);
+            keys.add(key);
             builder.put(trait.getName(), trait);
         }
 
@@ -93,38 +151,78 @@ public LanternBlockStateMap(LanternBlockType blockType, Iterable<BlockTrait<?>>
         this.blockTraits = builder.build();
         this.keys = keys.build();
 
-        // A map with as the key the trait values map and as value the state
-        LinkedHashMap<Map<?, ?>, BlockState> stateByValuesMap = Maps.newLinkedHashMap();
+        // The amount of states between two successive values of a trait, the
+        // cartesian product iterates the values of the last trait first
+        final int[] strides = new int[traitCount];
+        int stride = 1;
+        for (int i = traitCount - 1; i >= 0; i--) {
+            strides[i] = stride;
+            stride *= this.values[i].length;
+        }
 
         // The block states
-        ImmutableList.Builder<BlockState> blockStates = ImmutableList.builder();
+        final LanternBlockState[] states = new LanternBlockState[stride];
+        int index = 0;
 
         // Do the cartesian product to get all the possible combinations
         for (List<Comparable<?>> comparables : Sets.cartesianProduct(allowedValues)) {
             Iterator<Comparable<?>> objectsIt = comparables.iterator();
 
             ImmutableMap.Builder<BlockTrait<?>, Comparable<?>> traitValuesBuilder = ImmutableMap.builder();
-            for (BlockTrait<?> trait : list) {
-                traitValuesBuilder.put(trait, objectsIt.next());
+            int[] ordinals = new int[traitCount];
+            for (int i = 0; i < traitCount; i++) {
+                Comparable<?> value = objectsIt.next();
+                traitValuesBuilder.put(this.traits[i], value);
+                ordinals[i] = this.valueOrdinals[i].get(value);
             }
 
-            ImmutableMap<BlockTrait<?>, Comparable<?>> traitValues = traitValuesBuilder.build();
-            LanternBlockState blockState = new LanternBlockState(this, traitValues);
-            stateByValuesMap.put(traitValues, blockState);
-            blockStates.add(blockState);
+            states[index++] = new LanternBlockState(this, traitValuesBuilder.build(), ordinals);
         }
 
-        this.blockStates = blockStates.build();
-        this.blockStates.stream().map(state -> (LanternBlockState) state).forEach(state -> {
-            ImmutableTable.Builder<BlockTrait<?>, Comparable<?>, BlockState> tableBuilder = ImmutableTable.builder();
-            list.forEach(trait -> trait.getPossibleValues().stream().filter(value -> value != state.getTraitValue(trait).get()).forEach(value -> {
-                Map<BlockTrait<?>, Comparable<?>> valueByTrait = Maps.newHashMap();
-                valueByTrait.putAll(state.traitValues);
-                valueByTrait.put(trait, value);
-                tableBuilder.put(trait, value, stateByValuesMap.get(valueByTrait));
-            }));
-            state.propertyValueTable = tableBuilder.build();
-        });
+        // Every state can reach every other state that only differs
+        // in one value, including itself
+        for (int i = 0; i < states.length; i++) {
+            final LanternBlockState state = states[i];
+            final LanternBlockState[] transitions = new LanternBlockState[transitionCount];
+            for (int j = 0; j < traitCount; j++) {
+                final int base = i - state.valueOrdinals[j] * strides[j];
+                for (int k = 0; k < this.values[j].length; k++) {
+                    transitions[this.transitionOffsets[j] + k] = states[base + k * strides[j]];
+                }
+            }
+            state.transitions = transitions;
+        }
+
+        this.blockStates = ImmutableList.copyOf(states);
+    }
+
+    private static int[] createCycledOrdinals(BlockTrait trait, Comparable<?>[] values,
+            TObjectIntMap<Object> ordinals) {
+        final int[] cycled = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof Cycleable) {
+                Object last = value;
+                Object next;
+                while ((next = ((Cycleable) last).cycleNext()) != value) {
+                    if (trait.getPredicate().test(next)) {
+                        value = next;
+                        break;
+                    }
+                    last = next;
+                }
+            } else {
+                Iterator<?> it = trait.getPossibleValues().iterator();
+                while (it.hasNext()) {
+                    if (it.next() == value) {
+                        value = it.hasNext() ? it.next() : trait.getPossibleValues().iterator().next();
+                        break;
+                    }
+                }
+            }
+            cycled[i] = ordinals.get(value);
+        }
+        return cycled;
     }
 
     public LanternBlockType getBlockType() {
@@ -146,4 +244,106 @@ public Optional<BlockTrait<?>> getTrait(String name) {
         return Optional.empty();
     }
 
+    /**
+     * Gets the amount of traits of the block states.
+     *
+     * @return the trait count
+     */
+    public int getTraitCount() {
+        return this.traits.length;
+    }
+
+    /**
+     * Gets the trait for the specified trait index.
+     *
+     * @param traitIndex the trait index
+     * @return the block trait
+     */
+    public BlockTrait<?> getTrait(int traitIndex) {
+        return this.traits[traitIndex];
+    }
+
+    /**
+     * Gets the index of the specified trait, the traits are indexed
+     * by the order of their names. Will return {@code -1} if the
+     * trait isn't supported.
+     *
+     * @param blockTrait the block trait
+     * @return the trait index
+     */
+    public int getTraitIndex(BlockTrait<?> blockTrait) {
+        return this.traitIndexes.get(checkNotNull(blockTrait, "blockTrait"));
+    }
+
+    /**
+     * Gets the index of the trait that is bound to the specified key. Will
+     * return {@code -1} if there is no trait for the key.
+     *
+     * @param key the key
+     * @return the trait index
+     */
+    public int getTraitIndex(Key<?> key) {
+        return this.keyTraitIndexes.get(checkNotNull(key, "key"));
+    }
+
+    /**
+     * Gets the amount of possible values of the trait at the specified index.
+     *
+     * @param traitIndex the trait index
+     * @return the value count
+     */
+    public int getValueCount(int traitIndex) {
+        return this.values[traitIndex].length;
+    }
+
+    /**
+     * Gets the value for the specified ordinal of the trait at the specified index.
+     *
+     * @param traitIndex the trait index
+     * @param valueOrdinal the value ordinal
+     * @return the value
+     */
+    public Comparable<?> getValue(int traitIndex, int valueOrdinal) {
+        return this.values[traitIndex][valueOrdinal];
+    }
+
+    /**
+     * Gets the ordinal of the value for the trait at the specified index. A string
+     * will also be matched against the names of the values and the identifiers of
+     * catalog values. Will return {@code -1} if the value isn't supported.
+     *
+     * @param traitIndex the trait index
+     * @param value the value
+     * @return the value ordinal
+     */
+    public int getValueOrdinal(int traitIndex, @Nullable Object value) {
+        if (value == null) {
+            return -1;
+        }
+        int ordinal = this.valueOrdinals[traitIndex].get(value);
+        if (ordinal == -1 && value instanceof String) {
+            // An exact match of the name takes priority over the catalog id
+            Comparable<?> value0 = this.valuesByName[traitIndex].get(value);
+            if (value0 == null) {
+                value0 = this.valuesById[traitIndex].get(((String) value).toLowerCase(Locale.ENGLISH));
+            }
+            if (value0 != null) {
+                ordinal = this.valueOrdinals[traitIndex].get(value0);
+            }
+        }
+        return ordinal;
+    }
+
+    /**
+     * Gets the ordinal of the value that follows the specified value when it gets
+     * cycled for the trait at the specified index.
+     *
+     * @param traitIndex the trait index
+     * @param valueOrdinal the value ordinal
+     * @return the cycled value ordinal
+     */
+    public int getCycledValueOrdinal(int traitIndex, int valueOrdinal) {
+        return this.cycledOrdinals[traitIndex][valueOrdinal];
+    }
+
 }
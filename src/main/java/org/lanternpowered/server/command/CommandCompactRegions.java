@@ -0,0 +1,85 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.command;
+
+import static org.lanternpowered.server.text.translation.TranslationHelper.t;
+
+import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.world.LanternWorld;
+import org.spongepowered.api.command.CommandException;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.args.GenericArguments;
+import org.spongepowered.api.command.source.LocatedSource;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.storage.WorldProperties;
+
+public final class CommandCompactRegions {
+
+    public static final String PERMISSION = "lantern.command.compactregions";
+
+    public static CommandSpec create() {
+        return CommandSpec.builder()
+                .arguments(
+                        GenericArguments.optional(GenericArguments.world(Text.of("world"))))
+                .permission(PERMISSION)
+                .description(t("commands.compactregions.description"))
+                .executor((src, args) -> {
+                    WorldProperties worldProperties;
+                    if (args.hasAny("world")) {
+                        worldProperties = args.<WorldProperties>getOne("world").get();
+                    } else if (src instanceof LocatedSource) {
+                        worldProperties = ((LocatedSource) src).getWorld().getProperties();
+                    } else {
+                        worldProperties = LanternGame.get().getServer().getDefaultWorld().orElse(null);
+                        if (worldProperties == null) {
+                            // Shouldn't happen
+                            throw new CommandException(t("Unable to find the default world."));
+                        }
+                    }
+                    final World world = LanternGame.get().getServer().getWorld(worldProperties.getUniqueId()).orElse(null);
+                    if (world == null) {
+                        throw new CommandException(t("commands.compactregions.notLoaded", worldProperties.getWorldName()));
+                    }
+                    src.sendMessage(t("commands.compactregions.started", world.getName()));
+                    // Compact all the regions that contain unused space
+                    ((LanternWorld) world).getChunkManager().compactRegions(0.0).whenComplete((reclaimed, e) -> {
+                        if (e != null) {
+                            LanternGame.log().error("Failed to compact the regions of " + world.getName(), e);
+                            src.sendMessage(t("commands.compactregions.failed", world.getName()));
+                        } else {
+                            src.sendMessage(t("commands.compactregions.success", world.getName(), reclaimed / 1024));
+                        }
+                    });
+                    return CommandResult.success();
+                })
+                .build();
+    }
+
+    private CommandCompactRegions() {
+    }
+
+}
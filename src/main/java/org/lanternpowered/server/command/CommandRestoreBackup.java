@@ -0,0 +1,80 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.command;
+
+import static org.lanternpowered.server.text.translation.TranslationHelper.t;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import org.lanternpowered.server.game.LanternGame;
+import org.spongepowered.api.command.CommandException;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.args.GenericArguments;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.world.storage.WorldProperties;
+
+public final class CommandRestoreBackup {
+
+    public static final String PERMISSION = "lantern.command.restorebackup";
+
+    public static CommandSpec create() {
+        return CommandSpec.builder()
+                .arguments(
+                        GenericArguments.world(Text.of("world")),
+                        GenericArguments.string(Text.of("backup")))
+                .permission(PERMISSION)
+                .description(t("commands.restorebackup.description"))
+                .executor((src, args) -> {
+                    final WorldProperties worldProperties = args.<WorldProperties>getOne("world").get();
+                    final String worldName = worldProperties.getWorldName();
+                    final String backup = args.<String>getOne("backup").get();
+                    if (LanternGame.get().getServer().getWorld(worldProperties.getUniqueId()).isPresent()) {
+                        throw new CommandException(t("commands.restorebackup.loaded", worldName));
+                    }
+                    src.sendMessage(t("commands.restorebackup.started", worldName, backup));
+                    Futures.addCallback(LanternGame.get().getServer().getWorldManager().restoreWorld(worldProperties, backup),
+                            new FutureCallback<Boolean>() {
+                                @Override
+                                public void onSuccess(Boolean result) {
+                                    src.sendMessage(t(result ? "commands.restorebackup.success" : "commands.restorebackup.failed",
+                                            worldName, backup));
+                                }
+
+                                @Override
+                                public void onFailure(Throwable e) {
+                                    LanternGame.log().error("Failed to restore the world " + worldName + " from " + backup, e);
+                                    src.sendMessage(t("commands.restorebackup.failed", worldName, backup));
+                                }
+                            });
+                    return CommandResult.success();
+                })
+                .build();
+    }
+
+    private CommandRestoreBackup() {
+    }
+
+}
@@ -32,6 +32,7 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.command.CommandCallable;
@@ -82,6 +83,10 @@ public class LanternCommandManager implements CommandManager {
     private final Multimap<PluginContainer, CommandMapping> owners = HashMultimap.create();
     private final Object lock = new Object();
 
+    // The commands that are safe to be executed outside the main thread
+    private final Set<CommandCallable> asyncCallables = Sets.newConcurrentHashSet();
+    private final Set<String> asyncAliases = Sets.newConcurrentHashSet();
+
     /**
      * Construct a simple {@link CommandManager}.
      *
@@ -239,6 +244,42 @@ public boolean containsMapping(CommandMapping mapping) {
         return this.dispatcher.containsMapping(mapping);
     }
 
+    /**
+     * Marks the {@link CommandCallable} as safe to be executed outside the main thread.
+     *
+     * @param callable the command callable
+     */
+    public void markAsync(CommandCallable callable) {
+        this.asyncCallables.add(checkNotNull(callable, "callable"));
+    }
+
+    /**
+     * Marks the command with the specified alias as safe to be
+     * executed outside the main thread.
+     *
+     * @param alias the alias
+     */
+    public void markAsync(String alias) {
+        this.asyncAliases.add(checkNotNull(alias, "alias").toLowerCase());
+    }
+
+    /**
+     * Gets whether the command line may be processed outside the main thread.
+     *
+     * @param source the source that will execute the command
+     * @param commandLine the command line
+     * @return whether the command line can be processed asynchronously
+     */
+    public boolean isAsync(CommandSource source, String commandLine) {
+        String alias = commandLine.split(" ", 2)[0];
+        if (alias.startsWith("/")) {
+            alias = alias.substring(1);
+        }
+        final Optional<? extends CommandMapping> mapping = this.dispatcher.get(alias, source);
+        return mapping.isPresent() && (this.asyncCallables.contains(mapping.get().getCallable()) ||
+                this.asyncAliases.contains(alias.toLowerCase()) || this.asyncAliases.contains(mapping.get().getPrimaryAlias()));
+    }
+
     @Override
     public CommandResult process(CommandSource source, String commandLine) {
         final String[] argSplit = commandLine.split(" ", 2);
@@ -0,0 +1,99 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.config;
+
+import com.google.common.collect.Maps;
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.scheduler.AsyncTaskExecutor;
+
+import java.util.Map;
+
+@ConfigSerializable
+public final class AsyncTaskExecution {
+
+    @ConfigSerializable
+    public static final class PluginQuota {
+
+        @Setting(value = "max-concurrent-tasks", comment =
+                "The maximum amount of async tasks of the plugin that may run at the same time.")
+        private int maxConcurrentTasks = 4;
+
+        @Setting(value = "max-queued-tasks", comment =
+                "The maximum amount of async tasks of the plugin that may wait until they\n" +
+                "can run, tasks that are submitted beyond this limit will be rejected.")
+        private int maxQueuedTasks = 10000;
+
+        AsyncTaskExecutor.Quota toQuota() {
+            return new AsyncTaskExecutor.Quota(Math.max(1, this.maxConcurrentTasks), Math.max(0, this.maxQueuedTasks));
+        }
+    }
+
+    @Setting(value = "threads", comment =
+            "The amount of threads that execute the async tasks of the server and\n" +
+            "the plugins, 0 to use the amount of available processors.")
+    private int threads = 0;
+
+    @Setting(value = "virtual-threads", comment =
+            "Whether the async tasks should be executed by virtual threads, this\n" +
+            "is only used if virtual threads are supported by the runtime.")
+    private boolean virtualThreads = false;
+
+    @Setting(value = "blocking-tasks", comment =
+            "The maximum amount of blocking tasks (file or network access) of a plugin\n" +
+            "that may run at the same time, extra threads are added to the pool while\n" +
+            "these tasks are blocking so they don't stall the other async tasks.")
+    private int blockingTasks = 16;
+
+    @Setting(value = "default-quota", comment = "The default limits of the async tasks of every plugin.")
+    private PluginQuota defaultQuota = new PluginQuota();
+
+    @Setting(value = "plugin-quotas", comment = "The limits of the async tasks of specific plugins, mapped by plugin id.")
+    private Map<String, PluginQuota> pluginQuotas = Maps.newHashMap();
+
+    /**
+     * Creates the async task executor with the current settings.
+     *
+     * @return the async task executor
+     */
+    public AsyncTaskExecutor createExecutor() {
+        final int threads = this.threads <= 0 ? Runtime.getRuntime().availableProcessors() : this.threads;
+        final AsyncTaskExecutor.Quota defaultQuota = this.defaultQuota.toQuota();
+        final Map<String, AsyncTaskExecutor.Quota> pluginQuotas = Maps.newHashMap(Maps.transformValues(
+                this.pluginQuotas, PluginQuota::toQuota));
+        return new AsyncTaskExecutor(threads, Math.max(1, this.blockingTasks), this.virtualThreads, id -> {
+            final AsyncTaskExecutor.Quota quota = pluginQuotas.get(id);
+            if (quota != null) {
+                return quota;
+            }
+            // The tasks of the server itself are only limited by the pool
+            if (id.equals(LanternGame.IMPL_ID) || id.equals(LanternGame.MINECRAFT_ID) || id.equals(LanternGame.API_ID)) {
+                return AsyncTaskExecutor.Quota.UNLIMITED;
+            }
+            return defaultQuota;
+        });
+    }
+}
@@ -29,6 +29,7 @@
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import ninja.leaping.configurate.objectmapping.Setting;
 import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
@@ -62,18 +63,42 @@ public GlobalConfig(Path path) throws IOException {
     @Setting(value = "commands")
     private Commands commands = new Commands();
 
+    @Setting(value = "chat", comment = "Configuration for the chat.")
+    private Chat chat = new Chat();
+
     @Setting(value = "rcon", comment = "Configuration for the rcon server.")
     private Rcon rcon = new Rcon();
 
     @Setting(value = "query", comment = "Configuration for the query server.")
     private Query query = new Query();
 
+    @Setting(value = "async-tasks", comment = "Configuration for the execution of async tasks.")
+    private AsyncTaskExecution asyncTasks = new AsyncTaskExecution();
+
+    @Setting(value = "networking", comment = "Configuration for the network transport.")
+    private Networking networking = new Networking();
+
     @ConfigSerializable
     public static class Commands {
 
         @Setting(value = "aliases", comment = "A mapping from unqualified command alias to plugin id"
                 + " of the plugin that should handle a certain command")
         private Map<String, String> aliases = Maps.newHashMap();
+
+        @Setting(value = "async", comment =
+                "The aliases of the commands that are safe to be executed outside\n " +
+                "the main thread when they are used by players.")
+        private List<String> async = Lists.newArrayList("help", "version");
+    }
+
+    @ConfigSerializable
+    private static final class Chat {
+
+        @Setting(value = "async", comment =
+                "Whether the chat messages should be processed outside the main\n " +
+                "thread, the chat events will be called asynchronously if enabled.\n " +
+                "Plugins that handle chat events must be thread safe to enable this.")
+        private boolean async = false;
     }
 
     @ConfigSerializable
@@ -163,10 +188,26 @@ private static final class World {
         private String worldFolder = "world";
     }
 
+    public AsyncTaskExecution getAsyncTaskExecution() {
+        return this.asyncTasks;
+    }
+
+    public Networking getNetworking() {
+        return this.networking;
+    }
+
     public Map<String, String> getCommandAliases() {
         return this.commands.aliases;
     }
 
+    public List<String> getAsyncCommands() {
+        return this.commands.async;
+    }
+
+    public boolean isAsyncChat() {
+        return this.chat.async;
+    }
+
     public Map<String, Predicate<InetAddress>> getIpSets() {
         return ImmutableMap.copyOf(Maps.transformValues(this.server.ipSets, Predicates::and));
     }
@@ -0,0 +1,156 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+import org.lanternpowered.server.network.protocol.ProtocolState;
+
+@ConfigSerializable
+public final class Networking {
+
+    @ConfigSerializable
+    public static final class MaxFrameSizes {
+
+        @Setting(value = "handshake", comment =
+                "The maximum frame size in the handshake state, this is large enough\n" +
+                "for proxies that forward the player data through the handshake.")
+        private int handshake = 32 * 1024;
+
+        @Setting(value = "status", comment = "The maximum frame size in the status (ping) state.")
+        private int status = 1024;
+
+        @Setting(value = "login", comment = "The maximum frame size in the login state.")
+        private int login = 32 * 1024;
+
+        @Setting(value = "forge-handshake", comment = "The maximum frame size in the forge handshake state.")
+        private int forgeHandshake = 2097151;
+
+        @Setting(value = "play", comment =
+                "The maximum frame size in the play state, this defaults to the maximum\n" +
+                "size that the vanilla protocol allows.")
+        private int play = 2097151;
+    }
+
+    @Setting(value = "native-transport", comment =
+            "Whether the native epoll transport should be used if it's available,\n" +
+            "the server will fall back to the nio transport otherwise.")
+    private boolean nativeTransport = true;
+
+    @Setting(value = "thread-name-prefix", comment =
+            "The prefix of the names of the network threads, the threads are named\n" +
+            "<prefix>-boss-<n> and <prefix>-worker-<n> so that they can be pinned\n" +
+            "to specific processors by name.")
+    private String threadNamePrefix = "netty";
+
+    @Setting(value = "boss-threads", comment =
+            "The amount of threads that accept the incoming connections.")
+    private int bossThreads = 1;
+
+    @Setting(value = "worker-threads", comment =
+            "The amount of threads that handle the connections, 0 to use twice\n" +
+            "the amount of available processors.")
+    private int workerThreads = 0;
+
+    @Setting(value = "reuse-port-acceptors", comment =
+            "The amount of channels that accept connections on the server port, values\n" +
+            "above 1 bind multiple channels with SO_REUSEPORT so that the accepting is\n" +
+            "spread over multiple boss threads. This requires the native transport.")
+    private int reusePortAcceptors = 1;
+
+    @Setting(value = "receive-buffer-size", comment =
+            "The size of the socket receive buffer of every connection, 0 to use the\n" +
+            "default of the operating system.")
+    private int receiveBufferSize = 0;
+
+    @Setting(value = "send-buffer-size", comment =
+            "The size of the socket send buffer of every connection, 0 to use the\n" +
+            "default of the operating system.")
+    private int sendBufferSize = 0;
+
+    @Setting(value = "write-buffer-low-water-mark", comment =
+            "The amount of queued outbound bytes below which a connection becomes writable again.")
+    private int writeBufferLowWaterMark = 32 * 1024;
+
+    @Setting(value = "write-buffer-high-water-mark", comment =
+            "The amount of queued outbound bytes above which a connection stops being writable.")
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    @Setting(value = "max-frame-sizes", comment =
+            "The maximum size in bytes of a (compressed) frame that a client may send\n" +
+            "in each protocol state, clients that exceed it will be disconnected.")
+    private MaxFrameSizes maxFrameSizes = new MaxFrameSizes();
+
+    public boolean isNativeTransport() {
+        return this.nativeTransport;
+    }
+
+    public String getThreadNamePrefix() {
+        return this.threadNamePrefix;
+    }
+
+    public int getBossThreads() {
+        return Math.max(1, this.bossThreads);
+    }
+
+    public int getWorkerThreads() {
+        return Math.max(0, this.workerThreads);
+    }
+
+    public int getReusePortAcceptors() {
+        return Math.max(1, this.reusePortAcceptors);
+    }
+
+    public int getReceiveBufferSize() {
+        return this.receiveBufferSize;
+    }
+
+    public int getSendBufferSize() {
+        return this.sendBufferSize;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return this.writeBufferLowWaterMark;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return Math.max(this.writeBufferLowWaterMark, this.writeBufferHighWaterMark);
+    }
+
+    public int getMaxFrameSize(ProtocolState state) {
+        switch (state) {
+            case HANDSHAKE:
+                return this.maxFrameSizes.handshake;
+            case STATUS:
+                return this.maxFrameSizes.status;
+            case LOGIN:
+                return this.maxFrameSizes.login;
+            case FORGE_HANDSHAKE:
+                return this.maxFrameSizes.forgeHandshake;
+            default:
+                return this.maxFrameSizes.play;
+        }
+    }
+}
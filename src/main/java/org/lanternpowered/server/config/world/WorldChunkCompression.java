@@ -0,0 +1,66 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.config.world;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public final class WorldChunkCompression {
+
+    @Setting(value = "type", comment =
+            "The compression that is used to store chunks in the region files, the\n" +
+            "following types are supported:\n" +
+            " - deflate: the default zlib compression\n" +
+            " - deflate-dictionary: zlib with a preset dictionary, produces smaller\n" +
+            "   chunks but cannot be read by the vanilla server\n" +
+            " - gzip: the legacy gzip compression\n" +
+            " - none: no compression, faster but uses more disk space\n" +
+            "Changing the type only affects chunks that are saved afterwards, existing\n" +
+            "chunks can still be read.")
+    private String type = "deflate";
+
+    @Setting(value = "level", comment =
+            "The compression level of the deflate types, between 1 (fastest)\n" +
+            "and 9 (smallest).")
+    private int level = 1;
+
+    public String getType() {
+        return this.type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getLevel() {
+        return Math.max(1, Math.min(9, this.level));
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+}
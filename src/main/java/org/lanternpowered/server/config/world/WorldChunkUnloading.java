@@ -0,0 +1,61 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.config.world;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public final class WorldChunkUnloading {
+
+    @Setting(value = "unload-delay", comment =
+            "The amount of ticks that a chunk without loading tickets stays loaded\n" +
+            "before it gets unloaded, this prevents that chunks are constantly\n" +
+            "unloaded and loaded again when players move back and forth.")
+    private int unloadDelay = 300;
+
+    @Setting(value = "cache-size", comment =
+            "The maximum amount of memory in megabytes that may be used to keep\n" +
+            "recently unloaded chunks in memory, these chunks can be loaded again\n" +
+            "without reading them from the disk.")
+    private int cacheSize = 32;
+
+    public int getUnloadDelay() {
+        return Math.max(0, this.unloadDelay);
+    }
+
+    public void setUnloadDelay(int unloadDelay) {
+        this.unloadDelay = unloadDelay;
+    }
+
+    public int getCacheSize() {
+        return Math.max(0, this.cacheSize);
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+}
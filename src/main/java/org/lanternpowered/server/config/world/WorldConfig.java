@@ -80,6 +80,15 @@ public class WorldConfig extends ConfigBase implements ChunkLoadingConfig {
     @Setting(value = "game-mode", comment = "The game mode settings of this world.")
     private WorldGameMode gameMode = new WorldGameMode();
 
+    @Setting(value = "chunk-unloading", comment = "The chunk unloading settings of this world.")
+    private WorldChunkUnloading chunkUnloading = new WorldChunkUnloading();
+
+    @Setting(value = "region-compaction", comment = "The region file compaction settings of this world.")
+    private WorldRegionCompaction regionCompaction = new WorldRegionCompaction();
+
+    @Setting(value = "chunk-compression", comment = "The chunk compression settings of this world.")
+    private WorldChunkCompression chunkCompression = new WorldChunkCompression();
+
     @ConfigSerializable
     private static class WorldGameMode {
 
@@ -125,6 +134,18 @@ public WorldGeneration getGeneration() {
         return this.generation;
     }
 
+    public WorldChunkUnloading getChunkUnloading() {
+        return this.chunkUnloading;
+    }
+
+    public WorldRegionCompaction getRegionCompaction() {
+        return this.regionCompaction;
+    }
+
+    public WorldChunkCompression getChunkCompression() {
+        return this.chunkCompression;
+    }
+
     public Difficulty getDifficulty() {
         return this.difficulty;
     }
@@ -24,9 +24,13 @@
  */
 package org.lanternpowered.server.data;
 
+import org.lanternpowered.server.block.LanternBlockType;
+import org.lanternpowered.server.block.state.LanternBlockState;
 import org.lanternpowered.server.data.property.LanternPropertyRegistry;
 import org.lanternpowered.server.data.property.block.MatterPropertyStore;
 import org.spongepowered.api.Game;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.property.PropertyRegistry;
 import org.spongepowered.api.data.property.block.MatterProperty;
 
@@ -39,5 +43,12 @@ public static void setupRegistrations(Game game) {
 
     public static void finalizeRegistrations(Game game) {
         LanternPropertyRegistry.getInstance().completeRegistration();
+        // Bake the properties of all the block states that are known at this point,
+        // the states of block types that are registered later will be baked lazily
+        for (BlockType blockType : game.getRegistry().getAllOf(BlockType.class)) {
+            for (BlockState blockState : ((LanternBlockType) blockType).getBlockStateBase().getBlockStates()) {
+                ((LanternBlockState) blockState).bakeProperties();
+            }
+        }
     }
 }
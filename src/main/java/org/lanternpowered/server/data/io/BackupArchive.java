@@ -0,0 +1,252 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * The archive format of the world backups. An archive contains the raw data of
+ * the chunks of a {@link ChunkStorageSnapshot} and the other files of the world
+ * folder. An incremental archive only contains the chunks that changed since its
+ * base archive, so restoring it requires all the archives up to the full one.
+ *
+ * <p>The chunk data is stored as it was compressed in the region files, so no
+ * additional compression is applied to the archive.</p>
+ */
+public final class BackupArchive {
+
+    /**
+     * The file extension of backup archives.
+     */
+    public static final String EXTENSION = ".lbk";
+
+    private static final int MAGIC = 0x4c424b50; // LBKP
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte ENTRY_END = 0;
+    private static final byte ENTRY_CHUNK = 1;
+    private static final byte ENTRY_FILE = 2;
+
+    /**
+     * The header of a backup archive.
+     */
+    public static final class Header {
+
+        private final long creationTime;
+        private final int snapshotTime;
+        @Nullable private final String base;
+
+        private Header(long creationTime, int snapshotTime, @Nullable String base) {
+            this.creationTime = creationTime;
+            this.snapshotTime = snapshotTime;
+            this.base = base;
+        }
+
+        /**
+         * Gets the time at which the archive was created, in milliseconds.
+         *
+         * @return the creation time
+         */
+        public long getCreationTime() {
+            return this.creationTime;
+        }
+
+        /**
+         * Gets the time at which the chunk snapshot was created, in seconds. This is
+         * the minimum timestamp of the chunks in the next incremental archive.
+         *
+         * @return the snapshot time
+         */
+        public int getSnapshotTime() {
+            return this.snapshotTime;
+        }
+
+        /**
+         * Gets the file name of the archive that this archive is based on,
+         * if this archive is incremental.
+         *
+         * @return the base archive
+         */
+        public Optional<String> getBase() {
+            return Optional.ofNullable(this.base);
+        }
+    }
+
+    /**
+     * Writes a new backup archive. The archive is first written to a temporary file
+     * which is moved to the target path once it's complete.
+     *
+     * @param archive the path of the archive
+     * @param base the file name of the base archive, or null for a full archive
+     * @param snapshot the chunk snapshot
+     * @param folder the world folder that contains the files
+     * @param files the other files that should be included, relative to the folder
+     * @return the amount of chunks that were written
+     * @throws IOException if an i/o error occurs
+     */
+    public static int write(Path archive, @Nullable String base, ChunkStorageSnapshot snapshot, Path folder,
+            Collection<Path> files) throws IOException {
+        checkNotNull(archive, "archive");
+        checkNotNull(snapshot, "snapshot");
+        checkNotNull(folder, "folder");
+        checkNotNull(files, "files");
+        checkArgument(base == null || !base.equals(archive.getFileName().toString()),
+                "The archive %s cannot be based on itself", archive);
+        final Path tempFile = archive.resolveSibling(archive.getFileName() + ".tmp");
+        final int[] count = new int[1];
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            dos.writeInt(MAGIC);
+            dos.writeByte(FORMAT_VERSION);
+            dos.writeLong(System.currentTimeMillis());
+            dos.writeInt(snapshot.getTime());
+            dos.writeUTF(base == null ? "" : base);
+            snapshot.forEach((x, z, timestamp, data) -> {
+                dos.writeByte(ENTRY_CHUNK);
+                dos.writeInt(x);
+                dos.writeInt(z);
+                dos.writeInt(timestamp);
+                dos.writeInt(data.length);
+                dos.write(data);
+                count[0]++;
+            });
+            for (Path file : files) {
+                final byte[] data = Files.readAllBytes(folder.resolve(file));
+                dos.writeByte(ENTRY_FILE);
+                // Always use the same separator, independent of the platform
+                dos.writeUTF(file.toString().replace(file.getFileSystem().getSeparator(), "/"));
+                dos.writeInt(data.length);
+                dos.write(data);
+            }
+            dos.writeByte(ENTRY_END);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count[0];
+    }
+
+    /**
+     * Reads the header of the backup archive.
+     *
+     * @param archive the path of the archive
+     * @return the header
+     * @throws IOException if the archive is invalid or an i/o error occurs
+     */
+    public static Header readHeader(Path archive) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(archive)))) {
+            return readHeader(archive, dis);
+        }
+    }
+
+    private static Header readHeader(Path archive, DataInputStream dis) throws IOException {
+        if (dis.readInt() != MAGIC) {
+            throw new IOException("Not a backup archive: " + archive);
+        }
+        final byte version = dis.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported backup archive version " + version + ": " + archive);
+        }
+        final long creationTime = dis.readLong();
+        final int snapshotTime = dis.readInt();
+        final String base = dis.readUTF();
+        return new Header(creationTime, snapshotTime, base.isEmpty() ? null : base);
+    }
+
+    /**
+     * Restores the content of the backup archive, the chunks are written to the
+     * chunk io service and the other files to the folder. This only restores the
+     * content of this archive, the base archives must be restored first.
+     *
+     * @param archive the path of the archive
+     * @param target the chunk io service to write the chunks to
+     * @param folder the folder to write the other files to
+     * @return the amount of chunks that were restored
+     * @throws IOException if the archive is invalid or an i/o error occurs
+     */
+    public static int restore(Path archive, ChunkIOService target, Path folder) throws IOException {
+        checkNotNull(archive, "archive");
+        checkNotNull(target, "target");
+        checkNotNull(folder, "folder");
+        int count = 0;
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(archive)))) {
+            readHeader(archive, dis);
+            while (true) {
+                final byte type = dis.readByte();
+                if (type == ENTRY_END) {
+                    break;
+                } else if (type == ENTRY_CHUNK) {
+                    final int x = dis.readInt();
+                    final int z = dis.readInt();
+                    final int timestamp = dis.readInt();
+                    target.writeRaw(x, z, timestamp, readData(dis));
+                    count++;
+                } else if (type == ENTRY_FILE) {
+                    final String name = dis.readUTF();
+                    final Path path = folder.resolve(name).normalize();
+                    if (!path.startsWith(folder.normalize())) {
+                        throw new IOException("Invalid file entry " + name + " in " + archive);
+                    }
+                    final byte[] data = readData(dis);
+                    Files.createDirectories(path.getParent());
+                    Files.write(path, data);
+                } else {
+                    throw new IOException("Invalid entry type " + type + " in " + archive);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Unexpected end of the backup archive " + archive, e);
+        }
+        return count;
+    }
+
+    private static byte[] readData(DataInputStream dis) throws IOException {
+        final int length = dis.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid entry length: " + length);
+        }
+        final byte[] data = new byte[length];
+        dis.readFully(data);
+        return data;
+    }
+
+    private BackupArchive() {
+    }
+}
@@ -29,6 +29,7 @@
 import org.spongepowered.api.world.storage.WorldStorage;
 
 import java.io.IOException;
+import java.util.function.LongPredicate;
 
 @NonnullByDefault
 public interface ChunkIOService extends WorldStorage {
@@ -42,6 +43,17 @@ public interface ChunkIOService extends WorldStorage {
      */
     boolean read(LanternChunk chunk) throws IOException;
 
+    /**
+     * Gets whether the data of the chunk at the
+     * specified coordinates exists.
+     * 
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return whether the chunk exists
+     * @throws IOException if an i/o error occurs
+     */
+    boolean exists(int x, int z) throws IOException;
+
     /**
      * Writes a single chunk.
      * 
@@ -50,6 +62,44 @@ public interface ChunkIOService extends WorldStorage {
      */
     void write(LanternChunk chunk) throws IOException;
 
+    /**
+     * Compacts the stored chunk data to reclaim the space that is no longer
+     * used. Storage that is shared with chunks which are in use is skipped.
+     *
+     * @param inUse the predicate that tests whether the chunk with the
+     *     key is in use, see {@link LanternChunk#key(int, int)}
+     * @param minFragmentation the minimum fraction of unused space before
+     *     the storage will be compacted, between 0 and 1
+     * @return the amount of reclaimed bytes
+     * @throws IOException if an i/o error occurs
+     */
+    long compact(LongPredicate inUse, double minFragmentation) throws IOException;
+
+    /**
+     * Creates a {@link ChunkStorageSnapshot} of all the chunks that were written
+     * at or after the specified timestamp. The chunks that are written while the
+     * snapshot is being created may also be included in the next snapshot that
+     * uses {@link ChunkStorageSnapshot#getTime()} as minimum timestamp. Only one
+     * snapshot can be open at the same time.
+     *
+     * @param minTimestamp the minimum timestamp of the chunks, in seconds
+     * @return the snapshot
+     * @throws IOException if an i/o error occurs
+     */
+    ChunkStorageSnapshot snapshot(int minTimestamp) throws IOException;
+
+    /**
+     * Writes the raw data of a single chunk that was visited
+     * through a {@link ChunkStorageSnapshot}.
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @param timestamp the time at which the chunk was written, in seconds
+     * @param data the raw chunk data
+     * @throws IOException if an i/o error occurs
+     */
+    void writeRaw(int x, int z, int timestamp, byte[] data) throws IOException;
+
     /**
      * Unload the service, performing any cleanup necessary.
      * 
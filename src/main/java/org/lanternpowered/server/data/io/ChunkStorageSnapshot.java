@@ -0,0 +1,75 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A consistent snapshot of the stored chunks of a {@link ChunkIOService}, the
+ * chunks that are written while the snapshot is open don't affect its content.
+ * The snapshot must be closed to release the storage that it references.
+ */
+public interface ChunkStorageSnapshot extends Closeable {
+
+    /**
+     * Gets the time at which the snapshot was created, in seconds. This time can
+     * be used as minimum timestamp of the next snapshot to get all the chunks that
+     * were written in the meantime.
+     *
+     * @return the time
+     */
+    int getTime();
+
+    /**
+     * Visits the raw data of all the chunks in this snapshot.
+     *
+     * @param visitor the visitor
+     * @throws IOException if an i/o error occurs
+     */
+    void forEach(Visitor visitor) throws IOException;
+
+    /**
+     * Releases the snapshot.
+     *
+     * @throws IOException if an i/o error occurs
+     */
+    @Override
+    void close() throws IOException;
+
+    interface Visitor {
+
+        /**
+         * Visits the raw data of a chunk.
+         *
+         * @param x the x coordinate of the chunk
+         * @param z the z coordinate of the chunk
+         * @param timestamp the time at which the chunk was written, in seconds
+         * @param data the raw chunk data
+         * @throws IOException if an i/o error occurs
+         */
+        void visit(int x, int z, int timestamp, byte[] data) throws IOException;
+    }
+}
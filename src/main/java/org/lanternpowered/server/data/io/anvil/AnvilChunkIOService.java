@@ -24,16 +24,18 @@
  */
 package org.lanternpowered.server.data.io.anvil;
 
+import static com.google.common.base.Preconditions.checkState;
 import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_FILE_PATTERN;
 
+import com.flowpowered.math.vector.Vector2i;
 import com.flowpowered.math.vector.Vector3i;
-import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.lanternpowered.server.data.io.ChunkIOService;
+import org.lanternpowered.server.data.io.ChunkStorageSnapshot;
 import org.lanternpowered.server.data.persistence.nbt.NbtDataContainerInputStream;
-import org.lanternpowered.server.data.persistence.nbt.NbtDataContainerOutputStream;
+import org.lanternpowered.server.data.persistence.nbt.NbtStreamWriter;
 import org.lanternpowered.server.game.LanternGame;
 import org.lanternpowered.server.util.NibbleArray;
 import org.lanternpowered.server.world.chunk.LanternChunk;
@@ -41,7 +43,6 @@
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.data.DataQuery;
 import org.spongepowered.api.data.DataView;
-import org.spongepowered.api.data.MemoryDataContainer;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 import org.spongepowered.api.world.storage.ChunkDataStream;
 import org.spongepowered.api.world.storage.WorldProperties;
@@ -49,10 +50,13 @@
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
 import java.util.regex.Matcher;
 
 import javax.annotation.Nullable;
@@ -83,19 +87,55 @@ public class AnvilChunkIOService implements ChunkIOService {
     private static final DataQuery HEIGHT_MAP = DataQuery.of("HeightMap");  // int array
     private static final DataQuery LAST_UPDATE = DataQuery.of("LastUpdate"); // long
 
-    private final ListeningExecutorService service = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    // The buffers that are reused by the chunk writes of each thread
+    private static final ThreadLocal<ChunkWriteBuffers> writeBuffers = ThreadLocal.withInitial(ChunkWriteBuffers::new);
+
+    private static final class ChunkWriteBuffers {
+
+        // The initial size of the nbt buffer, enough for most chunks
+        private static final int INITIAL_SIZE = 64 * 1024;
+
+        // Buffers that grew larger than this are replaced after use
+        private static final int MAX_SIZE = 512 * 1024;
+
+        // The encoded nbt data of the chunk
+        private NbtStreamWriter writer = new NbtStreamWriter(INITIAL_SIZE);
+
+        // The block types of a single section
+        private final short[] types = new short[LanternChunk.CHUNK_SECTION_VOLUME];
+
+        // The packed light values of a single section
+        private final byte[] nibbles = new byte[LanternChunk.CHUNK_SECTION_VOLUME >> 1];
+
+        private void trim() {
+            if (this.writer.getBuffer().length > MAX_SIZE) {
+                this.writer = new NbtStreamWriter(INITIAL_SIZE);
+            }
+        }
+    }
+
+    // The executor for the async chunk lookups, created lazily on the shared async executor
+    @Nullable private volatile ListeningExecutorService service;
     private final WorldProperties properties;
     private final RegionFileCache cache;
     private final File dir;
 
+    // Whether a snapshot is currently open
+    private final AtomicBoolean snapshotOpen = new AtomicBoolean();
+
     // TODO: Consider the session.lock file
 
     public AnvilChunkIOService(File dir, WorldProperties properties) {
-        this.cache = new RegionFileCache(dir, ".mca");
+        this(dir, properties, ChunkCompressions.DEFLATE);
+    }
+
+    public AnvilChunkIOService(File dir, WorldProperties properties, ChunkCompression compression) {
+        this.cache = new RegionFileCache(dir, ".mca", compression);
         this.properties = properties;
         this.dir = dir;
     }
 
+    @Override
     public boolean exists(int x, int z) throws IOException {
         RegionFile region = this.cache.getRegionFile(x, z);
 
@@ -159,7 +199,7 @@ public boolean read(LanternChunk chunk) throws IOException {
             byte[] biomesExtra = (byte[]) (levelTag.contains(BIOMES_EXTRA) ? levelTag.get(BIOMES_EXTRA).get() : null);
             short[] newBiomes = new short[biomes.length];
             for (int i = 0; i < biomes.length; i++) {
-                newBiomes[i] = (short) ((biomesExtra == null ? 0 : biomesExtra[i]) << 8 | biomes[i]);
+                newBiomes[i] = (short) ((biomesExtra == null ? 0 : biomesExtra[i] & 0xff) << 8 | biomes[i] & 0xff);
             }
             chunk.initializeBiomes(newBiomes);
         }
@@ -227,89 +267,228 @@ public void write(LanternChunk chunk) throws IOException {
         int regionX = x & (REGION_SIZE - 1);
         int regionZ = z & (REGION_SIZE - 1);
 
-        DataContainer root = new MemoryDataContainer();
-        DataView levelTags = root.createView(LEVEL);
+        // The nbt data is encoded directly from the chunk arrays into a buffer
+        // that is reused by this thread, instead of building a data view tree
+        final ChunkWriteBuffers buffers = writeBuffers.get();
+        final NbtStreamWriter writer = buffers.writer;
+        writer.reset();
+
+        writer.beginCompound("");
+        writer.beginCompound(name(LEVEL));
 
         // Core properties
-        levelTags.set(VERSION, (byte) 1);
-        levelTags.set(X, chunk.getX());
-        levelTags.set(Z, chunk.getZ());
-        levelTags.set(POPULATED, chunk.isPopulated());
-        levelTags.set(LAST_UPDATE, 0L);
+        writer.writeByte(name(VERSION), 1);
+        writer.writeInt(name(X), chunk.getX());
+        writer.writeInt(name(Z), chunk.getZ());
+        writer.writeBoolean(name(POPULATED), chunk.isPopulated());
+        writer.writeLong(name(LAST_UPDATE), 0L);
 
         // Chunk sections
         ChunkSection[] sections = chunk.getSections();
-        List<DataView> sectionTags = Lists.newArrayList();
+        int sectionCount = 0;
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                sectionCount++;
+            }
+        }
 
+        writer.beginCompoundList(name(SECTIONS), sectionCount);
+        final short[] types = buffers.types;
+        final byte[] nibbles = buffers.nibbles;
         for (byte i = 0; i < sections.length; ++i) {
             ChunkSection section = sections[i];
             if (section == null) {
                 continue;
             }
 
-            DataContainer sectionTag = new MemoryDataContainer();
-            sectionTag.set(Y, i);
+            writer.beginListElement();
+            writer.writeByte(name(Y), i);
 
-            byte[] rawTypes = new byte[section.types.length()];
-            short[] types = section.types.getArray();
+            section.types.getArray(types);
 
-            NibbleArray extTypes = null;
-            NibbleArray data = new NibbleArray(rawTypes.length);
-
-            for (int j = 0; j < rawTypes.length; j++) {
-                rawTypes[j] = (byte) ((types[j] >> 4) & 0xff);
-                byte extType = (byte) (types[j] >> 12);
-                if (extType != 0) {
-                    if (extTypes == null) {
-                        extTypes = new NibbleArray(rawTypes.length);
-                    }
-                    extTypes.set(j, extType);
+            boolean extTypes = false;
+            int offset = writer.reserveByteArray(name(BLOCKS), types.length);
+            byte[] buf = writer.getBuffer();
+            for (int j = 0; j < types.length; j++) {
+                buf[offset + j] = (byte) ((types[j] >> 4) & 0xff);
+                extTypes |= (types[j] >> 12) != 0;
+            }
+            if (extTypes) {
+                offset = writer.reserveByteArray(name(BLOCKS_EXTRA), types.length >> 1);
+                buf = writer.getBuffer();
+                for (int j = 0; j < types.length; j += 2) {
+                    buf[offset + (j >> 1)] = (byte) (((types[j] >> 12) & 0xf) | ((types[j + 1] >> 12) & 0xf) << 4);
                 }
-                data.set(j, (byte) (types[j] & 0xf));
             }
-            sectionTag.set(BLOCKS, rawTypes);
-            if (extTypes != null) {
-                sectionTag.set(BLOCKS_EXTRA, extTypes.getPackedArray());
+            offset = writer.reserveByteArray(name(DATA), types.length >> 1);
+            buf = writer.getBuffer();
+            for (int j = 0; j < types.length; j += 2) {
+                buf[offset + (j >> 1)] = (byte) ((types[j] & 0xf) | (types[j + 1] & 0xf) << 4);
             }
-            sectionTag.set(DATA, data.getPackedArray());
-            sectionTag.set(BLOCK_LIGHT, section.lightFromBlock.getPackedArray());
-            sectionTag.set(SKY_LIGHT, section.lightFromSky.getPackedArray());
+            writer.writeByteArray(name(BLOCK_LIGHT), section.lightFromBlock.getPackedArray(nibbles));
+            writer.writeByteArray(name(SKY_LIGHT), section.lightFromSky.getPackedArray(nibbles));
 
-            sectionTags.add(sectionTag);
+            writer.endCompound();
         }
 
-        levelTags.set(SECTIONS, sectionTags);
-        levelTags.set(HEIGHT_MAP, chunk.getHeightMap());
+        writer.writeIntArray(name(HEIGHT_MAP), chunk.getHeightMap());
 
         short[] biomes = chunk.getBiomes();
 
-        byte[] biomes0 = new byte[biomes.length];
-        byte[] biomes1 = null;
-
+        boolean biomesExtra = false;
+        int offset = writer.reserveByteArray(name(BIOMES), biomes.length);
+        byte[] buf = writer.getBuffer();
         for (int i = 0; i < biomes.length; i++) {
-            biomes0[i] = (byte) (biomes[i] & 0xff);
-            byte value = (byte) ((biomes[i] >> 4) & 0xff);
-            if (value != 0) {
-                if (biomes1 == null) {
-                    biomes1 = new byte[biomes0.length];
+            buf[offset + i] = (byte) (biomes[i] & 0xff);
+            biomesExtra |= (biomes[i] >> 8) != 0;
+        }
+        if (biomesExtra) {
+            offset = writer.reserveByteArray(name(BIOMES_EXTRA), biomes.length);
+            buf = writer.getBuffer();
+            for (int i = 0; i < biomes.length; i++) {
+                buf[offset + i] = (byte) ((biomes[i] >> 8) & 0xff);
+            }
+        }
+
+        writer.endCompound();
+        writer.endCompound();
+
+        try {
+            region.writeChunk(regionX, regionZ, writer.getBuffer(), writer.size());
+        } finally {
+            buffers.trim();
+        }
+    }
+
+    @Override
+    public long compact(LongPredicate inUse, double minFragmentation) throws IOException {
+        long reclaimed = 0;
+        for (Vector2i region : this.cache.getRegions()) {
+            final int regionX = region.getX();
+            final int regionZ = region.getY();
+            if (this.isRegionInUse(regionX, regionZ, inUse)) {
+                continue;
+            }
+            try {
+                reclaimed += this.cache.compact(regionX, regionZ, minFragmentation);
+            } catch (IOException e) {
+                LanternGame.log().error("Failed to compact the region (" + regionX + ", " + regionZ + ") of " + this.dir, e);
+            }
+        }
+        return reclaimed;
+    }
+
+    @Override
+    public ChunkStorageSnapshot snapshot(int minTimestamp) throws IOException {
+        checkState(this.snapshotOpen.compareAndSet(false, true), "A snapshot of %s is already open", this.dir);
+        final List<Vector2i> regions = new ArrayList<>();
+        final List<RegionFile.Snapshot> snapshots = new ArrayList<>();
+        // Every region is snapshotted atomically, the chunks that are written to a region
+        // after its snapshot get a timestamp of at least this time, so they will be
+        // included in the next snapshot that uses this time as minimum timestamp
+        final int time = (int) (System.currentTimeMillis() / 1000L);
+        try {
+            for (Vector2i region : this.cache.getRegions()) {
+                final RegionFile.Snapshot snapshot = this.cache.snapshot(region.getX(), region.getY(), minTimestamp);
+                if (snapshot != null) {
+                    regions.add(region);
+                    snapshots.add(snapshot);
                 }
-                biomes1[i] = value;
             }
+        } catch (IOException | RuntimeException e) {
+            for (RegionFile.Snapshot snapshot : snapshots) {
+                this.cache.release(snapshot);
+            }
+            this.snapshotOpen.set(false);
+            throw e;
         }
+        return new ChunkStorageSnapshot() {
+
+            private boolean closed;
+
+            @Override
+            public int getTime() {
+                return time;
+            }
 
-        levelTags.set(BIOMES, biomes0);
-        if (biomes1 != null) {
-            levelTags.set(BIOMES_EXTRA, biomes1);
+            @Override
+            public void forEach(Visitor visitor) throws IOException {
+                checkState(!this.closed, "The snapshot is closed");
+                for (int i = 0; i < snapshots.size(); i++) {
+                    final Vector2i region = regions.get(i);
+                    final RegionFile.Snapshot snapshot = snapshots.get(i);
+                    for (int j = 0; j < snapshot.size(); j++) {
+                        visitor.visit(region.getX() * REGION_SIZE + snapshot.getX(j), region.getY() * REGION_SIZE + snapshot.getZ(j),
+                                snapshot.getTimestamp(j), AnvilChunkIOService.this.cache.read(snapshot, j));
+                    }
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                try {
+                    for (RegionFile.Snapshot snapshot : snapshots) {
+                        AnvilChunkIOService.this.cache.release(snapshot);
+                    }
+                } finally {
+                    AnvilChunkIOService.this.snapshotOpen.set(false);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void writeRaw(int x, int z, int timestamp, byte[] data) throws IOException {
+        this.cache.getRegionFile(x, z).writeRaw(x & REGION_MASK, z & REGION_MASK, data, timestamp);
+    }
+
+    /**
+     * Gets the tag name of the single part query, the parts
+     * of a query are stored so this doesn't allocate.
+     */
+    private static String name(DataQuery query) {
+        return query.getParts().get(0);
+    }
+
+    private boolean isRegionInUse(int regionX, int regionZ, LongPredicate inUse) {
+        final int minX = regionX << 5;
+        final int minZ = regionZ << 5;
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                if (inUse.test(LanternChunk.key(minX + x, minZ + z))) {
+                    return true;
+                }
+            }
         }
+        return false;
+    }
 
-        try (NbtDataContainerOutputStream nbt = new NbtDataContainerOutputStream(region.getChunkDataOutputStream(regionX, regionZ))) {
-            nbt.write(root);
+    private ListeningExecutorService getService() {
+        ListeningExecutorService service = this.service;
+        if (service == null) {
+            synchronized (this) {
+                service = this.service;
+                if (service == null) {
+                    final LanternGame game = LanternGame.get();
+                    // Standalone usage (tools, benchmarks) has no game, fall back to a private pool
+                    this.service = service = game == null ? MoreExecutors.listeningDecorator(Executors.newCachedThreadPool()) :
+                            game.getScheduler().getAsyncExecutor().createBlockingExecutorService(game.getMinecraftPlugin());
+                }
+            }
         }
+        return service;
     }
 
     @Override
     public void unload() throws IOException {
-        this.service.shutdown();
+        final ListeningExecutorService service = this.service;
+        if (service != null) {
+            service.shutdown();
+        }
         this.cache.clear();
     }
 
@@ -436,12 +615,12 @@ public void reset() {
 
     @Override
     public ListenableFuture<Boolean> doesChunkExist(final Vector3i chunkCoords) {
-        return this.service.submit(() -> exists(chunkCoords.getX(), chunkCoords.getZ()));
+        return this.getService().submit(() -> exists(chunkCoords.getX(), chunkCoords.getZ()));
     }
 
     @Override
     public ListenableFuture<Optional<DataContainer>> getChunkData(final Vector3i chunkCoords) {
-        return this.service.submit(() -> {
+        return this.getService().submit(() -> {
             int x = chunkCoords.getX();
             int z = chunkCoords.getZ();
 
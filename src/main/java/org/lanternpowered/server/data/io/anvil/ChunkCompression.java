@@ -0,0 +1,133 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Represents a compression format that can be used to store the chunk
+ * data in region files. Every compression has a unique version byte that
+ * is stored in front of the compressed data of each chunk, this allows
+ * region files to contain chunks with mixed compressions.
+ */
+public abstract class ChunkCompression {
+
+    private final String name;
+    private final byte version;
+
+    protected ChunkCompression(String name, int version) {
+        checkArgument(version > 0 && version <= Byte.MAX_VALUE, "The version must be between 1 and 127, got %s", version);
+        this.name = checkNotNull(name, "name");
+        this.version = (byte) version;
+    }
+
+    /**
+     * Gets the name of the compression.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the version byte that identifies the compression.
+     *
+     * @return the version
+     */
+    public byte getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Compresses the data and writes the result to the output stream.
+     *
+     * @param data the uncompressed data
+     * @param length the length of the uncompressed data
+     * @param output the output stream
+     * @throws IOException if an i/o error occurs
+     */
+    public abstract void compress(byte[] data, int length, ByteArrayOutputStream output) throws IOException;
+
+    /**
+     * Decompresses the data and returns a stream with the uncompressed data.
+     *
+     * @param data the compressed data
+     * @param offset the offset of the compressed data
+     * @param length the length of the compressed data
+     * @return the uncompressed data stream
+     * @throws IOException if the data is corrupted or an i/o error occurs
+     */
+    public abstract InputStream decompress(byte[] data, int offset, int length) throws IOException;
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    /**
+     * A output stream that allows the content to be read without copying it.
+     */
+    static final class Buffer extends ByteArrayOutputStream {
+
+        // The minimum free space in the buffer before deflating
+        private static final int MIN_DEFLATE_SPACE = 1024;
+
+        Buffer(int size) {
+            super(size);
+        }
+
+        byte[] getBuffer() {
+            return this.buf;
+        }
+
+        /**
+         * Deflates the remaining input of the deflater directly
+         * into this buffer, growing it if needed.
+         *
+         * @param deflater the deflater
+         */
+        void deflate(Deflater deflater) {
+            while (!deflater.finished()) {
+                if (this.buf.length - this.count < MIN_DEFLATE_SPACE) {
+                    this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length << 1, this.count + MIN_DEFLATE_SPACE));
+                }
+                this.count += deflater.deflate(this.buf, this.count, this.buf.length - this.count);
+            }
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(this.buf, 0, this.count);
+        }
+    }
+}
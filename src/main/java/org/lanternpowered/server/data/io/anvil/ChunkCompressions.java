@@ -0,0 +1,190 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * The registry of all the {@link ChunkCompression}s that can be used to
+ * store chunks in region files.
+ */
+public final class ChunkCompressions {
+
+    /**
+     * The gzip compression, only used by very old region files.
+     */
+    public static final ChunkCompression GZIP = new ChunkCompression("gzip", 1) {
+
+        @Override
+        public void compress(byte[] data, int length, ByteArrayOutputStream output) throws IOException {
+            try (GZIPOutputStream gos = new GZIPOutputStream(output)) {
+                gos.write(data, 0, length);
+            }
+        }
+
+        @Override
+        public InputStream decompress(byte[] data, int offset, int length) throws IOException {
+            return new GZIPInputStream(new ByteArrayInputStream(data, offset, length));
+        }
+    };
+
+    /**
+     * The default zlib compression, with the fastest compression level.
+     */
+    public static final ChunkCompression DEFLATE = new DeflateChunkCompression("deflate", 2, Deflater.BEST_SPEED, null);
+
+    /**
+     * No compression at all, trades disk space for cpu time.
+     */
+    public static final ChunkCompression NONE = new ChunkCompression("none", 3) {
+
+        @Override
+        public void compress(byte[] data, int length, ByteArrayOutputStream output) throws IOException {
+            output.write(data, 0, length);
+        }
+
+        @Override
+        public InputStream decompress(byte[] data, int offset, int length) throws IOException {
+            return new ByteArrayInputStream(data, offset, length);
+        }
+    };
+
+    /**
+     * The zlib compression with a preset dictionary that contains the tags that are
+     * used in every chunk, this compresses small chunks noticeably better. Chunks that
+     * are stored with this compression cannot be read by the vanilla server.
+     */
+    public static final ChunkCompression DEFLATE_DICTIONARY = new DeflateChunkCompression("deflate-dictionary", 127,
+            Deflater.BEST_SPEED, createDictionary());
+
+    // All the compressions mapped by their version, the deflate compressions
+    // with a different level share the version of the default one
+    private static final ChunkCompression[] byVersion = new ChunkCompression[128];
+
+    static {
+        for (ChunkCompression compression : new ChunkCompression[] { GZIP, DEFLATE, NONE, DEFLATE_DICTIONARY }) {
+            byVersion[compression.getVersion()] = compression;
+        }
+    }
+
+    /**
+     * Gets the {@link ChunkCompression} for the specified version byte.
+     *
+     * @param version the version
+     * @return the chunk compression, or null if not found
+     */
+    @Nullable
+    public static ChunkCompression getByVersion(int version) {
+        return version <= 0 || version >= byVersion.length ? null : byVersion[version];
+    }
+
+    /**
+     * Gets the {@link ChunkCompression} for the specified name and compression level. The
+     * level is ignored by the compressions that don't support it, the default level will
+     * be used if the level is out of bounds.
+     *
+     * @param name the name
+     * @param level the compression level
+     * @return the chunk compression, or null if not found
+     */
+    @Nullable
+    public static ChunkCompression get(String name, int level) {
+        checkNotNull(name, "name");
+        final ChunkCompression compression;
+        switch (name.toLowerCase(Locale.ENGLISH)) {
+            case "gzip":
+                return GZIP;
+            case "none":
+                return NONE;
+            case "deflate":
+                compression = DEFLATE;
+                break;
+            case "deflate-dictionary":
+                compression = DEFLATE_DICTIONARY;
+                break;
+            default:
+                return null;
+        }
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION ||
+                level == ((DeflateChunkCompression) compression).getLevel()) {
+            return compression;
+        }
+        return deflate(compression == DEFLATE_DICTIONARY, level);
+    }
+
+    /**
+     * Creates a new zlib {@link ChunkCompression} with the specified compression level,
+     * the created compressions should be reused because they pool their deflaters.
+     *
+     * @param dictionary whether the preset dictionary should be used
+     * @param level the compression level
+     * @return the chunk compression
+     */
+    public static ChunkCompression deflate(boolean dictionary, int level) {
+        checkArgument(level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION,
+                "The level must be between 1 and 9, got %s", level);
+        final ChunkCompression base = dictionary ? DEFLATE_DICTIONARY : DEFLATE;
+        return new DeflateChunkCompression(base.getName(), base.getVersion(), level,
+                dictionary ? createDictionary() : null);
+    }
+
+    private static byte[] createDictionary() {
+        // Zlib favors matches near the end of the dictionary, so the
+        // tags that occur the most frequently are placed at the end
+        final String[] tags = {
+                "Entities", "TileEntities", "TileTicks", "InhabitedTime", "LightPopulated", "BiomesE",
+                "Biomes", "HeightMap", "LastUpdate", "TerrainPopulated", "xPos", "zPos", "Level", "V",
+                "Sections", "Add", "SkyLight", "BlockLight", "Data", "Blocks", "Y" };
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (String tag : tags) {
+            final byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+            // The nbt name prefix: the length as an unsigned short
+            output.write(bytes.length >> 8);
+            output.write(bytes.length & 0xff);
+            output.write(bytes, 0, bytes.length);
+        }
+        // Empty nibble arrays are very common in the sections
+        for (int i = 0; i < 256; i++) {
+            output.write(0);
+        }
+        return output.toByteArray();
+    }
+
+    private ChunkCompressions() {
+    }
+}
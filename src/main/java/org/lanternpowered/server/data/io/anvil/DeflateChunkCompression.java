@@ -0,0 +1,139 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+/**
+ * A zlib compression with a configurable level and an optional preset
+ * dictionary. The deflaters and inflaters are pooled and reused, the ones
+ * that don't fit in the pool anymore are ended to release the native memory.
+ */
+final class DeflateChunkCompression extends ChunkCompression {
+
+    // The maximum amount of pooled deflaters and inflaters
+    private static final int POOL_SIZE = 16;
+
+    // The size of the buffer that is used to deflate and inflate
+    private static final int BUFFER_SIZE = 8192;
+
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final int level;
+    @Nullable private final byte[] dictionary;
+
+    DeflateChunkCompression(String name, int version, int level, @Nullable byte[] dictionary) {
+        super(name, version);
+        this.dictionary = dictionary;
+        this.level = level;
+    }
+
+    /**
+     * Gets the compression level.
+     *
+     * @return the level
+     */
+    int getLevel() {
+        return this.level;
+    }
+
+    @Override
+    public void compress(byte[] data, int length, ByteArrayOutputStream output) throws IOException {
+        Deflater deflater = this.deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(this.level);
+        }
+        try {
+            if (this.dictionary != null) {
+                deflater.setDictionary(this.dictionary);
+            }
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            if (output instanceof Buffer) {
+                // Deflate directly into the buffer, without the copy
+                ((Buffer) output).deflate(deflater);
+            } else {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                while (!deflater.finished()) {
+                    final int count = deflater.deflate(buffer);
+                    output.write(buffer, 0, count);
+                }
+            }
+        } finally {
+            deflater.reset();
+            if (!this.deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public InputStream decompress(byte[] data, int offset, int length) throws IOException {
+        Inflater inflater = this.inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        try {
+            inflater.setInput(data, offset, length);
+            // Chunk data usually compresses to about a quarter of the size
+            final Buffer output = new Buffer(Math.max(BUFFER_SIZE, length * 4));
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                final int count = inflater.inflate(buffer);
+                if (count == 0) {
+                    if (inflater.needsDictionary()) {
+                        if (this.dictionary == null) {
+                            throw new IOException("The chunk data requires a preset dictionary");
+                        }
+                        inflater.setDictionary(this.dictionary);
+                    } else if (inflater.needsInput()) {
+                        throw new EOFException("Unexpected end of the compressed chunk data");
+                    }
+                    continue;
+                }
+                output.write(buffer, 0, count);
+            }
+            return output.toInputStream();
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid compressed chunk data", e);
+        } finally {
+            inflater.reset();
+            if (!this.inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -24,22 +24,23 @@
  */
 package org.lanternpowered.server.data.io.anvil;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
 import org.lanternpowered.server.game.LanternGame;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.BitSet;
 
 import javax.annotation.Nullable;
 
@@ -67,23 +68,43 @@
 @NonnullByDefault
 public class RegionFile {
 
-    private static final int VERSION_GZIP = 1;
-    private static final int VERSION_DEFLATE = 2;
-
     private static final int SECTOR_BYTES = 4096;
     private static final int SECTOR_INTS = SECTOR_BYTES / 4;
 
     private static final int CHUNK_HEADER_SIZE = 5;
     private static final byte[] emptySector = new byte[SECTOR_BYTES];
 
+    // Pooled compression buffers that grew larger than this are discarded after use
+    private static final int MAX_POOLED_BUFFER_SIZE = 256 * 1024;
+
+    // The compression buffers that are reused by the chunk writes of each thread
+    private static final ThreadLocal<ChunkCompression.Buffer> compressionBuffers =
+            ThreadLocal.withInitial(() -> new ChunkCompression.Buffer(8192));
+
+    private final File path;
+    private final ChunkCompression compression;
+    // The header of the chunk that is being written
+    private final byte[] chunkHeader = new byte[CHUNK_HEADER_SIZE];
     private RandomAccessFile file;
     private final int[] offsets;
     private final int[] chunkTimestamps;
     private ArrayList<Boolean> sectorFree;
     private int sizeDelta;
     private long lastModified = 0;
+    private boolean closed;
+
+    // The sectors that are referenced by the open snapshot, these
+    // sectors may not be overwritten until the snapshot is released
+    @Nullable private BitSet pinnedSectors;
+    // The pinned sectors that were freed while the snapshot was open
+    @Nullable private BitSet releasedSectors;
 
     public RegionFile(File path) throws IOException {
+        this(path, ChunkCompressions.DEFLATE);
+    }
+
+    public RegionFile(File path, ChunkCompression compression) throws IOException {
+        this.compression = checkNotNull(compression, "compression");
         offsets = new int[SECTOR_INTS];
         chunkTimestamps = new int[SECTOR_INTS];
         sizeDelta = 0;
@@ -92,6 +113,13 @@ public RegionFile(File path) throws IOException {
             lastModified = path.lastModified();
         }
 
+        this.path = path;
+        this.load();
+    }
+
+    /* opens the file and reads the offset and timestamp tables */
+    private void load() throws IOException {
+        final File path = this.path;
         file = new RandomAccessFile(path, "rw");
         // seek to the end to prepare size checking
         file.seek(file.length());
@@ -164,55 +192,66 @@ public int getSizeDelta() {
         return ret;
     }
 
+    /* the file of this region */
+    File getPath() {
+        return this.path;
+    }
+
+    /* the compression that is used to write new chunk data */
+    public ChunkCompression getCompression() {
+        return this.compression;
+    }
+
     /*
      * gets an (uncompressed) stream representing the chunk data returns null if
-     * the chunk is not found or an error occurs
+     * the chunk is not found or an error occurs, the data is decompressed outside
+     * of the lock so that chunks can be read concurrently
      */
     @Nullable
     public DataInputStream getChunkDataInputStream(int x, int z) throws IOException {
-        checkBounds(x, z);
-
-        int offset = getOffset(x, z);
-        if (offset == 0) {
-            // does not exist
-            return null;
-        }
+        final byte[] data;
+        final ChunkCompression compression;
+        synchronized (this) {
+            checkBounds(x, z);
+
+            int offset = getOffset(x, z);
+            if (offset == 0) {
+                // does not exist
+                return null;
+            }
 
-        int sectorNumber = offset >> 8;
-        int numSectors = offset & 0xFF;
-        if (sectorNumber + numSectors > sectorFree.size()) {
-            throw new IOException("Invalid sector: " + sectorNumber + "+" + numSectors + " > " + sectorFree.size());
-        }
+            int sectorNumber = offset >> 8;
+            int numSectors = offset & 0xFF;
+            if (sectorNumber + numSectors > sectorFree.size()) {
+                throw new IOException("Invalid sector: " + sectorNumber + "+" + numSectors + " > " + sectorFree.size());
+            }
 
-        file.seek(sectorNumber * SECTOR_BYTES);
-        int length = file.readInt();
-        if (length > SECTOR_BYTES * numSectors) {
-            throw new IOException("Invalid length: " + length + " > " + (SECTOR_BYTES * numSectors));
-        }
+            file.seek(sectorNumber * SECTOR_BYTES);
+            int length = file.readInt();
+            if (length <= 0 || length > SECTOR_BYTES * numSectors) {
+                throw new IOException("Invalid length: " + length + " > " + (SECTOR_BYTES * numSectors));
+            }
 
-        byte version = file.readByte();
-        if (version == VERSION_GZIP) {
-            byte[] data = new byte[length - 1];
-            file.read(data);
-            return new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)));
-        } else if (version == VERSION_DEFLATE) {
-            byte[] data = new byte[length - 1];
-            file.read(data);
-            return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)));
+            byte version = file.readByte();
+            compression = ChunkCompressions.getByVersion(version);
+            if (compression == null) {
+                throw new IOException("Unknown version: " + version);
+            }
+            data = new byte[length - 1];
+            file.readFully(data);
         }
-
-        throw new IOException("Unknown version: " + version);
+        return new DataInputStream(compression.decompress(data, 0, data.length));
     }
 
     public DataOutputStream getChunkDataOutputStream(int x, int z) {
         checkBounds(x, z);
-        return new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(new ChunkBuffer(x, z),
-                new Deflater(Deflater.BEST_SPEED))));
+        return new DataOutputStream(new BufferedOutputStream(new ChunkBuffer(x, z)));
     }
 
     /*
      * lets chunk writing be multithreaded by not locking the whole file as a
-     * chunk is serializing -- only writes when serialization is over
+     * chunk is serializing -- only writes when serialization is over, the
+     * compression is also done before the file gets locked
      */
     class ChunkBuffer extends ByteArrayOutputStream {
         private final int x, z;
@@ -226,15 +265,50 @@ public ChunkBuffer(int x, int z) {
         @Override
         public void close() throws IOException {
             try {
-                RegionFile.this.write(x, z, buf, count);
+                RegionFile.this.writeChunk(x, z, buf, count);
             } finally {
                 super.close();
             }
         }
     }
 
+    /*
+     * compresses and writes the uncompressed chunk data at (x,z), the data is
+     * compressed into a buffer of the current thread before the file gets locked
+     */
+    public void writeChunk(int x, int z, byte[] data, int length) throws IOException {
+        checkBounds(x, z);
+        final ChunkCompression compression = this.compression;
+        final ChunkCompression.Buffer output = compressionBuffers.get();
+        output.reset();
+        try {
+            compression.compress(data, length, output);
+            write(x, z, output.getBuffer(), output.size(), compression.getVersion());
+        } finally {
+            if (output.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+                compressionBuffers.remove();
+            }
+        }
+    }
+
     /* write a chunk at (x,z) with length bytes of data to disk */
-    protected void write(int x, int z, byte[] data, int length) throws IOException {
+    protected synchronized void write(int x, int z, byte[] data, int length, byte version) throws IOException {
+        write(x, z, data, 0, length, version, (int) (System.currentTimeMillis() / 1000L));
+    }
+
+    /*
+     * write the raw chunk data that was read from a snapshot, the first byte
+     * is the version, the original timestamp of the chunk will be preserved
+     */
+    synchronized void writeRaw(int x, int z, byte[] data, int timestamp) throws IOException {
+        checkBounds(x, z);
+        if (data.length < 2) {
+            throw new IOException("Invalid chunk data length: " + data.length);
+        }
+        write(x, z, data, 1, data.length - 1, data[0], timestamp);
+    }
+
+    private void write(int x, int z, byte[] data, int dataOffset, int length, byte version, int timestamp) throws IOException {
         int offset = getOffset(x, z);
         int sectorNumber = offset >> 8;
         int sectorsAllocated = offset & 0xFF;
@@ -245,15 +319,15 @@ protected void write(int x, int z, byte[] data, int length) throws IOException {
             return;
         }
 
-        if (sectorNumber != 0 && sectorsAllocated == sectorsNeeded) {
+        if (sectorNumber != 0 && sectorsAllocated == sectorsNeeded && !isPinned(sectorNumber, sectorsAllocated)) {
             /* we can simply overwrite the old sectors */
-            write(sectorNumber, data, length);
+            write(sectorNumber, data, dataOffset, length, version);
         } else {
             /* we need to allocate new sectors */
 
             /* mark the sectors previously used for this chunk as free */
             for (int i = 0; i < sectorsAllocated; ++i) {
-                sectorFree.set(sectorNumber + i, true);
+                freeSector(sectorNumber + i);
             }
 
             /* scan for a free space large enough to store this chunk */
@@ -281,7 +355,7 @@ protected void write(int x, int z, byte[] data, int length) throws IOException {
                 for (int i = 0; i < sectorsNeeded; ++i) {
                     sectorFree.set(sectorNumber + i, false);
                 }
-                write(sectorNumber, data, length);
+                write(sectorNumber, data, dataOffset, length, version);
             } else {
                 /*
                  * no free space large enough found -- we need to grow the
@@ -295,20 +369,44 @@ protected void write(int x, int z, byte[] data, int length) throws IOException {
                 }
                 sizeDelta += SECTOR_BYTES * sectorsNeeded;
 
-                write(sectorNumber, data, length);
+                write(sectorNumber, data, dataOffset, length, version);
                 setOffset(x, z, (sectorNumber << 8) | sectorsNeeded);
             }
         }
-        setTimestamp(x, z, (int) (System.currentTimeMillis() / 1000L));
+        setTimestamp(x, z, timestamp);
         //file.getChannel().force(true);
     }
 
     /* write a chunk data to the region file at specified sector number */
-    private void write(int sectorNumber, byte[] data, int length) throws IOException {
+    private void write(int sectorNumber, byte[] data, int offset, int length, byte version) throws IOException {
+        final byte[] header = chunkHeader;
+        final int chunkLength = length + 1;
+        header[0] = (byte) (chunkLength >>> 24); // chunk length
+        header[1] = (byte) (chunkLength >>> 16);
+        header[2] = (byte) (chunkLength >>> 8);
+        header[3] = (byte) chunkLength;
+        header[4] = version; // chunk version number
         file.seek(sectorNumber * SECTOR_BYTES);
-        file.writeInt(length + 1); // chunk length
-        file.writeByte(VERSION_DEFLATE); // chunk version number
-        file.write(data, 0, length); // chunk data
+        file.write(header);
+        file.write(data, offset, length); // chunk data
+    }
+
+    /* are any of the sectors referenced by the open snapshot? */
+    private boolean isPinned(int sectorNumber, int numSectors) {
+        if (pinnedSectors == null) {
+            return false;
+        }
+        final int next = pinnedSectors.nextSetBit(sectorNumber);
+        return next != -1 && next < sectorNumber + numSectors;
+    }
+
+    /* marks the sector as free, or defers it until the snapshot is released */
+    private void freeSector(int sectorNumber) {
+        if (pinnedSectors != null && pinnedSectors.get(sectorNumber)) {
+            releasedSectors.set(sectorNumber);
+        } else {
+            sectorFree.set(sectorNumber, true);
+        }
     }
 
     /* is this an invalid chunk coordinate? */
@@ -346,7 +444,327 @@ private void setTimestamp(int x, int z, int value) throws IOException {
         file.writeInt(value);
     }
 
-    public void close() throws IOException {
+    /**
+     * Gets the fraction of the sectors of the region file
+     * that aren't used by any chunk.
+     *
+     * @return the fragmentation
+     */
+    public synchronized double getFragmentation() {
+        int free = 0;
+        for (Boolean sectorFree : this.sectorFree) {
+            if (sectorFree) {
+                free++;
+            }
+        }
+        return (double) free / this.sectorFree.size();
+    }
+
+    /**
+     * Rewrites the region file so that all the chunks are stored contiguously
+     * and sorted by their index, without any free sectors in between. The new
+     * content is first written to a temporary file, which replaces the region
+     * file atomically once it's forced to the disk, so a crash will always
+     * leave either the old or the new region file behind.
+     *
+     * @return the amount of bytes that were reclaimed
+     * @throws IOException if an i/o error occurs
+     */
+    public synchronized long compact() throws IOException {
+        // The sectors can't be moved while they are referenced by a snapshot
+        if (this.closed || this.pinnedSectors != null) {
+            return 0;
+        }
+        final long oldLength = this.file.length();
+        final int[] newOffsets = new int[SECTOR_INTS];
+        final int[] lengths = new int[SECTOR_INTS];
+        boolean changed = false;
+        int nextSector = 2;
+        for (int i = 0; i < SECTOR_INTS; i++) {
+            final int offset = this.offsets[i];
+            if (offset == 0) {
+                continue;
+            }
+            final int sectorNumber = offset >> 8;
+            final int numSectors = offset & 0xff;
+            if (sectorNumber < 2 || sectorNumber + numSectors > this.sectorFree.size()) {
+                // Already reported while loading, the chunk will be dropped
+                changed = true;
+                continue;
+            }
+            this.file.seek(sectorNumber * SECTOR_BYTES);
+            final int length = this.file.readInt();
+            if (length <= 0 || length + 4 > SECTOR_BYTES * numSectors) {
+                LanternGame.log().warn("Region \"" + this.path + "\": dropping chunk " + i + " with invalid length " + length);
+                changed = true;
+                continue;
+            }
+            final int sectorsNeeded = (length + 4 - 1) / SECTOR_BYTES + 1;
+            final int newOffset = (nextSector << 8) | sectorsNeeded;
+            if (newOffset != offset) {
+                changed = true;
+            }
+            newOffsets[i] = newOffset;
+            lengths[i] = length + 4;
+            nextSector += sectorsNeeded;
+        }
+        final long newLength = (long) nextSector * SECTOR_BYTES;
+        // The file is already compact
+        if (!changed && newLength == oldLength) {
+            return 0;
+        }
+
+        final File tempFile = new File(this.path.getParentFile(), this.path.getName() + ".compact");
+        try (RandomAccessFile output = new RandomAccessFile(tempFile, "rw")) {
+            output.setLength(newLength);
+            for (int i = 0; i < SECTOR_INTS; i++) {
+                output.writeInt(newOffsets[i]);
+            }
+            for (int i = 0; i < SECTOR_INTS; i++) {
+                output.writeInt(newOffsets[i] == 0 ? 0 : this.chunkTimestamps[i]);
+            }
+            final byte[] buffer = new byte[SECTOR_BYTES * 255];
+            for (int i = 0; i < SECTOR_INTS; i++) {
+                if (newOffsets[i] == 0) {
+                    continue;
+                }
+                // Copy the raw chunk data, including the length and version header
+                this.file.seek((this.offsets[i] >> 8) * SECTOR_BYTES);
+                this.file.readFully(buffer, 0, lengths[i]);
+                output.seek((newOffsets[i] >> 8) * SECTOR_BYTES);
+                output.write(buffer, 0, lengths[i]);
+            }
+            output.getChannel().force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+
+        this.file.close();
+        try {
+            Files.move(tempFile.toPath(), this.path.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Reopen the new file, or the old one if the move failed
+            this.load();
+        }
+        return oldLength - newLength;
+    }
+
+    /**
+     * Creates a copy-on-write snapshot of the chunks that were written at or
+     * after the specified timestamp. The sectors of these chunks won't be reused
+     * until the snapshot is released, chunks that are written in the meantime
+     * are stored in new sectors. Only one snapshot can be open at the same time.
+     *
+     * <p>The snapshot doesn't keep this region file open, a region file that is
+     * opened for the same file later on must be pinned again through
+     * {@link #pin(Snapshot)} before it can be used.</p>
+     *
+     * @param minTimestamp the minimum timestamp of the chunks, in seconds
+     * @return the snapshot
+     * @throws IOException if the region file is closed
+     */
+    public synchronized Snapshot snapshot(int minTimestamp) throws IOException {
+        if (this.closed) {
+            throw new IOException("Region \"" + this.path + "\" is closed");
+        }
+        checkState(this.pinnedSectors == null, "The region %s already has an open snapshot", this.path);
+        final BitSet pinnedSectors = new BitSet(this.sectorFree.size());
+        final int[] indexes = new int[SECTOR_INTS];
+        final int[] offsets = new int[SECTOR_INTS];
+        final int[] timestamps = new int[SECTOR_INTS];
+        int count = 0;
+        for (int i = 0; i < SECTOR_INTS; i++) {
+            final int offset = this.offsets[i];
+            if (offset == 0 || this.chunkTimestamps[i] < minTimestamp) {
+                continue;
+            }
+            final int sectorNumber = offset >> 8;
+            final int numSectors = offset & 0xff;
+            // Already reported while loading
+            if (sectorNumber < 2 || sectorNumber + numSectors > this.sectorFree.size()) {
+                continue;
+            }
+            pinnedSectors.set(sectorNumber, sectorNumber + numSectors);
+            indexes[count] = i;
+            offsets[count] = offset;
+            timestamps[count] = this.chunkTimestamps[i];
+            count++;
+        }
+        final Snapshot snapshot = new Snapshot(this.path, count, indexes, offsets, timestamps, pinnedSectors);
+        this.pinnedSectors = snapshot.pinnedSectors;
+        this.releasedSectors = snapshot.releasedSectors;
+        return snapshot;
+    }
+
+    /**
+     * Pins the sectors of a snapshot that was created by another region file
+     * of the same file, which is closed in the meantime. The pinned sectors
+     * that aren't referenced by the chunks anymore won't be reused until the
+     * snapshot is released.
+     *
+     * @param snapshot the snapshot
+     */
+    synchronized void pin(Snapshot snapshot) {
+        checkState(!snapshot.released, "The snapshot is already released");
+        checkState(this.pinnedSectors == null, "The region %s already has an open snapshot", this.path);
+        final BitSet pinnedSectors = snapshot.pinnedSectors;
+        for (int i = pinnedSectors.nextSetBit(0); i != -1 && i < sectorFree.size(); i = pinnedSectors.nextSetBit(i + 1)) {
+            if (sectorFree.get(i)) {
+                sectorFree.set(i, false);
+                snapshot.releasedSectors.set(i);
+            }
+        }
+        this.pinnedSectors = pinnedSectors;
+        this.releasedSectors = snapshot.releasedSectors;
+    }
+
+    /**
+     * Unpins the sectors of the snapshot, the sectors that were
+     * freed in the meantime can be reused afterwards.
+     *
+     * @param snapshot the snapshot
+     */
+    synchronized void unpin(Snapshot snapshot) {
+        if (this.pinnedSectors != snapshot.pinnedSectors) {
+            return;
+        }
+        final BitSet releasedSectors = snapshot.releasedSectors;
+        for (int i = releasedSectors.nextSetBit(0); i != -1 && i < sectorFree.size(); i = releasedSectors.nextSetBit(i + 1)) {
+            sectorFree.set(i, true);
+        }
+        this.pinnedSectors = null;
+        this.releasedSectors = null;
+    }
+
+    /**
+     * Reads the raw data of the chunk at the index of the snapshot, the first
+     * byte is the version of the compression followed by the compressed data.
+     *
+     * @param snapshot the snapshot
+     * @param index the index
+     * @return the raw chunk data, or null if the region file is closed
+     * @throws IOException if an i/o error occurs
+     */
+    @Nullable
+    synchronized byte[] read(Snapshot snapshot, int index) throws IOException {
+        if (this.closed) {
+            return null;
+        }
+        checkState(!snapshot.released, "The snapshot is already released");
+        checkState(this.pinnedSectors == snapshot.pinnedSectors, "The snapshot isn't pinned by the region %s", this.path);
+        final int offset = snapshot.offsets[index];
+        final int numSectors = offset & 0xff;
+        file.seek((offset >> 8) * SECTOR_BYTES);
+        final int length = file.readInt();
+        if (length <= 1 || length + 4 > SECTOR_BYTES * numSectors) {
+            throw new IOException("Invalid length: " + length + " > " + (SECTOR_BYTES * numSectors - 4));
+        }
+        final byte[] data = new byte[length];
+        file.readFully(data);
+        return data;
+    }
+
+    /**
+     * A snapshot of the chunks of a region file, see {@link #snapshot(int)}. The
+     * snapshot only holds the header entries and the pinned sectors, the chunk data
+     * is read through the region file that is currently open for the file.
+     */
+    public static final class Snapshot {
+
+        private final File path;
+        private final int size;
+        private final int[] indexes;
+        private final int[] offsets;
+        private final int[] timestamps;
+        // The sectors that are referenced by the chunks of this snapshot
+        private final BitSet pinnedSectors;
+        // The pinned sectors that were freed while the snapshot is open
+        private final BitSet releasedSectors = new BitSet();
+        private volatile boolean released;
+
+        private Snapshot(File path, int size, int[] indexes, int[] offsets, int[] timestamps, BitSet pinnedSectors) {
+            this.pinnedSectors = pinnedSectors;
+            this.timestamps = timestamps;
+            this.indexes = indexes;
+            this.offsets = offsets;
+            this.path = path;
+            this.size = size;
+        }
+
+        /**
+         * Gets the file of the region file of this snapshot.
+         *
+         * @return the file
+         */
+        public File getPath() {
+            return this.path;
+        }
+
+        /**
+         * Gets the amount of chunks in this snapshot.
+         *
+         * @return the size
+         */
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Gets the x coordinate of the chunk at the index, relative
+         * to the region coordinates.
+         *
+         * @param index the index
+         * @return the x coordinate
+         */
+        public int getX(int index) {
+            return this.indexes[index] & 0x1f;
+        }
+
+        /**
+         * Gets the z coordinate of the chunk at the index, relative
+         * to the region coordinates.
+         *
+         * @param index the index
+         * @return the z coordinate
+         */
+        public int getZ(int index) {
+            return this.indexes[index] >> 5;
+        }
+
+        /**
+         * Gets the timestamp of the chunk at the index, in seconds.
+         *
+         * @param index the index
+         * @return the timestamp
+         */
+        public int getTimestamp(int index) {
+            return this.timestamps[index];
+        }
+
+        /**
+         * Gets whether the snapshot is released.
+         *
+         * @return whether it's released
+         */
+        public boolean isReleased() {
+            return this.released;
+        }
+
+        /**
+         * Releases the snapshot, the region file that is currently open
+         * for the file should be unpinned through {@link #unpin(Snapshot)}.
+         */
+        void release() {
+            this.released = true;
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
         file.getChannel().force(true);
         file.close();
     }
@@ -24,17 +24,30 @@
  */
 package org.lanternpowered.server.data.io.anvil;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.flowpowered.math.vector.Vector2i;
 import org.lanternpowered.server.game.LanternGame;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
+
 /**
  * A simple cache and wrapper for efficiently accessing multiple RegionFiles
  * simultaneously.
@@ -48,14 +61,35 @@ public class RegionFileCache {
     private static final int MAX_CACHE_SIZE = 256;
 
     private final Map<File, Reference<RegionFile>> cache = new HashMap<>();
+    // The region files that aren't cached and are being compacted or snapshotted
+    private final Set<File> compacting = new HashSet<>();
+    // The open snapshots, the region files that are opened while a
+    // snapshot is open will pin the sectors of the snapshot
+    private final Map<File, RegionFile.Snapshot> snapshots = new HashMap<>();
     private final File regionDir;
+    // The compression that is used to write chunks
+    private final ChunkCompression compression;
 
     public RegionFileCache(File basePath, String extension) {
+        this(basePath, extension, ChunkCompressions.DEFLATE);
+    }
+
+    public RegionFileCache(File basePath, String extension, ChunkCompression compression) {
+        this.compression = checkNotNull(compression, "compression");
         this.regionDir = new File(basePath, "region");
     }
 
     public RegionFile getRegionFile(int chunkX, int chunkZ) throws IOException {
-        File file = new File(this.regionDir, "r." + (chunkX >> 5) + "." + (chunkZ >> 5) + "." + REGION_FILE_EXTENSION);
+        return this.getRegionFile(this.getFile(chunkX >> 5, chunkZ >> 5));
+    }
+
+    private File getFile(int regionX, int regionZ) {
+        return new File(this.regionDir, "r." + regionX + "." + regionZ + "." + REGION_FILE_EXTENSION);
+    }
+
+    private synchronized RegionFile getRegionFile(File file) throws IOException {
+        this.awaitCompaction(file);
+
         Reference<RegionFile> ref = this.cache.get(file);
 
         if (ref != null && ref.get() != null) {
@@ -68,12 +102,187 @@ public RegionFile getRegionFile(int chunkX, int chunkZ) throws IOException {
             this.clear();
         }
 
-        RegionFile reg = new RegionFile(file);
+        RegionFile reg = new RegionFile(file, this.compression);
+        final RegionFile.Snapshot snapshot = this.snapshots.get(file);
+        if (snapshot != null) {
+            reg.pin(snapshot);
+        }
         this.cache.put(file, new SoftReference<>(reg));
         return reg;
     }
 
-    public void clear() throws IOException {
+    /* waits until the uncached region file is no longer being compacted or snapshotted */
+    private void awaitCompaction(File file) throws InterruptedIOException {
+        while (this.compacting.contains(file)) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    /**
+     * Compacts the region file at the specified region coordinates if the fragmentation
+     * is at least the minimum fragmentation. Region files that aren't cached won't be
+     * added to the cache, attempts to access them will wait until the compaction is done.
+     *
+     * @param regionX the region x coordinate
+     * @param regionZ the region z coordinate
+     * @param minFragmentation the minimum fragmentation, between 0 and 1
+     * @return the amount of reclaimed bytes
+     * @throws IOException if an i/o error occurs
+     */
+    public long compact(int regionX, int regionZ, double minFragmentation) throws IOException {
+        final File file = this.getFile(regionX, regionZ);
+        RegionFile region;
+        boolean cached = true;
+        synchronized (this) {
+            // The sectors can't be moved while they are referenced by a snapshot
+            if (this.snapshots.containsKey(file)) {
+                return 0;
+            }
+            final Reference<RegionFile> ref = this.cache.get(file);
+            region = ref == null ? null : ref.get();
+            if (region == null) {
+                if (!file.exists() || !this.compacting.add(file)) {
+                    return 0;
+                }
+                cached = false;
+            }
+        }
+        try {
+            if (region == null) {
+                region = new RegionFile(file, this.compression);
+            }
+            return region.getFragmentation() < minFragmentation ? 0 : region.compact();
+        } finally {
+            if (!cached) {
+                try {
+                    if (region != null) {
+                        region.close();
+                    }
+                } finally {
+                    synchronized (this) {
+                        this.compacting.remove(file);
+                        this.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot of the region file at the specified region coordinates,
+     * see {@link RegionFile#snapshot(int)}. The region file isn't kept open by the
+     * snapshot, region files that are opened later on will pin the sectors of the
+     * snapshot until it's released through {@link #release(RegionFile.Snapshot)}.
+     *
+     * @param regionX the region x coordinate
+     * @param regionZ the region z coordinate
+     * @param minTimestamp the minimum timestamp of the chunks, in seconds
+     * @return the snapshot, or null if the region file doesn't exist
+     * @throws IOException if an i/o error occurs
+     */
+    @Nullable
+    public RegionFile.Snapshot snapshot(int regionX, int regionZ, int minTimestamp) throws IOException {
+        final File file = this.getFile(regionX, regionZ);
+        RegionFile region;
+        synchronized (this) {
+            this.awaitCompaction(file);
+            if (!file.exists()) {
+                return null;
+            }
+            checkState(!this.snapshots.containsKey(file), "The region %s already has an open snapshot", file);
+            final Reference<RegionFile> ref = this.cache.get(file);
+            region = ref == null ? null : ref.get();
+            if (region != null) {
+                final RegionFile.Snapshot snapshot = region.snapshot(minTimestamp);
+                this.snapshots.put(file, snapshot);
+                return snapshot;
+            }
+            // Open the file without adding it to the cache, the snapshot of a
+            // region that isn't in use shouldn't evict the other region files
+            this.compacting.add(file);
+        }
+        RegionFile.Snapshot snapshot = null;
+        try {
+            region = new RegionFile(file, this.compression);
+            try {
+                snapshot = region.snapshot(minTimestamp);
+            } finally {
+                region.close();
+            }
+        } finally {
+            synchronized (this) {
+                if (snapshot != null) {
+                    this.snapshots.put(file, snapshot);
+                }
+                this.compacting.remove(file);
+                this.notifyAll();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads the raw data of the chunk at the index of the snapshot, see
+     * {@link RegionFile#read(RegionFile.Snapshot, int)}.
+     *
+     * @param snapshot the snapshot
+     * @param index the index
+     * @return the raw chunk data
+     * @throws IOException if an i/o error occurs
+     */
+    public byte[] read(RegionFile.Snapshot snapshot, int index) throws IOException {
+        while (true) {
+            final byte[] data = this.getRegionFile(snapshot.getPath()).read(snapshot, index);
+            // The region file was closed in the meantime, try again
+            if (data != null) {
+                return data;
+            }
+        }
+    }
+
+    /**
+     * Releases the snapshot that was created through {@link #snapshot(int, int, int)}.
+     *
+     * @param snapshot the snapshot
+     */
+    public synchronized void release(RegionFile.Snapshot snapshot) {
+        final File file = snapshot.getPath();
+        if (!this.snapshots.remove(file, snapshot)) {
+            return;
+        }
+        snapshot.release();
+        final Reference<RegionFile> ref = this.cache.get(file);
+        final RegionFile region = ref == null ? null : ref.get();
+        if (region != null) {
+            region.unpin(snapshot);
+        }
+    }
+
+    /**
+     * Gets the coordinates of all the region files that exist.
+     *
+     * @return the region coordinates
+     */
+    public List<Vector2i> getRegions() {
+        final File[] files = this.regionDir.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        final List<Vector2i> regions = new ArrayList<>();
+        for (File file : files) {
+            final Matcher matcher = REGION_FILE_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                regions.add(new Vector2i(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return regions;
+    }
+
+    public synchronized void clear() throws IOException {
         for (Reference<RegionFile> ref : this.cache.values()) {
             RegionFile value = ref.get();
             if (value != null) {
@@ -0,0 +1,407 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.persistence.nbt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.*;
+
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+
+/**
+ * A nbt writer that encodes the tags directly into a growable byte buffer, without
+ * building a data view tree first. The buffer can be reset and reused, so that the
+ * encoding won't allocate anything once the buffer is large enough.
+ *
+ * <p>The entries of a compound are written through the named write methods and the
+ * compound is closed with {@link #endCompound()}. The elements of a compound list
+ * are written in the same way, as unnamed compounds.</p>
+ */
+public final class NbtStreamWriter {
+
+    // The maximum amount of nested compounds and lists
+    private static final int MAX_DEPTH = 64;
+
+    // The content of the writer
+    private byte[] buf;
+    private int count;
+
+    // The amount of open compounds
+    private int depth;
+
+    /**
+     * Creates a new nbt stream writer.
+     *
+     * @param initialCapacity the initial capacity of the buffer
+     */
+    public NbtStreamWriter(int initialCapacity) {
+        checkArgument(initialCapacity >= 0, "initialCapacity cannot be negative");
+        this.buf = new byte[initialCapacity];
+    }
+
+    /**
+     * Resets the writer so that the buffer can be reused.
+     */
+    public void reset() {
+        this.count = 0;
+        this.depth = 0;
+    }
+
+    /**
+     * Gets the backing buffer of the writer, only the first {@link #size()}
+     * bytes contain the written content.
+     *
+     * @return the buffer
+     */
+    public byte[] getBuffer() {
+        return this.buf;
+    }
+
+    /**
+     * Gets the amount of bytes that were written.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Starts a compound tag with the specified name, the root
+     * compound has an empty name.
+     *
+     * @param name the name
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter beginCompound(String name) throws UTFDataFormatException {
+        this.writeHeader(COMPOUND, name);
+        this.enter();
+        return this;
+    }
+
+    /**
+     * Ends the current compound tag, or the current
+     * element of a compound list.
+     *
+     * @return this writer, for chaining
+     */
+    public NbtStreamWriter endCompound() {
+        checkState(this.depth > 0, "There is no open compound");
+        this.depth--;
+        this.ensureCapacity(1);
+        this.buf[this.count++] = END;
+        return this;
+    }
+
+    /**
+     * Starts a list tag of which all the elements are compounds. Exactly
+     * {@code size} elements must be written afterwards, each element
+     * is ended with {@link #endCompound()}.
+     *
+     * @param name the name
+     * @param size the amount of elements
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter beginCompoundList(String name, int size) throws UTFDataFormatException {
+        checkArgument(size >= 0, "size cannot be negative");
+        this.writeHeader(LIST, name);
+        this.writeRawByte(size == 0 ? END : COMPOUND);
+        this.writeRawInt(size);
+        return this;
+    }
+
+    /**
+     * Starts the next element of a compound list.
+     *
+     * @return this writer, for chaining
+     */
+    public NbtStreamWriter beginListElement() {
+        this.enter();
+        return this;
+    }
+
+    /**
+     * Writes a byte tag.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeByte(String name, int value) throws UTFDataFormatException {
+        this.writeHeader(BYTE, name);
+        this.writeRawByte(value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean as a byte tag, with the same naming convention
+     * as the {@link NbtDataContainerOutputStream}.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeBoolean(String name, boolean value) throws UTFDataFormatException {
+        return this.writeByte(name + BOOLEAN_IDENTIFER, value ? 1 : 0);
+    }
+
+    /**
+     * Writes a short tag.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeShort(String name, int value) throws UTFDataFormatException {
+        this.writeHeader(SHORT, name);
+        this.writeRawShort(value);
+        return this;
+    }
+
+    /**
+     * Writes an int tag.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeInt(String name, int value) throws UTFDataFormatException {
+        this.writeHeader(INT, name);
+        this.writeRawInt(value);
+        return this;
+    }
+
+    /**
+     * Writes a long tag.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeLong(String name, long value) throws UTFDataFormatException {
+        this.writeHeader(LONG, name);
+        this.writeRawInt((int) (value >>> 32));
+        this.writeRawInt((int) value);
+        return this;
+    }
+
+    /**
+     * Writes a float tag.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeFloat(String name, float value) throws UTFDataFormatException {
+        this.writeHeader(FLOAT, name);
+        this.writeRawInt(Float.floatToIntBits(value));
+        return this;
+    }
+
+    /**
+     * Writes a double tag.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeDouble(String name, double value) throws UTFDataFormatException {
+        this.writeHeader(DOUBLE, name);
+        final long bits = Double.doubleToLongBits(value);
+        this.writeRawInt((int) (bits >>> 32));
+        this.writeRawInt((int) bits);
+        return this;
+    }
+
+    /**
+     * Writes a string tag.
+     *
+     * @param name the name
+     * @param value the value
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeString(String name, String value) throws UTFDataFormatException {
+        this.writeHeader(STRING, name);
+        this.writeUTF(checkNotNull(value, "value"));
+        return this;
+    }
+
+    /**
+     * Writes a byte array tag.
+     *
+     * @param name the name
+     * @param array the array
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeByteArray(String name, byte[] array) throws UTFDataFormatException {
+        return this.writeByteArray(name, array, 0, array.length);
+    }
+
+    /**
+     * Writes a byte array tag with a part of the array.
+     *
+     * @param name the name
+     * @param array the array
+     * @param offset the offset of the content
+     * @param length the length of the content
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeByteArray(String name, byte[] array, int offset, int length) throws UTFDataFormatException {
+        checkNotNull(array, "array");
+        System.arraycopy(array, offset, this.buf, this.reserveByteArray(name, length), length);
+        return this;
+    }
+
+    /**
+     * Writes the header of a byte array tag and reserves the space for its
+     * content. The content should be written directly into the buffer at
+     * the returned offset, before the buffer gets modified again.
+     *
+     * @param name the name
+     * @param length the length of the byte array
+     * @return the offset of the content in the buffer
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public int reserveByteArray(String name, int length) throws UTFDataFormatException {
+        checkArgument(length >= 0, "length cannot be negative");
+        this.writeHeader(BYTE_ARRAY, name);
+        this.writeRawInt(length);
+        this.ensureCapacity(length);
+        final int offset = this.count;
+        this.count += length;
+        return offset;
+    }
+
+    /**
+     * Writes an int array tag.
+     *
+     * @param name the name
+     * @param array the array
+     * @return this writer, for chaining
+     * @throws UTFDataFormatException if the name is too long
+     */
+    public NbtStreamWriter writeIntArray(String name, int[] array) throws UTFDataFormatException {
+        checkNotNull(array, "array");
+        this.writeHeader(INT_ARRAY, name);
+        this.writeRawInt(array.length);
+        this.ensureCapacity(array.length * 4);
+        for (int value : array) {
+            this.writeRawInt(value);
+        }
+        return this;
+    }
+
+    private void enter() {
+        checkState(this.depth < MAX_DEPTH, "Reached the maximum depth of %s", MAX_DEPTH);
+        this.depth++;
+    }
+
+    private void writeHeader(byte type, String name) throws UTFDataFormatException {
+        this.writeRawByte(type);
+        this.writeUTF(checkNotNull(name, "name"));
+    }
+
+    private void writeRawByte(int value) {
+        this.ensureCapacity(1);
+        this.buf[this.count++] = (byte) value;
+    }
+
+    private void writeRawShort(int value) {
+        this.ensureCapacity(2);
+        final byte[] buf = this.buf;
+        buf[this.count++] = (byte) (value >>> 8);
+        buf[this.count++] = (byte) value;
+    }
+
+    private void writeRawInt(int value) {
+        this.ensureCapacity(4);
+        final byte[] buf = this.buf;
+        buf[this.count++] = (byte) (value >>> 24);
+        buf[this.count++] = (byte) (value >>> 16);
+        buf[this.count++] = (byte) (value >>> 8);
+        buf[this.count++] = (byte) value;
+    }
+
+    /**
+     * Writes the string in the modified utf-8 format,
+     * see {@link java.io.DataOutput#writeUTF(String)}.
+     */
+    private void writeUTF(String value) throws UTFDataFormatException {
+        final int length = value.length();
+        int utfLength = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007f) {
+                utfLength++;
+            } else if (c > 0x07ff) {
+                utfLength += 3;
+            } else {
+                utfLength += 2;
+            }
+        }
+        if (utfLength > 0xffff) {
+            throw new UTFDataFormatException("The encoded string is too long: " + utfLength + " bytes");
+        }
+        this.writeRawShort(utfLength);
+        this.ensureCapacity(utfLength);
+        final byte[] buf = this.buf;
+        int count = this.count;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007f) {
+                buf[count++] = (byte) c;
+            } else if (c > 0x07ff) {
+                buf[count++] = (byte) (0xe0 | ((c >> 12) & 0x0f));
+                buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[count++] = (byte) (0x80 | (c & 0x3f));
+            } else {
+                buf[count++] = (byte) (0xc0 | ((c >> 6) & 0x1f));
+                buf[count++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        this.count = count;
+    }
+
+    private void ensureCapacity(int length) {
+        final int minCapacity = this.count + length;
+        if (minCapacity > this.buf.length) {
+            this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length << 1, minCapacity));
+        }
+    }
+}
@@ -31,6 +31,11 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.lanternpowered.server.data.property.common.AbstractBlockPropertyStore;
+import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.data.Property;
 import org.spongepowered.api.data.property.PropertyHolder;
 import org.spongepowered.api.data.property.PropertyRegistry;
@@ -52,26 +57,143 @@ public static LanternPropertyRegistry getInstance() {
 
     private final Map<Class<? extends Property<?, ?>>, List<PropertyStore<?>>> propertyStoreMap = Maps.newConcurrentMap();
     private final Map<Class<? extends Property<?, ?>>, PropertyStoreDelegate<?>> delegateMap = Maps.newConcurrentMap();
-    private boolean allowRegistrations = true;
+    private volatile boolean allowRegistrations = true;
+
+    // The ids of the property classes, the ids are dense and assigned once
+    // the registrations are complete
+    private final TObjectIntMap<Class<?>> propertyIds = new TObjectIntHashMap<>(
+            Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+
+    // The store delegates, indexed by the property id
+    private PropertyStoreDelegate<?>[] delegates = new PropertyStoreDelegate<?>[0];
+
+    // Whether the property only depends on the block state, which
+    // means that it can be baked per block state, indexed by the property id
+    private boolean[] stateBound = new boolean[0];
 
     private LanternPropertyRegistry() {
     }
 
     @SuppressWarnings("unchecked")
     public void completeRegistration() {
-        this.allowRegistrations = false;
+        final int count = this.propertyStoreMap.size();
+        final PropertyStoreDelegate<?>[] delegates = new PropertyStoreDelegate<?>[count];
+        final boolean[] stateBound = new boolean[count];
+        int id = 0;
         for (Map.Entry<Class<? extends Property<?, ?>>, List<PropertyStore<?>>> entry : this.propertyStoreMap.entrySet()) {
             ImmutableList.Builder<PropertyStore<?>> propertyStoreBuilder = ImmutableList.builder();
             Collections.sort(entry.getValue(), (o1, o2) -> Integer.compare(o2.getPriority(), o1.getPriority()));
             propertyStoreBuilder.addAll(entry.getValue());
-            this.delegateMap.put(entry.getKey(), new PropertyStoreDelegate(propertyStoreBuilder.build()));
+            final PropertyStoreDelegate delegate = new PropertyStoreDelegate(propertyStoreBuilder.build());
+            this.delegateMap.put(entry.getKey(), delegate);
+            // Only block property stores are guaranteed to resolve the property
+            // from the block state alone, any other store may depend on the location
+            stateBound[id] = entry.getValue().stream().allMatch(store -> store instanceof AbstractBlockPropertyStore);
+            delegates[id] = delegate;
+            this.propertyIds.put(entry.getKey(), id++);
         }
         this.propertyStoreMap.clear();
+        this.delegates = delegates;
+        this.stateBound = stateBound;
+        this.allowRegistrations = false;
+    }
+
+    /**
+     * Gets whether the registrations are complete and the property ids are assigned.
+     *
+     * @return whether the registrations are complete
+     */
+    public boolean isRegistrationComplete() {
+        return !this.allowRegistrations;
+    }
+
+    /**
+     * Gets the id of the specified property class, will return {@code -1} if
+     * there is no store registered for the property or if the registrations
+     * aren't completed yet.
+     *
+     * @param propertyClass the property class
+     * @return the property id
+     */
+    public int getPropertyId(Class<? extends Property<?, ?>> propertyClass) {
+        return this.propertyIds.get(checkNotNull(propertyClass, "propertyClass"));
+    }
+
+    /**
+     * Resolves all the properties that only depend on the block state for the specified
+     * block state. The resulting array is indexed by the property id, the entries of
+     * properties that can't be baked will be {@code null}.
+     *
+     * @param blockState the block state
+     * @return the baked properties
+     */
+    public Optional<?>[] bakeProperties(BlockState blockState) {
+        checkNotNull(blockState, "blockState");
+        checkState(!this.allowRegistrations, "The registrations aren't completed yet!");
+        final Optional<?>[] properties = new Optional<?>[this.delegates.length];
+        for (int i = 0; i < properties.length; i++) {
+            if (this.stateBound[i]) {
+                properties[i] = this.delegates[i].getFor(blockState);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Gets the property with the specified id for the holder, using the baked
+     * properties when possible.
+     *
+     * @param holder the property holder
+     * @param bakedProperties the baked properties
+     * @param propertyId the property id
+     * @return the property if present
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Property<?, ?>> Optional<T> getFor(PropertyHolder holder, Optional<?>[] bakedProperties,
+            int propertyId) {
+        final Optional<?> property = bakedProperties[propertyId];
+        if (property != null) {
+            return (Optional<T>) property;
+        }
+        return (Optional<T>) this.delegates[propertyId].getFor(holder);
+    }
+
+    /**
+     * Gets all the properties for the holder, using the baked properties when possible.
+     *
+     * @param holder the property holder
+     * @param bakedProperties the baked properties
+     * @return the properties
+     */
+    public Collection<Property<?, ?>> getPropertiesFor(PropertyHolder holder, Optional<?>[] bakedProperties) {
+        final ImmutableList.Builder<Property<?, ?>> builder = ImmutableList.builder();
+        for (int i = 0; i < bakedProperties.length; i++) {
+            final Optional<? extends Property<?, ?>> optional = this.getFor(holder, bakedProperties, i);
+            if (optional.isPresent()) {
+                builder.add(optional.get());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets whether all the properties could be baked.
+     *
+     * @param bakedProperties the baked properties
+     * @return whether all the properties are baked
+     */
+    public boolean isFullyBaked(Optional<?>[] bakedProperties) {
+        for (Optional<?> property : bakedProperties) {
+            if (property == null) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public <T extends Property<?, ?>> void register(Class<T> propertyClass, PropertyStore<T> propertyStore) {
-        checkState(allowRegistrations, "Registrations are no longer allowed!");
+        checkState(this.allowRegistrations, "Registrations are no longer allowed!");
         checkArgument(propertyClass != null, "The property class can not be null!");
         if (!this.propertyStoreMap.containsKey(propertyClass)) {
             this.propertyStoreMap.put(propertyClass, Collections.synchronizedList(Lists.<PropertyStore<?>>newArrayList()));
@@ -45,6 +45,14 @@
 public abstract class AbstractBlockPropertyStore<T extends Property<?, ?>> extends AbstractLanternPropertyStore<T>
         implements DirectionRelativePropertyStore<T> {
 
+    /**
+     * Gets the property for the specified block state. The result without a direction
+     * may only depend on the block state, because it will be baked per block state.
+     *
+     * @param blockState the block state
+     * @param direction the direction, if present
+     * @return the property if present
+     */
     protected abstract Optional<T> getFor(BlockState blockState, @Nullable Direction direction);
 
     @Override
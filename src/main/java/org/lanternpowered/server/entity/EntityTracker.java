@@ -0,0 +1,370 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.entity;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutDestroyEntities;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The entity tracker of a world, all the entities and players are stored in
+ * a spatial hash grid. The viewers of each entity are only recalculated when
+ * the entity or a player moves to a different cell, and updates are only
+ * send for entities that visibly changed.
+ *
+ * <p>This tracker is not thread-safe and should only be
+ * accessed from the main thread.</p>
+ */
+public final class EntityTracker {
+
+    // The size of a cell in the spatial hash grid, as bit shift (32 blocks)
+    private static final int CELL_SHIFT = 5;
+
+    // The size of a cell in the spatial hash grid
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    // The default tracking range of entities in blocks
+    public static final int DEFAULT_TRACKING_RANGE = 64;
+
+    private static final class Cell {
+
+        private final List<EntityTrackerEntry> entries = new ArrayList<>();
+        private final List<TrackedPlayer> players = new ArrayList<>();
+
+        private boolean isEmpty() {
+            return this.entries.isEmpty() && this.players.isEmpty();
+        }
+    }
+
+    private static final class TrackedPlayer {
+
+        private final LanternPlayer player;
+
+        private int cellX;
+        private int cellZ;
+
+        private TrackedPlayer(LanternPlayer player, int cellX, int cellZ) {
+            this.player = player;
+            this.cellX = cellX;
+            this.cellZ = cellZ;
+        }
+    }
+
+    // All the cells that contain entities or players
+    private final TLongObjectMap<Cell> cells = new TLongObjectHashMap<>();
+
+    // All the tracked entities
+    private final Map<LanternEntity, EntityTrackerEntry> entries = new IdentityHashMap<>();
+
+    // All the tracked players
+    private final Map<LanternPlayer, TrackedPlayer> players = new IdentityHashMap<>();
+
+    // The entities that should be destroyed for each player at the end of the tick
+    private final Map<LanternPlayer, TIntArrayList> pendingDestroys = new IdentityHashMap<>();
+
+    // The maximum range (in cells) of all the tracked entities
+    private int maxRangeCells;
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xffffffffL);
+    }
+
+    private static int toCell(double value) {
+        return (int) Math.floor(value) >> CELL_SHIFT;
+    }
+
+    private static int distance(int cellX1, int cellZ1, int cellX2, int cellZ2) {
+        return Math.max(Math.abs(cellX1 - cellX2), Math.abs(cellZ1 - cellZ2));
+    }
+
+    private Cell getOrCreateCell(int cellX, int cellZ) {
+        final long key = key(cellX, cellZ);
+        Cell cell = this.cells.get(key);
+        if (cell == null) {
+            this.cells.put(key, cell = new Cell());
+        }
+        return cell;
+    }
+
+    private void removeFromCell(int cellX, int cellZ, Object object) {
+        final long key = key(cellX, cellZ);
+        final Cell cell = this.cells.get(key);
+        if (cell != null) {
+            if (object instanceof EntityTrackerEntry) {
+                cell.entries.remove(object);
+            } else {
+                cell.players.remove(object);
+            }
+            if (cell.isEmpty()) {
+                this.cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Starts tracking the entity with the default tracking range.
+     *
+     * @param entity the entity
+     */
+    public void track(LanternEntity entity) {
+        this.track(entity, DEFAULT_TRACKING_RANGE);
+    }
+
+    /**
+     * Starts tracking the entity with the specified tracking range.
+     *
+     * @param entity the entity
+     * @param trackingRange the tracking range in blocks
+     */
+    public void track(LanternEntity entity, int trackingRange) {
+        checkNotNull(entity, "entity");
+        checkArgument(trackingRange > 0, "trackingRange must be greater then zero");
+        if (this.entries.containsKey(entity)) {
+            return;
+        }
+        if (!EntityTrackerEntry.isSpawnable(entity)) {
+            return;
+        }
+        final int rangeCells = (trackingRange + CELL_SIZE - 1) >> CELL_SHIFT;
+        final EntityTrackerEntry entry = new EntityTrackerEntry(entity, rangeCells);
+        entry.cellX = toCell(entity.x);
+        entry.cellZ = toCell(entity.z);
+        this.entries.put(entity, entry);
+        this.getOrCreateCell(entry.cellX, entry.cellZ).entries.add(entry);
+        this.maxRangeCells = Math.max(this.maxRangeCells, rangeCells);
+        this.updateViewers(entry);
+        if (entity instanceof LanternPlayer) {
+            this.addPlayer((LanternPlayer) entity);
+        }
+    }
+
+    /**
+     * Stops tracking the entity, the entity will be
+     * destroyed for all the players that could see it.
+     *
+     * @param entity the entity
+     */
+    public void untrack(LanternEntity entity) {
+        checkNotNull(entity, "entity");
+        final EntityTrackerEntry entry = this.entries.remove(entity);
+        if (entry != null) {
+            this.removeFromCell(entry.cellX, entry.cellZ, entry);
+            for (LanternPlayer viewer : entry.viewers) {
+                this.queueDestroy(viewer, entity.getEntityId());
+            }
+            entry.viewers.clear();
+        }
+        if (entity instanceof LanternPlayer) {
+            this.removePlayer((LanternPlayer) entity);
+        }
+    }
+
+    private void addPlayer(LanternPlayer player) {
+        final TrackedPlayer trackedPlayer = new TrackedPlayer(player, toCell(player.x), toCell(player.z));
+        this.players.put(player, trackedPlayer);
+        this.getOrCreateCell(trackedPlayer.cellX, trackedPlayer.cellZ).players.add(trackedPlayer);
+        this.updateVisibility(trackedPlayer, trackedPlayer.cellX, trackedPlayer.cellZ);
+    }
+
+    private void removePlayer(LanternPlayer player) {
+        final TrackedPlayer trackedPlayer = this.players.remove(player);
+        if (trackedPlayer == null) {
+            return;
+        }
+        this.removeFromCell(trackedPlayer.cellX, trackedPlayer.cellZ, trackedPlayer);
+        // The client will forget all the entities by itself, only the entities
+        // within the maximum range of the cell can have the player as viewer
+        final int range = this.maxRangeCells;
+        for (int x = trackedPlayer.cellX - range; x <= trackedPlayer.cellX + range; x++) {
+            for (int z = trackedPlayer.cellZ - range; z <= trackedPlayer.cellZ + range; z++) {
+                final Cell cell = this.cells.get(key(x, z));
+                if (cell != null) {
+                    for (EntityTrackerEntry entry : cell.entries) {
+                        entry.viewers.remove(player);
+                    }
+                }
+            }
+        }
+        this.pendingDestroys.remove(player);
+    }
+
+    /**
+     * Recalculates all the viewers of the entry, should be called
+     * when the entity was added or moved to a different cell.
+     *
+     * @param entry the entry
+     */
+    private void updateViewers(EntityTrackerEntry entry) {
+        final int range = entry.rangeCells;
+        // Remove the viewers that are no longer in range
+        final Iterator<LanternPlayer> it = entry.viewers.iterator();
+        while (it.hasNext()) {
+            final LanternPlayer viewer = it.next();
+            final TrackedPlayer trackedPlayer = this.players.get(viewer);
+            if (trackedPlayer == null || distance(entry.cellX, entry.cellZ, trackedPlayer.cellX, trackedPlayer.cellZ) > range) {
+                it.remove();
+                this.queueDestroy(viewer, entry.entity.getEntityId());
+            }
+        }
+        // Add the players that are now in range
+        for (int x = entry.cellX - range; x <= entry.cellX + range; x++) {
+            for (int z = entry.cellZ - range; z <= entry.cellZ + range; z++) {
+                final Cell cell = this.cells.get(key(x, z));
+                if (cell == null) {
+                    continue;
+                }
+                for (TrackedPlayer trackedPlayer : cell.players) {
+                    if (trackedPlayer.player != entry.entity && entry.addViewer(trackedPlayer.player)) {
+                        this.cancelDestroy(trackedPlayer.player, entry.entity.getEntityId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the visibility of all the entities for the player that were in range
+     * of the old or the new cell, should be called when the player was added
+     * or moved to a different cell.
+     *
+     * @param trackedPlayer the tracked player
+     * @param oldCellX the old cell x coordinate
+     * @param oldCellZ the old cell z coordinate
+     */
+    private void updateVisibility(TrackedPlayer trackedPlayer, int oldCellX, int oldCellZ) {
+        final int range = this.maxRangeCells;
+        if (distance(oldCellX, oldCellZ, trackedPlayer.cellX, trackedPlayer.cellZ) > range * 2) {
+            // The areas don't overlap, process them separately
+            this.updateVisibility(trackedPlayer, oldCellX - range, oldCellZ - range, oldCellX + range, oldCellZ + range);
+            this.updateVisibility(trackedPlayer, trackedPlayer.cellX - range, trackedPlayer.cellZ - range,
+                    trackedPlayer.cellX + range, trackedPlayer.cellZ + range);
+        } else {
+            this.updateVisibility(trackedPlayer, Math.min(oldCellX, trackedPlayer.cellX) - range,
+                    Math.min(oldCellZ, trackedPlayer.cellZ) - range, Math.max(oldCellX, trackedPlayer.cellX) + range,
+                    Math.max(oldCellZ, trackedPlayer.cellZ) + range);
+        }
+    }
+
+    private void updateVisibility(TrackedPlayer trackedPlayer, int minX, int minZ, int maxX, int maxZ) {
+        final LanternPlayer player = trackedPlayer.player;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                final Cell cell = this.cells.get(key(x, z));
+                if (cell == null) {
+                    continue;
+                }
+                for (EntityTrackerEntry entry : cell.entries) {
+                    if (entry.entity == player) {
+                        continue;
+                    }
+                    final boolean visible = distance(entry.cellX, entry.cellZ,
+                            trackedPlayer.cellX, trackedPlayer.cellZ) <= entry.rangeCells;
+                    if (visible) {
+                        if (entry.addViewer(player)) {
+                            this.cancelDestroy(player, entry.entity.getEntityId());
+                        }
+                    } else if (entry.viewers.remove(player)) {
+                        this.queueDestroy(player, entry.entity.getEntityId());
+                    }
+                }
+            }
+        }
+    }
+
+    private void queueDestroy(LanternPlayer player, int entityId) {
+        this.pendingDestroys.computeIfAbsent(player, player0 -> new TIntArrayList()).add(entityId);
+    }
+
+    private void cancelDestroy(LanternPlayer player, int entityId) {
+        final TIntArrayList list = this.pendingDestroys.get(player);
+        if (list != null) {
+            list.remove(entityId);
+        }
+    }
+
+    /**
+     * Pulses the entity tracker, this will update the cells of all the entities
+     * and players and send the changes of the entities to their viewers.
+     */
+    public void pulse() {
+        // Move the players to their new cells
+        for (TrackedPlayer trackedPlayer : this.players.values()) {
+            final int cellX = toCell(trackedPlayer.player.x);
+            final int cellZ = toCell(trackedPlayer.player.z);
+            if (cellX != trackedPlayer.cellX || cellZ != trackedPlayer.cellZ) {
+                final int oldCellX = trackedPlayer.cellX;
+                final int oldCellZ = trackedPlayer.cellZ;
+                this.removeFromCell(oldCellX, oldCellZ, trackedPlayer);
+                trackedPlayer.cellX = cellX;
+                trackedPlayer.cellZ = cellZ;
+                this.getOrCreateCell(cellX, cellZ).players.add(trackedPlayer);
+                this.updateVisibility(trackedPlayer, oldCellX, oldCellZ);
+            }
+        }
+        // Move the entities to their new cells and send the updates
+        for (EntityTrackerEntry entry : this.entries.values()) {
+            final int cellX = toCell(entry.entity.x);
+            final int cellZ = toCell(entry.entity.z);
+            if (cellX != entry.cellX || cellZ != entry.cellZ) {
+                this.removeFromCell(entry.cellX, entry.cellZ, entry);
+                entry.cellX = cellX;
+                entry.cellZ = cellZ;
+                this.getOrCreateCell(cellX, cellZ).entries.add(entry);
+                this.updateViewers(entry);
+                entry.wakeUp();
+            }
+            if (entry.viewers.isEmpty() || !entry.tick()) {
+                continue;
+            }
+            int nearestViewerDistance = Integer.MAX_VALUE;
+            for (LanternPlayer viewer : entry.viewers) {
+                final TrackedPlayer trackedPlayer = this.players.get(viewer);
+                nearestViewerDistance = Math.min(nearestViewerDistance, distance(
+                        entry.cellX, entry.cellZ, trackedPlayer.cellX, trackedPlayer.cellZ));
+            }
+            entry.update(nearestViewerDistance);
+        }
+        // Send all the destroyed entities at once
+        if (!this.pendingDestroys.isEmpty()) {
+            for (Map.Entry<LanternPlayer, TIntArrayList> entry : this.pendingDestroys.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    entry.getKey().getConnection().send(new MessagePlayOutDestroyEntities(entry.getValue().toArray()));
+                }
+            }
+            this.pendingDestroys.clear();
+        }
+    }
+}
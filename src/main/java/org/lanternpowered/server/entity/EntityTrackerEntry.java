@@ -0,0 +1,309 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.entity;
+
+import static org.lanternpowered.server.network.vanilla.message.codec.play.CodecUtils.unwrapAngle;
+import static org.lanternpowered.server.network.vanilla.message.codec.play.CodecUtils.wrapAngle;
+
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.objects.Parameter;
+import org.lanternpowered.server.network.objects.ParameterTypes;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityHeadLook;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityLook;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityLookAndRelativeMove;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityRelativeMove;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityTeleport;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityVelocity;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutSpawnPlayer;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents a entity that is being tracked by the {@link EntityTracker}. All
+ * the values that were send to the client are stored in the quantized format
+ * of the protocol, this allows us to only send updates if the client would
+ * actually see a difference.
+ */
+final class EntityTrackerEntry {
+
+    // The amount of ticks after which the absolute position of a moving
+    // entity will be resend to correct the client side rounding errors
+    private static final int TELEPORT_INTERVAL = 400;
+
+    // The maximum (absolute) value of a relative movement in fixed point
+    private static final int MAX_RELATIVE_MOVE = 127;
+
+    // The velocity will be clamped to this value by the client
+    private static final double MAX_VELOCITY = 3.9;
+
+    // The amount of ticks without changes before a entity is considered idle
+    private static final int IDLE_TICKS = 20;
+
+    // The maximum interval between two updates
+    private static final int MAX_UPDATE_INTERVAL = 8;
+
+    // The metadata that is send when a player is spawned, the
+    // client expects at least one entry (the entity flags)
+    private static final List<Parameter<?>> SPAWN_PARAMETERS = ImmutableList.of(
+            new Parameter<>(ParameterTypes.BYTE, 0, (byte) 0));
+
+    final LanternEntity entity;
+
+    // The players that can see this entity
+    final Set<LanternPlayer> viewers = Sets.newIdentityHashSet();
+
+    // The range (in cells) in which the entity will be visible
+    final int rangeCells;
+
+    // The cell coordinates of the entity
+    int cellX;
+    int cellZ;
+
+    // The last values that were send to the client
+    private int lastX;
+    private int lastY;
+    private int lastZ;
+    private byte lastYaw;
+    private byte lastPitch;
+    private byte lastHeadYaw;
+    private boolean lastOnGround;
+    private int lastVelX;
+    private int lastVelY;
+    private int lastVelZ;
+
+    // The amount of ticks since the last teleport message
+    private int ticksSinceTeleport;
+
+    // The amount of ticks that the entity didn't change
+    private int idleTicks;
+
+    // The interval between two updates, this interval will be increased
+    // for entities that are idle or far away from all the viewers
+    private int updateInterval = 1;
+    private int ticksUntilUpdate;
+
+    EntityTrackerEntry(LanternEntity entity, int rangeCells) {
+        this.rangeCells = rangeCells;
+        this.entity = entity;
+        this.resync();
+    }
+
+    /**
+     * Resets the last send state to the current state of the entity.
+     */
+    private void resync() {
+        final LanternEntity entity = this.entity;
+        this.lastX = toFixed(entity.x);
+        this.lastY = toFixed(entity.y);
+        this.lastZ = toFixed(entity.z);
+        this.lastYaw = wrapAngle(entity.yaw);
+        this.lastPitch = wrapAngle(entity.pitch);
+        this.lastHeadYaw = entity instanceof LanternEntityLiving ? wrapAngle(((LanternEntityLiving) entity).headYaw) : 0;
+        this.lastOnGround = entity.isOnGround();
+        this.lastVelX = toVelocity(entity.motionX);
+        this.lastVelY = toVelocity(entity.motionY);
+        this.lastVelZ = toVelocity(entity.motionZ);
+    }
+
+    private static int toFixed(double value) {
+        return (int) Math.floor(value * 32.0);
+    }
+
+    private static int toVelocity(double value) {
+        return (int) (Math.max(-MAX_VELOCITY, Math.min(MAX_VELOCITY, value)) * 8000.0);
+    }
+
+    /**
+     * Gets whether the entity can be spawned on the client,
+     * only these entities can be tracked.
+     *
+     * @param entity the entity
+     * @return whether the entity can be spawned
+     */
+    static boolean isSpawnable(LanternEntity entity) {
+        return entity instanceof LanternPlayer;
+    }
+
+    /**
+     * Adds the viewer and spawns the entity for it. The entity is spawned with the
+     * last send state, so that the next update applies to all the viewers.
+     *
+     * @param viewer the viewer
+     * @return whether the viewer wasn't already present
+     */
+    boolean addViewer(LanternPlayer viewer) {
+        if (this.viewers.contains(viewer)) {
+            return false;
+        }
+        // Nobody received the last send state yet, start from the current state
+        if (this.viewers.isEmpty()) {
+            this.resync();
+        }
+        this.viewers.add(viewer);
+        final LanternEntity entity = this.entity;
+        final int entityId = entity.getEntityId();
+        final Vector3d position = new Vector3d(this.lastX / 32.0, this.lastY / 32.0, this.lastZ / 32.0);
+        final float yaw = unwrapAngle(this.lastYaw);
+        final float pitch = unwrapAngle(this.lastPitch);
+        final Message spawnMessage = new MessagePlayOutSpawnPlayer(entityId, ((LanternPlayer) entity).getProfile().getUniqueId(),
+                position, yaw, pitch, SPAWN_PARAMETERS);
+        final Message velocityMessage = new MessagePlayOutEntityVelocity(entityId, new Vector3d(
+                this.lastVelX / 8000.0, this.lastVelY / 8000.0, this.lastVelZ / 8000.0));
+        final Message headLookMessage = new MessagePlayOutEntityHeadLook(entityId, unwrapAngle(this.lastHeadYaw));
+        viewer.getConnection().sendAll(spawnMessage, velocityMessage, headLookMessage);
+        return true;
+    }
+
+    /**
+     * Ticks the entry and gets whether a update should be done.
+     *
+     * @return whether {@link #update(int)} should be called
+     */
+    boolean tick() {
+        return --this.ticksUntilUpdate <= 0;
+    }
+
+    /**
+     * Updates the viewers of the entity with the changes since the last
+     * update, nothing will be send if the entity didn't change.
+     *
+     * @param nearestViewerDistance the distance (in cells) to the nearest viewer
+     */
+    void update(int nearestViewerDistance) {
+        final int elapsed = this.updateInterval;
+
+        final LanternEntity entity = this.entity;
+        final int entityId = entity.getEntityId();
+
+        final int x = toFixed(entity.x);
+        final int y = toFixed(entity.y);
+        final int z = toFixed(entity.z);
+        final int dx = x - this.lastX;
+        final int dy = y - this.lastY;
+        final int dz = z - this.lastZ;
+
+        final byte yaw = wrapAngle(entity.yaw);
+        final byte pitch = wrapAngle(entity.pitch);
+        final boolean onGround = entity.isOnGround();
+
+        final boolean moved = dx != 0 || dy != 0 || dz != 0;
+        final boolean rotated = yaw != this.lastYaw || pitch != this.lastPitch;
+
+        Message movementMessage = null;
+        this.ticksSinceTeleport += elapsed;
+        if (moved && (this.ticksSinceTeleport >= TELEPORT_INTERVAL || Math.abs(dx) > MAX_RELATIVE_MOVE ||
+                Math.abs(dy) > MAX_RELATIVE_MOVE || Math.abs(dz) > MAX_RELATIVE_MOVE)) {
+            movementMessage = new MessagePlayOutEntityTeleport(entityId, new Vector3d(x / 32.0, y / 32.0, z / 32.0),
+                    entity.yaw, entity.pitch, onGround);
+            this.ticksSinceTeleport = 0;
+        } else if (moved && rotated) {
+            movementMessage = new MessagePlayOutEntityLookAndRelativeMove(entityId, new Vector3d(dx / 32.0, dy / 32.0, dz / 32.0),
+                    entity.yaw, entity.pitch, onGround);
+        } else if (moved || onGround != this.lastOnGround) {
+            movementMessage = new MessagePlayOutEntityRelativeMove(entityId, new Vector3d(dx / 32.0, dy / 32.0, dz / 32.0),
+                    onGround);
+        } else if (rotated) {
+            movementMessage = new MessagePlayOutEntityLook(entityId, entity.yaw, entity.pitch, onGround);
+        }
+        if (movementMessage != null) {
+            this.lastX = x;
+            this.lastY = y;
+            this.lastZ = z;
+            this.lastYaw = yaw;
+            this.lastPitch = pitch;
+            this.lastOnGround = onGround;
+        }
+
+        Message headLookMessage = null;
+        if (entity instanceof LanternEntityLiving) {
+            final float headYaw0 = ((LanternEntityLiving) entity).headYaw;
+            final byte headYaw = wrapAngle(headYaw0);
+            if (headYaw != this.lastHeadYaw) {
+                headLookMessage = new MessagePlayOutEntityHeadLook(entityId, headYaw0);
+                this.lastHeadYaw = headYaw;
+            }
+        }
+
+        Message velocityMessage = null;
+        final int velX = toVelocity(entity.motionX);
+        final int velY = toVelocity(entity.motionY);
+        final int velZ = toVelocity(entity.motionZ);
+        if (velX != this.lastVelX || velY != this.lastVelY || velZ != this.lastVelZ) {
+            velocityMessage = new MessagePlayOutEntityVelocity(entityId, new Vector3d(velX / 8000.0, velY / 8000.0, velZ / 8000.0));
+            this.lastVelX = velX;
+            this.lastVelY = velY;
+            this.lastVelZ = velZ;
+        }
+
+        if (movementMessage != null || headLookMessage != null || velocityMessage != null) {
+            this.idleTicks = 0;
+            final Message[] messages = compact(movementMessage, headLookMessage, velocityMessage);
+            for (LanternPlayer viewer : this.viewers) {
+                viewer.getConnection().sendAll(messages);
+            }
+        } else {
+            this.idleTicks += elapsed;
+        }
+
+        // Calculate when the next update should happen, entities that
+        // are far away or didn't move for a while are updated less
+        int interval = nearestViewerDistance <= 1 ? 1 : nearestViewerDistance <= 3 ? 2 : 4;
+        if (this.idleTicks >= IDLE_TICKS) {
+            interval <<= 1;
+        }
+        this.updateInterval = Math.min(interval, MAX_UPDATE_INTERVAL);
+        this.ticksUntilUpdate = this.updateInterval;
+    }
+
+    /**
+     * Forces the next update to happen in the next tick.
+     */
+    void wakeUp() {
+        this.ticksUntilUpdate = 0;
+        this.updateInterval = 1;
+    }
+
+    private static Message[] compact(Message... messages) {
+        int count = 0;
+        for (Message message : messages) {
+            if (message != null) {
+                count++;
+            }
+        }
+        final Message[] result = new Message[count];
+        int index = 0;
+        for (Message message : messages) {
+            if (message != null) {
+                result[index++] = message;
+            }
+        }
+        return result;
+    }
+}
@@ -24,11 +24,14 @@
  */
 package org.lanternpowered.server.entity;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.flowpowered.math.vector.Vector3d;
 import com.google.common.collect.ImmutableSet;
 import org.lanternpowered.server.component.BaseComponentHolder;
 import org.lanternpowered.server.component.misc.Health;
 import org.lanternpowered.server.data.property.AbstractPropertyHolder;
+import org.lanternpowered.server.world.LanternWorld;
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.data.DataHolder;
 import org.spongepowered.api.data.DataTransactionResult;
@@ -54,6 +57,7 @@
 import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import javax.annotation.Nullable;
@@ -63,6 +67,12 @@ public class LanternEntity extends BaseComponentHolder implements Entity, Abstra
 
     protected final static float EPSILON = 1.0e-004f;
 
+    // The counter that is used to assign the entity ids
+    private static final AtomicInteger entityIdCounter = new AtomicInteger();
+
+    // The (network) id of this entity
+    private final int entityId = entityIdCounter.incrementAndGet();
+
     protected double x;
     protected double y;
     protected double z;
@@ -74,6 +84,64 @@ public class LanternEntity extends BaseComponentHolder implements Entity, Abstra
     protected float motionY;
     protected float motionZ;
 
+    // The world this entity is located in
+    @Nullable private volatile LanternWorld world;
+
+    // Whether this entity is removed
+    private volatile boolean removed;
+
+    /**
+     * Gets the id of this entity that is used to
+     * identify it over the network.
+     *
+     * @return the entity id
+     */
+    public int getEntityId() {
+        return this.entityId;
+    }
+
+    /**
+     * Gets the position of this entity.
+     *
+     * @return the position
+     */
+    public Vector3d getPosition() {
+        return new Vector3d(this.x, this.y, this.z);
+    }
+
+    /**
+     * Sets the position of this entity.
+     *
+     * @param position the position
+     */
+    public void setPosition(Vector3d position) {
+        checkNotNull(position, "position");
+        this.x = position.getX();
+        this.y = position.getY();
+        this.z = position.getZ();
+    }
+
+    /**
+     * Moves this entity to the specified world, it will be removed from its
+     * current world. A null world removes the entity from its current world
+     * without adding it to a new one.
+     *
+     * @param world the world
+     */
+    public void setWorld(@Nullable LanternWorld world) {
+        final LanternWorld oldWorld = this.world;
+        if (oldWorld == world) {
+            return;
+        }
+        if (oldWorld != null) {
+            oldWorld.removeEntity(this);
+        }
+        this.world = world;
+        if (world != null) {
+            world.addEntity(this);
+        }
+    }
+
     @Override
     public UUID getUniqueId() {
         // TODO Auto-generated method stub
@@ -111,8 +179,7 @@ public EntityType getType() {
 
     @Override
     public World getWorld() {
-        // TODO Auto-generated method stub
-        return null;
+        return this.world;
     }
 
     @Override
@@ -202,8 +269,7 @@ public boolean isOnGround() {
 
     @Override
     public boolean isRemoved() {
-        // TODO Auto-generated method stub
-        return false;
+        return this.removed;
     }
 
     @Override
@@ -214,8 +280,8 @@ public boolean isLoaded() {
 
     @Override
     public void remove() {
-        // TODO Auto-generated method stub
-        
+        this.removed = true;
+        this.setWorld(null);
     }
 
     /**
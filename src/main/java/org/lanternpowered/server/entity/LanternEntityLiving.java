@@ -33,6 +33,8 @@
 @NonnullByDefault
 public class LanternEntityLiving extends LanternEntity implements Living {
 
+    protected float headYaw;
+
     @Override
     public HealthData getHealthData() {
         return this.get(HealthData.class).get();
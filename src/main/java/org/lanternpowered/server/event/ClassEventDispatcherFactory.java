@@ -0,0 +1,225 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.V1_6;
+
+import org.lanternpowered.server.event.filter.FilterGenerator;
+import org.lanternpowered.server.event.gen.DefineableClassLoader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates a {@link EventDispatcher} class per event type that calls all the listeners
+ * directly, one after another. Each listener is stored in its own field using the most
+ * specific type that is known, the generated annotated listeners are final classes so
+ * every call is monomorphic and can be inlined by the JIT.
+ */
+@NonnullByDefault
+final class ClassEventDispatcherFactory {
+
+    /**
+     * The maximum amount of listeners that will be fused into a single dispatcher, above
+     * this the dispatch method becomes too large to be compiled/inlined properly anyway.
+     */
+    static final int MAX_FUSED_LISTENERS = 256;
+
+    private static final String BASE_DISPATCHER = Type.getInternalName(EventDispatcher.class);
+    private static final String REGISTERED_LISTENER_DESCRIPTOR = Type.getDescriptor(RegisteredListener.class);
+    private static final String EVENT_LISTENER = Type.getInternalName(EventListener.class);
+    private static final String HANDLE_METHOD_DESCRIPTOR = '(' + Type.getDescriptor(Event.class) + ")V";
+    private static final String CONSTRUCTOR_DESCRIPTOR = "([" + REGISTERED_LISTENER_DESCRIPTOR + "[Ljava/lang/Object;)V";
+    private static final String HANDLE_EXCEPTION_DESCRIPTOR = '(' + REGISTERED_LISTENER_DESCRIPTOR + Type.getDescriptor(Event.class)
+            + "Ljava/lang/Throwable;)V";
+
+    private final AtomicInteger id = new AtomicInteger();
+    private final DefineableClassLoader classLoader;
+    private final String targetPackage;
+
+    /**
+     * Creates a new dispatcher factory.
+     *
+     * @param targetPackage the package of the generated dispatchers
+     * @param classLoader the class loader that defines the generated listeners
+     */
+    ClassEventDispatcherFactory(String targetPackage, DefineableClassLoader classLoader) {
+        checkNotNull(targetPackage, "targetPackage");
+        checkArgument(!targetPackage.isEmpty(), "targetPackage cannot be empty");
+        this.targetPackage = targetPackage + '.';
+        this.classLoader = checkNotNull(classLoader, "classLoader");
+    }
+
+    /**
+     * Creates a new dispatcher for the sorted listeners of the event type.
+     *
+     * @param eventClass the event type
+     * @param listeners the listeners
+     * @return the dispatcher
+     */
+    EventDispatcher create(Class<? extends Event> eventClass, List<RegisteredListener<?>> listeners) throws Exception {
+        if (listeners.isEmpty()) {
+            return EventDispatcher.EMPTY;
+        } else if (listeners.size() > MAX_FUSED_LISTENERS) {
+            return new EventDispatcher.Simple(listeners);
+        }
+        final RegisteredListener<?>[] registrations = listeners.toArray(new RegisteredListener<?>[listeners.size()]);
+        final Object[] handlers = new Object[registrations.length];
+        final String[] handlerTypes = new String[registrations.length];
+        for (int i = 0; i < registrations.length; i++) {
+            handlers[i] = registrations[i].getHandler();
+            handlerTypes[i] = this.isDirectlyAccessible(handlers[i].getClass()) ? Type.getInternalName(handlers[i].getClass()) : null;
+        }
+        final String name = this.targetPackage + eventClass.getSimpleName() + "Dispatcher_" + this.id.incrementAndGet();
+        final byte[] bytes = generateClass(name, handlerTypes);
+        FilterGenerator.debug(name, bytes);
+        // Every dispatcher gets its own class loader, this allows the dispatchers to be
+        // garbage collected once they are replaced
+        final Class<? extends EventDispatcher> dispatcherClass = new DefineableClassLoader(this.classLoader).defineClass(name, bytes);
+        return dispatcherClass.getConstructor(RegisteredListener[].class, Object[].class).newInstance(registrations, handlers);
+    }
+
+    private boolean isDirectlyAccessible(Class<?> handlerClass) {
+        // Only the generated listener classes are referenced by their type, they are public,
+        // final and guaranteed to be visible from the class loader of the dispatcher
+        return handlerClass.getClassLoader() == this.classLoader && AnnotatedEventListener.class.isAssignableFrom(handlerClass)
+                && Modifier.isPublic(handlerClass.getModifiers()) && Modifier.isFinal(handlerClass.getModifiers());
+    }
+
+    private static byte[] generateClass(String name, String[] handlerTypes) {
+        name = name.replace('.', '/');
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        MethodVisitor mv;
+
+        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, BASE_DISPATCHER, null);
+        for (int i = 0; i < handlerTypes.length; i++) {
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "registration" + i, REGISTERED_LISTENER_DESCRIPTOR, null, null).visitEnd();
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "handler" + i, getHandlerDescriptor(handlerTypes[i]), null, null).visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_DISPATCHER, "<init>", "()V", false);
+            for (int i = 0; i < handlerTypes.length; i++) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 1);
+                visitIndex(mv, i);
+                mv.visitInsn(AALOAD);
+                mv.visitFieldInsn(PUTFIELD, name, "registration" + i, REGISTERED_LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 2);
+                visitIndex(mv, i);
+                mv.visitInsn(AALOAD);
+                mv.visitTypeInsn(CHECKCAST, handlerTypes[i] == null ? EVENT_LISTENER : handlerTypes[i]);
+                mv.visitFieldInsn(PUTFIELD, name, "handler" + i, getHandlerDescriptor(handlerTypes[i]));
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "dispatch", HANDLE_METHOD_DESCRIPTOR, null, null);
+            mv.visitCode();
+            for (int i = 0; i < handlerTypes.length; i++) {
+                final Label start = new Label();
+                final Label end = new Label();
+                final Label handler = new Label();
+                final Label next = new Label();
+                mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+                mv.visitLabel(start);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "handler" + i, getHandlerDescriptor(handlerTypes[i]));
+                mv.visitVarInsn(ALOAD, 1);
+                if (handlerTypes[i] == null) {
+                    mv.visitMethodInsn(INVOKEINTERFACE, EVENT_LISTENER, "handle", HANDLE_METHOD_DESCRIPTOR, true);
+                } else {
+                    mv.visitMethodInsn(INVOKEVIRTUAL, handlerTypes[i], "handle", HANDLE_METHOD_DESCRIPTOR, false);
+                }
+                mv.visitLabel(end);
+                mv.visitJumpInsn(GOTO, next);
+                mv.visitLabel(handler);
+                mv.visitVarInsn(ASTORE, 2);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "registration" + i, REGISTERED_LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitMethodInsn(INVOKESTATIC, BASE_DISPATCHER, "handleException", HANDLE_EXCEPTION_DESCRIPTOR, false);
+                mv.visitLabel(next);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
+    private static String getHandlerDescriptor(String handlerType) {
+        return 'L' + (handlerType == null ? EVENT_LISTENER : handlerType) + ';';
+    }
+
+    private static void visitIndex(MethodVisitor mv, int index) {
+        if (index <= 5) {
+            mv.visitInsn(ICONST_0 + index);
+        } else if (index <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, index);
+        } else {
+            mv.visitIntInsn(SIPUSH, index);
+        }
+    }
+
+}
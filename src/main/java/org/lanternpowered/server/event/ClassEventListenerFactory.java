@@ -26,43 +26,27 @@
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.objectweb.asm.Opcodes.AALOAD;
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
 import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
-import static org.objectweb.asm.Opcodes.ACC_STATIC;
 import static org.objectweb.asm.Opcodes.ACC_SUPER;
-import static org.objectweb.asm.Opcodes.ACONST_NULL;
 import static org.objectweb.asm.Opcodes.ALOAD;
-import static org.objectweb.asm.Opcodes.ASTORE;
-import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.ARETURN;
 import static org.objectweb.asm.Opcodes.CHECKCAST;
-import static org.objectweb.asm.Opcodes.F_APPEND;
-import static org.objectweb.asm.Opcodes.F_SAME;
-import static org.objectweb.asm.Opcodes.F_SAME1;
 import static org.objectweb.asm.Opcodes.GETFIELD;
-import static org.objectweb.asm.Opcodes.GETSTATIC;
-import static org.objectweb.asm.Opcodes.GOTO;
-import static org.objectweb.asm.Opcodes.IFNULL;
-import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
 import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
-import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
-import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.POP;
 import static org.objectweb.asm.Opcodes.RETURN;
 import static org.objectweb.asm.Opcodes.V1_6;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import org.apache.logging.log4j.Logger;
-import org.lanternpowered.server.event.filter.EventFilter;
-import org.lanternpowered.server.event.filter.FilterFactory;
+import org.lanternpowered.server.event.filter.FilterGenerator;
+import org.lanternpowered.server.event.filter.FilterGenerator.InlineFilter;
 import org.lanternpowered.server.event.gen.DefineableClassLoader;
-import org.lanternpowered.server.game.LanternGame;
 import org.objectweb.asm.ClassWriter;
-import org.objectweb.asm.FieldVisitor;
-import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 import org.spongepowered.api.event.Event;
@@ -86,15 +70,13 @@ public Class<? extends AnnotatedEventListener> load(Method method) throws Except
                     return createClass(method);
                 }
             });
-    private FilterFactory filterFactory;
 
     private final String targetPackage;
 
-    public ClassEventListenerFactory(String targetPackage, FilterFactory factory, DefineableClassLoader classLoader) {
+    public ClassEventListenerFactory(String targetPackage, DefineableClassLoader classLoader) {
         checkNotNull(targetPackage, "targetPackage");
         checkArgument(!targetPackage.isEmpty(), "targetPackage cannot be empty");
         this.targetPackage = targetPackage + '.';
-        this.filterFactory = checkNotNull(factory, "filterFactory");
         this.classLoader = checkNotNull(classLoader, "classLoader");
     }
 
@@ -111,111 +93,78 @@ private Class<? extends AnnotatedEventListener> createClass(Method method) throw
         String name = this.targetPackage
                 + eventClass.getSimpleName() + "Listener_" + handle.getSimpleName() + '_' + method.getName()
                 + this.id.incrementAndGet();
-        Class<? extends EventFilter> filter = this.filterFactory.createFilter(method);
+        InlineFilter filter = FilterGenerator.getInstance().createFilter(method);
 
         if (filter == null && method.getParameterCount() != 1) {
             // basic sanity check
             throw new IllegalStateException("Failed to generate EventFilter for non trivial filtering operation.");
         }
+        final byte[] bytes;
         if (filter != null) {
-            filter.newInstance();
-            return this.classLoader.defineClass(name, generateClass(name, handle, method, eventClass, filter));
+            bytes = generateClass(name, handle, method, filter);
         } else {
-            return this.classLoader.defineClass(name, generateClass(name, handle, method, eventClass));
+            bytes = generateClass(name, handle, method, eventClass);
         }
+        FilterGenerator.debug(name, bytes);
+        return this.classLoader.defineClass(name, bytes);
     }
 
     private static final String BASE_HANDLER = Type.getInternalName(AnnotatedEventListener.class);
     private static final String HANDLE_METHOD_DESCRIPTOR = '(' + Type.getDescriptor(Event.class) + ")V";
-    private static final String FILTER_DESCRIPTOR = "(" + Type.getDescriptor(Event.class) + ")[Ljava/lang/Object;";
+    private static final String FILTER_METHOD_DESCRIPTOR = '(' + Type.getDescriptor(Event.class) + ")Ljava/lang/Object;";
 
-    private static byte[] generateClass(String name, Class<?> handle, Method method, Class<?> eventClass, Class<? extends EventFilter> filter) {
+    private static byte[] generateClass(String name, Class<?> handle, Method method, InlineFilter filter) {
         name = name.replace('.', '/');
         final String handleName = Type.getInternalName(handle);
         final String handleDescriptor = Type.getDescriptor(handle);
-        final String filterName = Type.getInternalName(filter);
-        String eventDescriptor = "(";
-        for (int i = 0; i < method.getParameterCount(); i++) {
-            eventDescriptor += Type.getDescriptor(method.getParameterTypes()[i]);
-        }
-        eventDescriptor += ")V";
+        final Class<?>[] parameterTypes = method.getParameterTypes();
 
-        ClassWriter cw = new ClassWriter(0);
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
         MethodVisitor mv;
-        FieldVisitor fv;
 
         cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, BASE_HANDLER, null);
+        filter.writeFields(cw);
         {
-            fv = cw.visitField(ACC_PRIVATE + ACC_STATIC, "FILTER", "L" + filterName + ";", null, null);
-            fv.visitEnd();
-        }
-        {
-            mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", '(' + handleDescriptor + ")V", null, null);
             mv.visitCode();
-            Label l0 = new Label();
-            Label l1 = new Label();
-            Label l2 = new Label();
-            mv.visitTryCatchBlock(l0, l1, l2, "java/lang/Exception");
-            mv.visitLabel(l0);
-            mv.visitLdcInsn(Type.getType(filter));
-            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "newInstance", "()Ljava/lang/Object;", false);
-            mv.visitTypeInsn(CHECKCAST, filterName);
-            mv.visitFieldInsn(PUTSTATIC, name, "FILTER", "L" + filterName + ";");
-            mv.visitLabel(l1);
-            Label l3 = new Label();
-            mv.visitJumpInsn(GOTO, l3);
-            mv.visitLabel(l2);
-            mv.visitFrame(F_SAME1, 0, null, 1, new Object[] {"java/lang/Exception"});
-            mv.visitVarInsn(ASTORE, 0);
-            mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(LanternGame.class), "log", "()" + Type.getDescriptor(Logger.class), false);
-            mv.visitLdcInsn("Error initializing event filter");
             mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(Logger.class), "error", "(Ljava/lang/String;Ljava/lang/Throwable;)V", true);
-            Label l5 = new Label();
-            mv.visitLabel(l5);
-            mv.visitLineNumber(220, l5);
-            mv.visitInsn(ACONST_NULL);
-            mv.visitFieldInsn(PUTSTATIC, name, "FILTER", "L" + filterName + ";");
-            mv.visitLabel(l3);
-            mv.visitFrame(F_SAME, 0, null, 0, null);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_HANDLER, "<init>", "(Ljava/lang/Object;)V", false);
+            filter.writeCtor(name, cw, mv);
             mv.visitInsn(RETURN);
-            mv.visitMaxs(3, 1);
+            mv.visitMaxs(0, 0);
             mv.visitEnd();
         }
         {
-            mv = cw.visitMethod(ACC_PUBLIC, "<init>", '(' + handleDescriptor + ")V", null, null);
+            // The filter checks and the listener invocation are fused into one method, the checks
+            // bail out by returning null, the filtered parameters are kept in local variables
+            mv = cw.visitMethod(ACC_PRIVATE, "filterAndHandle", FILTER_METHOD_DESCRIPTOR, null, null);
             mv.visitCode();
+            int[] plocals = filter.writeChecks(name, cw, mv);
             mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, name, "handle", "Ljava/lang/Object;");
+            mv.visitTypeInsn(CHECKCAST, handleName);
             mv.visitVarInsn(ALOAD, 1);
-            mv.visitMethodInsn(INVOKESPECIAL, BASE_HANDLER, "<init>", "(Ljava/lang/Object;)V", false);
-            mv.visitInsn(RETURN);
-            mv.visitMaxs(2, 2);
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameterTypes[0]));
+            for (int i = 1; i < parameterTypes.length; i++) {
+                mv.visitVarInsn(ALOAD, plocals[i - 1]);
+                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameterTypes[i]));
+            }
+            mv.visitMethodInsn(INVOKEVIRTUAL, handleName, method.getName(), Type.getMethodDescriptor(method), false);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitInsn(ARETURN);
+            mv.visitMaxs(0, 0);
             mv.visitEnd();
         }
         {
             mv = cw.visitMethod(ACC_PUBLIC, "handle", HANDLE_METHOD_DESCRIPTOR, null, new String[] {"java/lang/Exception"});
             mv.visitCode();
-            mv.visitFieldInsn(GETSTATIC, name, "FILTER", "L" + filterName + ";");
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(EventFilter.class), "filter", FILTER_DESCRIPTOR, true);
-            mv.visitVarInsn(ASTORE, 2);
-            mv.visitVarInsn(ALOAD, 2);
-            Label l2 = new Label();
-            mv.visitJumpInsn(IFNULL, l2);
             mv.visitVarInsn(ALOAD, 0);
-            mv.visitFieldInsn(GETFIELD, name, "handle", "Ljava/lang/Object;");
-            mv.visitTypeInsn(CHECKCAST, handleName);
-            for (int i = 0; i < method.getParameterCount(); i++) {
-                mv.visitVarInsn(ALOAD, 2);
-                mv.visitIntInsn(BIPUSH, i);
-                mv.visitInsn(AALOAD);
-                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(method.getParameterTypes()[i]));
-            }
-            mv.visitMethodInsn(INVOKEVIRTUAL, handleName, method.getName(), eventDescriptor, false);
-            mv.visitLabel(l2);
-            mv.visitFrame(F_APPEND, 1, new Object[] {"[Ljava/lang/Object;"}, 0, null);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKESPECIAL, name, "filterAndHandle", FILTER_METHOD_DESCRIPTOR, false);
+            mv.visitInsn(POP);
             mv.visitInsn(RETURN);
-            mv.visitMaxs(4, 3);
+            mv.visitMaxs(2, 2);
             mv.visitEnd();
         }
         cw.visitEnd();
@@ -0,0 +1,93 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import org.lanternpowered.server.game.LanternGame;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+
+import java.util.List;
+
+/**
+ * Dispatches a specific event type to all its listeners, in order. Instances are
+ * immutable, a new dispatcher is created every time the listeners change.
+ */
+@NonnullByDefault
+public abstract class EventDispatcher {
+
+    /**
+     * A dispatcher without any listeners.
+     */
+    public static final EventDispatcher EMPTY = new EventDispatcher() {
+        @Override
+        public void dispatch(Event event) {
+        }
+    };
+
+    /**
+     * Passes the event to all the listeners.
+     *
+     * @param event the event
+     */
+    public abstract void dispatch(Event event);
+
+    /**
+     * Handles a exception that was thrown by one of the listeners, this
+     * is called by the generated dispatchers.
+     *
+     * @param listener the listener that failed
+     * @param event the event
+     * @param throwable the exception
+     */
+    public static void handleException(RegisteredListener<?> listener, Event event, Throwable throwable) {
+        LanternGame.log().error("Could not pass {} to {}", event.getClass().getSimpleName(), listener.getPlugin(), throwable);
+    }
+
+    /**
+     * A dispatcher that loops through the listeners, used when no
+     * fused dispatcher could be generated.
+     */
+    static final class Simple extends EventDispatcher {
+
+        private final RegisteredListener<?>[] listeners;
+
+        Simple(List<RegisteredListener<?>> listeners) {
+            this.listeners = listeners.toArray(new RegisteredListener<?>[listeners.size()]);
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        public void dispatch(Event event) {
+            for (RegisteredListener listener : this.listeners) {
+                try {
+                    listener.handle(event);
+                } catch (Throwable e) {
+                    handleException(listener, event, e);
+                }
+            }
+        }
+    }
+
+}
@@ -28,15 +28,12 @@
 import static org.lanternpowered.server.util.Conditions.checkPlugin;
 
 import com.google.common.base.Predicate;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
-import org.lanternpowered.server.event.filter.FilterFactory;
 import org.lanternpowered.server.event.gen.DefineableClassLoader;
 import org.lanternpowered.server.game.LanternGame;
 import org.spongepowered.api.event.Cancellable;
@@ -54,6 +51,7 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Singleton;
 
@@ -64,19 +62,17 @@ public class LanternEventManager implements EventManager {
     private final Object lock = new Object();
     private final DefineableClassLoader classLoader = new DefineableClassLoader(getClass().getClassLoader());
     private final AnnotatedEventListener.Factory handlerFactory = new ClassEventListenerFactory("org.slanternpowered.server.event.listener",
-            new FilterFactory("org.lanternpowered.server.event.filters", this.classLoader), this.classLoader);
+            this.classLoader);
+    private final ClassEventDispatcherFactory dispatcherFactory = new ClassEventDispatcherFactory(
+            "org.lanternpowered.server.event.dispatcher", this.classLoader);
     private final Multimap<Class<?>, RegisteredListener<?>> handlersByEvent = HashMultimap.create();
 
     /**
-     * A cache of all the handlers for an event type for quick event posting.
+     * The dispatchers for every event type for quick event posting, the dispatchers are
+     * only created and replaced while holding the lock, so that a dispatcher can never
+     * be created from an outdated set of listeners.
      */
-    private final LoadingCache<Class<? extends Event>, List<RegisteredListener<?>>> handlersCache =
-            CacheBuilder.newBuilder().build(new CacheLoader<Class<? extends Event>, List<RegisteredListener<?>>>() {
-                @Override
-                public List<RegisteredListener<?>> load(Class<? extends Event> eventClass) throws Exception {
-                    return bakeHandlers(eventClass);
-                }
-            });
+    private final ConcurrentMap<Class<? extends Event>, EventDispatcher> dispatchers = Maps.newConcurrentMap();
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private List<RegisteredListener<?>> bakeHandlers(Class<?> rootEvent) {
@@ -91,6 +87,35 @@ private List<RegisteredListener<?>> bakeHandlers(Class<?> rootEvent) {
         return handlers;
     }
 
+    private EventDispatcher createDispatcher(Class<? extends Event> eventClass) {
+        final List<RegisteredListener<?>> handlers = this.bakeHandlers(eventClass);
+        try {
+            return this.dispatcherFactory.create(eventClass, handlers);
+        } catch (Throwable e) {
+            LanternGame.log().error("Failed to generate the event dispatcher for {}, falling back to the slower dispatcher",
+                    eventClass.getName(), e);
+            return handlers.isEmpty() ? EventDispatcher.EMPTY : new EventDispatcher.Simple(handlers);
+        }
+    }
+
+    /**
+     * Rebuilds the dispatchers of all the cached event types that are affected by the
+     * changed event types, this must be called while holding the lock. The new dispatchers
+     * replace the old ones directly so that posting threads never have to wait for them.
+     *
+     * @param changedTypes the event types whose listeners changed
+     */
+    private void rebuildDispatchers(Set<Class<?>> changedTypes) {
+        for (Class<? extends Event> eventClass : this.dispatchers.keySet()) {
+            for (Class<?> changedType : changedTypes) {
+                if (changedType.isAssignableFrom(eventClass)) {
+                    this.dispatchers.put(eventClass, this.createDispatcher(eventClass));
+                    break;
+                }
+            }
+        }
+    }
+
     private static boolean isValidHandler(Method method) {
         int modifiers = method.getModifiers();
         if (Modifier.isStatic(modifiers)
@@ -109,19 +134,18 @@ private void register(RegisteredListener<?> handler) {
         register(Collections.<RegisteredListener<?>>singletonList(handler));
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     private void register(List<RegisteredListener<?>> handlers) {
         synchronized (this.lock) {
             Set<Class<?>> types = Sets.newHashSet();
 
-            for (RegisteredListener handler : handlers) {
+            for (RegisteredListener<?> handler : handlers) {
                 if (this.handlersByEvent.put(handler.getEventClass(), handler)) {
-                    types.addAll(TypeToken.of(handler.getEventClass()).getTypes().rawTypes());
+                    types.add(handler.getEventClass());
                 }
             }
 
             if (!types.isEmpty()) {
-                this.handlersCache.invalidateAll(types);
+                this.rebuildDispatchers(types);
             }
         }
     }
@@ -203,13 +227,13 @@ private void unregister(Predicate<RegisteredListener<?>> unregister) {
             while (it.hasNext()) {
                 RegisteredListener<?> handler = it.next();
                 if (unregister.apply(handler)) {
-                    types.addAll(TypeToken.of(handler.getEventClass()).getTypes().rawTypes());
+                    types.add(handler.getEventClass());
                     it.remove();
                 }
             }
 
             if (!types.isEmpty()) {
-                this.handlersCache.invalidateAll(types);
+                this.rebuildDispatchers(types);
             }
         }
     }
@@ -226,25 +250,29 @@ public void unregisterPluginListeners(Object pluginObj) {
         this.unregister(handler -> plugin.equals(handler.getPlugin()));
     }
 
-    protected List<RegisteredListener<?>> getHandlerCache(Event event) {
-        return this.handlersCache.getUnchecked(checkNotNull(event, "event").getClass());
-    }
-
-    @SuppressWarnings({ "unchecked", "rawtypes" })
-    protected boolean post(Event event, List<RegisteredListener<?>> handlers) {
-        for (RegisteredListener handler : handlers) {
-            try {
-                handler.handle(event);
-            } catch (Throwable e) {
-                LanternGame.log().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+    protected EventDispatcher getDispatcher(Event event) {
+        final Class<? extends Event> eventClass = checkNotNull(event, "event").getClass();
+        EventDispatcher dispatcher = this.dispatchers.get(eventClass);
+        if (dispatcher == null) {
+            synchronized (this.lock) {
+                dispatcher = this.dispatchers.get(eventClass);
+                if (dispatcher == null) {
+                    dispatcher = this.createDispatcher(eventClass);
+                    this.dispatchers.put(eventClass, dispatcher);
+                }
             }
         }
+        return dispatcher;
+    }
+
+    protected boolean post(Event event, EventDispatcher dispatcher) {
+        dispatcher.dispatch(event);
         return event instanceof Cancellable && ((Cancellable) event).isCancelled();
     }
 
     @Override
     public boolean post(Event event) {
-        return this.post(event, this.getHandlerCache(event));
+        return this.post(event, this.getDispatcher(event));
     }
 
 }
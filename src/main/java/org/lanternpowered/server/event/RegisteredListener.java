@@ -60,6 +60,10 @@ public Order getOrder() {
         return this.order;
     }
 
+    EventListener<? super T> getHandler() {
+        return this.handler;
+    }
+
     @Override
     public Object getHandle() {
         if (this.handler instanceof LanternEventListener) {
@@ -24,21 +24,6 @@
  */
 package org.lanternpowered.server.event.filter;
 
-import static org.objectweb.asm.Opcodes.AASTORE;
-import static org.objectweb.asm.Opcodes.ACC_FINAL;
-import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
-import static org.objectweb.asm.Opcodes.ACC_SUPER;
-import static org.objectweb.asm.Opcodes.ALOAD;
-import static org.objectweb.asm.Opcodes.ANEWARRAY;
-import static org.objectweb.asm.Opcodes.ARETURN;
-import static org.objectweb.asm.Opcodes.BIPUSH;
-import static org.objectweb.asm.Opcodes.DUP;
-import static org.objectweb.asm.Opcodes.ICONST_0;
-import static org.objectweb.asm.Opcodes.ICONST_1;
-import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
-import static org.objectweb.asm.Opcodes.RETURN;
-import static org.objectweb.asm.Opcodes.V1_6;
-
 import com.google.common.collect.Lists;
 import org.lanternpowered.server.event.filter.delegate.AfterCauseFilterSourceDelegate;
 import org.lanternpowered.server.event.filter.delegate.AllCauseFilterSourceDelegate;
@@ -58,8 +43,7 @@
 import org.lanternpowered.server.event.filter.delegate.SupportsDataFilterDelegate;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
-import org.objectweb.asm.Type;
-import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.filter.IsCancelled;
 import org.spongepowered.api.event.filter.cause.After;
 import org.spongepowered.api.event.filter.cause.All;
@@ -82,6 +66,8 @@
 import java.lang.reflect.Parameter;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 public class FilterGenerator {
 
     public static final boolean FILTER_DEBUG = Boolean.parseBoolean(System.getProperty("sponge.filter.debug", "false"));
@@ -93,63 +79,56 @@ public static FilterGenerator getInstance() {
     private FilterGenerator() {
     }
 
-    public byte[] generateClass(String name, Method method) {
-        name = name.replace('.', '/');
-        Parameter[] params = method.getParameters();
-
-        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-        MethodVisitor mv;
-
-        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, "java/lang/Object",
-                new String[] {Type.getInternalName(EventFilter.class)});
-
-        SubtypeFilterDelegate sfilter = null;
-        List<FilterDelegate> additional = Lists.newArrayList();
-        for (Annotation anno : method.getAnnotations()) {
-            Object obj = filterFromAnnotation(anno.annotationType());
-            if (obj == null) {
-                continue;
-            }
-            if (obj instanceof SubtypeFilter) {
-                if (sfilter != null) {
-                    throw new IllegalStateException("Cannot have both @Include and @Exclude annotations present at once");
-                }
-                sfilter = ((SubtypeFilter) obj).getDelegate(anno);
-            } else if (obj instanceof EventTypeFilter) {
-                additional.add(((EventTypeFilter) obj).getDelegate(anno));
-            }
+    /**
+     * Creates the {@link InlineFilter} for the given listener method.
+     *
+     * @param method the listener method
+     * @return the filter, or {@code null} if the method doesn't need any filtering
+     */
+    @Nullable
+    public InlineFilter createFilter(Method method) {
+        if (method.getParameterCount() == 1 && method.getDeclaredAnnotations().length == 1
+                && method.getDeclaredAnnotations()[0].annotationType().equals(Listener.class)) {
+            return null;
         }
+        return new InlineFilter(method);
+    }
 
-        if (sfilter != null) {
-            sfilter.createFields(cw);
-        }
-        {
-            mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
-            mv.visitCode();
-            mv.visitVarInsn(ALOAD, 0);
-            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
-            if (sfilter != null) {
-                sfilter.writeCtor(name, cw, mv);
-            }
-            mv.visitInsn(RETURN);
-            mv.visitMaxs(0, 0);
-            mv.visitEnd();
-        }
-        {
-            mv = cw.visitMethod(ACC_PUBLIC, "filter", "(" + Type.getDescriptor(Event.class) + ")[Ljava/lang/Object;", null,
-                    null);
-            mv.visitCode();
-            // index of the next available local variable
-            int local = 2;
-            if (sfilter != null) {
-                local = sfilter.write(name, cw, mv, method, local);
-            }
-            for (FilterDelegate eventFilter : additional) {
-                local = eventFilter.write(name, cw, mv, method, local);
+    /**
+     * The filter checks of a listener method, these are written directly into the class
+     * of the generated listener so that the filtered parameters never have to be passed
+     * around through an array.
+     */
+    public static final class InlineFilter {
+
+        private final Method method;
+        @Nullable private final SubtypeFilterDelegate subtypeFilter;
+        private final List<FilterDelegate> eventFilters = Lists.newArrayList();
+        private final ParameterFilterSourceDelegate[] parameterSources;
+        private final List<List<ParameterFilterDelegate>> parameterFilters = Lists.newArrayList();
+
+        private InlineFilter(Method method) {
+            this.method = method;
+
+            SubtypeFilterDelegate subtypeFilter = null;
+            for (Annotation anno : method.getAnnotations()) {
+                Object obj = filterFromAnnotation(anno.annotationType());
+                if (obj == null) {
+                    continue;
+                }
+                if (obj instanceof SubtypeFilter) {
+                    if (subtypeFilter != null) {
+                        throw new IllegalStateException("Cannot have both @Include and @Exclude annotations present at once");
+                    }
+                    subtypeFilter = ((SubtypeFilter) obj).getDelegate(anno);
+                } else if (obj instanceof EventTypeFilter) {
+                    this.eventFilters.add(((EventTypeFilter) obj).getDelegate(anno));
+                }
             }
+            this.subtypeFilter = subtypeFilter;
 
-            // local var indices of the parameters values
-            int[] plocals = new int[params.length - 1];
+            final Parameter[] params = method.getParameters();
+            this.parameterSources = new ParameterFilterSourceDelegate[params.length - 1];
             for (int i = 1; i < params.length; i++) {
                 Parameter param = params[i];
                 ParameterFilterSourceDelegate source = null;
@@ -176,55 +155,93 @@ public byte[] generateClass(String name, Method method) {
                     throw new IllegalStateException(
                             "Cannot have additional parameters filters without an array source (for " + param.getName() + ")");
                 }
-                Tuple<Integer, Integer> localState = source.write(cw, mv, method, param, local);
-                local = localState.getFirst();
-                plocals[i - 1] = localState.getSecond();
-
-                for (ParameterFilterDelegate paramFilter : paramFilters) {
-                    paramFilter.write(cw, mv, method, param, plocals[i - 1]);
-                }
+                this.parameterSources[i - 1] = source;
+                this.parameterFilters.add(paramFilters);
             }
+        }
 
-            // create the return array
-            if (params.length == 1) {
-                mv.visitInsn(ICONST_1);
-            } else {
-                mv.visitIntInsn(BIPUSH, params.length);
+        /**
+         * Writes the fields that are required by the filter.
+         *
+         * @param cw the class writer
+         */
+        public void writeFields(ClassWriter cw) {
+            if (this.subtypeFilter != null) {
+                this.subtypeFilter.createFields(cw);
             }
-            mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
-            // load the event into the array
-            mv.visitInsn(DUP);
-            mv.visitInsn(ICONST_0);
-            mv.visitVarInsn(ALOAD, 1);
-            mv.visitInsn(AASTORE);
-            // load all the params into the array
-            for (int i = 1; i < params.length; i++) {
-                mv.visitInsn(DUP);
-                mv.visitIntInsn(BIPUSH, i);
-                mv.visitVarInsn(ALOAD, plocals[i - 1]);
-                mv.visitInsn(AASTORE);
+        }
+
+        /**
+         * Writes the initialization of the filter fields, must be called
+         * after the super constructor is invoked.
+         *
+         * @param name the internal name of the class
+         * @param cw the class writer
+         * @param mv the constructor method visitor
+         */
+        public void writeCtor(String name, ClassWriter cw, MethodVisitor mv) {
+            if (this.subtypeFilter != null) {
+                this.subtypeFilter.writeCtor(name, cw, mv);
             }
-            mv.visitInsn(ARETURN);
-            mv.visitMaxs(0, 0);
-            mv.visitEnd();
         }
-        cw.visitEnd();
-        byte[] data = cw.toByteArray();
-
-        if (FILTER_DEBUG) {
-            File outDir = new File(".sponge.debug.out");
-            File outFile = new File(outDir, name + ".class");
-            if (!outFile.getParentFile().exists()) {
-                outFile.getParentFile().mkdirs();
+
+        /**
+         * Writes the filter checks into the given method. The method must be an instance
+         * method that takes the event as first parameter and returns a object, {@code null}
+         * will be returned if the event didn't pass one of the checks.
+         *
+         * @param name the internal name of the class
+         * @param cw the class writer
+         * @param mv the method visitor
+         * @return the local variable indexes of the filtered parameter values
+         */
+        public int[] writeChecks(String name, ClassWriter cw, MethodVisitor mv) {
+            final Parameter[] params = this.method.getParameters();
+            // index of the next available local variable
+            int local = 2;
+            if (this.subtypeFilter != null) {
+                local = this.subtypeFilter.write(name, cw, mv, this.method, local);
             }
-            try (FileOutputStream out = new FileOutputStream(outFile)) {
-                out.write(data);
-            } catch (IOException ignored) {
-                ignored.printStackTrace();
+            for (FilterDelegate eventFilter : this.eventFilters) {
+                local = eventFilter.write(name, cw, mv, this.method, local);
+            }
+
+            // local var indices of the parameters values
+            int[] plocals = new int[params.length - 1];
+            for (int i = 1; i < params.length; i++) {
+                Tuple<Integer, Integer> localState = this.parameterSources[i - 1].write(cw, mv, this.method, params[i], local);
+                local = localState.getFirst();
+                plocals[i - 1] = localState.getSecond();
+
+                for (ParameterFilterDelegate paramFilter : this.parameterFilters.get(i - 1)) {
+                    paramFilter.write(cw, mv, this.method, params[i], plocals[i - 1]);
+                }
             }
+            return plocals;
         }
+    }
 
-        return data;
+    /**
+     * Writes the generated class to the debug output directory if
+     * {@link #FILTER_DEBUG} is enabled.
+     *
+     * @param name the name of the class
+     * @param data the bytecode of the class
+     */
+    public static void debug(String name, byte[] data) {
+        if (!FILTER_DEBUG) {
+            return;
+        }
+        File outDir = new File(".sponge.debug.out");
+        File outFile = new File(outDir, name.replace('.', '/') + ".class");
+        if (!outFile.getParentFile().exists()) {
+            outFile.getParentFile().mkdirs();
+        }
+        try (FileOutputStream out = new FileOutputStream(outFile)) {
+            out.write(data);
+        } catch (IOException ignored) {
+            ignored.printStackTrace();
+        }
     }
 
     private static Object filterFromAnnotation(Class<? extends Annotation> cls) {
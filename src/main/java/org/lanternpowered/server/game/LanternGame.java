@@ -25,10 +25,13 @@
 package org.lanternpowered.server.game;
 
 import org.lanternpowered.server.LanternServer;
+import org.lanternpowered.server.command.CommandBackup;
 import org.lanternpowered.server.command.CommandBan;
+import org.lanternpowered.server.command.CommandCompactRegions;
 import org.lanternpowered.server.command.CommandDifficulty;
 import org.lanternpowered.server.command.CommandGameRule;
 import org.lanternpowered.server.command.CommandHelp;
+import org.lanternpowered.server.command.CommandRestoreBackup;
 import org.lanternpowered.server.command.CommandSeed;
 import org.lanternpowered.server.command.CommandStop;
 import org.lanternpowered.server.command.CommandVersion;
@@ -67,7 +70,6 @@
 import org.spongepowered.api.GameState;
 import org.spongepowered.api.Platform;
 import org.spongepowered.api.Sponge;
-import org.spongepowered.api.command.CommandManager;
 import org.spongepowered.api.config.ConfigManager;
 import org.spongepowered.api.data.property.PropertyRegistry;
 import org.spongepowered.api.event.EventManager;
@@ -326,7 +328,7 @@ public void initialize(LanternServer server, RconService rconService, Path rootW
         this.configManager = new LanternConfigManager(this.configFolder);
 
         // Create the scheduler
-        this.scheduler = new LanternScheduler();
+        this.scheduler = new LanternScheduler(this.globalConfig.getAsyncTaskExecution().createExecutor());
 
         // Create the chunk load service
         this.chunkTicketManager = new LanternChunkTicketManager(this.globalConfig);
@@ -335,7 +337,8 @@ public void initialize(LanternServer server, RconService rconService, Path rootW
         this.dataManager = new LanternDataManager();
 
         // Register the game profile resolver
-        this.gameProfileManager = new LanternGameProfileManager();
+        this.gameProfileManager = new LanternGameProfileManager(
+                this.scheduler.getAsyncExecutor().createBlockingExecutorService(this.minecraft));
 
         this.registerService(WhitelistService.class, this.whitelistConfig);
         this.registerService(BanService.class, this.banConfig);
@@ -354,8 +357,12 @@ public void initialize(LanternServer server, RconService rconService, Path rootW
         this.commandManager.register(this.minecraft, CommandGameRule.create(), "gamerule", "rule");
         this.commandManager.register(this.minecraft, CommandHelp.create(), "help", "?");
         this.commandManager.register(this.implContainer, CommandVersion.create(), "version");
+        this.commandManager.register(this.implContainer, CommandCompactRegions.create(), "compactregions");
+        this.commandManager.register(this.implContainer, CommandBackup.create(), "backup");
+        this.commandManager.register(this.implContainer, CommandRestoreBackup.create(), "restorebackup");
         this.commandManager.register(this.implContainer, LanternCallbackHolder.getInstance().createCommand(),
                 LanternCallbackHolder.CALLBACK_COMMAND);
+        this.globalConfig.getAsyncCommands().forEach(this.commandManager::markAsync);
 
         // Create the teleport helper
         this.teleportHelper = new LanternTeleportHelper();
@@ -414,6 +421,9 @@ public void initialize(LanternServer server, RconService rconService, Path rootW
             subjectData = service.getGroupForOpLevel(4).getSubjectData();
             subjectData.setPermission(SubjectData.GLOBAL_CONTEXT, CommandStop.PERMISSION, Tristate.TRUE);
             subjectData.setPermission(SubjectData.GLOBAL_CONTEXT, CommandVersion.PERMISSION, Tristate.TRUE);
+            subjectData.setPermission(SubjectData.GLOBAL_CONTEXT, CommandCompactRegions.PERMISSION, Tristate.TRUE);
+            subjectData.setPermission(SubjectData.GLOBAL_CONTEXT, CommandBackup.PERMISSION, Tristate.TRUE);
+            subjectData.setPermission(SubjectData.GLOBAL_CONTEXT, CommandRestoreBackup.PERMISSION, Tristate.TRUE);
 
             this.serviceManager.setProvider(this.minecraft, PermissionService.class, service);
         }
@@ -535,7 +545,7 @@ public ServiceManager getServiceManager() {
     }
 
     @Override
-    public CommandManager getCommandManager() {
+    public LanternCommandManager getCommandManager() {
         return this.commandManager;
     }
 
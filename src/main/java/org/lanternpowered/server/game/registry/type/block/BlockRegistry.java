@@ -107,6 +107,16 @@ public interface BlockRegistry extends CatalogRegistryModule<BlockType> {
      */
     Optional<BlockState> getStateByInternalIdAndData(int internalIdAndData);
 
+    /**
+     * Gets the block state by using it's internal id and data value, falls
+     * back to the default state of air if the id isn't registered. This
+     * method should be preferred in performance critical code.
+     *
+     * @param internalIdAndData the packed version of the internal id and data
+     * @return the block state
+     */
+    BlockState getStateByInternalIdAndDataOrAir(int internalIdAndData);
+
     /**
      * Gets the data value of the specified block state.
      *
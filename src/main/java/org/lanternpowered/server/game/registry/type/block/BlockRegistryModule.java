@@ -34,6 +34,7 @@
 import gnu.trove.map.hash.TObjectShortHashMap;
 import gnu.trove.map.hash.TShortObjectHashMap;
 import org.lanternpowered.server.block.LanternBlockType;
+import org.lanternpowered.server.block.state.LanternBlockState;
 import org.lanternpowered.server.block.type.BlockAir;
 import org.lanternpowered.server.block.type.BlockBedrock;
 import org.lanternpowered.server.block.type.BlockDirt;
@@ -62,8 +63,9 @@ public final class BlockRegistryModule implements BlockRegistry, AlternateCatalo
     private final TShortObjectMap<BlockType> blockTypeByInternalId = new TShortObjectHashMap<>();
     private final TObjectShortMap<BlockType> internalIdByBlockType = new TObjectShortHashMap<>();
 
-    private final TShortObjectMap<BlockState> blockStateByPackedType = new TShortObjectHashMap<>();
-    private final TObjectShortMap<BlockState> packedTypeByBlockState = new TObjectShortHashMap<>();
+    // A dense lookup table for all the packed internal ids and data values, the
+    // other direction is stored in the block states themselves
+    private final BlockState[] blockStateByPackedType = new BlockState[1 << 16];
 
     // The counter for custom block ids. (Non vanilla ones.)
     private int blockIdCounter = 1024;
@@ -93,20 +95,22 @@ private void register0(int internalId, LanternBlockType blockType, @Nullable BiF
         this.internalIdByBlockType.put(blockType, internalId0);
         if (dataToStateConverter != null) {
             int internalStateIdBase = (internalId & 0xfff) << 4;
-            for (byte b = 0; b <= 0xf; b++) {
+            // Iterate backwards, if multiple data values map to the same state
+            // then will the lowest one be used for the state
+            for (byte b = 0xf; b >= 0; b--) {
                 BlockState blockState = dataToStateConverter.apply(b, blockType.getDefaultState());
                 if (blockState == null) {
                     blockState = blockType.getDefaultState();
                 }
                 short internalStateId = (short) (internalStateIdBase | b & 0xf);
-                this.blockStateByPackedType.put(internalStateId, blockState);
-                this.packedTypeByBlockState.put(blockState, internalStateId);
+                this.blockStateByPackedType[internalStateId & 0xffff] = blockState;
+                ((LanternBlockState) blockState).setInternalIdAndData(internalStateId);
             }
         } else {
             BlockState state = blockType.getDefaultState();
             short internalStateId = (short) ((internalId & 0xfff) << 4);
-            this.blockStateByPackedType.put(internalStateId, state);
-            this.packedTypeByBlockState.put(state, internalStateId);
+            this.blockStateByPackedType[internalStateId & 0xffff] = state;
+            ((LanternBlockState) state).setInternalIdAndData(internalStateId);
         }
     }
 
@@ -143,38 +147,45 @@ private int nextInternalId() {
 
     @Override
     public Optional<BlockState> getStateByInternalId(int internalId) {
-        return Optional.ofNullable(this.blockStateByPackedType.get((short) ((internalId & 0xfff) << 4)));
+        return Optional.ofNullable(this.blockStateByPackedType[(internalId & 0xfff) << 4]);
     }
 
     @Override
     public Optional<BlockState> getStateByInternalIdAndData(int internalId, byte data) {
-        return Optional.ofNullable(this.blockStateByPackedType.get((short) (((internalId & 0xfff) << 4) | (data & 0xf))));
+        return Optional.ofNullable(this.blockStateByPackedType[((internalId & 0xfff) << 4) | (data & 0xf)]);
     }
 
     @Override
     public Optional<BlockState> getStateByTypeAndData(BlockType blockType, byte data) {
-        return Optional.ofNullable(this.blockStateByPackedType.get(
-                (short) ((this.packedTypeByBlockState.get(blockType.getDefaultState()) & 0xfff0) | (data & 0xf))));
+        return Optional.ofNullable(this.blockStateByPackedType[
+                (this.getStateInternalIdAndData(blockType.getDefaultState()) & 0xfff0) | (data & 0xf)]);
     }
 
     @Override
     public Optional<BlockState> getStateByInternalIdAndData(int internalIdAndData) {
-        return Optional.ofNullable(this.blockStateByPackedType.get((short) (internalIdAndData & 0xffff)));
+        return Optional.ofNullable(this.blockStateByPackedType[internalIdAndData & 0xffff]);
+    }
+
+    @Override
+    public BlockState getStateByInternalIdAndDataOrAir(int internalIdAndData) {
+        final BlockState blockState = this.blockStateByPackedType[internalIdAndData & 0xffff];
+        // Air is always registered with the internal id 0
+        return blockState == null ? this.blockStateByPackedType[0] : blockState;
     }
 
     @Override
     public byte getStateData(BlockState blockState) {
-        return (byte) (this.packedTypeByBlockState.get(checkNotNull(blockState, "blockState")) & 0xf);
+        return (byte) (this.getStateInternalIdAndData(blockState) & 0xf);
     }
 
     @Override
     public short getStateInternalId(BlockState blockState) {
-        return (short) (this.packedTypeByBlockState.get(checkNotNull(blockState, "blockState")) >> 4);
+        return (short) ((this.getStateInternalIdAndData(blockState) & 0xffff) >> 4);
     }
 
     @Override
     public short getStateInternalIdAndData(BlockState blockState) {
-        return this.packedTypeByBlockState.get(checkNotNull(blockState, "blockState"));
+        return ((LanternBlockState) checkNotNull(blockState, "blockState")).getInternalIdAndData();
     }
 
     @Override
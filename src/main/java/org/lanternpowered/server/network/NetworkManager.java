@@ -29,32 +29,31 @@
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.epoll.EpollChannelOption;
 import org.lanternpowered.server.LanternServer;
+import org.lanternpowered.server.config.Networking;
+import org.lanternpowered.server.game.LanternGame;
 import org.lanternpowered.server.network.pipeline.MessageChannelInitializer;
 import org.lanternpowered.server.network.session.Session;
 import org.lanternpowered.server.network.session.SessionRegistry;
 
 import java.net.SocketAddress;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
 public final class NetworkManager {
 
     private final ServerBootstrap bootstrap = new ServerBootstrap();
-    private final AtomicInteger counter = new AtomicInteger(0);
 
-    private final EventLoopGroup bossGroup = new NioEventLoopGroup(0,
-            runnable -> new Thread(runnable, "netty-" + this.counter.getAndIncrement()));
-    private final EventLoopGroup workerGroup = new NioEventLoopGroup(0,
-            runnable -> new Thread(runnable, "netty-" + this.counter.getAndIncrement()));
+    // The event loop groups, these are created once the server gets bound
+    @Nullable private EventLoopGroup bossGroup;
+    @Nullable private EventLoopGroup workerGroup;
 
     private final SessionRegistry sessionRegistry = new SessionRegistry();
     private final LanternServer server;
 
     private SocketAddress socketAddress;
+    private Networking networking;
 
     public NetworkManager(LanternServer server) {
         this.server = server;
@@ -70,6 +69,15 @@ public SocketAddress getAddress() {
         return this.socketAddress;
     }
 
+    /**
+     * Gets the network settings, only available once the server is bound.
+     * 
+     * @return the network settings
+     */
+    public Networking getNetworking() {
+        return this.networking;
+    }
+
     /**
      * Gets the server.
      * 
@@ -122,23 +130,77 @@ public void onChannelInactive(Channel channel, Session session) {
      * Initializes and loads the netty server.
      * 
      * @param address the address
+     * @param networking the network settings
+     * @return the channel future of the (first) bound channel
      */
-    public ChannelFuture init(SocketAddress address) {
+    public ChannelFuture init(SocketAddress address, Networking networking) {
         this.socketAddress = address;
-        return this.bootstrap
+        this.networking = networking;
+
+        final TransportType transportType = TransportType.findBest(networking.isNativeTransport());
+        int acceptors = networking.getReusePortAcceptors();
+        if (acceptors > 1 && !transportType.supportsReusePort()) {
+            LanternGame.log().warn("Multiple acceptors require the native transport, only one will be bound.");
+            acceptors = 1;
+        }
+
+        // Every acceptor channel should get its own boss thread
+        final String prefix = networking.getThreadNamePrefix();
+        this.bossGroup = transportType.newEventLoopGroup(Math.max(acceptors, networking.getBossThreads()),
+                prefix + "-boss-%d");
+        this.workerGroup = transportType.newEventLoopGroup(networking.getWorkerThreads(),
+                prefix + "-worker-%d");
+
+        this.bootstrap
                 .group(this.bossGroup, this.workerGroup)
-                .channel(NioServerSocketChannel.class)
+                .channel(transportType.getServerSocketChannelClass())
                 .childHandler(new MessageChannelInitializer(this))
                 .childOption(ChannelOption.TCP_NODELAY, true)
                 .childOption(ChannelOption.SO_KEEPALIVE, true)
-                .bind(address);
+                .childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, networking.getWriteBufferHighWaterMark())
+                .childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, networking.getWriteBufferLowWaterMark());
+        if (networking.getReceiveBufferSize() > 0) {
+            this.bootstrap.childOption(ChannelOption.SO_RCVBUF, networking.getReceiveBufferSize());
+        }
+        if (networking.getSendBufferSize() > 0) {
+            this.bootstrap.childOption(ChannelOption.SO_SNDBUF, networking.getSendBufferSize());
+        }
+        if (acceptors > 1) {
+            this.bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+
+        final ChannelFuture future = this.bootstrap.bind(address);
+        if (acceptors > 1) {
+            final int extraAcceptors = acceptors - 1;
+            // Bind the other acceptors once the first one succeeded, the
+            // kernel will balance the incoming connections between them
+            future.addListener(future0 -> {
+                if (!future0.isSuccess()) {
+                    return;
+                }
+                for (int i = 0; i < extraAcceptors; i++) {
+                    this.bootstrap.bind(address).addListener(future1 -> {
+                        if (!future1.isSuccess()) {
+                            LanternGame.log().warn("Failed to bind an additional acceptor to: " + address,
+                                    future1.cause());
+                        }
+                    });
+                }
+            });
+        }
+        LanternGame.log().info("Using the {} transport with {} acceptor(s).", transportType, acceptors);
+        return future;
     }
 
     /**
      * Shuts down the netty server.
      */
     public void shutdown() {
-        this.workerGroup.shutdownGracefully();
-        this.bossGroup.shutdownGracefully();
+        if (this.workerGroup != null) {
+            this.workerGroup.shutdownGracefully();
+        }
+        if (this.bossGroup != null) {
+            this.bossGroup.shutdownGracefully();
+        }
     }
 }
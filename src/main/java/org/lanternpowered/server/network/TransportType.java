@@ -0,0 +1,108 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.lanternpowered.server.game.LanternGame;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiFunction;
+
+/**
+ * The netty transports that can be used by the network servers.
+ */
+public enum TransportType {
+    NIO         (NioServerSocketChannel.class, NioDatagramChannel.class, NioEventLoopGroup::new),
+    EPOLL       (EpollServerSocketChannel.class, EpollDatagramChannel.class, EpollEventLoopGroup::new),
+    ;
+
+    private final Class<? extends ServerSocketChannel> serverSocketChannelClass;
+    private final Class<? extends DatagramChannel> datagramChannelClass;
+    private final BiFunction<Integer, ThreadFactory, EventLoopGroup> eventLoopGroupFactory;
+
+    TransportType(Class<? extends ServerSocketChannel> serverSocketChannelClass,
+            Class<? extends DatagramChannel> datagramChannelClass,
+            BiFunction<Integer, ThreadFactory, EventLoopGroup> eventLoopGroupFactory) {
+        this.serverSocketChannelClass = serverSocketChannelClass;
+        this.datagramChannelClass = datagramChannelClass;
+        this.eventLoopGroupFactory = eventLoopGroupFactory;
+    }
+
+    public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+        return this.serverSocketChannelClass;
+    }
+
+    public Class<? extends DatagramChannel> getDatagramChannelClass() {
+        return this.datagramChannelClass;
+    }
+
+    /**
+     * Gets whether multiple server channels can be bound to the same port.
+     *
+     * @return whether SO_REUSEPORT is supported
+     */
+    public boolean supportsReusePort() {
+        return this == EPOLL;
+    }
+
+    /**
+     * Creates a new event loop group for this transport type.
+     *
+     * @param threads the amount of threads, 0 to use the netty default
+     * @param nameFormat the name format of the threads, {@code %d} will be replaced by the thread index
+     * @return the event loop group
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, String nameFormat) {
+        return this.eventLoopGroupFactory.apply(threads, new ThreadFactoryBuilder().setNameFormat(nameFormat).build());
+    }
+
+    /**
+     * Gets the transport type that should be used, this will be
+     * {@link #EPOLL} if it's preferred and available.
+     *
+     * @param preferNative whether the native transport is preferred
+     * @return the transport type
+     */
+    public static TransportType findBest(boolean preferNative) {
+        if (preferNative) {
+            if (Epoll.isAvailable()) {
+                return EPOLL;
+            }
+            LanternGame.log().debug("The native epoll transport isn't available, falling back to nio.",
+                    Epoll.unavailabilityCause());
+        }
+        return NIO;
+    }
+}
@@ -59,7 +59,7 @@ protected void initChannel(SocketChannel channel) throws Exception {
                 .addLast("writeidletimeout", new IdleStateHandler(0, WRITE_IDLE_TIMEOUT, 0))
                 .addLast(Session.LEGACY_PING, new LegacyPingHandler())
                 .addLast(Session.ENCRYPTION, NoopHandler.INSTANCE)
-                .addLast(Session.FRAMING, new MessageFramingHandler())
+                .addLast(Session.FRAMING, new MessageFramingHandler(this.networkManager.getNetworking()))
                 .addLast(Session.COMPRESSION, NoopHandler.INSTANCE)
                 .addLast(Session.CODECS, new MessageCodecHandler())
                 .addLast(Session.PROCESSOR, new MessageProcessorHandler())
@@ -25,29 +25,30 @@
 package org.lanternpowered.server.network.pipeline;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
 import org.lanternpowered.server.game.LanternGame;
 
 import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
-import java.util.List;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.ShortBufferException;
 import javax.crypto.spec.IvParameterSpec;
 
-public final class MessageEncryptionHandler extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+public final class MessageEncryptionHandler extends ChannelDuplexHandler {
 
-    private final CryptBuf encodeBuf;
-    private final CryptBuf decodeBuf;
+    private final Cipher encodeCipher;
+    private final Cipher decodeCipher;
 
     public MessageEncryptionHandler(SecretKey sharedSecret) {
         try {
-            this.encodeBuf = new CryptBuf(Cipher.ENCRYPT_MODE, sharedSecret);
-            this.decodeBuf = new CryptBuf(Cipher.DECRYPT_MODE, sharedSecret);
+            this.encodeCipher = createCipher(Cipher.ENCRYPT_MODE, sharedSecret);
+            this.decodeCipher = createCipher(Cipher.DECRYPT_MODE, sharedSecret);
         } catch (GeneralSecurityException e) {
             // should never happen
             LanternGame.log().error("Failed to initialize encrypted channel", e);
@@ -55,37 +56,87 @@ public MessageEncryptionHandler(SecretKey sharedSecret) {
         }
     }
 
-    @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
-        this.encodeBuf.crypt(msg, out);
+    private static Cipher createCipher(int mode, SecretKey sharedSecret) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance("AES/CFB8/NoPadding");
+        cipher.init(mode, sharedSecret, new IvParameterSpec(sharedSecret.getEncoded()));
+        return cipher;
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
-        this.decodeBuf.crypt(msg, out);
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (!(msg instanceof ByteBuf)) {
+            ctx.write(msg, promise);
+            return;
+        }
+        final ByteBuf buf = (ByteBuf) msg;
+        final ByteBuf output;
+        try {
+            // The outbound buffers may be shared, so they are never encrypted in place
+            output = cryptToDirectBuffer(ctx, this.encodeCipher, buf);
+        } catch (ShortBufferException e) {
+            throw new EncoderException("Encryption buffer was too short", e);
+        } finally {
+            buf.release();
+        }
+        ctx.write(output, promise);
     }
 
-    private static class CryptBuf {
-
-        private final Cipher cipher;
-
-        private CryptBuf(int mode, SecretKey sharedSecret) throws GeneralSecurityException {
-            this.cipher = Cipher.getInstance("AES/CFB8/NoPadding");
-            this.cipher.init(mode, sharedSecret, new IvParameterSpec(sharedSecret.getEncoded()));
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf)) {
+            ctx.fireChannelRead(msg);
+            return;
         }
-
-        public void crypt(ByteBuf msg, List<Object> out) {
-            ByteBuffer outBuffer = ByteBuffer.allocate(msg.readableBytes());
-
-            try {
-                this.cipher.update(msg.nioBuffer(), outBuffer);
-            } catch (ShortBufferException e) {
-                throw new AssertionError("Encryption buffer was too short", e);
+        final ByteBuf buf = (ByteBuf) msg;
+        final ByteBuf output;
+        try {
+            // The buffers that are read from the socket are owned by this
+            // handler, so they can be decrypted in place
+            if (buf.refCnt() == 1 && buf.nioBufferCount() == 1) {
+                final ByteBuffer nioBuffer = buf.nioBuffer(buf.readerIndex(), buf.readableBytes());
+                // The cipher is copy-safe, as long as the buffer objects differ
+                this.decodeCipher.update(nioBuffer, nioBuffer.duplicate());
+                output = buf.retain();
+            } else {
+                output = cryptToDirectBuffer(ctx, this.decodeCipher, buf);
             }
+        } catch (ShortBufferException e) {
+            throw new DecoderException("Decryption buffer was too short", e);
+        } finally {
+            buf.release();
+        }
+        ctx.fireChannelRead(output);
+    }
 
-            outBuffer.flip();
-            out.add(Unpooled.wrappedBuffer(outBuffer));
+    private static ByteBuf cryptToDirectBuffer(ChannelHandlerContext ctx, Cipher cipher, ByteBuf input)
+            throws ShortBufferException {
+        final ByteBuf output = ctx.alloc().directBuffer(input.readableBytes());
+        try {
+            crypt(cipher, input, output);
+        } catch (ShortBufferException | RuntimeException e) {
+            output.release();
+            throw e;
         }
+        return output;
     }
 
+    /**
+     * Ciphers all the readable bytes of the input buffer into the output buffer, the
+     * reader index of the input and the writer index of the output are moved forward.
+     *
+     * @param cipher the cipher
+     * @param input the input buffer
+     * @param output the output buffer
+     * @throws ShortBufferException if the output buffer is too small
+     */
+    private static void crypt(Cipher cipher, ByteBuf input, ByteBuf output) throws ShortBufferException {
+        final int length = input.readableBytes();
+        output.ensureWritable(length);
+        final ByteBuffer outBuffer = output.nioBuffer(output.writerIndex(), length);
+        for (ByteBuffer inBuffer : input.nioBuffers()) {
+            cipher.update(inBuffer, outBuffer);
+        }
+        input.skipBytes(length);
+        output.writerIndex(output.writerIndex() + length);
+    }
 }
@@ -27,37 +27,73 @@
 import static org.lanternpowered.server.network.message.codec.serializer.SimpleSerializerContext.DEFAULT;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.channel.CombinedChannelDuplexHandler;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.codec.TooLongFrameException;
+import org.lanternpowered.server.config.Networking;
+import org.lanternpowered.server.network.protocol.ProtocolState;
+import org.lanternpowered.server.network.session.Session;
 
 import java.util.List;
 
-public final class MessageFramingHandler extends ByteToMessageCodec<ByteBuf> {
+public final class MessageFramingHandler extends CombinedChannelDuplexHandler<
+        MessageFramingHandler.FrameDecoder, MessageFramingHandler.FrameEncoder> {
 
-    @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf buf0, ByteBuf output) throws Exception {
-        DEFAULT.writeVarInt(output, buf0.readableBytes());
-        output.writeBytes(buf0);
+    public MessageFramingHandler(Networking networking) {
+        super(new FrameDecoder(networking), new FrameEncoder());
     }
 
-    @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> output) throws Exception {
-        buf.markReaderIndex();
+    static final class FrameEncoder extends MessageToMessageEncoder<ByteBuf> {
 
-        if (!readableVarInt(buf)) {
-            return;
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> output) throws Exception {
+            final ByteBuf prefixBuf = ctx.alloc().buffer(5);
+            DEFAULT.writeVarInt(prefixBuf, buf.readableBytes());
+            // Prepend the length without copying the contents
+            output.add(Unpooled.wrappedBuffer(prefixBuf, buf.retain()));
         }
+    }
+
+    static final class FrameDecoder extends ByteToMessageDecoder {
+
+        private final Networking networking;
 
-        int length = DEFAULT.readVarInt(buf);
-        if (buf.readableBytes() < length) {
-            buf.resetReaderIndex();
-            return;
+        FrameDecoder(Networking networking) {
+            this.networking = networking;
         }
 
-        ByteBuf buf1 = ctx.alloc().buffer(length);
-        buf.readBytes(buf1, length);
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> output) throws Exception {
+            if (!readableVarInt(buf)) {
+                return;
+            }
+
+            buf.markReaderIndex();
+            final int length = DEFAULT.readVarInt(buf);
+            if (length < 0) {
+                throw new CorruptedFrameException("Received a frame with a negative length: " + length);
+            }
+            ProtocolState state = ctx.channel().attr(Session.STATE).get();
+            if (state == null) {
+                state = ProtocolState.HANDSHAKE;
+            }
+            final int maxLength = this.networking.getMaxFrameSize(state);
+            if (length > maxLength) {
+                throw new TooLongFrameException("Received a frame of " + length + " bytes in the " + state
+                        + " state, the maximum is " + maxLength + " bytes");
+            }
+            if (buf.readableBytes() < length) {
+                buf.resetReaderIndex();
+                return;
+            }
 
-        output.add(buf1);
+            // The frame shares the contents of the cumulation buffer
+            output.add(buf.readSlice(length).retain());
+        }
     }
 
     private static boolean readableVarInt(ByteBuf buf) {
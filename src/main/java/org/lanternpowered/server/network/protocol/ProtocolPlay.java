@@ -37,14 +37,25 @@
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayInPlayerAction;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayInPlayerVehicleControls;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayInResourcePackStatus;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutBlockChange;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutChatMessage;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutChunkData;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutDestroyEntities;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutEntityHeadLook;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutEntityLook;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutEntityLookAndRelativeMove;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutEntityRelativeMove;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutEntityStatus;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutEntityTeleport;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutEntityVelocity;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutMultiBlockChange;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutPlayerHealthUpdate;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutPlayerJoinGame;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutPlayerRespawn;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutPlayerSpawnPosition;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutSoundEffect;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutSpawnParticle;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutSpawnPlayer;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutTitle;
 import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutWorldTime;
 import org.lanternpowered.server.network.vanilla.message.handler.connection.HandlerInPing;
@@ -78,7 +89,17 @@
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayInPlayerVehicleJump;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayInPlayerVehicleMovement;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayInResourcePackStatus;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutBlockChange;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChatMessage;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutDestroyEntities;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityHeadLook;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityLook;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityLookAndRelativeMove;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityRelativeMove;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityTeleport;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutEntityVelocity;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutMultiBlockChange;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutOpenBook;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutOpenCredits;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutParticleEffect;
@@ -90,7 +111,9 @@
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutSetOpLevel;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutSetReducedDebug;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutSoundEffect;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutSpawnPlayer;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutTitle;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutUnloadChunk;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutWorldSky;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutWorldTime;
 
@@ -156,10 +179,26 @@ public ProtocolPlay() {
         // 0x08
         outbound.bind(0x09, CodecPlayInOutHeldItemChange.class, MessagePlayInOutHeldItemChange.class);
         // ...
+        outbound.bind(0x0c, CodecPlayOutSpawnPlayer.class, MessagePlayOutSpawnPlayer.class);
+        // ...
+        outbound.bind(0x12, CodecPlayOutEntityVelocity.class, MessagePlayOutEntityVelocity.class);
+        outbound.bind(0x13, CodecPlayOutDestroyEntities.class, MessagePlayOutDestroyEntities.class);
+        // 0x14
+        outbound.bind(0x15, CodecPlayOutEntityRelativeMove.class, MessagePlayOutEntityRelativeMove.class);
+        outbound.bind(0x16, CodecPlayOutEntityLook.class, MessagePlayOutEntityLook.class);
+        outbound.bind(0x17, CodecPlayOutEntityLookAndRelativeMove.class, MessagePlayOutEntityLookAndRelativeMove.class);
+        outbound.bind(0x18, CodecPlayOutEntityTeleport.class, MessagePlayOutEntityTeleport.class);
+        outbound.bind(0x19, CodecPlayOutEntityHeadLook.class, MessagePlayOutEntityHeadLook.class);
         CodecRegistration<Message, CodecPlayOutEntityStatus> codecPlayOutEntityStatus = outbound.bind(0x1a, CodecPlayOutEntityStatus.class);
         codecPlayOutEntityStatus.bind(MessagePlayOutSetOpLevel.class);
         codecPlayOutEntityStatus.bind(MessagePlayOutSetReducedDebug.class);
         // ...
+        CodecRegistration<Message, CodecPlayOutChunkData> codecPlayOutChunkData = outbound.bind(0x21, CodecPlayOutChunkData.class);
+        codecPlayOutChunkData.bind(MessagePlayOutChunkData.class);
+        codecPlayOutChunkData.bind(MessagePlayOutUnloadChunk.class);
+        outbound.bind(0x22, CodecPlayOutMultiBlockChange.class, MessagePlayOutMultiBlockChange.class);
+        outbound.bind(0x23, CodecPlayOutBlockChange.class, MessagePlayOutBlockChange.class);
+        // ...
         outbound.bind(0x29, CodecPlayOutSoundEffect.class, MessagePlayOutSoundEffect.class);
         outbound.bind(0x2a, CodecPlayOutSpawnParticle.class, ProcessorPlayOutParticleEffect.MessagePlayOutSpawnParticle.class);
         // ...
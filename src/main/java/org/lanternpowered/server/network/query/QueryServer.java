@@ -27,9 +27,9 @@
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
+import org.lanternpowered.server.config.Networking;
 import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.network.TransportType;
 import org.spongepowered.api.scheduler.Task;
 
 import java.net.InetSocketAddress;
@@ -47,7 +47,7 @@
 public class QueryServer {
 
     // The {@link EventLoopGroup} used by the query server.
-    private EventLoopGroup group = new NioEventLoopGroup();
+    private EventLoopGroup group;
 
     // The {@link Bootstrap} used by netty to instantiate the query server
     private Bootstrap bootstrap = new Bootstrap();
@@ -66,9 +66,12 @@ public class QueryServer {
 
     public QueryServer(LanternGame game, boolean showPlugins) {
         this.game = game;
+        final Networking networking = game.getGlobalConfig().getNetworking();
+        final TransportType transportType = TransportType.findBest(networking.isNativeTransport());
+        this.group = transportType.newEventLoopGroup(0, networking.getThreadNamePrefix() + "-query-%d");
         this.bootstrap
                 .group(this.group)
-                .channel(NioDatagramChannel.class)
+                .channel(transportType.getDatagramChannelClass())
                 .handler(new QueryHandler(this, showPlugins));
     }
 
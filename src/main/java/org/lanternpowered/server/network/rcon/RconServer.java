@@ -30,9 +30,9 @@
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.lanternpowered.server.config.Networking;
+import org.lanternpowered.server.network.TransportType;
 
 import java.net.InetSocketAddress;
 import java.util.Map;
@@ -41,6 +41,7 @@
 public class RconServer extends BaseRconService {
 
     private final Map<String, RconSource> sourcesByHostname = Maps.newConcurrentMap();
+    private final Networking networking;
 
     private ServerBootstrap bootstrap;
     private EventLoopGroup bossGroup;
@@ -48,8 +49,9 @@ public class RconServer extends BaseRconService {
 
     private InetSocketAddress address;
 
-    public RconServer(String password) {
+    public RconServer(String password, Networking networking) {
         super(password);
+        this.networking = networking;
     }
 
     /**
@@ -65,12 +67,14 @@ public ChannelFuture bind(final InetSocketAddress address) {
 
         this.address = address;
         this.bootstrap = new ServerBootstrap();
-        this.bossGroup = new NioEventLoopGroup();
-        this.workerGroup = new NioEventLoopGroup();
+        final TransportType transportType = TransportType.findBest(this.networking.isNativeTransport());
+        final String prefix = this.networking.getThreadNamePrefix();
+        this.bossGroup = transportType.newEventLoopGroup(1, prefix + "-rcon-boss-%d");
+        this.workerGroup = transportType.newEventLoopGroup(0, prefix + "-rcon-worker-%d");
 
         return this.bootstrap
                 .group(this.bossGroup, this.workerGroup)
-                .channel(NioServerSocketChannel.class)
+                .channel(transportType.getServerSocketChannelClass())
                 .childHandler(new ChannelInitializer<SocketChannel>() {
 
                     @Override
@@ -24,6 +24,7 @@
  */
 package org.lanternpowered.server.network.session;
 
+import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.Sets;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -33,6 +34,7 @@
 import io.netty.util.AttributeKey;
 import org.lanternpowered.server.LanternServer;
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.entity.living.player.gamemode.LanternGameMode;
 import org.lanternpowered.server.game.LanternGame;
 import org.lanternpowered.server.network.NetworkContext;
 import org.lanternpowered.server.network.message.AsyncHelper;
@@ -49,12 +51,22 @@
 import org.lanternpowered.server.network.vanilla.message.type.connection.MessageInOutPing;
 import org.lanternpowered.server.network.vanilla.message.type.connection.MessageOutDisconnect;
 import org.lanternpowered.server.network.vanilla.message.type.handshake.MessageHandshakeIn.ProxyData;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutPlayerJoinGame;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutPlayerSpawnPosition;
 import org.lanternpowered.server.profile.LanternGameProfile;
+import org.lanternpowered.server.util.concurrent.SerialExecutor;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.LanternWorldManager;
+import org.lanternpowered.server.world.LanternWorldProperties;
+import org.lanternpowered.server.world.difficulty.LanternDifficulty;
+import org.lanternpowered.server.world.dimension.LanternDimensionType;
 import org.spongepowered.api.network.PlayerConnection;
 import org.spongepowered.api.text.Text;
+import org.spongepowered.api.world.World;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayDeque;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
@@ -87,6 +99,11 @@ public class Session implements PlayerConnection {
     // the synchronous thread
     private final Queue<HandlerMessage> messageQueue = new ArrayDeque<>();
 
+    // The executor that processes the chat messages and commands of
+    // this session in order, outside the main thread
+    private final SerialExecutor chatExecutor = new SerialExecutor(
+            task -> LanternGame.get().getScheduler().getAsyncExecutor().execute(LanternGame.plugin(), task));
+
     // The network context used by the handlers
     private final NetworkContext networkContext = new NetworkContext() {
         @Override
@@ -426,11 +443,45 @@ public void setPlayer(LanternGameProfile profile) {
         this.gameProfile = profile;
     }
 
+    /**
+     * Spawns the player of this session in the default world. The player is
+     * added to the world on the main thread, from then on the world streams
+     * the chunks around the player and tracks it for the other players.
+     */
     public void spawnPlayer() {
-        
+        final LanternWorldManager worldManager = LanternGame.get().getServer().getWorldManager();
+        final Optional<World> optWorld = worldManager.getDefaultWorld()
+                .flatMap(properties -> worldManager.getWorld(properties.getUniqueId()));
+        if (!optWorld.isPresent()) {
+            this.disconnect("The default world isn't loaded.");
+            return;
+        }
+        final LanternWorld world = (LanternWorld) optWorld.get();
+        final LanternWorldProperties properties = world.getProperties();
+        final LanternPlayer player = new LanternPlayer(this.gameProfile, this);
+        final Vector3i spawnPosition = properties.getSpawnPosition();
+        player.setPosition(spawnPosition.toDouble().add(0.5, 0, 0.5));
+        this.player = player;
+        this.sendAll(new MessagePlayOutPlayerJoinGame((LanternGameMode) properties.getGameMode(),
+                (LanternDimensionType) properties.getDimensionType(), (LanternDifficulty) properties.getDifficulty(),
+                player.getEntityId(), LanternGame.get().getServer().getMaxPlayers(), false, properties.isHardcore()),
+                new MessagePlayOutPlayerSpawnPosition(spawnPosition));
+        LanternGame.get().getScheduler().callSync(() -> {
+            player.setWorld(world);
+            return null;
+        });
     }
 
     public void onDisconnect() {
+        // Remove the player from its world on the main thread, this
+        // stops the chunk streaming and tracking for the player
+        final LanternPlayer player = this.player;
+        if (player != null) {
+            LanternGame.get().getScheduler().callSync(() -> {
+                player.remove();
+                return null;
+            });
+        }
         LanternGame.log().info("Connection for " + (this.gameProfile == null ? this.channel.remoteAddress().toString() : this.gameProfile.getName())
                 + " disconnected from the server.");
     }
@@ -581,6 +632,16 @@ public LanternPlayer getPlayer() {
         return this.player;
     }
 
+    /**
+     * Gets the executor that processes the chat messages and
+     * commands of this session, in the order they were received.
+     *
+     * @return the chat executor
+     */
+    public SerialExecutor getChatExecutor() {
+        return this.chatExecutor;
+    }
+
     @Override
     public InetSocketAddress getAddress() {
         return this.address;
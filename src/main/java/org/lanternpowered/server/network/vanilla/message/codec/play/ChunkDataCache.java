@@ -0,0 +1,209 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.vanilla.message.codec.play;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.netty.buffer.ByteBuf;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * A cache for the encoded content of chunk data messages. Each chunk can
+ * hold one encoded buffer with and one without sky light, the buffers are
+ * only valid as long the version of the chunk matches the version that
+ * was used to encode the content.
+ *
+ * <p>The total size of all the cached buffers is bounded, the least
+ * recently used chunks will be evicted first.</p>
+ */
+public final class ChunkDataCache {
+
+    // The default maximum size of the cache, 32 MB
+    private static final long DEFAULT_MAX_SIZE = 32L * 1024L * 1024L;
+
+    /**
+     * The shared instance of the chunk data cache.
+     */
+    public static final ChunkDataCache INSTANCE = new ChunkDataCache(DEFAULT_MAX_SIZE);
+
+    private static final class Entry {
+
+        private final int version;
+        private final ByteBuf buf;
+
+        private Entry(int version, ByteBuf buf) {
+            this.version = version;
+            this.buf = buf;
+        }
+    }
+
+    // All the cached entries, index 0 contains the entry without sky
+    // light and 1 with sky light, the map is ordered by access
+    private final Map<LanternChunk, Entry[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    // The maximum size of all the cached buffers
+    private final long maxSize;
+
+    // The current size of all the cached buffers
+    private long size;
+
+    /**
+     * Creates a new chunk data cache.
+     *
+     * @param maxSize the maximum size of all the cached buffers in bytes
+     */
+    public ChunkDataCache(long maxSize) {
+        checkArgument(maxSize >= 0, "maxSize cannot be negative");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the cached content for the specified chunk. The returned buffer is a
+     * retained duplicate that should be released by the caller.
+     *
+     * @param chunk the chunk
+     * @param skylight whether the sky light is included
+     * @param version the version of the chunk
+     * @return the buffer, or null if not present or outdated
+     */
+    @Nullable
+    public synchronized ByteBuf get(LanternChunk chunk, boolean skylight, int version) {
+        final Entry[] entries = this.entries.get(checkNotNull(chunk, "chunk"));
+        if (entries == null) {
+            return null;
+        }
+        final int index = skylight ? 1 : 0;
+        final Entry entry = entries[index];
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version != version) {
+            // The chunk was modified, the content is no longer valid
+            this.release(entries, index);
+            if (entries[index ^ 1] == null) {
+                this.entries.remove(chunk);
+            }
+            return null;
+        }
+        return entry.buf.duplicate().retain();
+    }
+
+    /**
+     * Puts the encoded content of the specified chunk into the cache. The cache
+     * takes ownership of the buffer, a retained duplicate is returned.
+     *
+     * @param chunk the chunk
+     * @param skylight whether the sky light is included
+     * @param version the version of the chunk that was encoded
+     * @param buf the encoded content
+     * @return the retained duplicate of the buffer
+     */
+    public synchronized ByteBuf put(LanternChunk chunk, boolean skylight, int version, ByteBuf buf) {
+        checkNotNull(chunk, "chunk");
+        checkNotNull(buf, "buf");
+        final int bufSize = buf.readableBytes();
+        if (bufSize > this.maxSize) {
+            return buf;
+        }
+        final Entry[] entries = this.entries.computeIfAbsent(chunk, chunk0 -> new Entry[2]);
+        final int index = skylight ? 1 : 0;
+        this.release(entries, index);
+        entries[index] = new Entry(version, buf);
+        this.size += bufSize;
+        if (this.size > this.maxSize) {
+            final Iterator<Map.Entry<LanternChunk, Entry[]>> it = this.entries.entrySet().iterator();
+            while (this.size > this.maxSize && it.hasNext()) {
+                final Map.Entry<LanternChunk, Entry[]> entry = it.next();
+                // Never evict the entry that we just added
+                if (entry.getKey() == chunk) {
+                    continue;
+                }
+                this.release(entry.getValue(), 0);
+                this.release(entry.getValue(), 1);
+                it.remove();
+            }
+        }
+        return buf.duplicate().retain();
+    }
+
+    /**
+     * Invalidates all the cached content of the specified chunk,
+     * this should be called when a chunk gets unloaded.
+     *
+     * @param chunk the chunk
+     */
+    public synchronized void invalidate(LanternChunk chunk) {
+        final Entry[] entries = this.entries.remove(checkNotNull(chunk, "chunk"));
+        if (entries != null) {
+            this.release(entries, 0);
+            this.release(entries, 1);
+        }
+    }
+
+    /**
+     * Invalidates all the cached content.
+     */
+    public synchronized void clear() {
+        for (Entry[] entries : this.entries.values()) {
+            this.release(entries, 0);
+            this.release(entries, 1);
+        }
+        this.entries.clear();
+    }
+
+    /**
+     * Gets the current size of all the cached buffers in bytes.
+     *
+     * @return the size
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Gets the maximum size of all the cached buffers in bytes.
+     *
+     * @return the maximum size
+     */
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    private void release(Entry[] entries, int index) {
+        final Entry entry = entries[index];
+        if (entry != null) {
+            entries[index] = null;
+            this.size -= entry.buf.readableBytes();
+            entry.buf.release();
+        }
+    }
+}
@@ -32,9 +32,21 @@
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutUnloadChunk;
 import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+
+import java.nio.ByteOrder;
 
 public final class CodecPlayOutChunkData implements Codec<Message> {
 
+    // The size of the nibble arrays of a chunk section
+    private static final int NIBBLE_ARRAY_SIZE = LanternChunk.CHUNK_SECTION_VOLUME / 2;
+
+    // Reusable arrays to copy the content of the chunk sections into
+    private final ThreadLocal<short[]> typesBuffer = ThreadLocal.withInitial(
+            () -> new short[LanternChunk.CHUNK_SECTION_VOLUME]);
+    private final ThreadLocal<byte[]> lightBuffer = ThreadLocal.withInitial(
+            () -> new byte[NIBBLE_ARRAY_SIZE]);
+
     @Override
     public ByteBuf encode(CodecContext context, Message message) throws CodecException {
         if (message instanceof MessagePlayOutUnloadChunk) {
@@ -47,30 +59,23 @@ public ByteBuf encode(CodecContext context, Message message) throws CodecExcepti
         }
 
         final MessagePlayOutChunkData message1 = (MessagePlayOutChunkData) message;
+        final LanternChunk chunk = message1.getChunk();
+        if (chunk != null) {
+            return this.encodeCached(context, chunk, message1.hasSkyLight());
+        }
+
         final MessagePlayOutChunkData.Section[] sections = message1.getSections();
         final byte[] biomes = message1.getBiomes();
         final boolean skylight = message1.hasSkyLight();
 
-        int sectionCount;
+        int sectionCount = 0;
         int sectionBitmask = 0;
-        if (sections == null) {
-            sectionCount = 0;
-        } else {
-            final int maxBitmask = (1 << sections.length) - 1;
-
-            if (biomes != null) {
-                sectionBitmask = maxBitmask;
-                sectionCount = sections.length;
-            } else {
-                sectionBitmask &= maxBitmask;
-                sectionCount = countBits(sectionBitmask);
-            }
-
+        if (sections != null) {
             for (int i = 0; i < sections.length; ++i) {
-                if (sections[i] == null) {
-                    // Remove empty sections from bitmask
-                    sectionBitmask &= ~(1 << i);
-                    sectionCount--;
+                // Only send the sections that are present
+                if (sections[i] != null) {
+                    sectionBitmask |= 1 << i;
+                    sectionCount++;
                 }
             }
         }
@@ -112,9 +117,7 @@ public ByteBuf encode(CodecContext context, Message message) throws CodecExcepti
 
             // Block types
             for (MessagePlayOutChunkData.Section section : sendSections) {
-                for (short type : section.getBlockTypes()) {
-                    buf.writeShort(type);
-                }
+                writeShorts(buf, section.getBlockTypes());
             }
 
             // Block light
@@ -137,18 +140,117 @@ public ByteBuf encode(CodecContext context, Message message) throws CodecExcepti
         return buf;
     }
 
-    @Override
-    public Message decode(CodecContext context, ByteBuf buf) throws CodecException {
-        throw new CodecException();
+    /**
+     * Encodes the content of the chunk, the encoded content will be reused
+     * for all the players as long as the chunk isn't modified.
+     *
+     * @param context the codec context
+     * @param chunk the chunk
+     * @param skylight whether the sky light should be included
+     * @return the byte buffer
+     */
+    private ByteBuf encodeCached(CodecContext context, LanternChunk chunk, boolean skylight) {
+        final int version = chunk.getVersion();
+        final ByteBuf cached = ChunkDataCache.INSTANCE.get(chunk, skylight, version);
+        if (cached != null) {
+            return cached;
+        }
+        final ByteBuf buf = this.encodeChunk(context, chunk, skylight);
+        // The chunk was modified while encoding, so the content
+        // could be a mix of two versions, don't cache it
+        if (chunk.getVersion() != version) {
+            return buf;
+        }
+        return ChunkDataCache.INSTANCE.put(chunk, skylight, version, buf);
+    }
+
+    private ByteBuf encodeChunk(CodecContext context, LanternChunk chunk, boolean skylight) {
+        final ChunkSection[] sections = chunk.getSections();
+
+        int sectionBitmask = 0;
+        int sectionCount = 0;
+        for (int i = 0; i < sections.length; i++) {
+            if (sections[i] != null) {
+                sectionBitmask |= 1 << i;
+                sectionCount++;
+            }
+        }
+
+        final int numBlocks = LanternChunk.CHUNK_SECTION_VOLUME;
+        int sectionSize = numBlocks * 5 / 2;  // (data and metadata combo) * 2 + blockLight / 2
+        if (skylight) {
+            sectionSize += numBlocks / 2;  // + skyLight/2
+        }
+        final int byteSize = sectionCount * sectionSize + LanternChunk.CHUNK_AREA;  // + biomes
+
+        // The header has a maximum size of 16 bytes
+        final ByteBuf buf = context.byteBufAlloc().buffer(byteSize + 16);
+        buf.writeInt(chunk.getX());
+        buf.writeInt(chunk.getZ());
+        buf.writeBoolean(true);
+        buf.writeShort(sectionBitmask);
+        context.writeVarInt(buf, byteSize);
+
+        final short[] types = this.typesBuffer.get();
+        final byte[] light = this.lightBuffer.get();
+
+        // Block types
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                writeShorts(buf, section.types.getArray(types));
+            }
+        }
+
+        // Block light
+        for (ChunkSection section : sections) {
+            if (section != null) {
+                buf.writeBytes(section.lightFromBlock.getPackedArray(light));
+            }
+        }
+
+        // Sky light
+        if (skylight) {
+            for (ChunkSection section : sections) {
+                if (section != null) {
+                    buf.writeBytes(section.lightFromSky.getPackedArray(light));
+                }
+            }
+        }
+
+        // Biomes
+        final short[] biomes = chunk.getBiomes();
+        for (int i = 0; i < LanternChunk.CHUNK_AREA; i++) {
+            light[i] = (byte) biomes[i];
+        }
+        buf.writeBytes(light, 0, LanternChunk.CHUNK_AREA);
+
+        return buf;
     }
 
-    private static int countBits(int v) {
-        // http://graphics.stanford.edu/~seander/bithacks.html#CountBitsSetKernighan
-        int c;
-        for (c = 0; v > 0; c++) {
-            v &= v - 1;
+    /**
+     * Writes the short array into the byte buffer, the content will be
+     * written in bulk if the backing memory of the buffer is accessible.
+     *
+     * @param buf the byte buffer
+     * @param array the array
+     */
+    private static void writeShorts(ByteBuf buf, short[] array) {
+        final int length = array.length << 1;
+        buf.ensureWritable(length);
+        if (buf.nioBufferCount() == 1) {
+            final int index = buf.writerIndex();
+            buf.nioBuffer(index, length).order(ByteOrder.BIG_ENDIAN).asShortBuffer().put(array);
+            buf.writerIndex(index + length);
+        } else {
+            for (short value : array) {
+                buf.writeShort(value);
+            }
         }
-        return c;
+    }
+
+    @Override
+    public Message decode(CodecContext context, ByteBuf buf) throws CodecException {
+        throw new CodecException();
     }
 
 }
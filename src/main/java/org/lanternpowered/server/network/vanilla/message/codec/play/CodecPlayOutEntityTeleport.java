@@ -40,9 +40,9 @@ public ByteBuf encode(CodecContext context, MessagePlayOutEntityTeleport message
         ByteBuf buf = context.byteBufAlloc().buffer();
         context.writeVarInt(buf, message.getEntityId());
         Vector3d position = message.getPosition();
-        buf.writeInt((byte) (position.getX() * 32d));
-        buf.writeInt((byte) (position.getY() * 32d));
-        buf.writeInt((byte) (position.getZ() * 32d));
+        buf.writeInt((int) Math.floor(position.getX() * 32d));
+        buf.writeInt((int) Math.floor(position.getY() * 32d));
+        buf.writeInt((int) Math.floor(position.getZ() * 32d));
         buf.writeByte(wrapAngle(message.getYaw()));
         buf.writeByte(wrapAngle(message.getPitch()));
         buf.writeBoolean(message.isOnGround());
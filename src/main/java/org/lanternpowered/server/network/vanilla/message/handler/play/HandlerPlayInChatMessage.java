@@ -25,8 +25,10 @@
 package org.lanternpowered.server.network.vanilla.message.handler.play;
 
 import org.apache.commons.lang3.StringUtils;
+import org.lanternpowered.server.command.LanternCommandManager;
 import org.lanternpowered.server.game.LanternGame;
 import org.lanternpowered.server.network.NetworkContext;
+import org.lanternpowered.server.network.message.Async;
 import org.lanternpowered.server.network.message.handler.Handler;
 import org.lanternpowered.server.network.session.Session;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayInChatMessage;
@@ -41,34 +43,85 @@
 
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
+/**
+ * The chat messages are validated on the network thread, the processing happens on the
+ * chat executor of the session so that the order is preserved for each player. Commands
+ * that aren't marked as async are still executed on the main thread. If async chat is
+ * enabled, only the chat event is called on the chat executor, the resulting message is
+ * still sent on the main thread.
+ */
+@Async
 public final class HandlerPlayInChatMessage implements Handler<MessagePlayInChatMessage> {
 
     @Override
     public void handle(NetworkContext context, MessagePlayInChatMessage message) {
-        Session session = context.getSession();
-        Player player = session.getPlayer();
-        String message0 = message.getMessage();
-        String message1 = StringUtils.normalizeSpace(message0);
+        final Session session = context.getSession();
+        final Player player = session.getPlayer();
+        final String message0 = message.getMessage();
         if (!isAllowedString(message0)) {
             session.disconnect("Illegal characters in chat!");
             return;
         }
+        final LanternGame game = LanternGame.get();
         if (message0.startsWith("/")) {
-            LanternGame.get().getCommandManager().process(player, message1);
+            final String command = StringUtils.normalizeSpace(message0);
+            session.getChatExecutor().executeChained(() -> {
+                final LanternCommandManager commandManager = game.getCommandManager();
+                if (commandManager.isAsync(player, command)) {
+                    commandManager.process(player, command);
+                    return null;
+                }
+                return game.getScheduler().callSync(() -> commandManager.process(player, command));
+            });
+        } else if (game.getGlobalConfig().isAsyncChat()) {
+            session.getChatExecutor().executeChained(() -> {
+                final MessageChannelEvent.Chat event = postChatEvent(player, message0);
+                if (event == null) {
+                    return null;
+                }
+                // The next chat messages of the player wait until this one is sent
+                return game.getScheduler().callSync(() -> {
+                    sendChat(player, event);
+                    return null;
+                });
+            });
         } else {
-            Translation translation = LanternGame.get().getRegistry().getTranslationManager().get("chat.type.text");
-            Object displayName = player.getName(); // TODO: player.getDisplayNameData().displayName().get();
-            Text rawMessage = Text.of(message0);
-            Optional<Text> text = Optional.of(Text.builder(translation, displayName, rawMessage).build());
-            MessageChannel channel = player.getMessageChannel();
-            MessageChannelEvent.Chat event = SpongeEventFactory.createMessageChannelEventChat(Cause.of(player),
-                    channel, Optional.of(channel), text, text, rawMessage);
-            if (!LanternGame.get().getEventManager().post(event)) {
-                Optional<MessageChannel> optChannel = event.getChannel();
-                if (optChannel.isPresent() && (text = event.getMessage()).isPresent()) {
-                    optChannel.get().send(player, text.get());
+            session.getChatExecutor().executeChained(() -> game.getScheduler().callSync(() -> {
+                final MessageChannelEvent.Chat event = postChatEvent(player, message0);
+                if (event != null) {
+                    sendChat(player, event);
                 }
-            }
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * Posts the chat event for the message.
+     *
+     * @param player the player
+     * @param message the message
+     * @return the event, or null if it was cancelled
+     */
+    @Nullable
+    private static MessageChannelEvent.Chat postChatEvent(Player player, String message) {
+        final Translation translation = LanternGame.get().getRegistry().getTranslationManager().get("chat.type.text");
+        final Object displayName = player.getName(); // TODO: player.getDisplayNameData().displayName().get();
+        final Text rawMessage = Text.of(message);
+        final Optional<Text> text = Optional.of(Text.builder(translation, displayName, rawMessage).build());
+        final MessageChannel channel = player.getMessageChannel();
+        final MessageChannelEvent.Chat event = SpongeEventFactory.createMessageChannelEventChat(Cause.of(player),
+                channel, Optional.of(channel), text, text, rawMessage);
+        return LanternGame.get().getEventManager().post(event) ? null : event;
+    }
+
+    private static void sendChat(Player player, MessageChannelEvent.Chat event) {
+        final Optional<MessageChannel> optChannel = event.getChannel();
+        final Optional<Text> text = event.getMessage();
+        if (optChannel.isPresent() && text.isPresent()) {
+            optChannel.get().send(player, text.get());
         }
     }
 
@@ -0,0 +1,65 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.vanilla.message.type.play;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.network.message.Message;
+
+public final class MessagePlayOutBlockChange implements Message {
+
+    private final Vector3i position;
+    private final int blockState;
+
+    /**
+     * Creates a new block change message.
+     *
+     * @param position the position of the block
+     * @param blockState the internal id and data of the new block state
+     */
+    public MessagePlayOutBlockChange(Vector3i position, int blockState) {
+        this.position = checkNotNull(position, "position");
+        this.blockState = blockState;
+    }
+
+    /**
+     * Gets the position of the block.
+     *
+     * @return the position
+     */
+    public Vector3i getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Gets the internal id and data of the new block state.
+     *
+     * @return the block state
+     */
+    public int getBlockState() {
+        return this.blockState;
+    }
+}
@@ -28,6 +28,7 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.world.chunk.LanternChunk;
 
 import javax.annotation.Nullable;
 
@@ -36,8 +37,9 @@ public final class MessagePlayOutChunkData implements Message {
     private final int x;
     private final int z;
 
-    private final Section[] sections;
+    @Nullable private final Section[] sections;
     @Nullable private final byte[] biomes;
+    @Nullable private final LanternChunk chunk;
     private final boolean skylight;
 
     public MessagePlayOutChunkData(int x, int z, boolean skylight, Section[] sections, @Nullable byte[] biomes) {
@@ -51,10 +53,41 @@ public MessagePlayOutChunkData(int x, int z, boolean skylight, Section[] section
         this.skylight = skylight;
         this.sections = sections;
         this.biomes = biomes;
+        this.chunk = null;
         this.x = x;
         this.z = z;
     }
 
+    /**
+     * Creates a new chunk data message that will send the full content of the
+     * specified chunk. The data will be read from the chunk while encoding, this
+     * allows the encoded data to be cached and shared between all the players
+     * that receive the same version of the chunk.
+     *
+     * @param chunk the chunk
+     * @param skylight whether the sky light should be send
+     */
+    public MessagePlayOutChunkData(LanternChunk chunk, boolean skylight) {
+        this.chunk = checkNotNull(chunk, "chunk");
+        this.skylight = skylight;
+        this.sections = null;
+        this.biomes = null;
+        this.x = chunk.getX();
+        this.z = chunk.getZ();
+    }
+
+    /**
+     * Gets the chunk whose content should be send, if
+     * present will the sections and biomes be absent.
+     *
+     * @return the chunk
+     */
+    @Nullable
+    public LanternChunk getChunk() {
+        return this.chunk;
+    }
+
+    @Nullable
     public Section[] getSections() {
         return this.sections;
     }
@@ -22,14 +22,21 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package org.lanternpowered.server.event.filter;
+package org.lanternpowered.server.network.vanilla.message.type.play;
 
-import org.spongepowered.api.event.Event;
-import org.spongepowered.api.util.annotation.NonnullByDefault;
+import static com.google.common.base.Preconditions.checkNotNull;
 
-@NonnullByDefault
-public interface EventFilter {
+import org.lanternpowered.server.network.message.Message;
 
-    Object[] filter(Event event);
+public final class MessagePlayOutDestroyEntities implements Message {
 
+    private final int[] entityIds;
+
+    public MessagePlayOutDestroyEntities(int... entityIds) {
+        this.entityIds = checkNotNull(entityIds, "entityIds");
+    }
+
+    public int[] getEntityIds() {
+        return this.entityIds;
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.vanilla.message.type.play;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.lanternpowered.server.network.message.Message;
+
+public final class MessagePlayOutMultiBlockChange implements Message {
+
+    private final int chunkX;
+    private final int chunkZ;
+
+    private final short[] positions;
+    private final short[] blockStates;
+    private final int length;
+
+    /**
+     * Creates a new multi block change message. The positions are stored in the
+     * format {@code y << 8 | z << 4 | x}, relative to the chunk column.
+     *
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @param positions the relative positions
+     * @param blockStates the internal ids and data of the new block states
+     * @param length the amount of changes that are stored in the arrays
+     */
+    public MessagePlayOutMultiBlockChange(int chunkX, int chunkZ, short[] positions, short[] blockStates, int length) {
+        checkNotNull(positions, "positions");
+        checkNotNull(blockStates, "blockStates");
+        checkArgument(length <= positions.length && length <= blockStates.length,
+                "length cannot be greater then the length of the arrays");
+        this.positions = positions;
+        this.blockStates = blockStates;
+        this.length = length;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    public int getChunkX() {
+        return this.chunkX;
+    }
+
+    public int getChunkZ() {
+        return this.chunkZ;
+    }
+
+    /**
+     * Gets the relative positions of the changes, only the first
+     * {@link #getLength()} entries are valid.
+     *
+     * @return the positions
+     */
+    public short[] getPositions() {
+        return this.positions;
+    }
+
+    /**
+     * Gets the internal ids and data of the new block states, only
+     * the first {@link #getLength()} entries are valid.
+     *
+     * @return the block states
+     */
+    public short[] getBlockStates() {
+        return this.blockStates;
+    }
+
+    /**
+     * Gets the amount of changes.
+     *
+     * @return the length
+     */
+    public int getLength() {
+        return this.length;
+    }
+}
@@ -24,6 +24,8 @@
  */
 package org.lanternpowered.server.profile;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.base.Equivalence;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.LinkedHashMultimap;
@@ -32,7 +34,6 @@
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -67,8 +68,6 @@
 import java.util.Optional;
 import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
@@ -79,9 +78,7 @@ public final class LanternGameProfileManager implements GameProfileManager {
     private static final TemporalUnit EXPIRATION_TIME_UNIT = ChronoUnit.MONTHS;
     private static final int EXPIRATION_TIME = 1;
 
-    private final AtomicInteger counter = new AtomicInteger();
-    private final ListeningExecutorService service = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool(
-            runnable -> new Thread(runnable, "profile-resolver-" + this.counter.getAndIncrement())));
+    private final ListeningExecutorService service;
 
     // The gson instance
     private final Gson gson = new Gson();
@@ -117,6 +114,15 @@ private ExpirableValueMap<UUID, GameProfile, CacheEntry> cacheByUUID() {
     // All the game profiles that where used
     private final Queue<GameProfile> profiles = UniqueEvictingQueue.createConcurrent((Equivalence) Equivalence.equals(), CACHE_SIZE);
 
+    /**
+     * Creates a new game profile manager.
+     *
+     * @param service the executor service to resolve the profiles on
+     */
+    public LanternGameProfileManager(ListeningExecutorService service) {
+        this.service = checkNotNull(service, "service");
+    }
+
     private Instant calculateExpirationDate() {
         return Instant.now().plus(EXPIRATION_TIME, EXPIRATION_TIME_UNIT);
     }
@@ -25,13 +25,9 @@
 package org.lanternpowered.server.scheduler;
 
 import org.lanternpowered.server.game.LanternGame;
-import org.spongepowered.api.scheduler.Task;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -39,17 +35,15 @@
 @NonnullByDefault
 public class AsyncScheduler extends SchedulerBase {
 
-    // Adjustable timeout for pending Tasks
-    private long minimumTimeout = Long.MAX_VALUE;
-    private long lastProcessingTimestamp;
     // Locking mechanism
     private final Lock lock = new ReentrantLock();
     private final Condition condition = this.lock.newCondition();
-    // The dynamic thread pooling executor of asynchronous tasks.
-    private ExecutorService executor;
+    // The shared executor of asynchronous tasks.
+    private final AsyncTaskExecutor executor;
 
-    AsyncScheduler() {
+    AsyncScheduler(AsyncTaskExecutor executor) {
         super(ScheduledTask.TaskSynchronicity.ASYNCHRONOUS);
+        this.executor = executor;
 
         Thread thread = new Thread(AsyncScheduler.this::mainLoop);
         thread.setName("Lantern Async Scheduler Thread");
@@ -57,83 +51,52 @@ public class AsyncScheduler extends SchedulerBase {
         thread.start();
     }
 
-    void shutdown() {
-        this.executor.shutdown();
-    }
-
     private void mainLoop() {
-        this.executor = Executors.newCachedThreadPool();
-        this.lastProcessingTimestamp = System.nanoTime();
         while (true) {
-            this.recalibrateMinimumTimeout();
             this.runTick();
         }
     }
 
-    private void recalibrateMinimumTimeout() {
-        this.lock.lock();
-        try {
-            Set<Task> tasks = this.getScheduledTasks();
-            this.minimumTimeout = Long.MAX_VALUE;
-            long now = System.nanoTime();
-            for (Task tmpTask : tasks) {
-                ScheduledTask task = (ScheduledTask) tmpTask;
-                // Recalibrate the wait delay for processing tasks before new
-                // tasks cause the scheduler to process pending tasks.
-                if (task.offset == 0 && task.period == 0) {
-                    this.minimumTimeout = 0;
-                }
-                // The time since the task last executed or was added to the map
-                long timeSinceLast = now - task.getTimestamp();
-
-                if (task.offset > 0 && task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-                    // There is an offset and the task hasn't run yet
-                    this.minimumTimeout = Math.min(task.offset - timeSinceLast, this.minimumTimeout);
-                }
-                if (task.period > 0 && task.getState().isActive) {
-                    // The task repeats and has run after the initial delay
-                    this.minimumTimeout = Math.min(task.period - timeSinceLast, this.minimumTimeout);
-                }
-                if (this.minimumTimeout <= 0) {
-                    break;
-                }
-            }
-            if (!tasks.isEmpty()) {
-                long latency = System.nanoTime() - this.lastProcessingTimestamp;
-                this.minimumTimeout -= (latency <= 0) ? 0 : latency;
-                this.minimumTimeout = (this.minimumTimeout < 0) ? 0 : this.minimumTimeout;
-            }
-        } finally {
-            this.lock.unlock();
-        }
-    }
-
     @Override
     protected void preTick() {
         this.lock.lock();
         try {
-            this.condition.await(this.minimumTimeout, TimeUnit.NANOSECONDS);
+            // Sleep until the deadline of the next task is reached
+            // or until new tasks are added that need to be scheduled
+            long timeout = this.getNextTimeDeadline();
+            if (timeout != Long.MAX_VALUE) {
+                timeout -= System.nanoTime();
+            }
+            while (timeout > 0 && !this.hasAddedTasks()) {
+                if (timeout == Long.MAX_VALUE) {
+                    this.condition.await();
+                } else {
+                    timeout = this.condition.awaitNanos(timeout);
+                }
+            }
         } catch (InterruptedException ignored) {
             // The taskMap has been modified; there is work to do.
             // Continue on without handling the Exception.
         } catch (IllegalMonitorStateException e) {
             LanternGame.log().error("The scheduler internal state machine suffered a catastrophic error", e);
+        } finally {
+            this.lock.unlock();
         }
     }
 
     @Override
-    protected void postTick() {
-        this.lastProcessingTimestamp = System.nanoTime();
-    }
-
-    @Override
-    protected void finallyPostTick() {
-        this.lock.unlock();
-    }
-
-    @Override
-    protected void executeTaskRunnable(Runnable runnable) {
-        this.executor.submit(runnable);
+    protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
+        try {
+            this.executor.execute(task.getOwner(), runnable);
+        } catch (RejectedExecutionException e) {
+            // The executor already warns about rejected tasks, the execution
+            // is recorded as failed. Repeating tasks will try again after their
+            // interval, others are canceled so they don't stay switching forever
+            task.recordExecution(0L, true);
+            if (task.period == 0L) {
+                task.cancel();
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,669 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.scheduler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import org.lanternpowered.server.game.LanternGame;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * The shared executor of all the asynchronous work of the server and the plugins. The
+ * tasks are executed by a bounded work stealing pool (or by virtual threads if enabled
+ * and supported by the runtime), every owner has its own {@link Quota} that limits the
+ * amount of tasks that may run concurrently and the amount of tasks that may wait.
+ *
+ * <p>The wall time, cpu time and queue wait time of the tasks is tracked for every
+ * owner, see {@link #getStatistics()}.</p>
+ */
+public final class AsyncTaskExecutor {
+
+    /**
+     * The limits of the tasks of a single owner.
+     */
+    public static final class Quota {
+
+        /**
+         * A quota without any limits.
+         */
+        public static final Quota UNLIMITED = new Quota(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        private final int maxConcurrentTasks;
+        private final int maxQueuedTasks;
+
+        /**
+         * Creates a new quota.
+         *
+         * @param maxConcurrentTasks the maximum amount of tasks that may run at the same time
+         * @param maxQueuedTasks the maximum amount of tasks that may wait until they can run
+         */
+        public Quota(int maxConcurrentTasks, int maxQueuedTasks) {
+            checkArgument(maxConcurrentTasks > 0, "maxConcurrentTasks must be greater than 0");
+            checkArgument(maxQueuedTasks >= 0, "maxQueuedTasks cannot be negative");
+            this.maxConcurrentTasks = maxConcurrentTasks;
+            this.maxQueuedTasks = maxQueuedTasks;
+        }
+
+        public int getMaxConcurrentTasks() {
+            return this.maxConcurrentTasks;
+        }
+
+        public int getMaxQueuedTasks() {
+            return this.maxQueuedTasks;
+        }
+    }
+
+    /**
+     * A snapshot of the task statistics of a single owner.
+     */
+    public static final class Statistics {
+
+        private final String ownerId;
+        private final int runningTasks;
+        private final int queuedTasks;
+        private final long submittedTasks;
+        private final long completedTasks;
+        private final long failedTasks;
+        private final long rejectedTasks;
+        private final long wallTime;
+        private final long cpuTime;
+        private final long queueWaitTime;
+        private final long maxQueueWaitTime;
+
+        private Statistics(String ownerId, int runningTasks, int queuedTasks, long submittedTasks, long completedTasks,
+                long failedTasks, long rejectedTasks, long wallTime, long cpuTime, long queueWaitTime, long maxQueueWaitTime) {
+            this.ownerId = ownerId;
+            this.runningTasks = runningTasks;
+            this.queuedTasks = queuedTasks;
+            this.submittedTasks = submittedTasks;
+            this.completedTasks = completedTasks;
+            this.failedTasks = failedTasks;
+            this.rejectedTasks = rejectedTasks;
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+            this.queueWaitTime = queueWaitTime;
+            this.maxQueueWaitTime = maxQueueWaitTime;
+        }
+
+        /**
+         * Gets the id of the plugin that owns the tasks.
+         *
+         * @return the owner id
+         */
+        public String getOwnerId() {
+            return this.ownerId;
+        }
+
+        public int getRunningTasks() {
+            return this.runningTasks;
+        }
+
+        public int getQueuedTasks() {
+            return this.queuedTasks;
+        }
+
+        public long getSubmittedTasks() {
+            return this.submittedTasks;
+        }
+
+        public long getCompletedTasks() {
+            return this.completedTasks;
+        }
+
+        /**
+         * Gets the amount of tasks that failed with an exception, these
+         * are also included in the {@link #getCompletedTasks()}.
+         *
+         * @return the failed tasks
+         */
+        public long getFailedTasks() {
+            return this.failedTasks;
+        }
+
+        /**
+         * Gets the amount of tasks that were rejected because
+         * the queue of the owner was full.
+         *
+         * @return the rejected tasks
+         */
+        public long getRejectedTasks() {
+            return this.rejectedTasks;
+        }
+
+        public long getWallTime(TimeUnit unit) {
+            return unit.convert(this.wallTime, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Gets the cpu time that was spent on the tasks, this will be 0 if
+         * the cpu time measurement isn't supported by the runtime.
+         *
+         * @param unit the time unit
+         * @return the cpu time
+         */
+        public long getCpuTime(TimeUnit unit) {
+            return unit.convert(this.cpuTime, TimeUnit.NANOSECONDS);
+        }
+
+        public long getQueueWaitTime(TimeUnit unit) {
+            return unit.convert(this.queueWaitTime, TimeUnit.NANOSECONDS);
+        }
+
+        public long getMaxQueueWaitTime(TimeUnit unit) {
+            return unit.convert(this.maxQueueWaitTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // The minimum time between two warnings about rejected tasks of the same owner
+    private static final long REJECTION_WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    // The counter for the worker threads
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    // The suffix of the owner ids that are used for the blocking tasks
+    private static final String BLOCKING_SUFFIX = ":blocking";
+
+    private final ConcurrentMap<String, OwnerQueue> owners = new ConcurrentHashMap<>();
+    private final Function<String, Quota> quotas;
+    private final Quota blockingQuota;
+    private final ExecutorService pool;
+    @Nullable private final ForkJoinPool forkJoinPool;
+    private final boolean cpuTimeSupported;
+
+    /**
+     * Creates a new async task executor.
+     *
+     * @param parallelism the amount of worker threads, ignored when virtual threads are used
+     * @param maxBlockingTasks the maximum amount of blocking tasks of a owner that may run at the same time
+     * @param virtualThreads whether virtual threads should be used if supported by the runtime
+     * @param quotas the function to get the quota for the id of an owner
+     */
+    public AsyncTaskExecutor(int parallelism, int maxBlockingTasks, boolean virtualThreads, Function<String, Quota> quotas) {
+        checkArgument(parallelism > 0, "parallelism must be greater than 0");
+        checkArgument(maxBlockingTasks > 0, "maxBlockingTasks must be greater than 0");
+        this.quotas = checkNotNull(quotas, "quotas");
+        this.blockingQuota = new Quota(maxBlockingTasks, Integer.MAX_VALUE);
+        final ExecutorService virtualThreadPool = virtualThreads ? createVirtualThreadPool() : null;
+        if (virtualThreadPool != null) {
+            this.pool = virtualThreadPool;
+            this.forkJoinPool = null;
+        } else {
+            this.forkJoinPool = new ForkJoinPool(parallelism, pool -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("async-task-" + threadCounter.getAndIncrement());
+                return thread;
+            }, (thread, e) -> LanternGame.log().error("Uncaught exception in async task thread", e), true);
+            this.pool = this.forkJoinPool;
+        }
+        boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threadMXBean.isThreadCpuTimeEnabled()) {
+            try {
+                threadMXBean.setThreadCpuTimeEnabled(true);
+            } catch (UnsupportedOperationException | SecurityException e) {
+                cpuTimeSupported = false;
+            }
+        }
+        this.cpuTimeSupported = cpuTimeSupported;
+    }
+
+    /**
+     * Creates the virtual thread per task executor, the method is looked
+     * up reflectively so that older runtimes are still supported.
+     *
+     * @return the executor, or null if not supported
+     */
+    @Nullable
+    private static ExecutorService createVirtualThreadPool() {
+        try {
+            return (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LanternGame.log().warn("Virtual threads are not supported by this runtime, falling back to the thread pool.");
+            return null;
+        }
+    }
+
+    /**
+     * Gets whether the tasks are executed by virtual threads.
+     *
+     * @return whether virtual threads are used
+     */
+    public boolean usesVirtualThreads() {
+        return this.forkJoinPool == null;
+    }
+
+    /**
+     * Executes the task for the specified owner. The task will wait if the owner has
+     * already reached the maximum amount of concurrent tasks.
+     *
+     * @param owner the owner of the task
+     * @param task the task
+     * @throws RejectedExecutionException if the owner has too many waiting tasks
+     *                                    or if the executor is shut down
+     */
+    public void execute(PluginContainer owner, Runnable task) throws RejectedExecutionException {
+        checkNotNull(task, "task");
+        this.getQueue(checkNotNull(owner, "owner").getId(), false).submit(new QueuedTask(task));
+    }
+
+    private OwnerQueue getQueue(String ownerId, boolean blocking) {
+        if (blocking) {
+            return this.owners.computeIfAbsent(ownerId + BLOCKING_SUFFIX, id -> new OwnerQueue(id, this.blockingQuota, true));
+        }
+        return this.owners.computeIfAbsent(ownerId, id -> new OwnerQueue(id, this.quotas.apply(id), false));
+    }
+
+    /**
+     * Creates a {@link ListeningExecutorService} that submits all its tasks
+     * to this executor for the specified owner. Shutting down the returned
+     * executor service doesn't affect this executor.
+     *
+     * @param owner the owner of the tasks
+     * @return the executor service
+     */
+    public ListeningExecutorService createExecutorService(PluginContainer owner) {
+        return new OwnerExecutorService(this.getQueue(checkNotNull(owner, "owner").getId(), false));
+    }
+
+    /**
+     * Creates a {@link ListeningExecutorService} for tasks of the specified owner
+     * that block on I/O, like file access or web requests. The pool adds a
+     * compensating worker thread while such a task blocks, so that the other
+     * async tasks can still run. The amount of blocking tasks that may run at
+     * the same time is bounded separately, they are tracked in the statistics
+     * as owner id with the suffix {@code :blocking}.
+     *
+     * @param owner the owner of the tasks
+     * @return the executor service
+     */
+    public ListeningExecutorService createBlockingExecutorService(PluginContainer owner) {
+        return new OwnerExecutorService(this.getQueue(checkNotNull(owner, "owner").getId(), true));
+    }
+
+    /**
+     * Gets the statistics of all the owners that submitted tasks.
+     *
+     * @return the statistics
+     */
+    public Collection<Statistics> getStatistics() {
+        final ImmutableList.Builder<Statistics> builder = ImmutableList.builder();
+        this.owners.values().forEach(queue -> builder.add(queue.getStatistics()));
+        return builder.build();
+    }
+
+    /**
+     * Gets the statistics of the specified owner.
+     *
+     * @param ownerId the id of the owner
+     * @return the statistics, if the owner submitted tasks
+     */
+    public Optional<Statistics> getStatistics(String ownerId) {
+        final OwnerQueue queue = this.owners.get(checkNotNull(ownerId, "ownerId"));
+        return queue == null ? Optional.empty() : Optional.of(queue.getStatistics());
+    }
+
+    /**
+     * Gets the amount of tasks that are waiting because the
+     * owners reached the maximum amount of concurrent tasks.
+     *
+     * @return the queued tasks
+     */
+    public int getQueuedTaskCount() {
+        int count = 0;
+        for (OwnerQueue queue : this.owners.values()) {
+            count += queue.getQueuedTasks();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the amount of tasks that are submitted to the pool
+     * but are waiting for a free worker thread.
+     *
+     * @return the pending tasks
+     */
+    public long getPendingTaskCount() {
+        return this.forkJoinPool == null ? 0 : this.forkJoinPool.getQueuedSubmissionCount() + this.forkJoinPool.getQueuedTaskCount();
+    }
+
+    /**
+     * Gets whether all the worker threads are busy and there
+     * are tasks waiting for a free worker thread.
+     *
+     * @return whether the pool is saturated
+     */
+    public boolean isSaturated() {
+        return this.forkJoinPool != null && this.forkJoinPool.getActiveThreadCount() >= this.forkJoinPool.getParallelism()
+                && this.getPendingTaskCount() > 0;
+    }
+
+    /**
+     * Shuts the executor down, the tasks that are already
+     * submitted will still be executed.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Waits until all the tasks are completed after a shutdown.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the time unit
+     * @return whether the executor terminated
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.pool.awaitTermination(timeout, unit);
+    }
+
+    private long getCurrentThreadCpuTime() {
+        if (!this.cpuTimeSupported) {
+            return 0L;
+        }
+        try {
+            return threadMXBean.getCurrentThreadCpuTime();
+        } catch (UnsupportedOperationException e) {
+            // Not supported by virtual threads
+            return 0L;
+        }
+    }
+
+    private static final class QueuedTask {
+
+        private final Runnable runnable;
+        private final long submitTime = System.nanoTime();
+
+        private QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+
+    /**
+     * Runs a blocking task as {@link ForkJoinPool.ManagedBlocker}.
+     */
+    private static final class BlockingTask implements ForkJoinPool.ManagedBlocker {
+
+        private final Runnable runnable;
+        private boolean done;
+
+        private BlockingTask(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public boolean block() {
+            if (!this.done) {
+                this.done = true;
+                this.runnable.run();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return this.done;
+        }
+    }
+
+    /**
+     * Tracks the running and waiting tasks of a single owner.
+     */
+    private final class OwnerQueue {
+
+        private final String ownerId;
+        private final Quota quota;
+
+        // Whether the tasks may block on I/O
+        private final boolean blocking;
+
+        // The tasks that wait until they can run, guarded by this
+        private final Queue<QueuedTask> queue = new ArrayDeque<>();
+        private int running;
+
+        private final AtomicLong submittedTasks = new AtomicLong();
+        private final AtomicLong completedTasks = new AtomicLong();
+        private final AtomicLong failedTasks = new AtomicLong();
+        private final AtomicLong rejectedTasks = new AtomicLong();
+        private final AtomicLong wallTime = new AtomicLong();
+        private final AtomicLong cpuTime = new AtomicLong();
+        private final AtomicLong queueWaitTime = new AtomicLong();
+        private final AtomicLong maxQueueWaitTime = new AtomicLong();
+        private volatile long lastRejectionWarning;
+
+        private OwnerQueue(String ownerId, Quota quota, boolean blocking) {
+            this.ownerId = ownerId;
+            this.quota = quota;
+            this.blocking = blocking;
+        }
+
+        private void submit(QueuedTask task) {
+            synchronized (this) {
+                if (this.running >= this.quota.maxConcurrentTasks) {
+                    if (this.queue.size() >= this.quota.maxQueuedTasks) {
+                        this.reject();
+                    }
+                    this.queue.add(task);
+                    this.submittedTasks.incrementAndGet();
+                    return;
+                }
+                this.running++;
+            }
+            try {
+                AsyncTaskExecutor.this.pool.execute(() -> this.run(task));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    this.running--;
+                }
+                throw e;
+            }
+            this.submittedTasks.incrementAndGet();
+        }
+
+        private void reject() {
+            this.rejectedTasks.incrementAndGet();
+            final long now = System.nanoTime();
+            if (now - this.lastRejectionWarning >= REJECTION_WARNING_INTERVAL || this.lastRejectionWarning == 0L) {
+                this.lastRejectionWarning = now;
+                LanternGame.log().warn("The async tasks of {} are being rejected, {} tasks are running and {} are waiting.",
+                        this.ownerId, this.running, this.queue.size());
+            }
+            throw new RejectedExecutionException("Too many queued async tasks for " + this.ownerId);
+        }
+
+        private void run(QueuedTask task) {
+            QueuedTask current = task;
+            while (current != null) {
+                this.execute(current);
+                synchronized (this) {
+                    current = this.queue.poll();
+                    if (current == null) {
+                        this.running--;
+                    }
+                }
+                // Give other owners a chance to run before this one continues
+                if (current != null && !AsyncTaskExecutor.this.pool.isShutdown()) {
+                    final QueuedTask next = current;
+                    try {
+                        AsyncTaskExecutor.this.pool.execute(() -> this.run(next));
+                        return;
+                    } catch (RejectedExecutionException ignored) {
+                        // Shutting down, finish the remaining tasks on this thread
+                    }
+                }
+            }
+        }
+
+        private void execute(QueuedTask task) {
+            final long start = System.nanoTime();
+            final long queueWait = start - task.submitTime;
+            this.queueWaitTime.addAndGet(queueWait);
+            this.maxQueueWaitTime.accumulateAndGet(queueWait, Math::max);
+            final long cpuStart = AsyncTaskExecutor.this.getCurrentThreadCpuTime();
+            try {
+                final ForkJoinPool forkJoinPool = AsyncTaskExecutor.this.forkJoinPool;
+                if (this.blocking && forkJoinPool != null) {
+                    ForkJoinPool.managedBlock(new BlockingTask(task.runnable));
+                } else {
+                    task.runnable.run();
+                }
+            } catch (Throwable t) {
+                this.failedTasks.incrementAndGet();
+                LanternGame.log().error("An error occurred while executing an async task of {}", this.ownerId, t);
+            } finally {
+                this.cpuTime.addAndGet(AsyncTaskExecutor.this.getCurrentThreadCpuTime() - cpuStart);
+                this.wallTime.addAndGet(System.nanoTime() - start);
+                this.completedTasks.incrementAndGet();
+            }
+        }
+
+        private synchronized int getQueuedTasks() {
+            return this.queue.size();
+        }
+
+        private Statistics getStatistics() {
+            final int running;
+            final int queued;
+            synchronized (this) {
+                running = this.running;
+                queued = this.queue.size();
+            }
+            return new Statistics(this.ownerId, running, queued, this.submittedTasks.get(), this.completedTasks.get(),
+                    this.failedTasks.get(), this.rejectedTasks.get(), this.wallTime.get(), this.cpuTime.get(),
+                    this.queueWaitTime.get(), this.maxQueueWaitTime.get());
+        }
+    }
+
+    /**
+     * A executor service view that submits the tasks for a specific owner.
+     */
+    private final class OwnerExecutorService extends AbstractListeningExecutorService {
+
+        private final OwnerQueue queue;
+
+        // The amount of submitted tasks that aren't completed yet, guarded by this
+        private int pending;
+        private boolean shutdown;
+
+        private OwnerExecutorService(OwnerQueue queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            checkNotNull(command, "command");
+            synchronized (this) {
+                if (this.shutdown) {
+                    throw new RejectedExecutionException("The executor service is shut down");
+                }
+                this.pending++;
+            }
+            try {
+                this.queue.submit(new QueuedTask(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        this.complete();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                this.complete();
+                throw e;
+            }
+        }
+
+        private synchronized void complete() {
+            if (--this.pending == 0 && this.shutdown) {
+                this.notifyAll();
+            }
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            this.shutdown = true;
+            if (this.pending == 0) {
+                this.notifyAll();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            // The tasks are owned by the shared executor, so
+            // they can't be drained from this executor service
+            this.shutdown();
+            return ImmutableList.of();
+        }
+
+        @Override
+        public synchronized boolean isShutdown() {
+            return this.shutdown;
+        }
+
+        @Override
+        public synchronized boolean isTerminated() {
+            return this.shutdown && this.pending == 0;
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long remaining = unit.toNanos(timeout);
+            final long deadline = System.nanoTime() + remaining;
+            while (!this.isTerminated()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            return true;
+        }
+    }
+}
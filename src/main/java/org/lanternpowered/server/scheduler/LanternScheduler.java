@@ -28,6 +28,7 @@
 import static org.lanternpowered.server.util.Conditions.checkPlugin;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
 import org.lanternpowered.server.game.LanternGame;
 import org.spongepowered.api.plugin.PluginContainer;
@@ -41,27 +42,30 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @NonnullByDefault
 public class LanternScheduler implements Scheduler {
 
-    private static final LanternScheduler INSTANCE = new LanternScheduler();
+    private final AsyncTaskExecutor asyncExecutor;
+    private final AsyncScheduler asyncScheduler;
+    private final SyncScheduler syncScheduler = new SyncScheduler();
+
+    public LanternScheduler(AsyncTaskExecutor asyncExecutor) {
+        this.asyncExecutor = checkNotNull(asyncExecutor, "asyncExecutor");
+        this.asyncScheduler = new AsyncScheduler(asyncExecutor);
+    }
 
     /**
-     * Gets the {@link LanternScheduler} instance.
-     * 
-     * @return the scheduler
+     * Gets the shared executor that executes all the async tasks.
+     *
+     * @return the async task executor
      */
-    public static LanternScheduler getInstance() {
-        return INSTANCE;
+    public AsyncTaskExecutor getAsyncExecutor() {
+        return this.asyncExecutor;
     }
 
-    private final AsyncScheduler asyncScheduler = new AsyncScheduler();
-    private final SyncScheduler syncScheduler = new SyncScheduler();
-
     @Override
     public LanternTaskBuilder createTaskBuilder() {
         return new LanternTaskBuilder(this);
@@ -137,7 +141,7 @@ public int getPreferredTickInterval() {
      * @param callable the callable
      * @return the future result
      */
-    public <V> Future<V> callSync(Callable<V> callable) {
+    public <V> ListenableFuture<V> callSync(Callable<V> callable) {
         ListenableFutureTask<V> future = ListenableFutureTask.create(callable);
         this.createTaskBuilder().execute(future).submit(LanternGame.plugin());
         return future;
@@ -175,7 +179,7 @@ public void pulseSyncScheduler() {
     }
 
     public void shutdownAsyncScheduler() {
-        this.asyncScheduler.shutdown();
+        this.asyncExecutor.shutdown();
     }
 
     @Override
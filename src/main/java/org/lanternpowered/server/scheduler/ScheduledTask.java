@@ -31,8 +31,11 @@
 
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
+
 /**
  * An internal representation of a {@link Task} created by a plugin.
  */
@@ -46,12 +49,34 @@ public class ScheduledTask implements Task {
     private final PluginContainer owner;
     private final Consumer<Task> executor;
     private long timestamp;
-    private ScheduledTaskState state;
+    private volatile ScheduledTaskState state;
     private final UUID id;
     private final String name;
     final TaskSynchronicity syncType;
     private final String stringRepresentation;
 
+    // The scheduler that this task was submitted to
+    @Nullable volatile SchedulerBase scheduler;
+
+    // The timestamp of the next execution, in ticks or nano time
+    // depending on the unit of the current delay or interval
+    long deadline;
+
+    // The index of this task in the heap of the scheduler, -1 if not present
+    int heapIndex = -1;
+
+    // The slot of this task in the timing wheel of the scheduler, -1 if not present
+    int wheelSlot = -1;
+    @Nullable ScheduledTask wheelPrev;
+    @Nullable ScheduledTask wheelNext;
+
+    // The execution statistics of this task
+    private final AtomicLong executionCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalExecutionTime = new AtomicLong();
+    private final AtomicLong maxExecutionTime = new AtomicLong();
+    private volatile long lastExecutionTime;
+
     // Internal Task state. Not for user-service use.
     public enum ScheduledTaskState {
         /**
@@ -127,12 +152,13 @@ public long getInterval() {
 
     @Override
     public boolean cancel() {
-        boolean success = false;
-        if (this.getState() != ScheduledTask.ScheduledTaskState.RUNNING) {
-            success = true;
-        }
+        final ScheduledTaskState state = this.getState();
         this.setState(ScheduledTask.ScheduledTaskState.CANCELED);
-        return success;
+        final SchedulerBase scheduler = this.scheduler;
+        if (state != ScheduledTaskState.CANCELED && scheduler != null) {
+            scheduler.onTaskCanceled(this);
+        }
+        return state != ScheduledTaskState.RUNNING;
     }
 
     @Override
@@ -186,6 +212,82 @@ void setState(ScheduledTaskState state) {
         this.state = state;
     }
 
+    /**
+     * Records the execution of this task.
+     *
+     * @param time the execution time in nanoseconds
+     * @param failed whether the execution failed with an exception
+     */
+    void recordExecution(long time, boolean failed) {
+        this.executionCount.incrementAndGet();
+        if (failed) {
+            this.failureCount.incrementAndGet();
+        }
+        this.totalExecutionTime.addAndGet(time);
+        this.maxExecutionTime.accumulateAndGet(time, Math::max);
+        this.lastExecutionTime = time;
+    }
+
+    /**
+     * Gets the amount of times that this task was executed.
+     *
+     * @return the execution count
+     */
+    public long getExecutionCount() {
+        return this.executionCount.get();
+    }
+
+    /**
+     * Gets the amount of times that the execution of this task
+     * failed with an exception.
+     *
+     * @return the failure count
+     */
+    public long getFailureCount() {
+        return this.failureCount.get();
+    }
+
+    /**
+     * Gets the total time that was spent executing this task.
+     *
+     * @param unit the time unit
+     * @return the total execution time
+     */
+    public long getTotalExecutionTime(TimeUnit unit) {
+        return unit.convert(this.totalExecutionTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the average time of a single execution of this task.
+     *
+     * @param unit the time unit
+     * @return the average execution time
+     */
+    public long getAverageExecutionTime(TimeUnit unit) {
+        final long count = this.executionCount.get();
+        return count == 0 ? 0 : unit.convert(this.totalExecutionTime.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time of a single execution of this task.
+     *
+     * @param unit the time unit
+     * @return the maximum execution time
+     */
+    public long getMaxExecutionTime(TimeUnit unit) {
+        return unit.convert(this.maxExecutionTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the time of the last execution of this task.
+     *
+     * @param unit the time unit
+     * @return the last execution time
+     */
+    public long getLastExecutionTime(TimeUnit unit) {
+        return unit.convert(this.lastExecutionTime, TimeUnit.NANOSECONDS);
+    }
+
     @Override
     public String toString() {
         return this.stringRepresentation;
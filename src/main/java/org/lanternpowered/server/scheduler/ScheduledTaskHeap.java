@@ -0,0 +1,157 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.scheduler;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A binary min heap that orders the tasks whose next execution is based on
+ * the wall clock by their deadline. Every task tracks its own index within
+ * the heap, so adding and removing a task is O(log n).
+ *
+ * <p>This class isn't thread safe, it should only be accessed by the
+ * thread that processes the tasks of the scheduler.</p>
+ */
+final class ScheduledTaskHeap {
+
+    private ScheduledTask[] tasks = new ScheduledTask[64];
+    private int size;
+
+    /**
+     * Gets the amount of tasks in the heap.
+     *
+     * @return the size
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the task with the earliest deadline without removing it.
+     *
+     * @return the task, or null if the heap is empty
+     */
+    @Nullable
+    ScheduledTask peek() {
+        return this.size == 0 ? null : this.tasks[0];
+    }
+
+    /**
+     * Removes the task with the earliest deadline.
+     *
+     * @return the task, or null if the heap is empty
+     */
+    @Nullable
+    ScheduledTask poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        final ScheduledTask task = this.tasks[0];
+        this.removeAt(0);
+        return task;
+    }
+
+    /**
+     * Adds the task to the heap.
+     *
+     * @param task the task
+     */
+    void add(ScheduledTask task) {
+        checkState(task.heapIndex == -1, "The task is already in the heap");
+        if (this.size == this.tasks.length) {
+            this.tasks = Arrays.copyOf(this.tasks, this.size << 1);
+        }
+        this.siftUp(this.size++, task);
+    }
+
+    /**
+     * Removes the task from the heap.
+     *
+     * @param task the task
+     * @return whether the task was in the heap
+     */
+    boolean remove(ScheduledTask task) {
+        final int index = task.heapIndex;
+        if (index == -1) {
+            return false;
+        }
+        this.removeAt(index);
+        return true;
+    }
+
+    private void removeAt(int index) {
+        this.tasks[index].heapIndex = -1;
+        final int last = --this.size;
+        final ScheduledTask moved = this.tasks[last];
+        this.tasks[last] = null;
+        if (index == last) {
+            return;
+        }
+        this.siftDown(index, moved);
+        if (this.tasks[index] == moved) {
+            this.siftUp(index, moved);
+        }
+    }
+
+    private void siftUp(int index, ScheduledTask task) {
+        while (index > 0) {
+            final int parentIndex = (index - 1) >>> 1;
+            final ScheduledTask parent = this.tasks[parentIndex];
+            // Compare the difference, the nano time may overflow
+            if (task.deadline - parent.deadline >= 0) {
+                break;
+            }
+            this.tasks[index] = parent;
+            parent.heapIndex = index;
+            index = parentIndex;
+        }
+        this.tasks[index] = task;
+        task.heapIndex = index;
+    }
+
+    private void siftDown(int index, ScheduledTask task) {
+        final int half = this.size >>> 1;
+        while (index < half) {
+            int childIndex = (index << 1) + 1;
+            ScheduledTask child = this.tasks[childIndex];
+            final int rightIndex = childIndex + 1;
+            if (rightIndex < this.size && this.tasks[rightIndex].deadline - child.deadline < 0) {
+                child = this.tasks[childIndex = rightIndex];
+            }
+            if (task.deadline - child.deadline <= 0) {
+                break;
+            }
+            this.tasks[index] = child;
+            child.heapIndex = index;
+            index = childIndex;
+        }
+        this.tasks[index] = task;
+        task.heapIndex = index;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.scheduler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hashed timing wheel that holds the tasks whose next execution is based
+ * on ticks. Every slot holds a linked list of the tasks whose deadline maps
+ * to that slot, adding and removing a task is O(1) and advancing the wheel
+ * only visits the tasks within the slots of the passed ticks.
+ *
+ * <p>This class isn't thread safe, it should only be accessed by the
+ * thread that processes the tasks of the scheduler.</p>
+ */
+final class ScheduledTaskWheel {
+
+    // The first task of every slot
+    private final ScheduledTask[] slots;
+    private final int mask;
+
+    // The tasks that became due while advancing, they are collected
+    // first because executing them may add them to the wheel again
+    private final List<ScheduledTask> dueTasks = new ArrayList<>();
+
+    // The next tick that will be processed
+    private long tick;
+
+    // The amount of tasks in the wheel
+    private int size;
+
+    /**
+     * Creates a new timing wheel.
+     *
+     * @param slots the amount of slots, must be a power of two
+     */
+    ScheduledTaskWheel(int slots) {
+        checkArgument(slots > 0 && (slots & (slots - 1)) == 0, "slots must be a power of two");
+        this.slots = new ScheduledTask[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Gets the amount of tasks in the wheel.
+     *
+     * @return the size
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds the task to the wheel, tasks whose deadline is already
+     * passed will be due the next time that the wheel advances.
+     *
+     * @param task the task
+     */
+    void add(ScheduledTask task) {
+        checkState(task.wheelSlot == -1, "The task is already in the wheel");
+        final int slot = (int) (Math.max(task.deadline, this.tick) & this.mask);
+        final ScheduledTask head = this.slots[slot];
+        task.wheelNext = head;
+        task.wheelPrev = null;
+        if (head != null) {
+            head.wheelPrev = task;
+        }
+        this.slots[slot] = task;
+        task.wheelSlot = slot;
+        this.size++;
+    }
+
+    /**
+     * Removes the task from the wheel.
+     *
+     * @param task the task
+     * @return whether the task was in the wheel
+     */
+    boolean remove(ScheduledTask task) {
+        if (task.wheelSlot == -1) {
+            return false;
+        }
+        final ScheduledTask prev = task.wheelPrev;
+        final ScheduledTask next = task.wheelNext;
+        if (prev == null) {
+            this.slots[task.wheelSlot] = next;
+        } else {
+            prev.wheelNext = next;
+        }
+        if (next != null) {
+            next.wheelPrev = prev;
+        }
+        task.wheelSlot = -1;
+        task.wheelPrev = null;
+        task.wheelNext = null;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel up to and including the specified tick, all the tasks
+     * whose deadline is reached will be removed and passed to the consumer.
+     *
+     * @param tick the tick
+     * @param consumer the consumer of the due tasks
+     */
+    void advance(long tick, Consumer<ScheduledTask> consumer) {
+        if (tick < this.tick) {
+            return;
+        }
+        if (this.size > 0) {
+            // Visiting every slot once is enough to find all the due tasks
+            final long ticks = Math.min(tick - this.tick + 1, this.slots.length);
+            for (long i = 0; i < ticks; i++) {
+                @Nullable ScheduledTask task = this.slots[(int) ((this.tick + i) & this.mask)];
+                while (task != null) {
+                    final ScheduledTask next = task.wheelNext;
+                    if (task.deadline <= tick) {
+                        this.remove(task);
+                        this.dueTasks.add(task);
+                    }
+                    task = next;
+                }
+            }
+        }
+        this.tick = tick + 1;
+        if (this.dueTasks.isEmpty()) {
+            return;
+        }
+        try {
+            this.dueTasks.forEach(consumer);
+        } finally {
+            this.dueTasks.clear();
+        }
+    }
+}
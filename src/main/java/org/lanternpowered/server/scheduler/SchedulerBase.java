@@ -33,14 +33,29 @@
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 @NonnullByDefault
 abstract class SchedulerBase {
 
-    // The simple queue of all pending (and running) ScheduledTasks
+    // The amount of slots in the timing wheel, tasks that are
+    // further away than this amount of ticks will be visited
+    // once for every rotation of the wheel
+    private static final int WHEEL_SLOTS = 512;
+
+    // All the pending (and running) ScheduledTasks, used for the lookups
     private final Map<UUID, ScheduledTask> taskMap = Maps.newConcurrentMap();
+    // The tasks that were added or canceled since the last tick, they can be
+    // added from any thread but are only processed by the scheduler thread
+    private final Queue<ScheduledTask> addedTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<ScheduledTask> canceledTasks = new ConcurrentLinkedQueue<>();
+    // The tasks whose next execution is based on ticks
+    private final ScheduledTaskWheel tickTasks = new ScheduledTaskWheel(WHEEL_SLOTS);
+    // The tasks whose next execution is based on the wall clock
+    private final ScheduledTaskHeap timeTasks = new ScheduledTaskHeap();
     private long sequenceNumber = 0L;
     private final String taskNameFmt;
 
@@ -52,6 +67,26 @@ protected String nextName(PluginContainer plugin) {
         return String.format(this.taskNameFmt, plugin.getId(), this.sequenceNumber++);
     }
 
+    /**
+     * Gets the current tick of this scheduler.
+     *
+     * @return the current tick
+     */
+    protected long getTick() {
+        return 0L;
+    }
+
+    /**
+     * Gets whether the next execution of the task is based on ticks, this
+     * depends on whether the task is waiting for the delay or the interval.
+     *
+     * @param task the task
+     * @return whether the task is tick based
+     */
+    protected boolean isTickBased(ScheduledTask task) {
+        return false;
+    }
+
     /**
      * Gets the timestamp to update the timestamp of a task. This method is task
      * sensitive to support different timestamp types i.e. real time and ticks.
@@ -64,8 +99,7 @@ protected String nextName(PluginContainer plugin) {
      * @return Timestamp for the task
      */
     protected long getTimestamp(ScheduledTask task) {
-        // Supports wall clock time by default
-        return System.nanoTime();
+        return this.isTickBased(task) ? this.getTick() : System.nanoTime();
     }
 
     /**
@@ -76,7 +110,9 @@ protected long getTimestamp(ScheduledTask task) {
      */
     protected void addTask(ScheduledTask task) {
         task.setTimestamp(this.getTimestamp(task));
+        task.scheduler = this;
         this.taskMap.put(task.getUniqueId(), task);
+        this.addedTasks.add(task);
     }
 
     /**
@@ -88,23 +124,68 @@ protected void removeTask(ScheduledTask task) {
         this.taskMap.remove(task.getUniqueId());
     }
 
+    /**
+     * Called when the task is canceled, the task will be removed from
+     * the scheduler the next time that the tasks are processed.
+     *
+     * @param task The task
+     */
+    void onTaskCanceled(ScheduledTask task) {
+        this.removeTask(task);
+        this.canceledTasks.add(task);
+    }
+
     protected Optional<Task> getTask(UUID id) {
         return Optional.ofNullable(this.taskMap.get(id));
     }
 
     protected Set<Task> getScheduledTasks() {
-        synchronized (this.taskMap) {
-            return Sets.newHashSet(this.taskMap.values());
-        }
+        return Sets.newHashSet(this.taskMap.values());
     }
 
     /**
-     * Process all tasks in the map.
+     * Gets whether there are tasks that were added since
+     * the last time that the tasks were processed.
+     *
+     * @return whether there are added tasks
+     */
+    protected boolean hasAddedTasks() {
+        return !this.addedTasks.isEmpty();
+    }
+
+    /**
+     * Gets the earliest deadline of the tasks that are based on the wall clock,
+     * in nano time. Should only be called from the thread that processes the tasks.
+     *
+     * @return the next deadline, or {@link Long#MAX_VALUE} if there are no tasks
+     */
+    protected long getNextTimeDeadline() {
+        final ScheduledTask task = this.timeTasks.peek();
+        return task == null ? Long.MAX_VALUE : task.deadline;
+    }
+
+    /**
+     * Process all the tasks whose deadline is reached.
      */
     protected final void runTick() {
         this.preTick();
         try {
-            this.taskMap.values().forEach(this::processTask);
+            ScheduledTask task;
+            while ((task = this.canceledTasks.poll()) != null) {
+                this.tickTasks.remove(task);
+                this.timeTasks.remove(task);
+            }
+            while ((task = this.addedTasks.poll()) != null) {
+                if (task.getState() != ScheduledTask.ScheduledTaskState.CANCELED) {
+                    this.scheduleTask(task);
+                }
+            }
+            this.tickTasks.advance(this.getTick(), this::processTask);
+            final long now = System.nanoTime();
+            while ((task = this.timeTasks.peek()) != null && task.deadline - now <= 0) {
+                this.timeTasks.poll();
+                this.processTask(task);
+            }
             this.postTick();
         } finally {
             this.finallyPostTick();
@@ -131,7 +212,25 @@ protected void finallyPostTick() {
     }
 
     /**
-     * Processes the task.
+     * Puts the task in the wheel or the heap, depending on whether the
+     * delay or interval that the task is waiting for is based on ticks.
+     *
+     * @param task The task to schedule
+     */
+    private void scheduleTask(ScheduledTask task) {
+        // Figure out if we start a delayed Task after threshold ticks or, start
+        // it after the interval (period) of the repeating task parameter.
+        final long threshold = task.getState() == ScheduledTask.ScheduledTaskState.WAITING ? task.offset : task.period;
+        task.deadline = task.getTimestamp() + threshold;
+        if (this.isTickBased(task)) {
+            this.tickTasks.add(task);
+        } else {
+            this.timeTasks.add(task);
+        }
+    }
+
+    /**
+     * Processes the task, the deadline of the task is reached.
      *
      * @param task The task to process
      */
@@ -142,29 +241,16 @@ protected void processTask(ScheduledTask task) {
             this.removeTask(task);
             return;
         }
-        long threshold = Long.MAX_VALUE;
-        // Figure out if we start a delayed Task after threshold ticks or, start
-        // it after the interval (period) of the repeating task parameter.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-            threshold = task.offset;
-        } else if (task.getState() == ScheduledTask.ScheduledTaskState.RUNNING) {
-            threshold = task.period;
-        }
-        // This moment is 'now'
-        long now = this.getTimestamp(task);
-        // So, if the current time minus the timestamp of the task is greater
-        // than the delay to wait before starting the task, then start the task.
-        // Repeating tasks get a reset-timestamp each time they are set RUNNING
+        task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
+        // Repeating tasks get a reset-timestamp each time they are started
+        task.setTimestamp(this.getTimestamp(task));
+        this.startTask(task);
         // If the task has a period of 0 (zero) this task will not repeat, and
         // is removed after we start it.
-        if (threshold <= (now - task.getTimestamp())) {
-            task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
-            task.setTimestamp(this.getTimestamp(task));
-            startTask(task);
-            // If task is one time shot, remove it from the map.
-            if (task.period == 0L) {
-                this.removeTask(task);
-            }
+        if (task.period == 0L) {
+            this.removeTask(task);
+        } else if (task.getState() != ScheduledTask.ScheduledTaskState.CANCELED) {
+            this.scheduleTask(task);
         }
     }
 
@@ -174,22 +260,27 @@ protected void processTask(ScheduledTask task) {
      * @param task The task to start
      */
     protected void startTask(final ScheduledTask task) {
-        this.executeTaskRunnable(() -> {
+        this.executeTaskRunnable(task, () -> {
             task.setState(ScheduledTask.ScheduledTaskState.RUNNING);
+            final long start = System.nanoTime();
+            boolean failed = false;
             try {
                 task.getConsumer().accept(task);
             } catch (Throwable t) {
+                failed = true;
                 LanternGame.log().error("The Scheduler tried to run the task {} owned by {}, but an error occured.",
                         task.getName(), task.getOwner(), t);
             }
+            task.recordExecution(System.nanoTime() - start, failed);
         });
     }
 
     /**
      * Actually run the runnable of a task.
      *
+     * @param task The task that is being executed
      * @param runnable The runnable to run
      */
-    protected abstract void executeTaskRunnable(Runnable runnable);
+    protected abstract void executeTaskRunnable(ScheduledTask task, Runnable runnable);
 
 }
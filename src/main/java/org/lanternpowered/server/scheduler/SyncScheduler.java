@@ -45,27 +45,18 @@ void tick() {
     }
 
     @Override
-    protected long getTimestamp(ScheduledTask task) {
-        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-            // The timestamp is based on the initial offset
-            if (task.delayIsTicks) {
-                return this.counter;
-            } else {
-                return super.getTimestamp(task);
-            }
-        } else if (task.getState().isActive) {
-            // The timestamp is based on the period
-            if (task.intervalIsTicks) {
-                return this.counter;
-            } else {
-                return super.getTimestamp(task);
-            }
-        }
-        return 0L;
+    protected long getTick() {
+        return this.counter;
     }
 
     @Override
-    protected void executeTaskRunnable(Runnable runnable) {
+    protected boolean isTickBased(ScheduledTask task) {
+        // The timestamp is based on the initial offset or the period
+        return task.getState() == ScheduledTask.ScheduledTaskState.WAITING ? task.delayIsTicks : task.intervalIsTicks;
+    }
+
+    @Override
+    protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
         runnable.run();
     }
 
@@ -0,0 +1,435 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import gnu.trove.procedure.TLongObjectProcedure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+import javax.annotation.Nullable;
+
+/**
+ * A concurrent open addressing hash map that uses primitive {@code long} keys,
+ * this avoids the allocation of key objects for every lookup.
+ *
+ * <p>Retrievals never block and will never allocate, they reflect the results
+ * of the most recently completed modifications. Modifications are synchronized,
+ * the map is designed for maps that are read much more than they are modified.
+ * Null values are not permitted.</p>
+ *
+ * @param <V> the type of the values
+ */
+public class ConcurrentLongObjectHashMap<V> {
+
+    // The marker of a value that was removed, the key is kept in the table
+    // so that a key can only be present in a single slot
+    private static final Object REMOVED = new Object();
+
+    // The default capacity of the table
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // The maximum fraction of used slots (including the removed
+    // ones) before the table will be rebuilt
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+
+        // The amount of slots that are in use, including removed entries
+        private int used;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+    }
+
+    // The current table, a new table is published when it is rebuilt
+    private volatile Table table;
+
+    // The amount of entries in the map
+    private volatile int size;
+
+    /**
+     * Creates a new concurrent long object hash map.
+     */
+    public ConcurrentLongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new concurrent long object hash map.
+     *
+     * @param expectedSize the expected amount of entries
+     */
+    public ConcurrentLongObjectHashMap(int expectedSize) {
+        checkArgument(expectedSize >= 0, "expectedSize cannot be negative");
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int size) {
+        final int capacity = Integer.highestOneBit(Math.max((int) (size / LOAD_FACTOR), DEFAULT_CAPACITY - 1)) << 1;
+        checkArgument(capacity > 0, "the map is too large");
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        // The finalization step of the murmur 3 hash, chunk coordinates
+        // are very clustered so they need to be spread properly
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Gets the value that is mapped to the specified key.
+     *
+     * @param key the key
+     * @return the value, or null if not present
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V get(long key) {
+        final Table table = this.table;
+        final int mask = table.mask;
+        int index = hash(key) & mask;
+        while (true) {
+            // The value must be read before the key, the volatile write
+            // of the value makes the key visible
+            final Object value = table.values.get(index);
+            if (value == null) {
+                return null;
+            }
+            if (table.keys[index] == key) {
+                return value == REMOVED ? null : (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Gets whether the specified key is present in the map.
+     *
+     * @param key the key
+     * @return whether the key is present
+     */
+    public boolean containsKey(long key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Puts the value for the specified key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value, or null if not present
+     */
+    @Nullable
+    public synchronized V put(long key, V value) {
+        return this.put0(key, checkNotNull(value, "value"), false);
+    }
+
+    /**
+     * Puts the value for the specified key if there
+     * isn't already a value present.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the present value, or null if the value was put
+     */
+    @Nullable
+    public synchronized V putIfAbsent(long key, V value) {
+        return this.put0(key, checkNotNull(value, "value"), true);
+    }
+
+    /**
+     * Gets the value for the specified key or computes a new one
+     * if not present. The function will be called while the map
+     * is locked, so it should be short and not access the map.
+     *
+     * @param key the key
+     * @param function the function to compute the value
+     * @return the present or computed value
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> function) {
+        checkNotNull(function, "function");
+        V value = this.get(key);
+        if (value != null) {
+            return value;
+        }
+        synchronized (this) {
+            value = this.get(key);
+            if (value == null) {
+                value = checkNotNull(function.apply(key), "value");
+                this.put0(key, value, true);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Computes a new value for the specified key from the current value, which is
+     * null if not present. The entry will be removed if the new value is null. The
+     * function will be called while the map is locked, so it should be short and
+     * not access the map.
+     *
+     * @param key the key
+     * @param function the function to compute the new value
+     * @return the new value, or null if not present
+     */
+    @Nullable
+    public synchronized V compute(long key, RemappingFunction<V> function) {
+        checkNotNull(function, "function");
+        final V value = this.get(key);
+        final V newValue = function.apply(key, value);
+        if (newValue == null) {
+            if (value != null) {
+                this.remove0(key, value);
+            }
+        } else if (newValue != value) {
+            this.put0(key, newValue, false);
+        }
+        return newValue;
+    }
+
+    /**
+     * Computes a new value for the specified key from the current value if
+     * present, see {@link #compute(long, RemappingFunction)}.
+     *
+     * @param key the key
+     * @param function the function to compute the new value
+     * @return the new value, or null if not present
+     */
+    @Nullable
+    public synchronized V computeIfPresent(long key, RemappingFunction<V> function) {
+        checkNotNull(function, "function");
+        if (this.get(key) == null) {
+            return null;
+        }
+        return this.compute(key, function);
+    }
+
+    /**
+     * A function that computes a new value for a key and its current value.
+     *
+     * @param <V> the type of the values
+     */
+    @FunctionalInterface
+    public interface RemappingFunction<V> {
+
+        /**
+         * Computes the new value.
+         *
+         * @param key the key
+         * @param value the current value, or null if not present
+         * @return the new value, or null to remove the entry
+         */
+        @Nullable
+        V apply(long key, @Nullable V value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private V put0(long key, V value, boolean onlyIfAbsent) {
+        Table table = this.table;
+        int index = hash(key) & table.mask;
+        Object current;
+        while ((current = table.values.get(index)) != null) {
+            if (table.keys[index] == key) {
+                if (current != REMOVED) {
+                    if (!onlyIfAbsent) {
+                        table.values.set(index, value);
+                    }
+                    return (V) current;
+                }
+                // Revive the removed slot
+                table.values.set(index, value);
+                this.size++;
+                return null;
+            }
+            index = (index + 1) & table.mask;
+        }
+        if (table.used + 1 > (int) (table.keys.length * LOAD_FACTOR)) {
+            table = this.rebuild(this.size + 1);
+            index = hash(key) & table.mask;
+            while (table.values.get(index) != null) {
+                index = (index + 1) & table.mask;
+            }
+        }
+        table.keys[index] = key;
+        // The volatile write publishes the key
+        table.values.set(index, value);
+        table.used++;
+        this.size++;
+        return null;
+    }
+
+    private Table rebuild(int size) {
+        final Table oldTable = this.table;
+        final Table table = new Table(capacityFor(size));
+        for (int i = 0; i < oldTable.keys.length; i++) {
+            final Object value = oldTable.values.get(i);
+            if (value != null && value != REMOVED) {
+                final long key = oldTable.keys[i];
+                int index = hash(key) & table.mask;
+                while (table.values.get(index) != null) {
+                    index = (index + 1) & table.mask;
+                }
+                table.keys[index] = key;
+                table.values.lazySet(index, value);
+                table.used++;
+            }
+        }
+        // The volatile write of the table publishes all the entries
+        this.table = table;
+        return table;
+    }
+
+    /**
+     * Removes the value for the specified key.
+     *
+     * @param key the key
+     * @return the removed value, or null if not present
+     */
+    @Nullable
+    public synchronized V remove(long key) {
+        return this.remove0(key, null);
+    }
+
+    /**
+     * Removes the value for the specified key only if it's
+     * currently mapped to the specified value.
+     *
+     * @param key the key
+     * @param value the expected value
+     * @return whether the value was removed
+     */
+    public synchronized boolean remove(long key, V value) {
+        return this.remove0(key, checkNotNull(value, "value")) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private V remove0(long key, @Nullable Object expected) {
+        final Table table = this.table;
+        int index = hash(key) & table.mask;
+        Object current;
+        while ((current = table.values.get(index)) != null) {
+            if (table.keys[index] == key) {
+                if (current == REMOVED || (expected != null && current != expected)) {
+                    return null;
+                }
+                table.values.set(index, REMOVED);
+                this.size--;
+                // Shrink the table and clean up the removed slots if the
+                // table is mostly empty
+                if (this.size < (table.keys.length >> 3) && table.keys.length > DEFAULT_CAPACITY) {
+                    this.rebuild(this.size);
+                }
+                return (V) current;
+            }
+            index = (index + 1) & table.mask;
+        }
+        return null;
+    }
+
+    /**
+     * Removes all the entries from the map.
+     */
+    public synchronized void clear() {
+        this.table = new Table(DEFAULT_CAPACITY);
+        this.size = 0;
+    }
+
+    /**
+     * Gets the amount of entries in the map.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets whether the map is empty.
+     *
+     * @return is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Applies the procedure to every entry of the map until the procedure returns
+     * {@code false}. The iteration is weakly consistent, entries that are modified
+     * during the iteration may or may not be visited.
+     *
+     * @param procedure the procedure
+     * @return false if the iteration was stopped by the procedure
+     */
+    @SuppressWarnings("unchecked")
+    public boolean forEachEntry(TLongObjectProcedure<? super V> procedure) {
+        checkNotNull(procedure, "procedure");
+        final Table table = this.table;
+        for (int i = 0; i < table.keys.length; i++) {
+            final Object value = table.values.get(i);
+            if (value != null && value != REMOVED && !procedure.execute(table.keys[i], (V) value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a snapshot of all the values in the map.
+     *
+     * @return the values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        final Table table = this.table;
+        final List<V> values = new ArrayList<>(this.size);
+        for (int i = 0; i < table.keys.length; i++) {
+            final Object value = table.values.get(i);
+            if (value != null && value != REMOVED) {
+                values.add((V) value);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.lanternpowered.server.game.LanternGame;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Executor} that executes the submitted tasks one by one in submission
+ * order on a backing executor, no more than one task will be executed at the same
+ * time. Tasks may also hand off a part of their work to a different executor through
+ * {@link #executeChained(Supplier)}, the following tasks will wait for it.
+ *
+ * <p>If the backing executor rejects the execution, all the pending tasks are
+ * discarded and the {@link RejectedExecutionException} is thrown to the caller
+ * that submitted the task, if there is one.</p>
+ */
+public final class SerialExecutor implements Executor {
+
+    private final Executor executor;
+    private final Queue<Supplier<? extends ListenableFuture<?>>> queue = new ConcurrentLinkedQueue<>();
+    // Whether a drain task is scheduled or waiting for a chained future
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Creates a new serial executor.
+     *
+     * @param executor the backing executor
+     */
+    public SerialExecutor(Executor executor) {
+        this.executor = checkNotNull(executor, "executor");
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        checkNotNull(task, "task");
+        this.executeChained(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executes the task, the next tasks won't be executed until
+     * the returned future is completed. The task may return
+     * {@code null} if it completed directly.
+     *
+     * @param task the task
+     */
+    public void executeChained(Supplier<? extends ListenableFuture<?>> task) {
+        this.queue.add(checkNotNull(task, "task"));
+        this.schedule();
+    }
+
+    /**
+     * Gets the amount of tasks that are waiting to be executed.
+     *
+     * @return the amount of tasks
+     */
+    public int getQueuedTaskCount() {
+        return this.queue.size();
+    }
+
+    private void schedule() {
+        if (!this.queue.isEmpty() && this.running.compareAndSet(false, true)) {
+            this.submitDrain(true);
+        }
+    }
+
+    /**
+     * Submits the drain task to the backing executor, the
+     * executor must already be marked as running.
+     *
+     * @param propagate whether a rejection should be thrown to the caller
+     */
+    private void submitDrain(boolean propagate) {
+        try {
+            this.executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            this.discardPending(e);
+            if (propagate) {
+                throw e;
+            }
+        } catch (Throwable t) {
+            this.running.set(false);
+            throw t;
+        }
+    }
+
+    private void discardPending(RejectedExecutionException e) {
+        int count = 0;
+        while (this.queue.poll() != null) {
+            count++;
+        }
+        this.running.set(false);
+        LanternGame.log().error("The backing executor rejected the serial tasks, discarded {} pending task(s)", count, e);
+        // A task may have been added between the last poll and the reset
+        if (!this.queue.isEmpty() && this.running.compareAndSet(false, true)) {
+            this.submitDrain(false);
+        }
+    }
+
+    private void drain() {
+        Supplier<? extends ListenableFuture<?>> task;
+        while ((task = this.queue.poll()) != null) {
+            @Nullable ListenableFuture<?> future = null;
+            try {
+                future = task.get();
+            } catch (Throwable t) {
+                LanternGame.log().error("An error occurred while executing a serial task", t);
+            }
+            if (future != null && !future.isDone()) {
+                // Continue once the chained work is done, the executor
+                // stays marked as running in the meantime
+                future.addListener(() -> this.submitDrain(false), MoreExecutors.directExecutor());
+                return;
+            }
+        }
+        this.running.set(false);
+        // A task may have been added between the last poll and the reset
+        if (!this.queue.isEmpty() && this.running.compareAndSet(false, true)) {
+            this.submitDrain(false);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.gen.biome;
+
+import org.spongepowered.api.world.extent.BiomeArea;
+
+/**
+ * A biome buffer that is backed by a short array with the internal
+ * biome ids, the ids of a row (z coordinate) are stored next to
+ * each other.
+ */
+public interface ShortArrayBiomeBuffer extends BiomeArea {
+
+    /**
+     * Copies the internal biome ids of the row at the specified z coordinate,
+     * starting at the minimum x coordinate, into the target array. The
+     * coordinates must be in range.
+     *
+     * @param z the z coordinate
+     * @param minX the minimum x coordinate
+     * @param target the target array
+     * @param offset the offset in the target array
+     * @param length the amount of biomes to copy
+     */
+    void copyRow(int z, int minX, short[] target, int offset, int length);
+}
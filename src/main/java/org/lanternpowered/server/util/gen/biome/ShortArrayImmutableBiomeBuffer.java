@@ -44,7 +44,7 @@
  * constructor is copied to ensure that the instance is immutable.
  */
 @NonnullByDefault
-public final class ShortArrayImmutableBiomeBuffer extends AbstractBiomeBuffer implements ImmutableBiomeArea {
+public final class ShortArrayImmutableBiomeBuffer extends AbstractBiomeBuffer implements ImmutableBiomeArea, ShortArrayBiomeBuffer {
 
     private final short[] biomes;
 
@@ -64,6 +64,11 @@ public BiomeType getBiome(int x, int z) {
         return Registries.getBiomeRegistry().getByInternalId(this.biomes[this.index(x, z)]).orElse(BiomeTypes.OCEAN);
     }
 
+    @Override
+    public void copyRow(int z, int minX, short[] target, int offset, int length) {
+        System.arraycopy(this.biomes, this.index(minX, z), target, offset, length);
+    }
+
     @Override
     public BiomeType getBiome(Vector2i position) {
         return this.getBiome(position.getX(), position.getY());
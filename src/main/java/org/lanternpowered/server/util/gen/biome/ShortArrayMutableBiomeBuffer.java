@@ -52,7 +52,7 @@
  * The short array can then be reused by calling {@link #reuse(Vector2i)}.</p>
  */
 @NonnullByDefault
-public class ShortArrayMutableBiomeBuffer extends AbstractBiomeBuffer implements MutableBiomeArea {
+public class ShortArrayMutableBiomeBuffer extends AbstractBiomeBuffer implements MutableBiomeArea, ShortArrayBiomeBuffer {
 
     private boolean detached;
     private final short[] biomes;
@@ -94,6 +94,12 @@ public BiomeType getBiome(int x, int z) {
         return Registries.getBiomeRegistry().getByInternalId(this.biomes[this.index(x, z)]).orElse(BiomeTypes.OCEAN);
     }
 
+    @Override
+    public void copyRow(int z, int minX, short[] target, int offset, int length) {
+        this.checkOpen();
+        System.arraycopy(this.biomes, this.index(minX, z), target, offset, length);
+    }
+
     /**
      * Gets the internal short array, and prevents further of it through this
      * object uses until {@link #reuse(Vector2i)} is called.
@@ -25,6 +25,7 @@
 package org.lanternpowered.server.util.gen.block;
 
 import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.world.extent.BulkMutableBlockVolume;
 import org.lanternpowered.server.world.extent.MutableBlockViewDownsize;
 import org.lanternpowered.server.world.extent.MutableBlockViewTransform;
 import org.lanternpowered.server.world.extent.UnmodifiableBlockVolumeWrapper;
@@ -34,7 +35,7 @@
 import org.spongepowered.api.world.extent.MutableBlockVolume;
 import org.spongepowered.api.world.extent.UnmodifiableBlockVolume;
 
-public abstract class AbstractMutableBlockBuffer extends AbstractBlockBuffer implements MutableBlockVolume {
+public abstract class AbstractMutableBlockBuffer extends AbstractBlockBuffer implements BulkMutableBlockVolume {
 
     protected AbstractMutableBlockBuffer(Vector3i start, Vector3i size) {
         super(start, size);
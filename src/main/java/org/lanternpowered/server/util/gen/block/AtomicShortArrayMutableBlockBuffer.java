@@ -27,9 +27,9 @@
 import com.flowpowered.math.vector.Vector3i;
 import org.lanternpowered.server.game.registry.Registries;
 import org.lanternpowered.server.util.concurrent.AtomicShortArray;
+import org.lanternpowered.server.world.extent.BulkMutableBlockVolume;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBlockVolumeWorker;
 import org.spongepowered.api.block.BlockState;
-import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 import org.spongepowered.api.world.extent.ImmutableBlockVolume;
 import org.spongepowered.api.world.extent.MutableBlockVolume;
@@ -39,7 +39,6 @@
 @NonnullByDefault
 public class AtomicShortArrayMutableBlockBuffer extends AbstractMutableBlockBuffer implements MutableBlockVolume {
 
-    private final BlockState air = BlockTypes.AIR.getDefaultState();
     private final AtomicShortArray blocks;
 
     public AtomicShortArrayMutableBlockBuffer(Vector3i start, Vector3i size) {
@@ -58,6 +57,21 @@ public void setBlock(int x, int y, int z, BlockState block) {
         this.blocks.set(this.index(x, y, z), Registries.getBlockRegistry().getStateInternalIdAndData(block));
     }
 
+    @Override
+    public void fillBlocks(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState block) {
+        BulkMutableBlockVolume.checkBulkRange(this, minX, minY, minZ, maxX, maxY, maxZ);
+        final short type = Registries.getBlockRegistry().getStateInternalIdAndData(block);
+        final int height = maxY - minY + 1;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                final int index = this.index(x, minY, z);
+                for (int i = 0; i < height; i++) {
+                    this.blocks.set(index + i, type);
+                }
+            }
+        }
+    }
+
     @Override
     public MutableBlockVolumeWorker<? extends MutableBlockVolume> getBlockWorker() {
         return new LanternMutableBlockVolumeWorker<>(this);
@@ -67,8 +81,7 @@ public MutableBlockVolumeWorker<? extends MutableBlockVolume> getBlockWorker() {
     public BlockState getBlock(int x, int y, int z) {
         this.checkRange(x, y, z);
         final short blockState = this.blocks.get(this.index(x, y, z));
-        final BlockState block = Registries.getBlockRegistry().getStateByInternalIdAndData(blockState).orElse(BlockTypes.AIR.getDefaultState());
-        return block == null ? this.air : block;
+        return Registries.getBlockRegistry().getStateByInternalIdAndDataOrAir(blockState);
     }
 
     @Override
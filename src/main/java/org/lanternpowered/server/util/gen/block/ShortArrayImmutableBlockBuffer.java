@@ -30,7 +30,6 @@
 import org.lanternpowered.server.world.extent.ImmutableBlockViewTransform;
 import org.lanternpowered.server.world.extent.worker.LanternBlockVolumeWorker;
 import org.spongepowered.api.block.BlockState;
-import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.util.DiscreteTransform3;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 import org.spongepowered.api.world.extent.ImmutableBlockVolume;
@@ -40,9 +39,8 @@
 import org.spongepowered.api.world.extent.worker.BlockVolumeWorker;
 
 @NonnullByDefault
-public class ShortArrayImmutableBlockBuffer extends AbstractBlockBuffer implements ImmutableBlockVolume {
+public class ShortArrayImmutableBlockBuffer extends AbstractBlockBuffer implements ImmutableBlockVolume, ShortArrayBlockBuffer {
 
-    private final BlockState air = BlockTypes.AIR.getDefaultState();
     private final short[] blocks;
 
     public ShortArrayImmutableBlockBuffer(short[] blocks, Vector3i start, Vector3i size) {
@@ -59,8 +57,12 @@ private ShortArrayImmutableBlockBuffer(Vector3i start, Vector3i size, short[] bl
     public BlockState getBlock(int x, int y, int z) {
         this.checkRange(x, y, z);
         short blockState = this.blocks[this.index(x, y, z)];
-        BlockState block = Registries.getBlockRegistry().getStateByInternalId(blockState).orElse(BlockTypes.AIR.getDefaultState());
-        return block == null ? this.air : block;
+        return Registries.getBlockRegistry().getStateByInternalIdAndDataOrAir(blockState);
+    }
+
+    @Override
+    public void copyColumn(int x, int z, int minY, short[] target, int offset, int length) {
+        System.arraycopy(this.blocks, this.index(x, minY, z), target, offset, length);
     }
 
     @Override
@@ -26,19 +26,20 @@
 
 import com.flowpowered.math.vector.Vector3i;
 import org.lanternpowered.server.game.registry.Registries;
+import org.lanternpowered.server.world.extent.BulkMutableBlockVolume;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBlockVolumeWorker;
 import org.spongepowered.api.block.BlockState;
-import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 import org.spongepowered.api.world.extent.ImmutableBlockVolume;
 import org.spongepowered.api.world.extent.MutableBlockVolume;
 import org.spongepowered.api.world.extent.StorageType;
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
 
+import java.util.Arrays;
+
 @NonnullByDefault
-public class ShortArrayMutableBlockBuffer extends AbstractMutableBlockBuffer {
+public class ShortArrayMutableBlockBuffer extends AbstractMutableBlockBuffer implements ShortArrayBlockBuffer {
 
-    private final BlockState air = BlockTypes.AIR.getDefaultState();
     private final short[] blocks;
 
     public ShortArrayMutableBlockBuffer(Vector3i start, Vector3i size) {
@@ -56,6 +57,40 @@ public void setBlock(int x, int y, int z, BlockState block) {
         this.blocks[this.index(x, y, z)] = Registries.getBlockRegistry().getStateInternalIdAndData(block);
     }
 
+    @Override
+    public void fillBlocks(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState block) {
+        BulkMutableBlockVolume.checkBulkRange(this, minX, minY, minZ, maxX, maxY, maxZ);
+        final short type = Registries.getBlockRegistry().getStateInternalIdAndData(block);
+        final int height = maxY - minY + 1;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                final int index = this.index(x, minY, z);
+                Arrays.fill(this.blocks, index, index + height, type);
+            }
+        }
+    }
+
+    @Override
+    public void copyBlocks(ShortArrayBlockBuffer source, Vector3i sourceMin, Vector3i sourceMax, Vector3i destination) {
+        BulkMutableBlockVolume.checkBulkRange(source, sourceMin.getX(), sourceMin.getY(), sourceMin.getZ(),
+                sourceMax.getX(), sourceMax.getY(), sourceMax.getZ());
+        final Vector3i offset = destination.sub(sourceMin);
+        BulkMutableBlockVolume.checkBulkRange(this, destination.getX(), destination.getY(), destination.getZ(),
+                sourceMax.getX() + offset.getX(), sourceMax.getY() + offset.getY(), sourceMax.getZ() + offset.getZ());
+        final int height = sourceMax.getY() - sourceMin.getY() + 1;
+        for (int x = sourceMin.getX(); x <= sourceMax.getX(); x++) {
+            for (int z = sourceMin.getZ(); z <= sourceMax.getZ(); z++) {
+                source.copyColumn(x, z, sourceMin.getY(), this.blocks,
+                        this.index(x + offset.getX(), destination.getY(), z + offset.getZ()), height);
+            }
+        }
+    }
+
+    @Override
+    public void copyColumn(int x, int z, int minY, short[] target, int offset, int length) {
+        System.arraycopy(this.blocks, this.index(x, minY, z), target, offset, length);
+    }
+
     @Override
     public MutableBlockVolumeWorker<? extends MutableBlockVolume> getBlockWorker() {
         return new LanternMutableBlockVolumeWorker<>(this);
@@ -65,9 +100,7 @@ public MutableBlockVolumeWorker<? extends MutableBlockVolume> getBlockWorker() {
     public BlockState getBlock(int x, int y, int z) {
         this.checkRange(x, y, z);
         final short blockState = this.blocks[this.index(x, y, z)];
-        final BlockState block = Registries.getBlockRegistry().getStateByInternalIdAndData(blockState)
-                .orElse(BlockTypes.AIR.getDefaultState());
-        return block == null ? this.air : block;
+        return Registries.getBlockRegistry().getStateByInternalIdAndDataOrAir(blockState);
     }
 
     @Override
@@ -30,14 +30,37 @@
 import com.flowpowered.math.GenericMath;
 import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.chunk.LanternChunkManager;
 import org.slf4j.Logger;
+import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.scheduler.Task;
-import org.spongepowered.api.world.Chunk;
 import org.spongepowered.api.world.World;
 import org.spongepowered.api.world.WorldBorder.ChunkPreGenerate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
@@ -45,6 +68,9 @@
 public final class LanternChunkPreGenerate implements ChunkPreGenerate {
 
     private static final int TICK_INTERVAL = 10;
+    private static final int REGION_SHIFT = 5;
+    private static final String TIME_FORMAT = "s's 'S'ms'";
+    private static final String ETA_FORMAT = "d'd 'H'h 'm'm 's's'";
     private static final float DEFAULT_TICK_PERCENT = 0.15f;
     private World world;
     private Vector3d center;
@@ -98,7 +124,7 @@ public LanternChunkPreGenerate tickPercentLimit(float tickPercent) {
     public Task start() {
         checkNotNull(this.plugin, "owner not set");
         checkArgument(this.chunkCount > 0 || this.tickPercent > 0, "Must use at least one of \"chunks per tick\" or \"tick percent limit\"");
-        return Task.builder().name(toString())
+        return Task.builder().name(toString()).async()
                 .execute(new ChunkPreGenerator(this.world, this.center, this.diameter, this.chunkCount, this.tickPercent, this.logger))
                 .intervalTicks(this.tickInterval).submit(this.plugin);
     }
@@ -145,91 +171,543 @@ public String toString() {
 
     private static class ChunkPreGenerator implements Consumer<Task> {
 
-        private static final Vector3i[] OFFSETS = {
-                Vector3i.UNIT_X,
-                Vector3i.UNIT_Z,
-                Vector3i.UNIT_X.negate(),
-                Vector3i.UNIT_Z.negate()
-        };
-        private static final String TIME_FORMAT = "s's 'S'ms'";
-        private final World world;
-        private final int chunkRadius;
+        // The prefix of the files that the progress is stored in
+        private static final String CHECKPOINT_FILE_PREFIX = "chunk-pregenerate-";
+
+        // The duration of a single tick, in nanoseconds
+        private static final long TICK_DURATION = TimeUnit.MILLISECONDS.toNanos(50);
+
+        // The maximum time without any progress while waiting for the populations
+        private static final long POPULATION_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+        // The interval in which the unload of the requested chunks is delayed, in milliseconds
+        private static final long KEEP_LOADED_INTERVAL = 1000;
+
+        private static final Gson GSON = new Gson();
+
+        private enum Phase {
+            /**
+             * The chunks of the region are being requested and loaded.
+             */
+            REQUEST,
+            /**
+             * Waiting for the requested chunks to be populated.
+             */
+            POPULATE,
+            /**
+             * The generated chunks are being saved.
+             */
+            WRITE
+        }
+
+        private final LanternWorld world;
+        private final Vector3d center;
+        private final double diameter;
         private final int chunkCount;
         private final float tickPercent;
-        private final long tickTimeLimit;
-        private final double diameter;
         @Nullable private final Logger logger;
-        private Vector3i currentPosition;
-        private final Vector3d center;
-        private int currentLayerIndex;
-        private int currentLayerSize;
-        private int currentIndexInLayer;
-        private int totalCount;
+
+        // The chunk bounds that should be generated
+        private final int minChunkX;
+        private final int minChunkZ;
+        private final int maxChunkX;
+        private final int maxChunkZ;
+
+        // All the regions that should be generated, ordered by
+        // the distance to the center, as packed chunk keys
+        private final long[] regions;
+
+        // The amount of chunks that may be generated at the same time
+        private final Semaphore permits;
+
+        // Whether a batch is currently being processed
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        // The file that the progress is stored in
+        private final Path checkpointFile;
+
+        // The region that is currently being generated, a region
+        // is generated over multiple runs of the task
+        @Nullable private RegionRequest request;
+
+        // The index of the next region that should be generated
+        private int regionIndex;
+
+        // The start time of the current run, in nanoseconds
+        private long runStart;
+
+        // The amount of chunks that were requested in the current run
+        private int runChunks;
+
+        // The statistics
+        private long totalChunks;
+        private long generatedChunks;
+        private long skippedChunks;
         private long totalTime;
 
         public ChunkPreGenerator(World world, Vector3d center, double diameter, int chunkCount, float tickPercent, @Nullable Logger logger) {
-            this.world = world;
+            this.world = (LanternWorld) world;
             this.diameter = diameter;
-            this.chunkRadius = GenericMath.floor(diameter / 32);
             this.chunkCount = chunkCount;
             this.tickPercent = tickPercent;
             this.logger = logger;
-            this.tickTimeLimit = Math.round(LanternGame.get().getScheduler().getPreferredTickInterval() * tickPercent);
-            this.currentPosition = LanternGame.get().getServer().getChunkLayout().toChunk(center.toInt()).get();
-            this.currentLayerIndex = 0;
             this.center = center;
-            this.currentLayerSize = 0;
-            this.currentIndexInLayer = 0;
-            this.totalCount = 0;
-            this.totalTime = 0;
+
+            final int chunkRadius = GenericMath.floor(diameter / 32);
+            final Vector3i centerChunk = LanternGame.get().getServer().getChunkLayout().toChunk(center.toInt()).get();
+            this.minChunkX = centerChunk.getX() - chunkRadius;
+            this.minChunkZ = centerChunk.getZ() - chunkRadius;
+            this.maxChunkX = centerChunk.getX() + chunkRadius;
+            this.maxChunkZ = centerChunk.getZ() + chunkRadius;
+            this.totalChunks = (long) (chunkRadius * 2 + 1) * (chunkRadius * 2 + 1);
+
+            // Collect all the regions in the area and start with the ones in the center
+            final int centerRegionX = centerChunk.getX() >> REGION_SHIFT;
+            final int centerRegionZ = centerChunk.getZ() >> REGION_SHIFT;
+            final List<Long> regions = new ArrayList<>();
+            for (int x = this.minChunkX >> REGION_SHIFT; x <= this.maxChunkX >> REGION_SHIFT; x++) {
+                for (int z = this.minChunkZ >> REGION_SHIFT; z <= this.maxChunkZ >> REGION_SHIFT; z++) {
+                    regions.add(LanternChunk.key(x, z));
+                }
+            }
+            regions.sort(Comparator.comparingInt(key -> Math.max(
+                    Math.abs(LanternChunk.keyX(key) - centerRegionX), Math.abs(LanternChunk.keyZ(key) - centerRegionZ))));
+            this.regions = regions.stream().mapToLong(Long::longValue).toArray();
+
+            final int parallelism = this.world.getChunkManager().getGenerationParallelism() * 2;
+            this.permits = new Semaphore(chunkCount > 0 ? Math.min(chunkCount, parallelism) : parallelism);
+            // Every area has its own progress, so multiple pre-generations of the same world don't overwrite each other
+            this.checkpointFile = this.world.getChunkManager().getWorldFolder().resolve(
+                    CHECKPOINT_FILE_PREFIX + centerChunk.getX() + "_" + centerChunk.getZ() + "_" + chunkRadius + ".json");
+            this.loadCheckpoint();
         }
 
         @Override
         public void accept(Task task) {
-            final long startTime = System.currentTimeMillis();
-            int count = 0;
-            do {
-                this.world.loadChunk(nextChunkPosition(), true).ifPresent(Chunk::unloadChunk);
-            } while (hasNextChunkPosition() && checkChunkCount(++count) && checkTickTime(System.currentTimeMillis() - startTime));
+            // Don't start a new batch while the previous one is still running
+            if (!this.running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                this.runStart = System.nanoTime();
+                this.runChunks = 0;
+                // Only block for a limited time, the chunks are generated in the background
+                // between the runs, the work of a region is just continued in the next run
+                while (this.regionIndex < this.regions.length && this.hasBudget()) {
+                    if (this.request == null) {
+                        this.request = new RegionRequest(this.regions[this.regionIndex]);
+                    }
+                    if (!this.request.process()) {
+                        break;
+                    }
+                    this.completeRegion(this.request);
+                    this.request = null;
+                }
+                if (this.regionIndex >= this.regions.length) {
+                    if (this.logger != null) {
+                        this.logger.info("Done! Generated a total of {} chunks in {}, {} chunks already existed", this.generatedChunks,
+                                DurationFormatUtils.formatDuration(this.totalTime, TIME_FORMAT, false), this.skippedChunks);
+                    }
+                    this.deleteCheckpoint();
+                    task.cancel();
+                }
+            } finally {
+                this.running.set(false);
+            }
+        }
+
+        /**
+         * Gets whether the current run may continue, limited by the amount of requested
+         * chunks (chunks per tick) and the time spent in the run (tick percent limit).
+         *
+         * @return whether there is budget left
+         */
+        private boolean hasBudget() {
+            if (this.chunkCount > 0 && this.runChunks >= this.chunkCount) {
+                return false;
+            }
+            return this.tickPercent <= 0 || System.nanoTime() - this.runStart < this.tickPercent * TICK_DURATION;
+        }
+
+        private void completeRegion(RegionRequest request) {
+            final long deltaTime = System.currentTimeMillis() - request.startTime;
+            this.regionIndex++;
+            this.totalTime += deltaTime;
+            this.generatedChunks += request.count;
+            this.skippedChunks += request.skipped;
+            this.saveCheckpoint();
             if (this.logger != null) {
-                this.totalCount += count;
-                final long deltaTime = System.currentTimeMillis() - startTime;
-                this.totalTime += deltaTime;
-                this.logger.info("Generated {} chunks in {}, {}% complete", count,
+                final long doneChunks = this.generatedChunks + this.skippedChunks;
+                final double chunksPerSecond = this.totalTime == 0 ? 0 : this.generatedChunks * 1000.0 / this.totalTime;
+                final long remainingTime = chunksPerSecond == 0 ? 0 :
+                        (long) ((this.totalChunks - doneChunks) / chunksPerSecond * 1000.0);
+                this.logger.info("Generated {} chunks in {}, {}% complete, {} chunks/s, ETA {}", request.count,
                         DurationFormatUtils.formatDuration(deltaTime, TIME_FORMAT, false),
-                        Math.round((float) this.totalCount / (this.chunkRadius * this.chunkRadius * 4) * 100));
+                        Math.round((float) doneChunks / this.totalChunks * 100), Math.round(chunksPerSecond),
+                        DurationFormatUtils.formatDuration(remainingTime, ETA_FORMAT, false));
+            }
+        }
+
+        /**
+         * The generation of all the missing chunks of a region that are within the
+         * bounds, the chunks are generated in parallel and written per region.
+         *
+         * <p>A chunk is only populated once the chunks around it are loaded, so the
+         * neighbors of the generated chunks are loaded (or generated) as well, this
+         * includes the border of the adjacent regions. The chunks are only saved and
+         * unloaded once the generated chunks are populated.</p>
+         *
+         * <p>The generation is processed in steps, a step never waits for the chunks
+         * so that the async task doesn't occupy a thread for the whole region.</p>
+         */
+        private final class RegionRequest {
+
+            private final LanternChunkManager chunkManager;
+            private final ChunkIOService chunkIOService;
+            private final Cause cause;
+
+            // The chunk bounds of the region
+            private final int minX;
+            private final int minZ;
+            private final int maxX;
+            private final int maxZ;
+
+            // The time that the generation of the region started
+            private final long startTime = System.currentTimeMillis();
+
+            // All the chunks that were requested
+            private final TLongSet requested = new TLongHashSet();
+            // The requested chunks that were already loaded before they were requested
+            private final TLongSet alreadyLoaded = new TLongHashSet();
+            // The requested chunks that failed to load
+            private final TLongSet failed = new TLongHashSet();
+            // The chunks that should be populated
+            private final TLongSet toPopulate = new TLongHashSet();
+            // The requested chunks whose loads weren't started yet
+            private final TLongList toLoad = new TLongArrayList();
+            // The loads that aren't completed yet
+            private final List<CompletableFuture<LanternChunk>> futures = new ArrayList<>();
+            // The chunks that are waiting for their population
+            private final TLongList pending = new TLongArrayList();
+            // The chunks that should be saved and unloaded
+            private final List<LanternChunk> chunks = new ArrayList<>();
+
+            private Phase phase = Phase.REQUEST;
+
+            // The next chunk of the region that should be checked
+            private int x;
+            private int z;
+
+            // The index of the next load that should be started
+            private int loadIndex;
+
+            // The index of the next chunk that should be saved
+            private int saveIndex;
+
+            // The last time that a chunk was populated
+            private long lastProgress;
+
+            // The last time that the unload of the requested chunks was delayed
+            private long lastKeepLoaded;
+
+            // The amount of generated and skipped chunks
+            private int count;
+            private int skipped;
+
+            private RegionRequest(long region) {
+                final LanternWorld world = ChunkPreGenerator.this.world;
+                this.chunkManager = world.getChunkManager();
+                this.chunkIOService = this.chunkManager.getChunkIOService();
+                this.cause = Cause.of(world);
+                this.minX = Math.max(ChunkPreGenerator.this.minChunkX, LanternChunk.keyX(region) << REGION_SHIFT);
+                this.minZ = Math.max(ChunkPreGenerator.this.minChunkZ, LanternChunk.keyZ(region) << REGION_SHIFT);
+                this.maxX = Math.min(ChunkPreGenerator.this.maxChunkX, ((LanternChunk.keyX(region) + 1) << REGION_SHIFT) - 1);
+                this.maxZ = Math.min(ChunkPreGenerator.this.maxChunkZ, ((LanternChunk.keyZ(region) + 1) << REGION_SHIFT) - 1);
+                this.x = this.minX;
+                this.z = this.minZ;
             }
-            if (!hasNextChunkPosition()) {
-                if (this.logger != null) {
-                    this.logger.info("Done! Generated a total of {} chunks in {}", this.totalCount,
-                            DurationFormatUtils.formatDuration(this.totalTime, TIME_FORMAT, false));
+
+            /**
+             * Continues the generation of the region, as long as the current run has budget left.
+             *
+             * @return whether the region is completed
+             */
+            private boolean process() {
+                this.keepLoaded();
+                if (this.phase == Phase.REQUEST) {
+                    if (!this.processRequests()) {
+                        return false;
+                    }
+                    final TLongIterator it = this.toPopulate.iterator();
+                    while (it.hasNext()) {
+                        final long key = it.next();
+                        // The chunks whose neighbors failed to load can't be populated
+                        if (!this.hasFailedNeighbor(key)) {
+                            this.pending.add(key);
+                        }
+                    }
+                    this.lastProgress = System.currentTimeMillis();
+                    this.phase = Phase.POPULATE;
+                }
+                if (this.phase == Phase.POPULATE) {
+                    if (!this.processPopulation()) {
+                        return false;
+                    }
+                    final TLongIterator it = this.requested.iterator();
+                    while (it.hasNext()) {
+                        final long key = it.next();
+                        final LanternChunk chunk = this.chunkManager.getChunk(LanternChunk.keyX(key), LanternChunk.keyZ(key));
+                        // Don't touch the chunks that were already loaded by something else
+                        if (chunk != null && !this.alreadyLoaded.contains(key)) {
+                            this.chunks.add(chunk);
+                        }
+                    }
+                    this.phase = Phase.WRITE;
+                }
+                return this.processWrite();
+            }
+
+            /**
+             * Requests the missing chunks of the region and their neighbors.
+             *
+             * @return whether all the requested chunks are loaded
+             */
+            private boolean processRequests() {
+                while (true) {
+                    // Start the loads of the requested chunks, as long as chunks may be generated
+                    while (this.loadIndex < this.toLoad.size()) {
+                        if (!ChunkPreGenerator.this.hasBudget() || !ChunkPreGenerator.this.permits.tryAcquire()) {
+                            return false;
+                        }
+                        this.load(this.toLoad.get(this.loadIndex++));
+                    }
+                    this.toLoad.clear();
+                    this.loadIndex = 0;
+                    if (this.x <= this.maxX) {
+                        if (!ChunkPreGenerator.this.hasBudget()) {
+                            return false;
+                        }
+                        this.check(this.x, this.z);
+                        if (++this.z > this.maxZ) {
+                            this.z = this.minZ;
+                            this.x++;
+                        }
+                        continue;
+                    }
+                    this.futures.removeIf(CompletableFuture::isDone);
+                    if (!this.futures.isEmpty()) {
+                        return false;
+                    }
+                    // The neighbors may be chunks of this region that were generated as border of
+                    // an adjacent region but aren't populated yet, these need their neighbors too
+                    final TLongList unpopulated = new TLongArrayList();
+                    final TLongIterator it = this.requested.iterator();
+                    while (it.hasNext()) {
+                        final long key = it.next();
+                        final int x = LanternChunk.keyX(key);
+                        final int z = LanternChunk.keyZ(key);
+                        if (x >= this.minX && x <= this.maxX && z >= this.minZ && z <= this.maxZ && !this.toPopulate.contains(key)) {
+                            final LanternChunk chunk = this.chunkManager.getChunk(x, z);
+                            if (chunk != null && !chunk.isPopulated()) {
+                                unpopulated.add(key);
+                            }
+                        }
+                    }
+                    for (int i = 0; i < unpopulated.size(); i++) {
+                        this.populate(LanternChunk.keyX(unpopulated.get(i)), LanternChunk.keyZ(unpopulated.get(i)));
+                    }
+                    if (this.toLoad.isEmpty()) {
+                        return true;
+                    }
+                }
+            }
+
+            private void check(int x, int z) {
+                try {
+                    // Skip the chunks that are already generated
+                    if (this.chunkManager.getChunk(x, z) != null || this.chunkIOService.exists(x, z)) {
+                        this.skipped++;
+                        return;
+                    }
+                } catch (IOException e) {
+                    LanternGame.log().warn("Failed to check whether the chunk ({};{}) exists", x, z, e);
+                }
+                this.populate(x, z);
+                this.count++;
+            }
+
+            /**
+             * Requests the chunk at the coordinates and the chunks around it, so
+             * that the chunk will be populated.
+             *
+             * @param x the x coordinate
+             * @param z the z coordinate
+             */
+            private void populate(int x, int z) {
+                this.toPopulate.add(LanternChunk.key(x, z));
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        final long key = LanternChunk.key(x + dx, z + dz);
+                        if (this.requested.add(key)) {
+                            if (this.chunkManager.getChunk(x + dx, z + dz) != null) {
+                                this.alreadyLoaded.add(key);
+                            }
+                            this.toLoad.add(key);
+                        }
+                    }
                 }
-                task.cancel();
             }
-        }
 
-        private boolean hasNextChunkPosition() {
-            return this.currentLayerIndex <= this.chunkRadius;
+            private void load(long key) {
+                ChunkPreGenerator.this.runChunks++;
+                final CompletableFuture<LanternChunk> future = this.chunkManager.getOrCreateChunkAsync(
+                        LanternChunk.keyX(key), LanternChunk.keyZ(key), this.cause, true);
+                future.whenComplete((chunk, e) -> {
+                    ChunkPreGenerator.this.permits.release();
+                    if (e != null) {
+                        LanternGame.log().error("Failed to generate a chunk", e);
+                        synchronized (this.failed) {
+                            this.failed.add(key);
+                        }
+                    }
+                });
+                this.futures.add(future);
+            }
+
+            /**
+             * Checks whether the chunks are populated.
+             *
+             * @return whether all the chunks are populated, or the population timed out
+             */
+            private boolean processPopulation() {
+                final int size = this.pending.size();
+                for (int i = size - 1; i >= 0; i--) {
+                    final long key = this.pending.get(i);
+                    final LanternChunk chunk = this.chunkManager.getChunk(LanternChunk.keyX(key), LanternChunk.keyZ(key));
+                    if (chunk == null || chunk.isPopulated()) {
+                        this.pending.removeAt(i);
+                    }
+                }
+                if (this.pending.isEmpty()) {
+                    return true;
+                }
+                final long time = System.currentTimeMillis();
+                if (this.pending.size() < size) {
+                    this.lastProgress = time;
+                } else if (time - this.lastProgress > POPULATION_TIMEOUT) {
+                    LanternGame.log().warn("Timed out while waiting for the population of {} chunks", this.pending.size());
+                    return true;
+                }
+                return false;
+            }
+
+            /**
+             * Saves the generated chunks, all the chunks of the region are written
+             * together, this keeps the region file hot instead of jumping between
+             * multiple files. The chunks are unloaded once all of them are saved.
+             *
+             * @return whether all the chunks are saved
+             */
+            private boolean processWrite() {
+                while (this.saveIndex < this.chunks.size()) {
+                    if (!ChunkPreGenerator.this.hasBudget()) {
+                        return false;
+                    }
+                    this.chunkManager.save(this.chunks.get(this.saveIndex++));
+                }
+                // Unload the chunks on the main thread, the chunks that are in use
+                // in the meantime are left to the normal unload process
+                LanternGame.get().getScheduler().callSync(() -> {
+                    for (LanternChunk chunk : this.chunks) {
+                        // Already saved, so nothing will be written again
+                        this.chunkManager.unloadIfUnused(chunk, this.cause);
+                    }
+                    return null;
+                });
+                return true;
+            }
+
+            private boolean hasFailedNeighbor(long key) {
+                final int x = LanternChunk.keyX(key);
+                final int z = LanternChunk.keyZ(key);
+                synchronized (this.failed) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        for (int dz = -1; dz <= 1; dz++) {
+                            if (this.failed.contains(LanternChunk.key(x + dx, z + dz))) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+                return false;
+            }
+
+            /**
+             * Delays the unload of the requested chunks, they would otherwise be
+             * unloaded before the chunks around them are populated.
+             */
+            private void keepLoaded() {
+                final long time = System.currentTimeMillis();
+                if (time - this.lastKeepLoaded < KEEP_LOADED_INTERVAL) {
+                    return;
+                }
+                this.lastKeepLoaded = time;
+                final TLongIterator it = this.requested.iterator();
+                while (it.hasNext()) {
+                    final long key = it.next();
+                    this.chunkManager.delayUnload(LanternChunk.keyX(key), LanternChunk.keyZ(key));
+                }
+            }
         }
 
-        private Vector3i nextChunkPosition() {
-            final Vector3i nextPosition = this.currentPosition;
-            if (++this.currentIndexInLayer >= this.currentLayerSize * 4) {
-                this.currentLayerIndex++;
-                this.currentLayerSize += 2;
-                this.currentIndexInLayer = 0;
-                this.currentPosition = this.currentPosition.sub(Vector3i.UNIT_Z).sub(Vector3i.UNIT_X);
+        private void loadCheckpoint() {
+            if (!Files.exists(this.checkpointFile)) {
+                return;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(this.checkpointFile, StandardCharsets.UTF_8)) {
+                final JsonObject json = GSON.fromJson(reader, JsonObject.class);
+                // Only resume if the same area is being generated
+                if (json.get("minChunkX").getAsInt() == this.minChunkX && json.get("minChunkZ").getAsInt() == this.minChunkZ &&
+                        json.get("maxChunkX").getAsInt() == this.maxChunkX && json.get("maxChunkZ").getAsInt() == this.maxChunkZ) {
+                    this.regionIndex = Math.min(json.get("regionIndex").getAsInt(), this.regions.length);
+                    this.generatedChunks = json.get("generatedChunks").getAsLong();
+                    this.skippedChunks = json.get("skippedChunks").getAsLong();
+                    this.totalTime = json.get("totalTime").getAsLong();
+                    if (this.logger != null) {
+                        this.logger.info("Resuming the chunk pre-generation at region {} of {}", this.regionIndex, this.regions.length);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                LanternGame.log().warn("Failed to read the chunk pre-generation progress", e);
             }
-            this.currentPosition = this.currentPosition.add(OFFSETS[this.currentIndexInLayer / this.currentLayerSize]);
-            return nextPosition;
         }
 
-        private boolean checkChunkCount(int count) {
-            return this.chunkCount <= 0 || count < this.chunkCount;
+        private void saveCheckpoint() {
+            final JsonObject json = new JsonObject();
+            json.addProperty("minChunkX", this.minChunkX);
+            json.addProperty("minChunkZ", this.minChunkZ);
+            json.addProperty("maxChunkX", this.maxChunkX);
+            json.addProperty("maxChunkZ", this.maxChunkZ);
+            json.addProperty("regionIndex", this.regionIndex);
+            json.addProperty("generatedChunks", this.generatedChunks);
+            json.addProperty("skippedChunks", this.skippedChunks);
+            json.addProperty("totalTime", this.totalTime);
+            try {
+                // Write to a temporary file first, a crash may never leave a broken checkpoint
+                final Path tempFile = this.checkpointFile.resolveSibling(this.checkpointFile.getFileName() + ".tmp");
+                Files.write(tempFile, GSON.toJson(json).getBytes(StandardCharsets.UTF_8));
+                Files.move(tempFile, this.checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LanternGame.log().warn("Failed to write the chunk pre-generation progress", e);
+            }
         }
 
-        private boolean checkTickTime(long tickTime) {
-            return this.tickPercent <= 0 || tickTime < this.tickTimeLimit;
+        private void deleteCheckpoint() {
+            try {
+                Files.deleteIfExists(this.checkpointFile);
+            } catch (IOException e) {
+                LanternGame.log().warn("Failed to delete the chunk pre-generation progress", e);
+            }
         }
 
     }
@@ -35,10 +35,15 @@
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.lanternpowered.server.component.BaseComponentHolder;
+import org.lanternpowered.server.config.world.WorldChunkCompression;
 import org.lanternpowered.server.config.world.WorldConfig;
 import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.data.io.anvil.AnvilChunkIOService;
+import org.lanternpowered.server.data.io.anvil.ChunkCompression;
+import org.lanternpowered.server.data.io.anvil.ChunkCompressions;
 import org.lanternpowered.server.effect.AbstractViewer;
+import org.lanternpowered.server.entity.EntityTracker;
+import org.lanternpowered.server.entity.LanternEntity;
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
 import org.lanternpowered.server.game.LanternGame;
 import org.lanternpowered.server.network.message.Message;
@@ -117,6 +122,7 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -152,6 +158,12 @@ public class LanternWorld extends BaseComponentHolder implements AbstractExtent,
     // The chunk manager of this world
     private final LanternChunkManager chunkManager;
 
+    // The entity tracker of this world
+    private final EntityTracker entityTracker = new EntityTracker();
+
+    // The players that are currently in this world
+    private final List<LanternPlayer> players = new CopyOnWriteArrayList<>();
+
     // The dimension instance attached to this world
     private final Dimension dimension;
 
@@ -171,8 +183,16 @@ public LanternWorld(LanternGame game, WorldConfig worldConfig, Path worldFolder,
         this.worldConfig = worldConfig;
         this.properties = properties;
         this.game = game;
+        // Get the chunk compression
+        final WorldChunkCompression compressionConfig = worldConfig.getChunkCompression();
+        ChunkCompression compression = ChunkCompressions.get(compressionConfig.getType(), compressionConfig.getLevel());
+        if (compression == null) {
+            LanternGame.log().warn("Unknown chunk compression type \"{}\" for the world {}, falling back to deflate.",
+                    compressionConfig.getType(), properties.getWorldName());
+            compression = ChunkCompressions.DEFLATE;
+        }
         // Create the chunk io service
-        final ChunkIOService chunkIOService = new AnvilChunkIOService(worldFolder.toFile(), properties);
+        final ChunkIOService chunkIOService = new AnvilChunkIOService(worldFolder.toFile(), properties, compression);
         // Get the chunk load service
         final LanternChunkTicketManager chunkLoadService = game.getChunkTicketManager();
         // Get the dimension type
@@ -257,7 +277,46 @@ void enableSpawnArea(boolean keepSpawnLoaded) {
      * @return the players
      */
     public List<LanternPlayer> getPlayers() {
-        return Lists.newArrayList();
+        return Lists.newArrayList(this.players);
+    }
+
+    /**
+     * Adds the entity to this world, this should only be called from the
+     * main thread through {@link LanternEntity#setWorld(LanternWorld)}.
+     *
+     * @param entity the entity
+     */
+    public void addEntity(LanternEntity entity) {
+        this.entityTracker.track(entity);
+        if (entity instanceof LanternPlayer) {
+            final LanternPlayer player = (LanternPlayer) entity;
+            this.players.add(player);
+            this.chunkManager.getChunkStreamer().addPlayer(player);
+        }
+    }
+
+    /**
+     * Removes the entity from this world, this should only be called from
+     * the main thread through {@link LanternEntity#setWorld(LanternWorld)}.
+     *
+     * @param entity the entity
+     */
+    public void removeEntity(LanternEntity entity) {
+        this.entityTracker.untrack(entity);
+        if (entity instanceof LanternPlayer) {
+            final LanternPlayer player = (LanternPlayer) entity;
+            this.players.remove(player);
+            this.chunkManager.getChunkStreamer().removePlayer(player);
+        }
+    }
+
+    /**
+     * Gets the entity tracker of this world.
+     *
+     * @return the entity tracker
+     */
+    public EntityTracker getEntityTracker() {
+        return this.entityTracker;
     }
 
     /**
@@ -902,8 +961,13 @@ public Optional<Entity> restoreSnapshot(EntitySnapshot snapshot, Vector3d positi
 
     @Override
     public boolean spawnEntity(Entity entity, Cause cause) {
-        // TODO Auto-generated method stub
-        return false;
+        checkNotNull(entity, "entity");
+        checkNotNull(cause, "cause");
+        if (!(entity instanceof LanternEntity) || entity.isRemoved()) {
+            return false;
+        }
+        ((LanternEntity) entity).setWorld(this);
+        return true;
     }
 
     @Override
@@ -925,6 +989,10 @@ public void pulse() {
         if (this.weatherUniverse != null) {
             this.weatherUniverse.pulse();
         }
+        // Send all the block changes of this tick
+        this.chunkManager.flushBlockChanges();
+        // Send all the entity changes of this tick
+        this.entityTracker.pulse();
     }
 
     public void broadcast(Supplier<Message> message) {
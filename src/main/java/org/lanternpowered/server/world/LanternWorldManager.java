@@ -29,11 +29,17 @@
 import com.flowpowered.math.vector.Vector3d;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.lanternpowered.server.config.GlobalConfig;
 import org.lanternpowered.server.config.world.WorldConfig;
+import org.lanternpowered.server.data.io.BackupArchive;
+import org.lanternpowered.server.data.io.ChunkIOService;
+import org.lanternpowered.server.data.io.ChunkStorageSnapshot;
+import org.lanternpowered.server.data.io.anvil.AnvilChunkIOService;
 import org.lanternpowered.server.game.LanternGame;
 import org.lanternpowered.server.world.LanternWorldPropertiesIO.LevelData;
 import org.spongepowered.api.entity.living.player.gamemode.GameModes;
@@ -48,32 +54,35 @@
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
 public final class LanternWorldManager {
 
-    // The counter for the executor threads
-    private final AtomicInteger counter = new AtomicInteger();
     // The executor for async world manager operations
-    private final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool(
-            runnable -> new Thread(runnable, "worlds-" + this.counter.getAndIncrement())));
+    private final ListeningExecutorService executor;
 
     // The name of the world configs
     static final String WORLD_CONFIG = "world.conf";
@@ -81,6 +90,21 @@ public final class LanternWorldManager {
     // The prefix used for (dimension) world folders
     static final String DIMENSION_PREFIX = "DIM";
 
+    // The folder of the region files within a world folder
+    private static final String REGION_FOLDER = "region";
+
+    // The temporary folder that is used to restore a backup
+    private static final String RESTORE_FOLDER = "restore.tmp";
+
+    // The lock file of a world folder
+    private static final String SESSION_LOCK = "session.lock";
+
+    // The folder where the backups are stored, next to the root world folder
+    private static final String BACKUPS_FOLDER = "backups";
+
+    // The formatter for the names of the backup archives, sortable by time
+    private static final DateTimeFormatter BACKUP_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss.SSS");
+
     // The size of the dimension map
     static final int DIMENSION_MAP_SIZE = Long.SIZE << 4;
 
@@ -99,6 +123,9 @@ private static class WorldLookupEntry {
         // The reference to the world instance
         @Nullable public volatile LanternWorld world;
 
+        // Whether the world is being restored from a backup, guarded by this entry
+        public boolean restoring;
+
         public WorldLookupEntry(LanternWorldProperties properties, Path folder,
                 int dimensionId) {
             this.dimensionId = dimensionId;
@@ -148,6 +175,7 @@ public LanternWorldManager(LanternGame game, Path rootWorldFolder) {
         this.rootWorldFolder = rootWorldFolder;
         this.globalConfig = game.getGlobalConfig();
         this.game = game;
+        this.executor = game.getScheduler().getAsyncExecutor().createBlockingExecutorService(game.getMinecraftPlugin());
     }
 
     /**
@@ -256,7 +284,7 @@ public boolean unloadWorld(World world) {
         final LanternWorld world0 = (LanternWorld) world;
         // We cannot unload the world if there are
         // still players active
-        if (world0.getPlayers().isEmpty()) {
+        if (!world0.getPlayers().isEmpty()) {
             return false;
         }
         // Post the unload world event
@@ -431,6 +459,303 @@ public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IO
         });
     }
 
+    /**
+     * Creates a backup of the world asynchronously. If the world is loaded, all the
+     * modified chunks will be saved first on the main thread and a copy-on-write
+     * snapshot of the region files is created afterwards, the chunk writes aren't
+     * blocked. The chunks are copied in the background. The future fails if the
+     * world doesn't exist.
+     *
+     * <p>An incremental backup only contains the chunks and files that were modified
+     * since the latest backup of the world, a full backup is made if the world
+     * doesn't have any backups yet.</p>
+     *
+     * @param worldProperties the world properties to backup
+     * @param full whether a full backup should be made
+     * @return the path of the backup archive, if the backup was successful
+     */
+    public ListenableFuture<Optional<Path>> backupWorld(WorldProperties worldProperties, boolean full) {
+        checkNotNull(worldProperties, "worldProperties");
+        final WorldLookupEntry entry = this.worldByProperties.get(worldProperties);
+        if (entry == null) {
+            return Futures.immediateFailedFuture(new IllegalArgumentException(
+                    "Unable to backup the unknown world " + worldProperties.getWorldName()));
+        }
+        // Save the changes once more on the main thread, so that they will be included
+        // in the snapshot, the chunks and properties are only modified by the ticks
+        final ListenableFuture<LanternWorld> flush = this.game.getScheduler().callSync(() -> {
+            this.saveWorldProperties(worldProperties);
+            final LanternWorld world = entry.world;
+            if (world != null) {
+                world.getChunkManager().saveAll();
+            }
+            return world;
+        });
+        return Futures.transform(flush, (AsyncFunction<LanternWorld, Optional<Path>>) world ->
+                this.executor.submit(() -> this.writeBackup(entry, world, full)));
+    }
+
+    private Optional<Path> writeBackup(WorldLookupEntry entry, @Nullable LanternWorld world, boolean full) throws IOException {
+        final LanternWorldProperties worldProperties = entry.properties;
+        final Path backupFolder = this.getBackupFolder(worldProperties);
+        Files.createDirectories(backupFolder);
+
+        // Find the archive that the new backup will be based on
+        String base = null;
+        int minTimestamp = 0;
+        if (!full) {
+            final Optional<Path> latest = getBackupArchives(backupFolder).stream().reduce((a, b) -> b);
+            if (latest.isPresent()) {
+                try {
+                    minTimestamp = BackupArchive.readHeader(latest.get()).getSnapshotTime();
+                    base = latest.get().getFileName().toString();
+                } catch (IOException e) {
+                    LanternGame.log().warn("Unable to read the latest backup {} of {}, creating a full backup",
+                            latest.get(), worldProperties.getWorldName(), e);
+                }
+            }
+        }
+        final String baseName = LocalDateTime.now().format(BACKUP_NAME_FORMATTER);
+        final String suffix = (base == null ? "-full" : "") + BackupArchive.EXTENSION;
+        String name = baseName + suffix;
+        // Never reuse the name of an existing archive, this would break the backup chain
+        for (int i = 1; name.equals(base) || Files.exists(backupFolder.resolve(name)); i++) {
+            name = baseName + '_' + i + suffix;
+        }
+        final Path archive = backupFolder.resolve(name);
+
+        // The world may be unloaded in the meantime, its chunk storage is closed then
+        final ChunkIOService chunkIOService;
+        if (world != null && entry.world == world) {
+            chunkIOService = world.getChunkManager().getChunkIOService();
+        } else {
+            world = null;
+            chunkIOService = new AnvilChunkIOService(entry.folder.toFile(), worldProperties);
+        }
+        final long start = System.currentTimeMillis();
+        try {
+            final List<Path> files = this.getBackupFiles(entry.folder, minTimestamp * 1000L);
+            final int chunks;
+            try (ChunkStorageSnapshot snapshot = chunkIOService.snapshot(minTimestamp)) {
+                chunks = BackupArchive.write(archive, base, snapshot, entry.folder, files);
+            }
+            LanternGame.log().info("Created the {} backup {} of the world {} with {} chunks in {} ms",
+                    base == null ? "full" : "incremental", archive.getFileName(), worldProperties.getWorldName(), chunks,
+                    System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            LanternGame.log().error("Failed to backup the world {}", worldProperties.getWorldName(), e);
+            return Optional.empty();
+        } finally {
+            if (world == null) {
+                chunkIOService.unload();
+            }
+        }
+        return Optional.of(archive);
+    }
+
+    /**
+     * Restores the world asynchronously from the specified backup, the world must
+     * be unloaded and can't be loaded until the restore is finished. The region files
+     * are rebuilt from the backup and all the archives it's based on, the other world
+     * files are restored except the level data, the current world properties are kept.
+     * The future fails if the world doesn't exist or is loaded.
+     *
+     * @param worldProperties the world properties to restore
+     * @param backupName the file name of the backup archive
+     * @return true if the restore was successful
+     */
+    public ListenableFuture<Boolean> restoreWorld(WorldProperties worldProperties, String backupName) {
+        checkNotNull(worldProperties, "worldProperties");
+        checkNotNull(backupName, "backupName");
+        final WorldLookupEntry entry = this.worldByProperties.get(worldProperties);
+        if (entry == null) {
+            return Futures.immediateFailedFuture(new IllegalArgumentException(
+                    "Unable to restore the unknown world " + worldProperties.getWorldName()));
+        }
+        // The world can't be loaded while it's being restored
+        synchronized (entry) {
+            if (entry.world != null) {
+                return Futures.immediateFailedFuture(new IllegalStateException(
+                        "Unable to restore the world " + worldProperties.getWorldName() + " while it's loaded"));
+            }
+            if (entry.restoring) {
+                return Futures.immediateFailedFuture(new IllegalStateException(
+                        "The world " + worldProperties.getWorldName() + " is already being restored"));
+            }
+            entry.restoring = true;
+        }
+        final ListenableFuture<Boolean> future;
+        try {
+            future = this.executor.submit(() -> this.restoreWorld(entry, backupName));
+        } catch (RejectedExecutionException e) {
+            synchronized (entry) {
+                entry.restoring = false;
+            }
+            return Futures.immediateFailedFuture(e);
+        }
+        future.addListener(() -> {
+            synchronized (entry) {
+                entry.restoring = false;
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    private boolean restoreWorld(WorldLookupEntry entry, String backupName) {
+        final LanternWorldProperties worldProperties = entry.properties;
+        final Path backupFolder = this.getBackupFolder(worldProperties);
+
+        // Collect all the archives that are needed, starting with the full backup
+        final Deque<Path> archives = new ArrayDeque<>();
+        Path archive = backupFolder.resolve(backupName.endsWith(BackupArchive.EXTENSION) ?
+                backupName : backupName + BackupArchive.EXTENSION);
+        try {
+            while (true) {
+                if (archives.contains(archive)) {
+                    throw new IOException("Circular backup chain at " + archive);
+                }
+                archives.addFirst(archive);
+                final Optional<String> base = BackupArchive.readHeader(archive).getBase();
+                if (!base.isPresent()) {
+                    break;
+                }
+                archive = backupFolder.resolve(base.get());
+            }
+        } catch (IOException e) {
+            LanternGame.log().error("Unable to read the backup {} of the world {}",
+                    archive, worldProperties.getWorldName(), e);
+            return false;
+        }
+
+        // Rebuild the world files in a temporary folder
+        final Path restoreFolder = entry.folder.resolve(RESTORE_FOLDER);
+        try {
+            deleteRecursively(restoreFolder);
+            Files.createDirectories(restoreFolder);
+            final ChunkIOService chunkIOService = new AnvilChunkIOService(restoreFolder.toFile(), worldProperties);
+            try {
+                for (Path archive0 : archives) {
+                    BackupArchive.restore(archive0, chunkIOService, restoreFolder);
+                }
+                // Chunks that were overwritten by the later archives left gaps behind
+                chunkIOService.compact(key -> false, 0.0);
+            } finally {
+                chunkIOService.unload();
+            }
+            // Replace the world files
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(restoreFolder)) {
+                for (Path path : stream) {
+                    final String fileName = path.getFileName().toString();
+                    // Keep the current level data, the world properties are still in use
+                    if (fileName.startsWith(LanternWorldPropertiesIO.LEVEL_DATA) ||
+                            fileName.startsWith(LanternWorldPropertiesIO.SPONGE_LEVEL_DATA)) {
+                        continue;
+                    }
+                    final Path target = entry.folder.resolve(fileName);
+                    deleteRecursively(target);
+                    Files.move(path, target);
+                }
+            }
+            deleteRecursively(restoreFolder);
+        } catch (IOException e) {
+            LanternGame.log().error("Failed to restore the world {} from the backup {}",
+                    worldProperties.getWorldName(), backupName, e);
+            return false;
+        }
+        LanternGame.log().info("Restored the world {} from the backup {}", worldProperties.getWorldName(), backupName);
+        return true;
+    }
+
+    /**
+     * Gets the folder where the backups of the world are stored.
+     *
+     * @param worldProperties the world properties
+     * @return the backup folder
+     */
+    public Path getBackupFolder(WorldProperties worldProperties) {
+        checkNotNull(worldProperties, "worldProperties");
+        return this.rootWorldFolder.toAbsolutePath().resolveSibling(BACKUPS_FOLDER).resolve(worldProperties.getWorldName());
+    }
+
+    /**
+     * Gets the backup archives in the folder, sorted from old to new.
+     *
+     * @param backupFolder the backup folder
+     * @return the backup archives
+     * @throws IOException if an i/o error occurs
+     */
+    static List<Path> getBackupArchives(Path backupFolder) throws IOException {
+        if (!Files.isDirectory(backupFolder)) {
+            return Collections.emptyList();
+        }
+        final List<Path> archives = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(backupFolder, "*" + BackupArchive.EXTENSION)) {
+            stream.forEach(archives::add);
+        }
+        // The names start with the creation time
+        archives.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        return archives;
+    }
+
+    /**
+     * Gets the files of the world folder that should be included in a backup, the region
+     * files and the folders of the other dimensions are excluded.
+     *
+     * @param folder the world folder
+     * @param modifiedSince the minimum modification time of the files, in milliseconds
+     * @return the files, relative to the world folder
+     * @throws IOException if an i/o error occurs
+     */
+    private List<Path> getBackupFiles(Path folder, long modifiedSince) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.equals(folder)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                final String name = dir.getFileName().toString();
+                if (dir.getParent().equals(folder) && (name.equals(REGION_FOLDER) || name.equals(RESTORE_FOLDER) ||
+                        name.startsWith(DIMENSION_PREFIX))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && attrs.lastModifiedTime().toMillis() >= modifiedSince &&
+                        !path.getFileName().toString().equals(SESSION_LOCK)) {
+                    files.add(folder.relativize(path));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
     /**
      * Persists the given {@link WorldProperties} to the world storage for it,
      * updating any modified values.
@@ -570,9 +895,21 @@ Optional<World> loadWorld(@Nullable WorldLookupEntry worldEntry) {
         if (worldEntry == null) {
             return Optional.empty();
         }
+        synchronized (worldEntry) {
+            return this.loadWorld0(worldEntry);
+        }
+    }
+
+    private Optional<World> loadWorld0(WorldLookupEntry worldEntry) {
         if (worldEntry.world != null) {
             return Optional.of(worldEntry.world);
         }
+        // The world files are being replaced
+        if (worldEntry.restoring) {
+            this.game.getLogger().warn("Unable to load the world {} while it's being restored from a backup.",
+                    worldEntry.properties.getWorldName());
+            return Optional.empty();
+        }
         WorldConfigResult result;
         try {
             result = this.getOrCreateWorldConfig(worldEntry.properties);
@@ -69,10 +69,10 @@ public final class LanternWorldPropertiesIO {
 
     private final static Gson GSON = new Gson();
 
-    private final static String LEVEL_DATA = "level.dat";
+    final static String LEVEL_DATA = "level.dat";
     private final static String LEVEL_DATA_OLD = "level.dat_old";
     private final static String LEVEL_DATA_NEW = "level.dat_new";
-    private final static String SPONGE_LEVEL_DATA = "level_sponge.dat";
+    final static String SPONGE_LEVEL_DATA = "level_sponge.dat";
     private final static String SPONGE_LEVEL_DATA_OLD = "level_sponge.dat_old";
     private final static String SPONGE_LEVEL_DATA_NEW = "level_sponge.dat_new";
     // private final static String BUKKIT_UUID_DATA = "uid.dat";
@@ -0,0 +1,112 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_VOLUME;
+
+import java.util.Arrays;
+
+/**
+ * Records all the block positions within a chunk section that were
+ * changed during a tick. Each position will only be recorded once,
+ * and if too many positions are changed, the section will be marked
+ * to be resent completely.
+ */
+final class BlockChangeRecorder {
+
+    /**
+     * The maximum amount of changes that will be recorded before the
+     * complete chunk section should be resent.
+     */
+    static final int MAX_CHANGES = 64;
+
+    // A bit set of all the changed positions, used to avoid duplicates
+    private final long[] changed = new long[CHUNK_SECTION_VOLUME >> 6];
+
+    // The changed indexes in the order that they were recorded
+    private final short[] indexes = new short[MAX_CHANGES];
+
+    // The amount of recorded indexes
+    private int count;
+
+    // Whether the complete section should be resent
+    private boolean full;
+
+    /**
+     * Records the change at the specified index.
+     *
+     * @param index the index within the chunk section
+     * @return whether this was the first change since the last drain
+     */
+    synchronized boolean record(int index) {
+        if (this.full) {
+            return false;
+        }
+        final boolean first = this.count == 0;
+        final int bitIndex = index >> 6;
+        final long bit = 1L << (index & 0x3f);
+        if ((this.changed[bitIndex] & bit) != 0) {
+            return first;
+        }
+        this.changed[bitIndex] |= bit;
+        if (this.count == MAX_CHANGES) {
+            this.full = true;
+        } else {
+            this.indexes[this.count++] = (short) index;
+        }
+        return first;
+    }
+
+    /**
+     * Marks the complete chunk section to be resent.
+     *
+     * @return whether this was the first change since the last drain
+     */
+    synchronized boolean recordAll() {
+        final boolean first = this.count == 0 && !this.full;
+        this.full = true;
+        return first;
+    }
+
+    /**
+     * Drains all the recorded changes into the target array, the
+     * target array should have at least the length of {@link #MAX_CHANGES}.
+     *
+     * @param target the target array
+     * @return the amount of drained indexes, or {@code -1} if the complete section should be resent
+     */
+    synchronized int drain(short[] target) {
+        final int count = this.full ? -1 : this.count;
+        if (count > 0) {
+            System.arraycopy(this.indexes, 0, target, 0, count);
+        }
+        if (this.full || this.count > 0) {
+            Arrays.fill(this.changed, 0L);
+        }
+        this.full = false;
+        this.count = 0;
+        return count;
+    }
+}
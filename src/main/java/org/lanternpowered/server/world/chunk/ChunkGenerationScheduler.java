@@ -0,0 +1,189 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.world.LanternWorld;
+import org.spongepowered.api.world.biome.BiomeType;
+import org.spongepowered.api.world.gen.Populator;
+import org.spongepowered.api.world.gen.WorldGenerator;
+
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the generation of chunks on the shared async executor of the server,
+ * this allows the terrain of many chunks to be generated in parallel without
+ * a thread pool per world.
+ *
+ * <p>The population of a chunk requires the terrain of the surrounding chunks
+ * because populators may place objects across the chunk borders, so a chunk
+ * will only be populated once all the chunks in the 3x3 area around it are
+ * loaded. The populators modify these neighbors as well, so the populations
+ * are run on the main thread, limited to a time budget per tick.</p>
+ */
+final class ChunkGenerationScheduler {
+
+    // The maximum time that may be spent on populations per tick
+    private static final long POPULATION_BUDGET = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final LanternChunkManager chunkManager;
+    private final LanternWorld world;
+    private final ExecutorService executor;
+
+    // The chunks whose population is claimed and that wait for the main thread
+    private final Queue<LanternChunk> readyPopulations = new ConcurrentLinkedQueue<>();
+
+    ChunkGenerationScheduler(LanternChunkManager chunkManager, LanternWorld world, ExecutorService executor) {
+        this.chunkManager = chunkManager;
+        this.world = world;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the amount of chunks that can be generated in parallel.
+     *
+     * @return the parallelism
+     */
+    int getParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Executes the specified task on the async executor.
+     *
+     * @param task the task
+     * @throws RejectedExecutionException if the scheduler is shut down
+     */
+    void execute(Runnable task) throws RejectedExecutionException {
+        this.executor.execute(task);
+    }
+
+    /**
+     * Should be called when the terrain of the chunk is present, this will
+     * queue the population of the chunk and the surrounding chunks if all
+     * their neighbors are present.
+     *
+     * @param chunk the chunk
+     */
+    void onTerrainReady(LanternChunk chunk) {
+        if (this.executor.isShutdown()) {
+            return;
+        }
+        final int x = chunk.getX();
+        final int z = chunk.getZ();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                final LanternChunk center = dx == 0 && dz == 0 ? chunk : this.chunkManager.getChunk(x + dx, z + dz);
+                if (center != null && !center.isPopulated() && this.hasNeighbors(center) && center.tryClaimPopulation()) {
+                    this.readyPopulations.add(center);
+                }
+            }
+        }
+    }
+
+    private boolean hasNeighbors(LanternChunk chunk) {
+        final int x = chunk.getX();
+        final int z = chunk.getZ();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (dx == 0 && dz == 0) {
+                    continue;
+                }
+                final LanternChunk neighbor = this.chunkManager.getChunk(x + dx, z + dz);
+                if (neighbor == null || !neighbor.isLoaded()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Populates the queued chunks until the time budget of this
+     * tick is used, should only be called from the main thread.
+     */
+    void pulse() {
+        final long deadline = System.nanoTime() + POPULATION_BUDGET;
+        LanternChunk chunk;
+        while ((chunk = this.readyPopulations.poll()) != null) {
+            // The chunk or one of its neighbors got unloaded in the meantime, the
+            // population will be queued again once all of them are loaded again
+            if (this.chunkManager.getChunk(chunk.getX(), chunk.getZ()) != chunk || !this.hasNeighbors(chunk)) {
+                chunk.releasePopulationClaim();
+                continue;
+            }
+            this.populate(chunk);
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+    }
+
+    private void populate(LanternChunk chunk) {
+        try {
+            // Use the same seed per chunk like the vanilla generator
+            final long seed = this.world.getProperties().getSeed();
+            final Random random = new Random(seed);
+            final long a = random.nextLong() / 2L * 2L + 1L;
+            final long b = random.nextLong() / 2L * 2L + 1L;
+            random.setSeed((long) chunk.getX() * a + (long) chunk.getZ() * b ^ seed);
+
+            final WorldGenerator worldGenerator = this.chunkManager.getWorldGenerator();
+            for (BiomeType biomeType : chunk.getBiomeTypes()) {
+                for (Populator populator : worldGenerator.getBiomeSettings(biomeType).getPopulators()) {
+                    populator.populate(chunk, random);
+                }
+            }
+            for (Populator populator : worldGenerator.getPopulators()) {
+                populator.populate(chunk, random);
+            }
+        } catch (Throwable e) {
+            LanternGame.log().error("Error while populating chunk ({};{})",
+                    chunk.getX(), chunk.getZ(), e);
+        }
+        chunk.setPopulated(true);
+    }
+
+    /**
+     * Stops accepting new generation tasks and waits
+     * for the running generation tasks to finish.
+     */
+    void shutdown() {
+        this.executor.shutdown();
+        this.readyPopulations.clear();
+        try {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LanternGame.log().warn("Timed out while waiting for the chunk generation tasks to finish.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
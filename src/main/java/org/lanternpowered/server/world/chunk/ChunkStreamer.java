@@ -0,0 +1,301 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.vector.Vector3d;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutUnloadChunk;
+import org.lanternpowered.server.world.LanternWorld;
+import org.spongepowered.api.event.cause.Cause;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Streams the chunks around the players of a world to their clients. The
+ * chunks are send nearest first and only a limited amount per tick, the
+ * content of each chunk is encoded once and shared between all the players
+ * that receive the same version of it. The players are registered as viewers
+ * of the chunks they received, chunks with viewers won't be unloaded.
+ *
+ * <p>This streamer is not thread-safe and should only be
+ * accessed from the main thread.</p>
+ */
+public final class ChunkStreamer {
+
+    // The view distance that is used if the client didn't specify one
+    public static final int DEFAULT_VIEW_DISTANCE = 10;
+
+    // The maximum view distance
+    private static final int MAX_VIEW_DISTANCE = 16;
+
+    // The maximum amount of chunks that will be send to a player each tick
+    private static final int CHUNKS_PER_TICK = 8;
+
+    // The maximum amount of chunks that will be requested for a player each tick
+    private static final int LOAD_REQUESTS_PER_TICK = 16;
+
+    private static final class StreamedPlayer {
+
+        private final LanternPlayer player;
+
+        // The chunks that were send to the client
+        private final TLongSet sentChunks = new TLongHashSet();
+
+        // The chunks that still have to be send, ordered by the distance to the center
+        private long[] queue = new long[0];
+        private int queueSize;
+
+        // The center and the view distance of the last update
+        private int centerX;
+        private int centerZ;
+        private int viewDistance = -1;
+
+        private StreamedPlayer(LanternPlayer player) {
+            this.player = player;
+        }
+    }
+
+    // The chunk manager of the world
+    private final LanternChunkManager chunkManager;
+
+    // The world
+    private final LanternWorld world;
+
+    // All the players whose chunks are streamed
+    private final Map<LanternPlayer, StreamedPlayer> players = new IdentityHashMap<>();
+
+    ChunkStreamer(LanternChunkManager chunkManager, LanternWorld world) {
+        this.chunkManager = chunkManager;
+        this.world = world;
+    }
+
+    private static int distance(long key, int centerX, int centerZ) {
+        return Math.max(Math.abs(LanternChunk.keyX(key) - centerX), Math.abs(LanternChunk.keyZ(key) - centerZ));
+    }
+
+    private static int getViewDistance(LanternPlayer player) {
+        final int viewDistance = player.getViewDistance();
+        return viewDistance <= 0 ? DEFAULT_VIEW_DISTANCE : Math.min(viewDistance, MAX_VIEW_DISTANCE);
+    }
+
+    /**
+     * Starts streaming the chunks around the player, the
+     * first chunks will be send in the next pulse.
+     *
+     * @param player the player
+     */
+    public void addPlayer(LanternPlayer player) {
+        checkNotNull(player, "player");
+        if (!this.players.containsKey(player)) {
+            this.players.put(player, new StreamedPlayer(player));
+        }
+    }
+
+    /**
+     * Stops streaming the chunks to the player. No unload messages
+     * are send, the client forgets all the chunks by itself when
+     * it leaves the world or disconnects.
+     *
+     * @param player the player
+     */
+    public void removePlayer(LanternPlayer player) {
+        checkNotNull(player, "player");
+        final StreamedPlayer streamedPlayer = this.players.remove(player);
+        if (streamedPlayer != null) {
+            final TLongIterator it = streamedPlayer.sentChunks.iterator();
+            while (it.hasNext()) {
+                this.release(player, it.next());
+            }
+        }
+    }
+
+    /**
+     * Unloads the chunk on the clients of all its viewers, called when the
+     * chunk is unloaded on the server. The chunk will be send again once
+     * it's reloaded if it's still in range of the viewers.
+     *
+     * @param chunk the chunk
+     */
+    void onUnload(LanternChunk chunk) {
+        final long key = chunk.getKey();
+        for (LanternPlayer viewer : chunk.getViewers()) {
+            chunk.removeViewer(viewer);
+            final StreamedPlayer streamedPlayer = this.players.get(viewer);
+            if (streamedPlayer != null && streamedPlayer.sentChunks.remove(key)) {
+                viewer.getConnection().send(new MessagePlayOutUnloadChunk(chunk.getX(), chunk.getZ()));
+                if (streamedPlayer.queueSize == streamedPlayer.queue.length) {
+                    streamedPlayer.queue = Arrays.copyOf(streamedPlayer.queue, streamedPlayer.queueSize + 1);
+                }
+                streamedPlayer.queue[streamedPlayer.queueSize++] = key;
+            }
+        }
+    }
+
+    /**
+     * Pulses the streamer, the chunks that got out of range will be unloaded
+     * on the client and the nearest missing chunks will be send.
+     */
+    public void pulse() {
+        final boolean skylight = this.world.getDimension().hasSky();
+        for (StreamedPlayer streamedPlayer : this.players.values()) {
+            final Vector3d position = streamedPlayer.player.getPosition();
+            final int centerX = (int) Math.floor(position.getX()) >> 4;
+            final int centerZ = (int) Math.floor(position.getZ()) >> 4;
+            final int viewDistance = getViewDistance(streamedPlayer.player);
+            if (centerX != streamedPlayer.centerX || centerZ != streamedPlayer.centerZ ||
+                    viewDistance != streamedPlayer.viewDistance) {
+                this.move(streamedPlayer, centerX, centerZ, viewDistance);
+            }
+            if (streamedPlayer.queueSize > 0) {
+                this.stream(streamedPlayer, skylight);
+            }
+        }
+    }
+
+    /**
+     * Unloads the chunks that got out of range and rebuilds the
+     * queue of chunks that still have to be send.
+     *
+     * @param streamedPlayer the streamed player
+     * @param centerX the new center chunk x coordinate
+     * @param centerZ the new center chunk z coordinate
+     * @param viewDistance the new view distance
+     */
+    private void move(StreamedPlayer streamedPlayer, int centerX, int centerZ, int viewDistance) {
+        streamedPlayer.centerX = centerX;
+        streamedPlayer.centerZ = centerZ;
+        streamedPlayer.viewDistance = viewDistance;
+
+        final TLongIterator it = streamedPlayer.sentChunks.iterator();
+        while (it.hasNext()) {
+            final long key = it.next();
+            if (distance(key, centerX, centerZ) > viewDistance) {
+                it.remove();
+                this.forget(streamedPlayer.player, key);
+            }
+        }
+
+        // Walk through the square rings around the center, this
+        // keeps the queue ordered by the distance to the center
+        final int size = viewDistance * 2 + 1;
+        final long[] queue = streamedPlayer.queue.length >= size * size ? streamedPlayer.queue : new long[size * size];
+        int queueSize = 0;
+        for (int r = 0; r <= viewDistance; r++) {
+            for (int i = -r; i <= r; i++) {
+                queueSize = queue(streamedPlayer, queue, queueSize, centerX + i, centerZ - r);
+                if (r != 0) {
+                    queueSize = queue(streamedPlayer, queue, queueSize, centerX + i, centerZ + r);
+                }
+            }
+            for (int i = -r + 1; i < r; i++) {
+                queueSize = queue(streamedPlayer, queue, queueSize, centerX - r, centerZ + i);
+                queueSize = queue(streamedPlayer, queue, queueSize, centerX + r, centerZ + i);
+            }
+        }
+        streamedPlayer.queue = queue;
+        streamedPlayer.queueSize = queueSize;
+    }
+
+    private static int queue(StreamedPlayer streamedPlayer, long[] queue, int queueSize, int x, int z) {
+        final long key = LanternChunk.key(x, z);
+        if (!streamedPlayer.sentChunks.contains(key)) {
+            queue[queueSize++] = key;
+        }
+        return queueSize;
+    }
+
+    /**
+     * Sends the nearest loaded chunks of the queue to the player, the
+     * missing chunks will be requested to be loaded asynchronously.
+     *
+     * @param streamedPlayer the streamed player
+     * @param skylight whether the sky light should be send
+     */
+    private void stream(StreamedPlayer streamedPlayer, boolean skylight) {
+        final LanternPlayer player = streamedPlayer.player;
+        final long[] queue = streamedPlayer.queue;
+        int sent = 0;
+        int requests = 0;
+        int queueSize = 0;
+        for (int i = 0; i < streamedPlayer.queueSize; i++) {
+            final long key = queue[i];
+            if (sent < CHUNKS_PER_TICK) {
+                final int x = LanternChunk.keyX(key);
+                final int z = LanternChunk.keyZ(key);
+                final LanternChunk chunk = this.chunkManager.getChunk(x, z);
+                if (chunk != null) {
+                    player.getConnection().send(new MessagePlayOutChunkData(chunk, skylight));
+                    streamedPlayer.sentChunks.add(key);
+                    // Register the player so that it receives the block changes
+                    chunk.addViewer(player);
+                    sent++;
+                    continue;
+                }
+                if (requests < LOAD_REQUESTS_PER_TICK) {
+                    this.chunkManager.getOrCreateChunkAsync(x, z, Cause.of(player), true);
+                    requests++;
+                }
+            }
+            queue[queueSize++] = key;
+        }
+        streamedPlayer.queueSize = queueSize;
+    }
+
+    /**
+     * Unloads the chunk on the client of the player.
+     *
+     * @param player the player
+     * @param key the chunk key
+     */
+    private void forget(LanternPlayer player, long key) {
+        player.getConnection().send(new MessagePlayOutUnloadChunk(LanternChunk.keyX(key), LanternChunk.keyZ(key)));
+        this.release(player, key);
+    }
+
+    /**
+     * Removes the player as viewer of the chunk, the chunk may
+     * be unloaded once it has no viewers and tickets left.
+     *
+     * @param player the player
+     * @param key the chunk key
+     */
+    private void release(LanternPlayer player, long key) {
+        final LanternChunk chunk = this.chunkManager.getChunk(LanternChunk.keyX(key), LanternChunk.keyZ(key));
+        if (chunk != null) {
+            chunk.removeViewer(player);
+            if (chunk.getViewers().isEmpty()) {
+                this.chunkManager.queueUnloadIfUnforced(chunk);
+            }
+        }
+    }
+}
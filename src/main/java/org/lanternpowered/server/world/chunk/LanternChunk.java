@@ -35,16 +35,30 @@
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import org.lanternpowered.server.block.LanternBlockSnapshot;
 import org.lanternpowered.server.block.LanternScheduledBlockUpdate;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
 import org.lanternpowered.server.game.registry.Registries;
+import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutBlockChange;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutMultiBlockChange;
 import org.lanternpowered.server.util.NibbleArray;
 import org.lanternpowered.server.util.VecHelper;
 import org.lanternpowered.server.util.concurrent.AtomicByteArray;
 import org.lanternpowered.server.util.concurrent.AtomicNibbleArray;
 import org.lanternpowered.server.util.concurrent.AtomicShortArray;
+import org.lanternpowered.server.util.gen.biome.AtomicShortArrayMutableBiomeBuffer;
+import org.lanternpowered.server.util.gen.biome.ShortArrayImmutableBiomeBuffer;
+import org.lanternpowered.server.util.gen.biome.ShortArrayMutableBiomeBuffer;
+import org.lanternpowered.server.util.gen.block.AtomicShortArrayMutableBlockBuffer;
+import org.lanternpowered.server.util.gen.block.ShortArrayBlockBuffer;
+import org.lanternpowered.server.util.gen.block.ShortArrayImmutableBlockBuffer;
+import org.lanternpowered.server.util.gen.block.ShortArrayMutableBlockBuffer;
 import org.lanternpowered.server.world.LanternWorld;
 import org.lanternpowered.server.world.extent.AbstractExtent;
+import org.lanternpowered.server.world.extent.BulkMutableBlockVolume;
 import org.lanternpowered.server.world.extent.ExtentViewDownsize;
 import org.lanternpowered.server.world.extent.ExtentViewTransform;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBiomeAreaWorker;
@@ -52,7 +66,6 @@
 import org.spongepowered.api.block.BlockSnapshot;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
-import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.block.ScheduledBlockUpdate;
 import org.spongepowered.api.block.tileentity.TileEntity;
 import org.spongepowered.api.data.DataContainer;
@@ -82,22 +95,30 @@
 import org.spongepowered.api.world.biome.BiomeType;
 import org.spongepowered.api.world.biome.BiomeTypes;
 import org.spongepowered.api.world.extent.Extent;
+import org.spongepowered.api.world.extent.ImmutableBiomeArea;
+import org.spongepowered.api.world.extent.ImmutableBlockVolume;
+import org.spongepowered.api.world.extent.MutableBiomeArea;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+import org.spongepowered.api.world.extent.StorageType;
 import org.spongepowered.api.world.extent.worker.MutableBiomeAreaWorker;
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
 
-public class LanternChunk implements AbstractExtent, Chunk {
+public class LanternChunk implements AbstractExtent, BulkMutableBlockVolume, Chunk {
 
     // The size of a chunk section in the x, y and z directions
     public static final int CHUNK_SECTION_SIZE = 16;
@@ -112,8 +133,43 @@ public class LanternChunk implements AbstractExtent, Chunk {
     // The height of a chunk
     public static final int CHUNK_HEIGHT = CHUNK_SECTION_SIZE * CHUNK_SECTIONS;
 
+    /**
+     * Packs the chunk coordinates into a single key.
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return the key
+     */
+    public static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xffffffffL);
+    }
+
+    /**
+     * Gets the x coordinate from the packed chunk key.
+     *
+     * @param key the key
+     * @return the x coordinate
+     */
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Gets the z coordinate from the packed chunk key.
+     *
+     * @param key the key
+     * @return the z coordinate
+     */
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
     public static class ChunkSection {
 
+        // The updater of the non air count, blocks may be changed by multiple threads
+        private static final AtomicIntegerFieldUpdater<ChunkSection> nonAirCountUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(ChunkSection.class, "nonAirCount");
+
         // The block types array.
         public final AtomicShortArray types;
 
@@ -182,12 +238,23 @@ public int index(int x, int y, int z) {
          * Recounts the amount of non air blocks.
          */
         public void recountNonAir() {
-            this.nonAirCount = 0;
+            int nonAirCount = 0;
             for (int i = 0; i < this.types.length(); i++) {
                 if (this.types.get(i) != 0) {
-                    this.nonAirCount++;
+                    nonAirCount++;
                 }
             }
+            this.nonAirCount = nonAirCount;
+        }
+
+        /**
+         * Adds the delta to the amount of non air blocks.
+         *
+         * @param delta the delta
+         * @return the new amount of non air blocks
+         */
+        int addNonAirCount(int delta) {
+            return nonAirCountUpdater.addAndGet(this, delta);
         }
     }
 
@@ -210,9 +277,33 @@ public void recountNonAir() {
     private final int x;
     private final int z;
 
+    // The packed coordinates of this chunk
+    private final long key;
+
     private volatile boolean loaded;
     private volatile boolean populated;
 
+    // Whether the population of this chunk is claimed
+    private final AtomicBoolean populating = new AtomicBoolean();
+
+    // The version of this chunk that was last written to or read from the disk
+    volatile int savedVersion = -1;
+
+    // The modification version of this chunk, this will be increased
+    // every time that the content of the chunk that is visible for
+    // the client is changed
+    private final AtomicInteger version = new AtomicInteger();
+
+    // The players that have this chunk loaded on the client
+    private final Set<LanternPlayer> viewers = Sets.newConcurrentHashSet();
+
+    // The block changes of every chunk section that should
+    // be send to the viewers at the end of the tick
+    private final AtomicReferenceArray<BlockChangeRecorder> blockChanges = new AtomicReferenceArray<>(CHUNK_SECTIONS);
+
+    // Whether this chunk is queued to flush the block changes
+    private final AtomicBoolean blockChangesQueued = new AtomicBoolean();
+
     @Nullable private AtomicByteArray heightMap;
     @Nullable private AtomicReferenceArray<ChunkSection> sections = new AtomicReferenceArray<>(CHUNK_SECTIONS);
     @Nullable private AtomicShortArray biomes;
@@ -221,6 +312,7 @@ public LanternChunk(LanternWorld world, int x, int z) {
         this.world = world;
         this.x = x;
         this.z = z;
+        this.key = key(x, z);
 
         this.pos = new Vector3i(x, 0, z);
         this.min = LanternChunkLayout.INSTANCE.toWorld(this.pos).get();
@@ -239,6 +331,7 @@ public void initializeSections(ChunkSection[] sections) {
                 + sections.length + ", but expected " + CHUNK_SECTION_VOLUME);
         this.sections = new AtomicReferenceArray<>(sections);
         this.loaded = true;
+        this.version.incrementAndGet();
     }
 
     public void initializeEmpty() {
@@ -249,6 +342,198 @@ public void initializeEmpty() {
         this.sections = new AtomicReferenceArray<>(CHUNK_SECTIONS);
         this.biomes = new AtomicShortArray(CHUNK_AREA);
         this.loaded = true;
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * Gets the modification version of this chunk. The version will
+     * be increased every time that the blocks or biomes of this chunk
+     * are modified or that the sections are initialized, this can be
+     * used to determine whether cached data of this chunk is still valid.
+     *
+     * <p>The light is only written together with the sections, there
+     * are no separate light updates yet. Any code that modifies the light
+     * of a loaded chunk has to increase the version as well.</p>
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * Estimates the amount of memory in bytes that is used by the
+     * block, light, biome and height map data of this chunk.
+     *
+     * @return the estimated memory size
+     */
+    int getEstimatedMemorySize() {
+        // The base size of the chunk object and the height map and biomes
+        int size = 1024 + CHUNK_AREA + CHUNK_AREA * 2;
+        final AtomicReferenceArray<ChunkSection> sections = this.sections;
+        if (sections != null) {
+            for (int i = 0; i < CHUNK_SECTIONS; i++) {
+                if (sections.get(i) != null) {
+                    // The block types and the two light arrays
+                    size += CHUNK_SECTION_VOLUME * 2 + CHUNK_SECTION_VOLUME;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Adds a player that has this chunk loaded on the client. The
+     * player will receive all the block changes of this chunk.
+     *
+     * @param player the player
+     */
+    public void addViewer(LanternPlayer player) {
+        this.viewers.add(player);
+    }
+
+    /**
+     * Removes a player that no longer has this chunk loaded on the client.
+     *
+     * @param player the player
+     */
+    public void removeViewer(LanternPlayer player) {
+        this.viewers.remove(player);
+    }
+
+    /**
+     * Gets the players that have this chunk loaded on the client.
+     *
+     * @return the viewers
+     */
+    public Set<LanternPlayer> getViewers() {
+        return this.viewers;
+    }
+
+    /**
+     * Records a block change at the specified index within the chunk
+     * section, the change will only be recorded if there are players
+     * that can see this chunk.
+     *
+     * @param sy the chunk section y coordinate
+     * @param index the index within the chunk section
+     */
+    private void recordBlockChange(int sy, int index) {
+        if (this.viewers.isEmpty()) {
+            return;
+        }
+        if (this.getBlockChangeRecorder(sy).record(index) && this.blockChangesQueued.compareAndSet(false, true)) {
+            this.world.getChunkManager().queueBlockChanges(this);
+        }
+    }
+
+    /**
+     * Records that the complete chunk section changed, the change will
+     * only be recorded if there are players that can see this chunk.
+     *
+     * @param sy the chunk section y coordinate
+     */
+    private void recordSectionChange(int sy) {
+        if (this.viewers.isEmpty()) {
+            return;
+        }
+        if (this.getBlockChangeRecorder(sy).recordAll() && this.blockChangesQueued.compareAndSet(false, true)) {
+            this.world.getChunkManager().queueBlockChanges(this);
+        }
+    }
+
+    private BlockChangeRecorder getBlockChangeRecorder(int sy) {
+        BlockChangeRecorder recorder = this.blockChanges.get(sy);
+        while (recorder == null) {
+            if (!this.blockChanges.compareAndSet(sy, null, recorder = new BlockChangeRecorder())) {
+                recorder = this.blockChanges.get(sy);
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * Sends all the block changes that were recorded since the last
+     * flush to the players that can see this chunk. Depending on the
+     * amount of changes will a single block change, a multi block
+     * change or the complete chunk sections be send.
+     */
+    void flushBlockChanges() {
+        this.blockChangesQueued.set(false);
+
+        final short[] indexes = new short[BlockChangeRecorder.MAX_CHANGES];
+        short[] positions = null;
+        short[] blockStates = null;
+        int length = 0;
+
+        MessagePlayOutChunkData.Section[] resendSections = null;
+        final boolean skylight = this.world.getDimension().hasSky();
+
+        for (int sy = 0; sy < CHUNK_SECTIONS; sy++) {
+            final BlockChangeRecorder recorder = this.blockChanges.get(sy);
+            if (recorder == null) {
+                continue;
+            }
+            final int count = recorder.drain(indexes);
+            if (count == 0) {
+                continue;
+            }
+            final ChunkSection section = this.sections.get(sy);
+            if (count < 0) {
+                if (resendSections == null) {
+                    resendSections = new MessagePlayOutChunkData.Section[CHUNK_SECTIONS];
+                }
+                resendSections[sy] = createSectionData(section, skylight);
+                continue;
+            }
+            if (positions == null) {
+                positions = new short[CHUNK_SECTIONS * BlockChangeRecorder.MAX_CHANGES];
+                blockStates = new short[positions.length];
+            }
+            for (int i = 0; i < count; i++) {
+                final int index = indexes[i];
+                // The position relative to the chunk column
+                positions[length] = (short) (sy << 12 | index);
+                // Always send the latest state, multiple changes
+                // at the same position are merged this way
+                blockStates[length] = section == null ? 0 : section.types.get(index);
+                length++;
+            }
+        }
+
+        if (this.viewers.isEmpty()) {
+            return;
+        }
+        final Message blockChangeMessage;
+        if (length == 1) {
+            final int position = positions[0];
+            blockChangeMessage = new MessagePlayOutBlockChange(new Vector3i(this.x << 4 | position & 0xf,
+                    (position >> 8) & 0xff, this.z << 4 | (position >> 4) & 0xf), blockStates[0] & 0xffff);
+        } else if (length > 1) {
+            blockChangeMessage = new MessagePlayOutMultiBlockChange(this.x, this.z, positions, blockStates, length);
+        } else {
+            blockChangeMessage = null;
+        }
+        final Message sectionsMessage = resendSections == null ? null :
+                new MessagePlayOutChunkData(this.x, this.z, skylight, resendSections, null);
+        for (LanternPlayer viewer : this.viewers) {
+            if (sectionsMessage != null) {
+                viewer.getConnection().send(sectionsMessage);
+            }
+            if (blockChangeMessage != null) {
+                viewer.getConnection().send(blockChangeMessage);
+            }
+        }
+    }
+
+    private static MessagePlayOutChunkData.Section createSectionData(@Nullable ChunkSection section, boolean skylight) {
+        if (section == null) {
+            // The section was removed, send a empty one
+            return new MessagePlayOutChunkData.Section(new short[CHUNK_SECTION_VOLUME],
+                    new byte[CHUNK_SECTION_VOLUME >> 1], skylight ? new byte[CHUNK_SECTION_VOLUME >> 1] : null);
+        }
+        return new MessagePlayOutChunkData.Section(section.types.getArray(), section.lightFromBlock.getPackedArray(),
+                skylight ? section.lightFromSky.getPackedArray() : null);
     }
 
     public ChunkSection[] getSections() {
@@ -267,6 +552,7 @@ public void initializeBiomes(short[] biomes) {
             throw new IllegalStateException("Biomes array not of length " + CHUNK_AREA);
         }
         this.biomes = new AtomicShortArray(biomes);
+        this.version.incrementAndGet();
     }
 
     /**
@@ -337,6 +623,26 @@ public void automaticHeightMap() {
 
     public void setPopulated(boolean populated) {
         this.populated = populated;
+        // The chunk has to be saved again
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * Attempts to claim the population of this chunk, only one
+     * caller will be able to populate the chunk.
+     *
+     * @return whether the population was claimed
+     */
+    boolean tryClaimPopulation() {
+        return !this.populated && this.populating.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the claim of the population of this chunk
+     * without populating it, it can be claimed again.
+     */
+    void releasePopulationClaim() {
+        this.populating.set(false);
     }
 
     /**
@@ -357,6 +663,16 @@ public int getZ() {
         return this.z;
     }
 
+    /**
+     * Gets the packed coordinates of the chunk.
+     *
+     * @return the key
+     * @see #key(int, int)
+     */
+    public long getKey() {
+        return this.key;
+    }
+
     /**
      * Gets a array with all the biomes.
      * 
@@ -366,6 +682,28 @@ public short[] getBiomes() {
         return this.biomes.getArray();
     }
 
+    /**
+     * Gets all the biome types that are used in this chunk.
+     *
+     * @return the biome types
+     */
+    Set<BiomeType> getBiomeTypes() {
+        final AtomicShortArray biomes = this.biomes;
+        if (biomes == null) {
+            return ImmutableSet.of();
+        }
+        final Set<BiomeType> biomeTypes = Sets.newHashSet();
+        final short[] biomeIds = biomes.getArray();
+        short lastBiomeId = -1;
+        for (short biomeId : biomeIds) {
+            if (biomeId != lastBiomeId) {
+                biomeTypes.add(Registries.getBiomeRegistry().getByInternalId(biomeId).orElse(BiomeTypes.OCEAN));
+                lastBiomeId = biomeId;
+            }
+        }
+        return biomeTypes;
+    }
+
     /**
      * Gets the biome at the coordinates.
      * 
@@ -375,7 +713,7 @@ public short[] getBiomes() {
      */
     public short getBiomeId(int x, int z) {
         this.checkAreaBounds(x, z);
-        return this.biomes.get(z << 4 | x & 0xf);
+        return this.biomes.get((z & 0xf) << 4 | x & 0xf);
     }
 
     /**
@@ -387,7 +725,8 @@ public short getBiomeId(int x, int z) {
      */
     public void setBiomeId(int x, int z, short biome) {
         this.checkAreaBounds(x, z);
-        this.biomes.set(z << 4 | x, biome);
+        this.biomes.set((z & 0xf) << 4 | x & 0xf, biome);
+        this.version.incrementAndGet();
     }
 
     /**
@@ -444,36 +783,186 @@ public void setType(int x, int y, int z, short type) {
         if (section == null) {
             if (type == 0) {
                 return;
-            } else {
-                int y0 = y >> 4;
-                if (y0 < 0 || y0 >= this.sections.length()) {
-                    return;
+            }
+            section = this.getOrCreateSection(y >> 4);
+        }
+
+        // Store the new type, the non air count is updated based on the
+        // replaced type so that concurrent changes are counted correctly
+        final int index = section.index(x, y & 0xf, z);
+        final short oldType = (short) section.types.getAndSet(index, type);
+        if (oldType == type) {
+            return;
+        }
+        this.version.incrementAndGet();
+        this.recordBlockChange(y >> 4, index);
+        if (oldType == 0) {
+            section.addNonAirCount(1);
+        } else if (type == 0 && section.addNonAirCount(-1) <= 0) {
+            // Destroy empty sections
+            this.sections.compareAndSet(y >> 4, section, null);
+        }
+    }
+
+    private ChunkSection getOrCreateSection(int sy) {
+        ChunkSection section = this.sections.get(sy);
+        while (section == null) {
+            if (!this.sections.compareAndSet(sy, null, section = new ChunkSection())) {
+                section = this.sections.get(sy);
+            }
+        }
+        return section;
+    }
+
+    @Override
+    public void fillBlocks(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState block) {
+        BulkMutableBlockVolume.checkBulkRange(this, minX, minY, minZ, maxX, maxY, maxZ);
+        this.fillTypes(minX, minY, minZ, maxX, maxY, maxZ, Registries.getBlockRegistry().getStateInternalIdAndData(block));
+    }
+
+    /**
+     * Fills the cuboid between the specified positions (inclusive) with
+     * the block type, the positions must be within the chunk bounds.
+     *
+     * @param minX the minimum x coordinate
+     * @param minY the minimum y coordinate
+     * @param minZ the minimum z coordinate
+     * @param maxX the maximum x coordinate
+     * @param maxY the maximum y coordinate
+     * @param maxZ the maximum z coordinate
+     * @param type the block type
+     */
+    void fillTypes(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, short type) {
+        // Air doesn't have metadata values
+        if (type >> 4 == 0 && type != 0) {
+            type = 0;
+        }
+
+        final int[] changes = new int[BlockChangeRecorder.MAX_CHANGES];
+        for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+            ChunkSection section = this.sections.get(sy);
+            if (section == null) {
+                if (type == 0) {
+                    continue;
                 }
-                while (section == null) {
-                    if (!this.sections.compareAndSet(y0, null, section = new ChunkSection())) {
-                        section = this.sections.get(y0);
+                section = this.getOrCreateSection(sy);
+            }
+            final int minY0 = Math.max(minY, sy << 4) & 0xf;
+            final int maxY0 = Math.min(maxY, (sy << 4) | 0xf) & 0xf;
+            int nonAirDelta = 0;
+            int changeCount = 0;
+            for (int y = minY0; y <= maxY0; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    int index = (y << 8) | (z << 4) | minX;
+                    for (int x = minX; x <= maxX; x++, index++) {
+                        final short oldType = (short) section.types.getAndSet(index, type);
+                        if (oldType != type) {
+                            if (oldType == 0) {
+                                nonAirDelta++;
+                            } else if (type == 0) {
+                                nonAirDelta--;
+                            }
+                            if (changeCount < changes.length) {
+                                changes[changeCount] = index;
+                            }
+                            changeCount++;
+                        }
                     }
                 }
             }
+            this.finishBulkChange(sy, section, nonAirDelta, changes, changeCount);
         }
+    }
 
-        int index = section.index(x, y & 0xf, z);
-        if (type == 0) {
-            if (section.types.get(index) != 0) {
-                section.nonAirCount--;
+    @Override
+    public void fillLayer(int y, BlockState block) {
+        this.fillBlocks(0, y, 0, CHUNK_MASK.getX(), y, CHUNK_MASK.getZ(), block);
+    }
+
+    @Override
+    public void copyBlocks(ShortArrayBlockBuffer source, Vector3i sourceMin, Vector3i sourceMax, Vector3i destination) {
+        BulkMutableBlockVolume.checkBulkRange(source, sourceMin.getX(), sourceMin.getY(), sourceMin.getZ(),
+                sourceMax.getX(), sourceMax.getY(), sourceMax.getZ());
+        final Vector3i offset = destination.sub(sourceMin);
+        BulkMutableBlockVolume.checkBulkRange(this, destination.getX(), destination.getY(), destination.getZ(),
+                sourceMax.getX() + offset.getX(), sourceMax.getY() + offset.getY(), sourceMax.getZ() + offset.getZ());
+        final int minY = destination.getY();
+        final int maxY = sourceMax.getY() + offset.getY();
+        final short[] column = new short[CHUNK_SECTION_SIZE];
+        final int[] changes = new int[BlockChangeRecorder.MAX_CHANGES];
+        // Copy the part of every column that overlaps with the section at once,
+        // the non air count and the changes are applied once per section
+        for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+            ChunkSection section = this.sections.get(sy);
+            final int minY0 = Math.max(minY, sy << 4);
+            final int length = Math.min(maxY, (sy << 4) | 0xf) - minY0 + 1;
+            final int sourceY = minY0 - offset.getY();
+            int nonAirDelta = 0;
+            int changeCount = 0;
+            for (int x = sourceMin.getX(); x <= sourceMax.getX(); x++) {
+                for (int z = sourceMin.getZ(); z <= sourceMax.getZ(); z++) {
+                    source.copyColumn(x, z, sourceY, column, 0, length);
+                    int index = ((minY0 & 0xf) << 8) | ((z + offset.getZ()) << 4) | (x + offset.getX());
+                    for (int i = 0; i < length; i++, index += CHUNK_AREA) {
+                        short type = column[i];
+                        // Air doesn't have metadata values
+                        if (type >> 4 == 0) {
+                            type = 0;
+                        }
+                        if (section == null) {
+                            if (type == 0) {
+                                continue;
+                            }
+                            section = this.getOrCreateSection(sy);
+                        }
+                        final short oldType = (short) section.types.getAndSet(index, type);
+                        if (oldType != type) {
+                            if (oldType == 0) {
+                                nonAirDelta++;
+                            } else if (type == 0) {
+                                nonAirDelta--;
+                            }
+                            if (changeCount < changes.length) {
+                                changes[changeCount] = index;
+                            }
+                            changeCount++;
+                        }
+                    }
+                }
             }
-        } else {
-            if (section.types.get(index) == 0) {
-                section.nonAirCount++;
+            if (section != null) {
+                this.finishBulkChange(sy, section, nonAirDelta, changes, changeCount);
             }
         }
+    }
 
-        // Store the new type
-        section.types.set(index, type);
+    /**
+     * Applies the non air count and records the changes of a bulk
+     * operation on a single section.
+     *
+     * @param sy the chunk section y coordinate
+     * @param section the chunk section
+     * @param nonAirDelta the change of the non air count
+     * @param changes the indexes of the changed blocks
+     * @param changeCount the amount of changed blocks, may be greater than the changes array
+     */
+    private void finishBulkChange(int sy, ChunkSection section, int nonAirDelta, int[] changes, int changeCount) {
+        if (changeCount == 0) {
+            return;
+        }
+        final int nonAirCount = section.addNonAirCount(nonAirDelta);
+        this.version.incrementAndGet();
+        if (changeCount > changes.length) {
+            this.recordSectionChange(sy);
+        } else {
+            for (int i = 0; i < changeCount; i++) {
+                this.recordBlockChange(sy, changes[i]);
+            }
+        }
 
         // Destroy empty sections
-        if (section.nonAirCount <= 0) {
-            this.sections.set(y >> 4, null);
+        if (nonAirCount <= 0) {
+            this.sections.compareAndSet(sy, section, null);
         }
     }
 
@@ -501,13 +990,14 @@ public void setMetadata(int x, int y, int z, int metadata) {
         ChunkSection section = this.getSectionAtHeight(y);
 
         if (section != null) {
-            int index = section.index(x, y, z);
+            int index = section.index(x, y & 0xf, z);
             short value = section.types.get(index);
             int id = section.types.get(index) >> 4;
 
             // Only non air blocks can have metadata
-            if (id != 0) {
-                section.types.compareAndSet(index, value, (short) (id << 4 | metadata & 0xf));
+            if (id != 0 && section.types.compareAndSet(index, value, (short) (id << 4 | metadata & 0xf))) {
+                this.version.incrementAndGet();
+                this.recordBlockChange(y >> 4, index);
             }
         }
     }
@@ -774,7 +1264,7 @@ public boolean containsBlock(int x, int y, int z) {
 
     @Override
     public BlockState getBlock(int x, int y, int z) {
-        return Registries.getBlockRegistry().getStateByInternalIdAndData(this.getType(x, y, z)).orElse(BlockTypes.AIR.getDefaultState());
+        return Registries.getBlockRegistry().getStateByInternalIdAndDataOrAir(this.getType(x, y, z));
     }
 
     @Override
@@ -812,6 +1302,79 @@ public BiomeType getBiome(int x, int z) {
         return Registries.getBiomeRegistry().getByInternalId(this.getBiomeId(x, z)).orElse(BiomeTypes.OCEAN);
     }
 
+    /**
+     * Copies all the biome ids of this chunk into a new array, the
+     * array uses the layout of the short array biome buffers.
+     *
+     * @return the biome ids
+     */
+    private short[] copyBiomesToBuffer() {
+        final AtomicShortArray biomes = this.biomes;
+        // The chunk layout matches the layout of the biome buffers
+        return biomes == null ? new short[CHUNK_AREA] : biomes.getArray();
+    }
+
+    /**
+     * Copies all the block types of this chunk into a new array, the
+     * array uses the layout of the short array block buffers.
+     *
+     * @return the block types
+     */
+    private short[] copyTypesToBuffer() {
+        final short[] copy = new short[CHUNK_SECTION_VOLUME * CHUNK_SECTIONS];
+        final short[] types = new short[CHUNK_SECTION_VOLUME];
+        for (int sy = 0; sy < CHUNK_SECTIONS; sy++) {
+            final ChunkSection section = this.sections.get(sy);
+            // Empty sections are only air
+            if (section == null) {
+                continue;
+            }
+            section.types.getArray(types);
+            final int yOffset = sy << 4;
+            // The sections are stored with x as inner most coordinate,
+            // the buffers are stored with y as inner most coordinate
+            for (int index = 0; index < CHUNK_SECTION_VOLUME; index++) {
+                final int column = (index & 0xf) << 4 | (index >> 4) & 0xf;
+                copy[column * CHUNK_HEIGHT + yOffset + (index >> 8)] = types[index];
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public MutableBiomeArea getBiomeCopy(StorageType type) {
+        switch (type) {
+            case STANDARD:
+                return new ShortArrayMutableBiomeBuffer(this.copyBiomesToBuffer(), this.areaMin, CHUNK_AREA_SIZE);
+            case THREAD_SAFE:
+                return new AtomicShortArrayMutableBiomeBuffer(this.copyBiomesToBuffer(), this.areaMin, CHUNK_AREA_SIZE);
+            default:
+                throw new UnsupportedOperationException(type.name());
+        }
+    }
+
+    @Override
+    public ImmutableBiomeArea getImmutableBiomeCopy() {
+        return ShortArrayImmutableBiomeBuffer.newWithoutArrayClone(this.copyBiomesToBuffer(), this.areaMin, CHUNK_AREA_SIZE);
+    }
+
+    @Override
+    public MutableBlockVolume getBlockCopy(StorageType type) {
+        switch (type) {
+            case STANDARD:
+                return new ShortArrayMutableBlockBuffer(this.copyTypesToBuffer(), this.min, CHUNK_SIZE);
+            case THREAD_SAFE:
+                return new AtomicShortArrayMutableBlockBuffer(this.copyTypesToBuffer(), this.min, CHUNK_SIZE);
+            default:
+                throw new UnsupportedOperationException(type.name());
+        }
+    }
+
+    @Override
+    public ImmutableBlockVolume getImmutableBlockCopy() {
+        return ShortArrayImmutableBlockBuffer.newWithoutArrayClone(this.copyTypesToBuffer(), this.min, CHUNK_SIZE);
+    }
+
     @Override
     public <T extends Property<?, ?>> Optional<T> getProperty(int x, int y, int z, Direction direction, Class<T> propertyClass) {
         return this.getProperty0(x, y, z, direction, propertyClass);
@@ -36,13 +36,17 @@
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
-import com.google.common.collect.MapMaker;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.linked.TLongLinkedList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import org.lanternpowered.server.config.world.WorldConfig;
 import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.game.LanternGame;
 import org.lanternpowered.server.game.registry.Registries;
+import org.lanternpowered.server.network.vanilla.message.codec.play.ChunkDataCache;
+import org.lanternpowered.server.util.concurrent.ConcurrentLongObjectHashMap;
 import org.lanternpowered.server.util.gen.biome.ShortArrayMutableBiomeBuffer;
 import org.lanternpowered.server.util.gen.block.AbstractMutableBlockBuffer;
 import org.lanternpowered.server.util.gen.block.AtomicShortArrayMutableBlockBuffer;
@@ -50,11 +54,11 @@
 import org.lanternpowered.server.util.gen.block.ShortArrayMutableBlockBuffer;
 import org.lanternpowered.server.world.LanternWorld;
 import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+import org.lanternpowered.server.world.extent.BulkMutableBlockVolume;
 import org.lanternpowered.server.world.extent.ExtentBufferHelper;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBiomeAreaWorker;
 import org.lanternpowered.server.world.extent.worker.LanternMutableBlockVolumeWorker;
 import org.spongepowered.api.block.BlockState;
-import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.event.SpongeEventFactory;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.world.chunk.ForcedChunkEvent;
@@ -81,36 +85,105 @@
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.Nullable;
 
-public final class LanternChunkManager {
+public class LanternChunkManager {
 
     // The maximum amount of chunks that may be loaded during
     // a game tick
     private static final int CHUNK_LOADING_LIMIT = 100;
 
+    // The key that is returned when no forced chunk is queued, this
+    // can never be a valid chunk because of the world border
+    private static final long NO_CHUNK = Long.MIN_VALUE;
+
     // All the attached tickets mapped by the forced chunk coordinates
-    private final Map<Vector2i, Set<LanternLoadingTicket>> ticketsByPos = Maps.newConcurrentMap();
+    private final ConcurrentLongObjectHashMap<Set<LanternLoadingTicket>> ticketsByPos = new ConcurrentLongObjectHashMap<>();
 
     // All the loading tickets that are still usable
     private final Set<LanternLoadingTicket> tickets = Sets.newConcurrentHashSet();
 
     // All the chunks that are loaded into the server
-    private final Map<Vector2i, LanternChunk> loadedChunks = Maps.newConcurrentMap();
+    private final ConcurrentLongObjectHashMap<LanternChunk> loadedChunks = new ConcurrentLongObjectHashMap<>();
+
+    // A cache of the recently unloaded chunks, these can be
+    // loaded again without reading them from the disk
+    private final WarmChunkCache warmChunks;
+
+    // A queue of all the chunks that should be loaded, the keys that are
+    // no longer present in the set were unforced in the meantime
+    private final TLongList forcedChunkLoadingQueue = new TLongLinkedList();
+    private final TLongSet forcedChunkLoadingSet = new TLongHashSet();
+
+    // All the loaded chunks that will be unloaded because they don't have
+    // any attached tickets, mapped by the chunk key
+    private final ConcurrentLongObjectHashMap<PendingUnload> pendingUnloads = new ConcurrentLongObjectHashMap<>();
+
+    // A queue with all the pending unloads, ordered by the queued deadline
+    private final ConcurrentLinkedQueue<PendingUnload> pendingUnloadQueue = new ConcurrentLinkedQueue<>();
+
+    // The amount of ticks that a chunk without tickets stays loaded
+    private final int unloadDelay;
+
+    // The current tick of the chunk manager
+    private volatile long tick;
+
+    // The amount of chunks that were revived from the warm chunk cache
+    private final LongAdder reviveHits = new LongAdder();
+
+    // The amount of chunks that had to be read from the disk or generated
+    private final LongAdder reviveMisses = new LongAdder();
+
+    // The amount of chunks that were revived within the unload delay after
+    // they were unloaded, a high value means that the delay is too short
+    private final LongAdder thrashCount = new LongAdder();
+
+    // The amount of chunks that were forced again before they were unloaded
+    private final LongAdder cancelledUnloads = new LongAdder();
+
+    // The chunks that are being loaded or generated asynchronously
+    private final ConcurrentLongObjectHashMap<PendingLoad> pendingLoads = new ConcurrentLongObjectHashMap<>();
+
+    // The loaded chunks whose load event still has to be posted on the main thread
+    private final ConcurrentLinkedQueue<PendingLoadEvent> pendingLoadEvents = new ConcurrentLinkedQueue<>();
+
+    // The thread that pulses the chunk manager
+    @Nullable private volatile Thread mainThread;
+
+    // The scheduler that generates and populates the chunks in parallel
+    private final ChunkGenerationScheduler generationScheduler;
+
+    // The executor that saves the unloaded chunks in the background
+    private final ExecutorService saveExecutor;
+
+    // The executor that compacts the region files in the background
+    private final ExecutorService compactionExecutor;
 
-    // A cache that can be used to get chunks that weren't unloaded
-    // so much after all, because of active references to the chunk
-    private final Map<Vector2i, LanternChunk> reusableChunks = new MapMaker().weakValues().makeMap();
+    // The compaction that is currently running
+    @Nullable private volatile CompletableFuture<Long> compaction;
 
-    // A queue of all the chunks that should be loaded
-    private final ConcurrentLinkedQueue<Vector2i> forcedChunkLoadingQueue = new ConcurrentLinkedQueue<>();
+    // The amount of ticks between the background compactions, 0 if disabled
+    private final long compactionInterval;
+
+    // The minimum fragmentation of a region file before it's compacted in the background
+    private final double compactionMinFragmentation;
+
+    // The streamer that sends the chunks to the players
+    private final ChunkStreamer chunkStreamer;
+
+    // A queue of all the chunks that have block changes that weren't send yet
+    private final ConcurrentLinkedQueue<LanternChunk> pendingBlockChanges = new ConcurrentLinkedQueue<>();
 
     // The game instance
     private final LanternGame game;
@@ -165,6 +238,73 @@ public LanternChunkManager(LanternGame game, LanternWorld world, WorldConfig wor
         this.worldConfig = worldConfig;
         this.world = world;
         this.game = game;
+        this.unloadDelay = worldConfig.getChunkUnloading().getUnloadDelay();
+        this.compactionInterval = worldConfig.getRegionCompaction().getInterval() * 1200L;
+        this.compactionMinFragmentation = worldConfig.getRegionCompaction().getMinFragmentation() / 100.0;
+        this.warmChunks = new WarmChunkCache(worldConfig.getChunkUnloading().getCacheSize() * 1024L * 1024L);
+        this.generationScheduler = new ChunkGenerationScheduler(this, world,
+                game.getScheduler().getAsyncExecutor().createExecutorService(game.getMinecraftPlugin()));
+        this.chunkStreamer = new ChunkStreamer(this, world);
+        this.saveExecutor = game.getScheduler().getAsyncExecutor().createBlockingExecutorService(game.getMinecraftPlugin());
+        this.compactionExecutor = game.getScheduler().getAsyncExecutor().createBlockingExecutorService(game.getMinecraftPlugin());
+    }
+
+    /**
+     * Gets the streamer that sends the chunks of this world to the players.
+     *
+     * @return the chunk streamer
+     */
+    public ChunkStreamer getChunkStreamer() {
+        return this.chunkStreamer;
+    }
+
+    /**
+     * A chunk that will be unloaded once the deadline is reached.
+     */
+    private static final class PendingUnload {
+
+        private final LanternChunk chunk;
+
+        // The deadline that is used to order the queue, this
+        // is only modified by the thread that pulses the manager
+        private long queuedDeadline;
+
+        // The actual deadline, may be extended by chunk requests
+        private volatile long deadline;
+
+        private PendingUnload(LanternChunk chunk, long deadline) {
+            this.queuedDeadline = deadline;
+            this.deadline = deadline;
+            this.chunk = chunk;
+        }
+    }
+
+    /**
+     * A chunk that is being loaded asynchronously. The load is claimed by the thread
+     * that performs it, this allows a synchronous request to load the chunk itself
+     * if no generation worker started with it yet.
+     */
+    private static final class PendingLoad extends CompletableFuture<LanternChunk> {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private boolean tryClaim() {
+            return this.claimed.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * A load event that still has to be posted.
+     */
+    private static final class PendingLoadEvent {
+
+        private final LanternChunk chunk;
+        private final Cause cause;
+
+        private PendingLoadEvent(LanternChunk chunk, Cause cause) {
+            this.chunk = chunk;
+            this.cause = cause;
+        }
     }
 
     /**
@@ -185,6 +325,76 @@ public WorldGenerator getWorldGenerator() {
         return this.worldGenerator;
     }
 
+    /**
+     * Gets the chunk I/O service of the world (chunk manager).
+     * 
+     * @return the chunk I/O service
+     */
+    public ChunkIOService getChunkIOService() {
+        return this.chunkIOService;
+    }
+
+    /**
+     * Gets the data folder of the world (chunk manager).
+     * 
+     * @return the world folder
+     */
+    public Path getWorldFolder() {
+        return this.worldFolder;
+    }
+
+    /**
+     * Gets the amount of chunks that can be generated in parallel.
+     * 
+     * @return the generation parallelism
+     */
+    public int getGenerationParallelism() {
+        return this.generationScheduler.getParallelism();
+    }
+
+    /**
+     * Compacts the storage of all the chunks that aren't loaded in the background,
+     * if a compaction is already running then will that one be returned. The future
+     * fails with a {@link RejectedExecutionException} once the manager is shut down.
+     *
+     * @param minFragmentation the minimum fraction of unused space before
+     *     the storage will be compacted, between 0 and 1
+     * @return the future with the amount of reclaimed bytes
+     */
+    public synchronized CompletableFuture<Long> compactRegions(double minFragmentation) {
+        CompletableFuture<Long> compaction = this.compaction;
+        if (compaction != null && !compaction.isDone()) {
+            return compaction;
+        }
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        try {
+            this.compactionExecutor.execute(() -> {
+                try {
+                    future.complete(this.compactRegions0(minFragmentation));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        this.compaction = future;
+        return future;
+    }
+
+    private long compactRegions0(double minFragmentation) throws IOException {
+        final long start = System.currentTimeMillis();
+        // All the remaining regions are treated as in use once the manager is
+        // shut down, the region that is being compacted is always completed
+        final long reclaimed = this.chunkIOService.compact(key -> this.compactionExecutor.isShutdown() ||
+                this.loadedChunks.containsKey(key) || this.pendingLoads.containsKey(key), minFragmentation);
+        if (reclaimed > 0) {
+            LanternGame.log().info("Compacted the regions of the world {} in {} ms, reclaimed {} KB",
+                    this.world.getName(), System.currentTimeMillis() - start, reclaimed / 1024);
+        }
+        return reclaimed;
+    }
+
     /**
      * Gets whether a loading ticket exists for the chunk
      * at the specified coordinates.
@@ -193,7 +403,8 @@ public WorldGenerator getWorldGenerator() {
      * @return has ticket
      */
     public boolean hasTicket(Vector2i coords) {
-        return this.ticketsByPos.containsKey(checkNotNull(coords, "coords"));
+        checkNotNull(coords, "coords");
+        return this.hasTicket(coords.getX(), coords.getY());
     }
 
     /**
@@ -205,7 +416,7 @@ public boolean hasTicket(Vector2i coords) {
      * @return has ticket
      */
     public boolean hasTicket(int x, int z) {
-        return this.ticketsByPos.containsKey(new Vector2i(x, z));
+        return this.ticketsByPos.containsKey(LanternChunk.key(x, z));
     }
 
     /**
@@ -216,13 +427,13 @@ public boolean hasTicket(int x, int z) {
     public ImmutableSetMultimap<Vector3i, LoadingTicket> getForced() {
         final ImmutableSetMultimap.Builder<Vector3i, LoadingTicket> builder =
                 ImmutableSetMultimap.builder();
-        for (Entry<Vector2i, Set<LanternLoadingTicket>> en : this.ticketsByPos.entrySet()) {
-            final Vector2i pos0 = en.getKey();
-            final Vector3i pos = new Vector3i(pos0.getX(), 0, pos0.getY());
-            for (LanternLoadingTicket ticket : en.getValue()) {
+        this.ticketsByPos.forEachEntry((key, tickets) -> {
+            final Vector3i pos = new Vector3i(LanternChunk.keyX(key), 0, LanternChunk.keyZ(key));
+            for (LanternLoadingTicket ticket : tickets) {
                 builder.put(pos, ticket);
             }
-        }
+            return true;
+        });
         return builder.build();
     }
 
@@ -394,7 +605,8 @@ public ImmutableSet<Chunk> getLoadedChunks() {
      */
     @Nullable
     public LanternChunk getChunk(Vector2i coords) {
-        return this.loadedChunks.get(checkNotNull(coords, "coords"));
+        checkNotNull(coords, "coords");
+        return this.getChunk(coords.getX(), coords.getY());
     }
 
     /**
@@ -406,7 +618,7 @@ public LanternChunk getChunk(Vector2i coords) {
      */
     @Nullable
     public LanternChunk getChunk(int x, int z) {
-        return this.getChunk(new Vector2i(x, z));
+        return this.loadedChunks.get(LanternChunk.key(x, z));
     }
 
     /**
@@ -444,7 +656,33 @@ public LanternChunk getOrCreateChunk(int x, int z, boolean generate) {
      * @return the chunk
      */
     public LanternChunk getOrCreateChunk(int x, int z, Cause cause, boolean generate) {
-        return this.getOrCreateChunk(new Vector2i(x, z), cause, generate);
+        checkNotNull(cause, "cause");
+        final long key = LanternChunk.key(x, z);
+        final LanternChunk chunk = this.loadedChunks.get(key);
+        // Chunk is already loaded
+        if (chunk != null) {
+            // The chunk is still in use, delay the unload
+            this.delayUnload(key);
+            return chunk;
+        }
+        // Register a pending load that is claimed by this thread, the chunk is only made
+        // available once it's loaded, async requests will wait for it in the meantime
+        PendingLoad pendingLoad = new PendingLoad();
+        final PendingLoad pendingLoad0 = this.pendingLoads.putIfAbsent(key, pendingLoad);
+        if (pendingLoad0 != null) {
+            // The chunk is being loaded asynchronously, load it on this thread if no generation
+            // worker started with it yet instead of waiting for all the queued generation tasks
+            if (!pendingLoad0.tryClaim()) {
+                // A generation worker is already loading the chunk, load it on this thread as well
+                // instead of blocking the main thread, the chunk that is published first is kept
+                return this.loadChunk(key, cause, generate);
+            }
+            pendingLoad = pendingLoad0;
+        } else {
+            pendingLoad.tryClaim();
+        }
+        this.completePendingLoad(key, pendingLoad, cause, generate);
+        return pendingLoad.join();
     }
 
     /**
@@ -457,28 +695,260 @@ public LanternChunk getOrCreateChunk(int x, int z, Cause cause, boolean generate
      * @return the chunk
      */
     public LanternChunk getOrCreateChunk(Vector2i coords, Cause cause, boolean generate) {
+        checkNotNull(coords, "coords");
+        return this.getOrCreateChunk(coords.getX(), coords.getY(), cause, generate);
+    }
+
+    /**
+     * Gets a chunk for the coordinates, the chunk will be loaded or generated
+     * asynchronously on the generation workers if it isn't loaded yet. The
+     * terrain of many chunks can be generated in parallel this way. The load
+     * event is posted on the main thread once the chunk is available.
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @param cause the cause
+     * @param generate whether the chunk should be generated if missing
+     * @return the future of the chunk
+     */
+    public CompletableFuture<LanternChunk> getOrCreateChunkAsync(int x, int z, Cause cause, boolean generate) {
         checkNotNull(cause, "cause");
-        LanternChunk chunk = this.loadedChunks.get(checkNotNull(coords, "coords"));
-        // Chunk is already loaded
+        final long key = LanternChunk.key(x, z);
+        final LanternChunk chunk = this.loadedChunks.get(key);
         if (chunk != null) {
-            return chunk;
+            return CompletableFuture.completedFuture(chunk);
         }
-        // Lets try to visit the graveyard
-        chunk = this.reusableChunks.get(coords);
-        if (chunk != null) {
-            this.loadedChunks.put(coords, chunk);
-            return chunk;
+        final PendingLoad pendingLoad = new PendingLoad();
+        final PendingLoad pendingLoad0 = this.pendingLoads.putIfAbsent(key, pendingLoad);
+        if (pendingLoad0 != null) {
+            return pendingLoad0;
+        }
+        try {
+            this.generationScheduler.execute(() -> {
+                // The load may already be claimed by a synchronous request
+                if (pendingLoad.tryClaim()) {
+                    this.completePendingLoad(key, pendingLoad, cause, generate);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.pendingLoads.remove(key, pendingLoad);
+            pendingLoad.completeExceptionally(e);
+        }
+        return pendingLoad;
+    }
+
+    /**
+     * Performs the pending load of the chunk with the specified key
+     * and completes it, the load must be claimed by the current thread.
+     *
+     * @param key the chunk key
+     * @param pendingLoad the pending load
+     * @param cause the cause
+     * @param generate whether the chunk should be generated if missing
+     */
+    private void completePendingLoad(long key, PendingLoad pendingLoad, Cause cause, boolean generate) {
+        final LanternChunk chunk;
+        try {
+            chunk = this.loadChunk(key, cause, generate);
+        } catch (Throwable e) {
+            this.pendingLoads.remove(key, pendingLoad);
+            pendingLoad.completeExceptionally(e);
+            return;
+        }
+        this.pendingLoads.remove(key, pendingLoad);
+        pendingLoad.complete(chunk);
+    }
+
+    /**
+     * Loads the chunk with the specified key, the chunk is only made available after
+     * it's loaded. If another thread made the chunk available in the meantime, that
+     * chunk will be returned instead and the chunk loaded by this thread is dropped.
+     *
+     * @param key the chunk key
+     * @param cause the cause
+     * @param generate whether the chunk should be generated if missing
+     * @return the chunk
+     */
+    private LanternChunk loadChunk(long key, Cause cause, boolean generate) {
+        LanternChunk chunk = this.loadedChunks.get(key);
+        if (chunk == null) {
+            chunk = this.tryRevive(key, cause);
+        }
+        if (chunk == null) {
+            chunk = new LanternChunk(this.world, LanternChunk.keyX(key), LanternChunk.keyZ(key));
+            this.reviveMisses.increment();
+            final boolean loaded = this.loadOrGenerate(chunk, generate);
+            final LanternChunk chunk0 = this.loadedChunks.putIfAbsent(key, chunk);
+            if (chunk0 != null) {
+                return chunk0;
+            }
+            if (loaded) {
+                this.queueLoadEvent(chunk, cause);
+                this.generationScheduler.onTerrainReady(chunk);
+            }
+            this.queueUnloadIfUnforced(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Queues the load event of the chunk, the event is posted immediately if this
+     * is the main thread, otherwise it will be posted by the next pulse. The event
+     * is only queued once the chunk is available through the loaded chunks.
+     *
+     * @param chunk the loaded chunk
+     * @param cause the cause
+     */
+    private void queueLoadEvent(LanternChunk chunk, Cause cause) {
+        this.pendingLoadEvents.add(new PendingLoadEvent(chunk, cause));
+        if (Thread.currentThread() == this.mainThread) {
+            this.postLoadEvents();
         }
-        // Finally, create a new chunk if needed
-        chunk = new LanternChunk(this.world, coords.getX(), coords.getY());
-        final LanternChunk chunk0 = this.loadedChunks.putIfAbsent(coords, chunk);
+    }
+
+    /**
+     * Posts the queued load events, should only be called on the main thread.
+     */
+    private void postLoadEvents() {
+        PendingLoadEvent event;
+        while ((event = this.pendingLoadEvents.poll()) != null) {
+            this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(event.cause, event.chunk));
+        }
+    }
+
+    /**
+     * Attempts to revive the chunk with the specified key
+     * from the cache of recently unloaded chunks.
+     *
+     * @param key the chunk key
+     * @param cause the cause
+     * @return the chunk, or null if not present in the cache
+     */
+    @Nullable
+    private LanternChunk tryRevive(long key, Cause cause) {
+        final WarmChunkCache.Entry entry = this.warmChunks.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        final LanternChunk chunk = entry.chunk;
+        final LanternChunk chunk0 = this.loadedChunks.putIfAbsent(key, chunk);
         if (chunk0 != null) {
+            // The chunk is still being unloaded, keep it in the graveyard
+            if (chunk0 == chunk) {
+                this.warmChunks.put(entry);
+            }
             return chunk0;
         }
-        this.load(chunk, cause, generate);
+        this.reviveHits.increment();
+        if (this.tick - entry.unloadTick <= this.unloadDelay) {
+            this.thrashCount.increment();
+        }
+        this.queueLoadEvent(chunk, cause);
+        this.queueUnloadIfUnforced(chunk);
+        this.generationScheduler.onTerrainReady(chunk);
         return chunk;
     }
 
+    /**
+     * Delays the pending unload of the chunk at the specified coordinates
+     * by the unload delay, as if the chunk was requested again.
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     */
+    public void delayUnload(int x, int z) {
+        this.delayUnload(LanternChunk.key(x, z));
+    }
+
+    private void delayUnload(long key) {
+        final PendingUnload pendingUnload = this.pendingUnloads.get(key);
+        if (pendingUnload != null) {
+            pendingUnload.deadline = this.tick + this.unloadDelay;
+        }
+    }
+
+    /**
+     * Queues the chunk to be unloaded after the unload
+     * delay if there are no tickets attached to it.
+     *
+     * @param chunk the chunk
+     */
+    void queueUnloadIfUnforced(LanternChunk chunk) {
+        final long key = chunk.getKey();
+        if (this.ticketsByPos.containsKey(key)) {
+            return;
+        }
+        final long deadline = this.tick + this.unloadDelay;
+        final PendingUnload pendingUnload = new PendingUnload(chunk, deadline);
+        final PendingUnload old = this.pendingUnloads.putIfAbsent(key, pendingUnload);
+        if (old == null) {
+            this.pendingUnloadQueue.add(pendingUnload);
+        } else {
+            old.deadline = deadline;
+        }
+    }
+
+    /**
+     * Gets the amount of chunks that were loaded from the cache
+     * of recently unloaded chunks, without any disk I/O.
+     *
+     * @return the amount of revive hits
+     */
+    public long getReviveHits() {
+        return this.reviveHits.sum();
+    }
+
+    /**
+     * Gets the amount of chunks that weren't present in the cache of
+     * recently unloaded chunks and had to be read from the disk or generated.
+     *
+     * @return the amount of revive misses
+     */
+    public long getReviveMisses() {
+        return this.reviveMisses.sum();
+    }
+
+    /**
+     * Gets the amount of chunks that were loaded again within the unload delay
+     * after they were unloaded, a high value means that chunks are unloaded
+     * and loaded over and over again.
+     *
+     * @return the thrash count
+     */
+    public long getThrashCount() {
+        return this.thrashCount.sum();
+    }
+
+    /**
+     * Gets the amount of chunks that got a ticket attached
+     * again before their unload delay expired.
+     *
+     * @return the amount of cancelled unloads
+     */
+    public long getCancelledUnloads() {
+        return this.cancelledUnloads.sum();
+    }
+
+    /**
+     * Gets the amount of chunks that are present in the
+     * cache of recently unloaded chunks.
+     *
+     * @return the amount of chunks
+     */
+    public int getWarmChunkCount() {
+        return this.warmChunks.getCount();
+    }
+
+    /**
+     * Gets the estimated memory size of the chunks that are present
+     * in the cache of recently unloaded chunks.
+     *
+     * @return the size in bytes
+     */
+    public long getWarmChunkCacheSize() {
+        return this.warmChunks.getSize();
+    }
+
     /**
      * Loads the specified chunk and attempts to generate it if not done before
      * if {@code generate} is set to {@code true}.
@@ -491,10 +961,27 @@ public LanternChunk getOrCreateChunk(Vector2i coords, Cause cause, boolean gener
     public boolean load(LanternChunk chunk, Cause cause, boolean generate) {
         checkNotNull(chunk, "chunk");
         checkNotNull(cause, "cause");
+        if (this.loadOrGenerate(chunk, generate)) {
+            this.queueLoadEvent(chunk, cause);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loads the specified chunk and attempts to generate it if not done before
+     * if {@code generate} is set to {@code true}. The load event isn't posted,
+     * this is up to the caller once the chunk is available.
+     *
+     * @param chunk the chunk to load
+     * @param generate whether the chunk should be generated if missing
+     * @return true if it was successful
+     */
+    private boolean loadOrGenerate(LanternChunk chunk, boolean generate) {
         try {
             // Try to load the chunk
             if (this.chunkIOService.read(chunk)) {
-                this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause, chunk));
+                chunk.savedVersion = chunk.getVersion();
                 return true;
             }
         } catch (Exception e) {
@@ -517,7 +1004,6 @@ public boolean load(LanternChunk chunk, Cause cause, boolean generate) {
                     chunk.getX(), chunk.getZ(), e);
             return false;
         }
-        this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause, chunk));
         return true;
     }
 
@@ -645,6 +1131,43 @@ public void setBlock(int x, int y, int z, BlockState block) {
             types[index] = type;
         }
 
+        @Override
+        public void fillBlocks(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState block) {
+            checkNotNull(block, "blockState");
+            BulkMutableBlockVolume.checkBulkRange(this, minX, minY, minZ, maxX, maxY, maxZ);
+            final short type = Registries.getBlockRegistry().getStateInternalIdAndData(block);
+            final int minX0 = minX & 0xf;
+            final int maxX0 = maxX & 0xf;
+            final int minZ0 = minZ & 0xf;
+            final int maxZ0 = maxZ & 0xf;
+            for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                final short[] types = this.types[sy];
+                final int minY0 = Math.max(minY, sy << 4) & 0xf;
+                final int maxY0 = Math.min(maxY, (sy << 4) | 0xf) & 0xf;
+                // The complete section is covered, no need to count the old blocks
+                if (minX0 == 0 && minZ0 == 0 && minY0 == 0 && maxX0 == 0xf && maxZ0 == 0xf && maxY0 == 0xf) {
+                    Arrays.fill(types, type);
+                    this.nonAirCount[sy] = type == 0 ? 0 : CHUNK_SECTION_VOLUME;
+                    continue;
+                }
+                int replaced = 0;
+                for (int y = minY0; y <= maxY0; y++) {
+                    for (int z = minZ0; z <= maxZ0; z++) {
+                        final int from = (y << 8) | (z << 4) | minX0;
+                        final int to = from + maxX0 - minX0 + 1;
+                        // Count the blocks that will change from air to non air or the other way around
+                        for (int i = from; i < to; i++) {
+                            if ((types[i] == 0) == (type != 0)) {
+                                replaced++;
+                            }
+                        }
+                        Arrays.fill(types, from, to, type);
+                    }
+                }
+                this.nonAirCount[sy] += type == 0 ? -replaced : replaced;
+            }
+        }
+
         @Override
         public MutableBlockVolumeWorker<? extends MutableBlockVolume> getBlockWorker() {
             return new LanternMutableBlockVolumeWorker<>(this);
@@ -653,8 +1176,8 @@ public MutableBlockVolumeWorker<? extends MutableBlockVolume> getBlockWorker() {
         @Override
         public BlockState getBlock(int x, int y, int z) {
             this.checkRange(x, y, z);
-            return Registries.getBlockRegistry().getStateByInternalIdAndData(this.types[y >> 4][((y & 0xf) << 8) | ((z & 0xf) << 4) | x & 0xf])
-                    .orElse(BlockTypes.AIR.getDefaultState());
+            return Registries.getBlockRegistry().getStateByInternalIdAndDataOrAir(
+                    this.types[y >> 4][((y & 0xf) << 8) | ((z & 0xf) << 4) | x & 0xf]);
         }
 
         @Override
@@ -688,8 +1211,14 @@ public ImmutableBlockVolume getImmutableBlockCopy() {
     public boolean save(LanternChunk chunk) {
         checkNotNull(chunk, "chunk");
         if (chunk.isLoaded()) {
+            final int version = chunk.getVersion();
+            // Nothing changed since the last time that the chunk was saved
+            if (version == chunk.savedVersion) {
+                return true;
+            }
             try {
                 this.chunkIOService.write(chunk);
+                chunk.savedVersion = version;
                 return true;
             } catch (IOException e) {
                 LanternGame.log().error("Error while saving " + chunk, e);
@@ -698,6 +1227,16 @@ public boolean save(LanternChunk chunk) {
         return false;
     }
 
+    /**
+     * Saves all the loaded chunks that were modified since
+     * the last time that they were saved.
+     */
+    public void saveAll() {
+        for (LanternChunk chunk : this.loadedChunks.values()) {
+            this.save(chunk);
+        }
+    }
+
     /**
      * Attempts to unload the chunk at the specified coordinates.
      * 
@@ -707,7 +1246,12 @@ public boolean save(LanternChunk chunk) {
      * @return true if it was successful
      */
     public boolean unload(int x, int z, Cause cause) {
-        return this.unload(new Vector2i(x, z), cause);
+        checkNotNull(cause, "cause");
+        final LanternChunk chunk = this.getChunk(x, z);
+        if (chunk != null) {
+            return this.unload(chunk, cause);
+        }
+        return true;
     }
 
     /**
@@ -718,12 +1262,25 @@ public boolean unload(int x, int z, Cause cause) {
      * @return true if it was successful
      */
     public boolean unload(Vector2i coords, Cause cause) {
-        checkNotNull(cause, "cause");
-        final LanternChunk chunk = this.getChunk(checkNotNull(coords, "coords"));
-        if (chunk != null) {
-            return this.unload(chunk, cause);
+        checkNotNull(coords, "coords");
+        return this.unload(coords.getX(), coords.getY(), cause);
+    }
+
+    /**
+     * Unloads the specified chunk if it isn't in use, this is the case if there
+     * are no tickets attached to it and it isn't visible to any player. Should
+     * be called on the main thread.
+     *
+     * @param chunk the chunk to unload
+     * @param cause the cause
+     * @return true if the chunk was unloaded
+     */
+    public boolean unloadIfUnused(LanternChunk chunk, Cause cause) {
+        checkNotNull(chunk, "chunk");
+        if (this.loadedChunks.get(chunk.getKey()) != chunk || !chunk.getViewers().isEmpty()) {
+            return false;
         }
-        return true;
+        return this.unload(chunk, cause);
     }
 
     /**
@@ -736,21 +1293,55 @@ public boolean unload(Vector2i coords, Cause cause) {
     public boolean unload(LanternChunk chunk, Cause cause) {
         checkNotNull(chunk, "chunk");
         checkNotNull(cause, "cause");
-        final Vector2i coords = new Vector2i(chunk.getX(), chunk.getZ());
+        final long key = chunk.getKey();
         // Forced chunks cannot be unloaded
-        if (this.ticketsByPos.containsKey(coords)) {
+        if (this.ticketsByPos.containsKey(key)) {
             return false;
         }
+        // The load event of the chunk may still be pending
+        if (Thread.currentThread() == this.mainThread) {
+            this.postLoadEvents();
+        }
         // Post the chunk unload event
         this.game.getEventManager().post(SpongeEventFactory.createUnloadChunkEvent(cause, chunk));
-        // Remove from the loaded chunks
-        this.loadedChunks.remove(coords);
-        // Move the chunk to the graveyard
-        this.reusableChunks.put(coords, chunk);
-        this.save(chunk);
+        // Move the chunk to the graveyard before it's removed from the loaded
+        // chunks, so that loads during the save revive it instead of reading
+        // stale data from the disk
+        this.warmChunks.put(chunk, this.tick);
+        this.loadedChunks.remove(key, chunk);
+        this.pendingUnloads.remove(key);
+        // Unload the chunk on the clients that can see it
+        if (!chunk.getViewers().isEmpty()) {
+            this.chunkStreamer.onUnload(chunk);
+        }
+        // Release the encoded network data
+        ChunkDataCache.INSTANCE.invalidate(chunk);
+        // The chunk is saved in the background, unless too many unloaded chunks are still
+        // waiting for their save, the unloads are slowed down by saving them directly then
+        if (this.warmChunks.isSaturated()) {
+            this.saveUnloaded(chunk);
+        } else {
+            try {
+                this.saveExecutor.execute(() -> this.saveUnloaded(chunk));
+            } catch (RejectedExecutionException e) {
+                this.saveUnloaded(chunk);
+            }
+        }
         return true;
     }
 
+    /**
+     * Saves the unloaded chunk, once the chunk is saved it can just be dropped when it's
+     * evicted from the cache, chunks that failed to save are kept until they are revived.
+     *
+     * @param chunk the unloaded chunk
+     */
+    private void saveUnloaded(LanternChunk chunk) {
+        if (this.save(chunk)) {
+            this.warmChunks.markSaved(chunk);
+        }
+    }
+
     /**
      * Forces the specified chunk coordinates for a specific ticket.
      * 
@@ -769,14 +1360,28 @@ void force(LanternLoadingTicket ticket, Vector2i coords) {
      * @param callEvents whether the force chunk events should be called
      */
     void force(LanternLoadingTicket ticket, Vector2i coords, boolean callEvents) {
-        final Set<LanternLoadingTicket> set = this.ticketsByPos.computeIfAbsent(
-                coords, coords0 -> Sets.newConcurrentHashSet());
-        final LanternChunk chunk = this.getChunk(coords);
-        if (set.isEmpty() && chunk == null && !this.forcedChunkLoadingQueue.contains(coords)) {
-            // Queue the chunk for loading
-            this.forcedChunkLoadingQueue.add(coords);
-        }
-        set.add(ticket);
+        final long key = LanternChunk.key(coords.getX(), coords.getY());
+        final LanternChunk chunk = this.loadedChunks.get(key);
+        if (this.pendingUnloads.remove(key) != null) {
+            this.cancelledUnloads.increment();
+        }
+        // The ticket is added while the map is locked, so that it cannot be
+        // added to a set that is concurrently removed by unforce
+        this.ticketsByPos.compute(key, (key0, set) -> {
+            if (set == null) {
+                set = Sets.newConcurrentHashSet();
+                if (chunk == null) {
+                    // Queue the chunk for loading
+                    synchronized (this.forcedChunkLoadingQueue) {
+                        if (this.forcedChunkLoadingSet.add(key)) {
+                            this.forcedChunkLoadingQueue.add(key);
+                        }
+                    }
+                }
+            }
+            set.add(ticket);
+            return set;
+        });
         if (chunk != null && callEvents) {
             final Vector3i coords0 = new Vector3i(coords.getX(), 0, coords.getY());
             final ForcedChunkEvent event = SpongeEventFactory.createForcedChunkEvent(Cause.of(ticket), coords0, chunk, ticket);
@@ -791,14 +1396,25 @@ void force(LanternLoadingTicket ticket, Vector2i coords, boolean callEvents) {
      * @param coords the coordinates
      */
     void unforce(LanternLoadingTicket ticket, Vector2i coords) {
-        final Set<LanternLoadingTicket> set = this.ticketsByPos.get(ticket);
-        if (set != null) {
+        final long key = LanternChunk.key(coords.getX(), coords.getY());
+        final boolean[] removed = new boolean[1];
+        this.ticketsByPos.computeIfPresent(key, (key0, set) -> {
             set.remove(ticket);
             // Remove the chunk from the cache (can unload) if it's doesn't
             // have any attached tickets
-            if (set.isEmpty()) {
-                this.ticketsByPos.remove(coords);
-                this.forcedChunkLoadingQueue.remove(coords);
+            if (!set.isEmpty()) {
+                return set;
+            }
+            synchronized (this.forcedChunkLoadingQueue) {
+                this.forcedChunkLoadingSet.remove(key);
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            final LanternChunk chunk = this.loadedChunks.get(key);
+            if (chunk != null) {
+                this.queueUnloadIfUnforced(chunk);
             }
         }
     }
@@ -812,50 +1428,131 @@ void release(LanternLoadingTicket ticket) {
         this.tickets.remove(ticket);
     }
 
+    /**
+     * Queues the chunk to send its block changes at the end of the tick.
+     *
+     * @param chunk the chunk
+     */
+    void queueBlockChanges(LanternChunk chunk) {
+        this.pendingBlockChanges.add(chunk);
+    }
+
+    /**
+     * Sends all the block changes that were made during
+     * this tick to the players that can see them.
+     */
+    public void flushBlockChanges() {
+        LanternChunk chunk;
+        while ((chunk = this.pendingBlockChanges.poll()) != null) {
+            chunk.flushBlockChanges();
+        }
+    }
+
     /**
      * Shuts the chunk manager down, all the chunks will
      * be saved in the process.
      */
     public void shutdown() {
-        for (Entry<Vector2i, LanternChunk> entry : this.loadedChunks.entrySet()) {
-            final LanternChunk chunk = entry.getValue();
+        // Wait for the running generation tasks
+        this.generationScheduler.shutdown();
+        // Wait for the saves of the unloaded chunks
+        this.saveExecutor.shutdown();
+        try {
+            if (!this.saveExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LanternGame.log().warn("Timed out while waiting for the unloaded chunks to be saved.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Stop the background compaction, the compaction of a single region file can't
+        // be interrupted so the running one is completed before the chunks are saved
+        synchronized (this) {
+            this.compactionExecutor.shutdown();
+        }
+        try {
+            if (!this.compactionExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LanternGame.log().warn("Timed out while waiting for the region compaction to finish.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (LanternChunk chunk : this.loadedChunks.values()) {
             // Post the chunk unload event
             this.game.getEventManager().post(SpongeEventFactory.createUnloadChunkEvent(
                     Cause.of(LanternGame.get().getServer()), chunk));
+            // Release the encoded network data
+            ChunkDataCache.INSTANCE.invalidate(chunk);
             // Save the chunk
             this.save(chunk);
         }
+        // Retry the unloaded chunks that failed to save or whose save didn't finish in time
+        for (LanternChunk chunk : this.warmChunks.getUnsavedChunks()) {
+            this.save(chunk);
+        }
         // Cleanup
         this.loadedChunks.clear();
-        this.reusableChunks.clear();
+        this.pendingUnloads.clear();
+        this.pendingUnloadQueue.clear();
+        this.warmChunks.clear();
     }
 
     /**
      * Pulses the chunk manager.
      */
     public void pulse() {
+        this.mainThread = Thread.currentThread();
+        this.postLoadEvents();
+        // Populate the chunks whose neighbors are loaded
+        this.generationScheduler.pulse();
         final PluginContainer minecraft = this.game.getMinecraftPlugin();
         final Cause unloadCause = Cause.of(minecraft);
-        for (Entry<Vector2i, LanternChunk> en : this.loadedChunks.entrySet()) {
-            // The chunk is no longer locked, try to unload
-            if (!this.ticketsByPos.containsKey(en.getKey())) {
-                this.unload(en.getValue(), unloadCause);
+        final long tick = ++this.tick;
+        if (this.compactionInterval > 0 && tick % this.compactionInterval == 0) {
+            this.compactRegions(this.compactionMinFragmentation);
+        }
+        // Only the chunks that lost their last ticket or that were loaded
+        // without one have to be checked, instead of all the loaded chunks
+        PendingUnload pendingUnload;
+        while ((pendingUnload = this.pendingUnloadQueue.peek()) != null && pendingUnload.queuedDeadline <= tick) {
+            this.pendingUnloadQueue.poll();
+            final LanternChunk chunk = pendingUnload.chunk;
+            final long key = chunk.getKey();
+            // The unload was cancelled
+            if (this.pendingUnloads.get(key) != pendingUnload) {
+                continue;
+            }
+            // The chunk was requested in the meantime, move it to the end of the queue,
+            // this keeps the queue ordered closely enough by the deadlines
+            final long deadline = pendingUnload.deadline;
+            if (deadline > tick) {
+                pendingUnload.queuedDeadline = deadline;
+                this.pendingUnloadQueue.add(pendingUnload);
+                continue;
+            }
+            this.pendingUnloads.remove(key, pendingUnload);
+            // The chunk is no longer locked, try to unload, chunks that are
+            // viewed by players are queued again once the last viewer leaves
+            if (!this.ticketsByPos.containsKey(key) && chunk.getViewers().isEmpty() &&
+                    this.loadedChunks.get(key) == chunk) {
+                this.unload(chunk, unloadCause);
             }
         }
         // TODO: Async chunk loading/unloading?
         int counter = 0;
-        Vector2i coords;
-        while (++counter < CHUNK_LOADING_LIMIT && (coords = this.forcedChunkLoadingQueue.poll()) != null) {
-            final Set<LanternLoadingTicket> set = this.ticketsByPos.get(coords);
+        long key;
+        while (++counter < CHUNK_LOADING_LIMIT && (key = this.pollForcedChunk()) != NO_CHUNK) {
+            final int x = LanternChunk.keyX(key);
+            final int z = LanternChunk.keyZ(key);
+            final Set<LanternLoadingTicket> set = this.ticketsByPos.get(key);
             Cause cause = Cause.of(minecraft);
             if (set != null) {
                 for (LanternLoadingTicket ticket : set) {
                     cause = cause.with(ticket);
                 }
             }
-            final LanternChunk chunk = this.getOrCreateChunk(coords, cause, true);
+            final LanternChunk chunk = this.getOrCreateChunk(x, z, cause, true);
             if (set != null && !set.isEmpty()) {
-                final Vector3i coords0 = new Vector3i(coords.getX(), 0, coords.getY());
+                final Vector3i coords0 = new Vector3i(x, 0, z);
                 for (LanternLoadingTicket ticket : set) {
                     final ForcedChunkEvent event = SpongeEventFactory.createForcedChunkEvent(
                             Cause.of(ticket), coords0, chunk, ticket);
@@ -863,6 +1560,26 @@ public void pulse() {
                 }
             }
         }
+        // Send the chunks around the players
+        this.chunkStreamer.pulse();
+    }
+
+    /**
+     * Polls the next chunk from the forced chunk loading queue,
+     * chunks that were unforced in the meantime are skipped.
+     *
+     * @return the chunk key, or {@link #NO_CHUNK} if the queue is empty
+     */
+    private long pollForcedChunk() {
+        synchronized (this.forcedChunkLoadingQueue) {
+            while (!this.forcedChunkLoadingQueue.isEmpty()) {
+                final long key = this.forcedChunkLoadingQueue.removeAt(0);
+                if (this.forcedChunkLoadingSet.remove(key)) {
+                    return key;
+                }
+            }
+        }
+        return NO_CHUNK;
     }
 
     /*
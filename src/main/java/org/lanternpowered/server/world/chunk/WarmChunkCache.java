@@ -0,0 +1,250 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * A cache of recently unloaded chunks, these chunks can be revived
+ * without reading them from the disk. The total estimated memory size
+ * of the chunks is bounded, the least recently unloaded chunks will be
+ * evicted first.
+ *
+ * <p>The chunks are put into the cache before they are saved, so that they
+ * can be revived while the save is in progress. Chunks are only evicted once
+ * they are marked as saved, after that they can just be dropped. The unsaved
+ * chunks count against the maximum size as well, the cache is saturated once
+ * they exceed it on their own, see {@link #isSaturated()}.</p>
+ */
+final class WarmChunkCache {
+
+    static final class Entry {
+
+        final LanternChunk chunk;
+
+        // The tick at which the chunk was unloaded
+        final long unloadTick;
+
+        // The estimated memory size of the chunk
+        final int size;
+
+        // Whether the chunk is saved, unsaved chunks cannot be evicted
+        private boolean saved;
+
+        // The older and newer entry in the eviction order, guarded by the cache
+        @Nullable private Entry previous;
+        @Nullable private Entry next;
+
+        private Entry(LanternChunk chunk, long unloadTick, int size) {
+            this.unloadTick = unloadTick;
+            this.chunk = chunk;
+            this.size = size;
+        }
+    }
+
+    // All the cached chunks, indexed by the chunk key
+    private final TLongObjectMap<Entry> entries = new TLongObjectHashMap<>();
+
+    // The oldest and newest entry, the entries are linked in the order they were put
+    @Nullable private Entry head;
+    @Nullable private Entry tail;
+
+    // The maximum estimated memory size of all the chunks
+    private final long maxSize;
+
+    // The current estimated memory size of all the chunks
+    private long size;
+
+    // The current estimated memory size of the chunks that aren't saved yet
+    private long unsavedSize;
+
+    WarmChunkCache(long maxSize) {
+        checkArgument(maxSize >= 0, "maxSize cannot be negative");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Puts the unloaded chunk into the cache, the chunk cannot be evicted
+     * until it's marked as saved through {@link #markSaved(LanternChunk)}.
+     *
+     * @param chunk the chunk
+     * @param unloadTick the tick at which the chunk was unloaded
+     */
+    synchronized void put(LanternChunk chunk, long unloadTick) {
+        this.put(new Entry(chunk, unloadTick, chunk.getEstimatedMemorySize()));
+    }
+
+    /**
+     * Puts a previously removed entry back into the cache.
+     *
+     * @param entry the entry
+     */
+    synchronized void put(Entry entry) {
+        final Entry old = this.entries.put(entry.chunk.getKey(), entry);
+        if (old != null) {
+            this.unlink(old);
+        }
+        this.link(entry);
+        this.evict();
+    }
+
+    /**
+     * Marks the chunk as saved, which allows it to be evicted. Older
+     * chunks will be evicted if the cache exceeds its maximum size.
+     *
+     * @param chunk the chunk
+     */
+    synchronized void markSaved(LanternChunk chunk) {
+        final Entry entry = this.entries.get(chunk.getKey());
+        if (entry != null && entry.chunk == chunk && !entry.saved) {
+            entry.saved = true;
+            this.unsavedSize -= entry.size;
+            this.evict();
+        }
+    }
+
+    /**
+     * Gets whether the unsaved chunks alone exceed the maximum size, new
+     * chunks should be saved before they are put into the cache then.
+     *
+     * @return whether the cache is saturated
+     */
+    synchronized boolean isSaturated() {
+        return this.unsavedSize > this.maxSize;
+    }
+
+    private void link(Entry entry) {
+        entry.previous = this.tail;
+        entry.next = null;
+        if (this.tail != null) {
+            this.tail.next = entry;
+        } else {
+            this.head = entry;
+        }
+        this.tail = entry;
+        this.size += entry.size;
+        if (!entry.saved) {
+            this.unsavedSize += entry.size;
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            this.head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        } else {
+            this.tail = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+        this.size -= entry.size;
+        if (!entry.saved) {
+            this.unsavedSize -= entry.size;
+        }
+    }
+
+    private void evict() {
+        Entry entry = this.head;
+        while (this.size > this.maxSize && entry != null) {
+            final Entry next = entry.next;
+            if (entry.saved) {
+                this.entries.remove(entry.chunk.getKey());
+                this.unlink(entry);
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Removes the chunk with the specified key from the cache.
+     *
+     * @param key the chunk key
+     * @return the entry, or null if not present
+     */
+    @Nullable
+    synchronized Entry remove(long key) {
+        final Entry entry = this.entries.remove(key);
+        if (entry != null) {
+            this.unlink(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Gets all the chunks in the cache that aren't saved yet.
+     *
+     * @return the unsaved chunks
+     */
+    synchronized List<LanternChunk> getUnsavedChunks() {
+        final List<LanternChunk> chunks = new ArrayList<>();
+        for (Entry entry = this.head; entry != null; entry = entry.next) {
+            if (!entry.saved) {
+                chunks.add(entry.chunk);
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Removes all the chunks from the cache.
+     */
+    synchronized void clear() {
+        this.entries.clear();
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+        this.unsavedSize = 0;
+    }
+
+    /**
+     * Gets the amount of chunks in the cache.
+     *
+     * @return the amount of chunks
+     */
+    synchronized int getCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Gets the estimated memory size of all the chunks in the cache.
+     *
+     * @return the size in bytes
+     */
+    synchronized long getSize() {
+        return this.size;
+    }
+}
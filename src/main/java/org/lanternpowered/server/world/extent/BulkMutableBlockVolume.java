@@ -0,0 +1,159 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.util.gen.block.ShortArrayBlockBuffer;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.util.PositionOutOfBoundsException;
+import org.spongepowered.api.world.extent.BlockVolume;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+
+/**
+ * A {@link MutableBlockVolume} that supports bulk operations. The default
+ * implementations fall back to setting every block separately, the lantern
+ * block buffers and chunks override them to work directly on their backing
+ * arrays which avoids the bounds check and the block state lookup per block.
+ */
+public interface BulkMutableBlockVolume extends MutableBlockVolume {
+
+    /**
+     * Fills the cuboid between the specified positions (inclusive)
+     * with the block state.
+     *
+     * @param minX the minimum x coordinate
+     * @param minY the minimum y coordinate
+     * @param minZ the minimum z coordinate
+     * @param maxX the maximum x coordinate
+     * @param maxY the maximum y coordinate
+     * @param maxZ the maximum z coordinate
+     * @param block the block state
+     * @throws PositionOutOfBoundsException if the cuboid isn't contained by the volume
+     */
+    default void fillBlocks(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState block) {
+        checkBulkRange(this, minX, minY, minZ, maxX, maxY, maxZ);
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    this.setBlock(x, y, z, block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the cuboid between the specified positions (inclusive)
+     * with the block state.
+     *
+     * @param min the minimum position
+     * @param max the maximum position
+     * @param block the block state
+     * @throws PositionOutOfBoundsException if the cuboid isn't contained by the volume
+     */
+    default void fillBlocks(Vector3i min, Vector3i max, BlockState block) {
+        this.fillBlocks(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ(), block);
+    }
+
+    /**
+     * Fills the column at the specified x and z coordinates between
+     * the minimum and maximum y coordinates (inclusive).
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @param minY the minimum y coordinate
+     * @param maxY the maximum y coordinate
+     * @param block the block state
+     * @throws PositionOutOfBoundsException if the column isn't contained by the volume
+     */
+    default void fillColumn(int x, int z, int minY, int maxY, BlockState block) {
+        this.fillBlocks(x, minY, z, x, maxY, z, block);
+    }
+
+    /**
+     * Fills the complete layer at the y coordinate with the block state.
+     *
+     * @param y the y coordinate
+     * @param block the block state
+     * @throws PositionOutOfBoundsException if the layer isn't contained by the volume
+     */
+    default void fillLayer(int y, BlockState block) {
+        final Vector3i min = this.getBlockMin();
+        final Vector3i max = this.getBlockMax();
+        this.fillBlocks(min.getX(), y, min.getZ(), max.getX(), y, max.getZ(), block);
+    }
+
+    /**
+     * Copies the blocks between the specified positions (inclusive) of the source
+     * buffer into this volume, the minimum position will be copied to the
+     * destination position.
+     *
+     * @param source the source buffer
+     * @param sourceMin the minimum position in the source buffer
+     * @param sourceMax the maximum position in the source buffer
+     * @param destination the minimum position in this volume
+     * @throws PositionOutOfBoundsException if the source or destination
+     *     cuboid isn't contained by the source buffer or the volume
+     */
+    default void copyBlocks(ShortArrayBlockBuffer source, Vector3i sourceMin, Vector3i sourceMax, Vector3i destination) {
+        checkBulkRange(source, sourceMin.getX(), sourceMin.getY(), sourceMin.getZ(),
+                sourceMax.getX(), sourceMax.getY(), sourceMax.getZ());
+        final Vector3i offset = destination.sub(sourceMin);
+        checkBulkRange(this, destination.getX(), destination.getY(), destination.getZ(),
+                sourceMax.getX() + offset.getX(), sourceMax.getY() + offset.getY(), sourceMax.getZ() + offset.getZ());
+        for (int x = sourceMin.getX(); x <= sourceMax.getX(); x++) {
+            for (int z = sourceMin.getZ(); z <= sourceMax.getZ(); z++) {
+                for (int y = sourceMin.getY(); y <= sourceMax.getY(); y++) {
+                    this.setBlock(x + offset.getX(), y + offset.getY(), z + offset.getZ(), source.getBlock(x, y, z));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the cuboid between the specified positions
+     * (inclusive) is contained by the volume.
+     *
+     * @param volume the volume
+     * @param minX the minimum x coordinate
+     * @param minY the minimum y coordinate
+     * @param minZ the minimum z coordinate
+     * @param maxX the maximum x coordinate
+     * @param maxY the maximum y coordinate
+     * @param maxZ the maximum z coordinate
+     * @throws PositionOutOfBoundsException if the cuboid isn't contained by the volume
+     */
+    static void checkBulkRange(BlockVolume volume,
+            int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            throw new IllegalArgumentException("The minimum position cannot be greater than the maximum position");
+        }
+        if (!volume.containsBlock(minX, minY, minZ)) {
+            throw new PositionOutOfBoundsException(new Vector3i(minX, minY, minZ), volume.getBlockMin(), volume.getBlockMax());
+        }
+        if (!volume.containsBlock(maxX, maxY, maxZ)) {
+            throw new PositionOutOfBoundsException(new Vector3i(maxX, maxY, maxZ), volume.getBlockMin(), volume.getBlockMax());
+        }
+    }
+}
@@ -27,6 +27,9 @@
 import com.flowpowered.math.vector.Vector2i;
 import com.flowpowered.math.vector.Vector3i;
 import org.lanternpowered.server.game.registry.Registries;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistry;
+import org.lanternpowered.server.util.gen.biome.ShortArrayBiomeBuffer;
+import org.lanternpowered.server.util.gen.block.ShortArrayBlockBuffer;
 import org.spongepowered.api.world.biome.BiomeType;
 import org.spongepowered.api.world.extent.BiomeArea;
 import org.spongepowered.api.world.extent.BlockVolume;
@@ -41,10 +44,21 @@ public static short[] copyToArray(BiomeArea area, Vector2i min, Vector2i max, Ve
             throw new OutOfMemoryError("Cannot copy the biomes to an array because the size limit was reached!");
         }
         final short[] copy = new short[(int) memory];
+        if (area instanceof ShortArrayBiomeBuffer) {
+            // Copy the rows directly from the backing array
+            final ShortArrayBiomeBuffer buffer = (ShortArrayBiomeBuffer) area;
+            final int length = size.getX();
+            int i = 0;
+            for (int z = min.getY(); z <= max.getY(); z++) {
+                buffer.copyRow(z, min.getX(), copy, i, length);
+                i += length;
+            }
+            return copy;
+        }
         int i = 0;
-        for (int y = min.getY(); y <= max.getY(); y++) {
+        for (int z = min.getY(); z <= max.getY(); z++) {
             for (int x = min.getX(); x <= max.getX(); x++) {
-                copy[i++] = Registries.getBiomeRegistry().getInternalId(area.getBiome(y, x));
+                copy[i++] = Registries.getBiomeRegistry().getInternalId(area.getBiome(x, z));
             }
         }
         return copy;
@@ -59,9 +73,9 @@ public static BiomeType[] copyToObjectArray(BiomeArea area, Vector2i min, Vector
         }
         final BiomeType[] copy = new BiomeType[(int) memory];
         int i = 0;
-        for (int y = min.getY(); y <= max.getY(); y++) {
+        for (int z = min.getY(); z <= max.getY(); z++) {
             for (int x = min.getX(); x <= max.getX(); x++) {
-                copy[i++] = area.getBiome(y, x);
+                copy[i++] = area.getBiome(x, z);
             }
         }
         return copy;
@@ -75,11 +89,25 @@ public static short[] copyToArray(BlockVolume volume, Vector3i min, Vector3i max
             throw new OutOfMemoryError("Cannot copy the blocks to an array because the size limit was reached!");
         }
         final short[] copy = new short[(int) memory];
+        if (volume instanceof ShortArrayBlockBuffer) {
+            // Copy the columns directly from the backing array
+            final ShortArrayBlockBuffer buffer = (ShortArrayBlockBuffer) volume;
+            final int length = size.getY();
+            int i = 0;
+            for (int x = min.getX(); x <= max.getX(); x++) {
+                for (int z = min.getZ(); z <= max.getZ(); z++) {
+                    buffer.copyColumn(x, z, min.getY(), copy, i, length);
+                    i += length;
+                }
+            }
+            return copy;
+        }
+        final BlockRegistry blockRegistry = Registries.getBlockRegistry();
         int i = 0;
         for (int x = min.getX(); x <= max.getX(); x++) {
             for (int z = min.getZ(); z <= max.getZ(); z++) {
                 for (int y = min.getY(); y <= max.getY(); y++) {
-                    copy[i++] = Registries.getBlockRegistry().getStateInternalIdAndData(volume.getBlock(x, y, z));
+                    copy[i++] = blockRegistry.getStateInternalIdAndData(volume.getBlock(x, y, z));
                 }
             }
         }
@@ -27,6 +27,7 @@
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.flowpowered.math.vector.Vector2i;
+import com.flowpowered.math.vector.Vector3i;
 import org.spongepowered.api.world.biome.BiomeType;
 import org.spongepowered.api.world.extent.BiomeArea;
 import org.spongepowered.api.world.extent.MutableBiomeArea;
@@ -39,14 +40,46 @@
 
 import java.util.function.BiFunction;
 
+/**
+ * The default biome area worker. The area is processed in cells that are
+ * aligned to the chunks, the cells can optionally be processed in
+ * parallel, see {@link #setParallel(boolean)}.
+ *
+ * @param <A> the type of the area
+ */
 public class LanternBiomeAreaWorker<A extends BiomeArea> implements BiomeAreaWorker<A> {
 
     protected final A area;
 
+    // Whether the cells of the area will be processed in parallel
+    private volatile boolean parallel;
+
     public LanternBiomeAreaWorker(A area) {
         this.area = area;
     }
 
+    /**
+     * Sets whether the area should be processed in parallel. The procedures
+     * that are passed to this worker must be thread safe in parallel mode, and
+     * the visiting order of the biomes is undefined.
+     *
+     * @param parallel whether the area should be processed in parallel
+     * @return this worker, for chaining
+     */
+    public LanternBiomeAreaWorker<A> setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Gets whether the area will be processed in parallel.
+     *
+     * @return is parallel
+     */
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
     @Override
     public A getArea() {
         return this.area;
@@ -58,16 +91,16 @@ public void map(BiomeAreaMapper mapper, MutableBiomeArea destination) {
         final int xOffset = offset.getX();
         final int zOffset = offset.getY();
         final UnmodifiableBiomeArea unmodifiableArea = this.area.getUnmodifiableBiomeView();
-        final int xMin = unmodifiableArea.getBiomeMin().getX();
-        final int zMin = unmodifiableArea.getBiomeMin().getY();
-        final int xMax = unmodifiableArea.getBiomeMax().getX();
-        final int zMax = unmodifiableArea.getBiomeMax().getY();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int x = xMin; x <= xMax; x++) {
-                final BiomeType biome = mapper.map(unmodifiableArea, x, z);
-                destination.setBiome(x + xOffset, z + zOffset, biome);
-            }
-        }
+        forEach(unmodifiableArea.getBiomeMin(), unmodifiableArea.getBiomeMax(), this.parallel,
+                (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            final BiomeType biome = mapper.map(unmodifiableArea, x, z);
+                            destination.setBiome(x + xOffset, z + zOffset, biome);
+                        }
+                    }
+                    return null;
+                });
     }
 
     @Override
@@ -79,46 +112,53 @@ public void merge(BiomeArea second, BiomeAreaMerger merger, MutableBiomeArea des
         final int xOffsetDestination = offsetDestination.getX();
         final int zOffsetDestination = offsetDestination.getY();
         final UnmodifiableBiomeArea firstUnmodifiableArea = this.area.getUnmodifiableBiomeView();
-        final int xMin = firstUnmodifiableArea.getBiomeMin().getX();
-        final int zMin = firstUnmodifiableArea.getBiomeMin().getY();
-        final int xMax = firstUnmodifiableArea.getBiomeMax().getX();
-        final int zMax = firstUnmodifiableArea.getBiomeMax().getY();
         final UnmodifiableBiomeArea secondUnmodifiableArea = second.getUnmodifiableBiomeView();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int x = xMin; x <= xMax; x++) {
-                final BiomeType biome = merger.merge(firstUnmodifiableArea, x, z, secondUnmodifiableArea, x + xOffsetSecond, z + zOffsetSecond);
-                destination.setBiome(x + xOffsetDestination, z + zOffsetDestination, biome);
-            }
-        }
+        forEach(firstUnmodifiableArea.getBiomeMin(), firstUnmodifiableArea.getBiomeMax(), this.parallel,
+                (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            final BiomeType biome = merger.merge(firstUnmodifiableArea, x, z,
+                                    secondUnmodifiableArea, x + xOffsetSecond, z + zOffsetSecond);
+                            destination.setBiome(x + xOffsetDestination, z + zOffsetDestination, biome);
+                        }
+                    }
+                    return null;
+                });
     }
 
     @Override
     public void iterate(BiomeAreaVisitor<A> visitor) {
-        final int xMin = this.area.getBiomeMin().getX();
-        final int zMin = this.area.getBiomeMin().getY();
-        final int xMax = this.area.getBiomeMax().getX();
-        final int zMax = this.area.getBiomeMax().getY();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int x = xMin; x <= xMax; x++) {
-                visitor.visit(this.area, x, z);
-            }
-        }
+        forEach(this.area.getBiomeMin(), this.area.getBiomeMax(), this.parallel,
+                (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            visitor.visit(this.area, x, z);
+                        }
+                    }
+                    return null;
+                });
     }
 
     @Override
     public <T> T reduce(BiomeAreaReducer<T> reducer, BiFunction<T, T, T> merge, T identity) {
         final UnmodifiableBiomeArea unmodifiableArea = this.area.getUnmodifiableBiomeView();
-        final int xMin = unmodifiableArea.getBiomeMin().getX();
-        final int zMin = unmodifiableArea.getBiomeMin().getY();
-        final int xMax = unmodifiableArea.getBiomeMax().getX();
-        final int zMax = unmodifiableArea.getBiomeMax().getY();
-        T reduction = identity;
-        for (int z = zMin; z <= zMax; z++) {
-            for (int x = xMin; x <= xMax; x++) {
-                reduction = reducer.reduce(unmodifiableArea, x, z, reduction);
-            }
-        }
-        return reduction;
+        return WorkerSections.reduce(toVolume(unmodifiableArea.getBiomeMin()), toVolume(unmodifiableArea.getBiomeMax()),
+                this.parallel, identity, (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            reduction = reducer.reduce(unmodifiableArea, x, z, reduction);
+                        }
+                    }
+                    return reduction;
+                }, merge);
+    }
+
+    static void forEach(Vector2i min, Vector2i max, boolean parallel, WorkerSections.CellReducer<Void> action) {
+        WorkerSections.forEach(toVolume(min), toVolume(max), parallel, action);
+    }
+
+    private static Vector3i toVolume(Vector2i vector) {
+        return new Vector3i(vector.getX(), 0, vector.getY());
     }
 
     private Vector2i align(BiomeArea other) {
@@ -27,7 +27,6 @@
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.flowpowered.math.vector.Vector3i;
-import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.world.extent.BlockVolume;
 import org.spongepowered.api.world.extent.MutableBlockVolume;
 import org.spongepowered.api.world.extent.UnmodifiableBlockVolume;
@@ -39,14 +38,47 @@
 
 import java.util.function.BiFunction;
 
+/**
+ * The default block volume worker. The volume is processed in cells that are
+ * aligned to the chunk sections, the cells can optionally be processed in
+ * parallel, see {@link #setParallel(boolean)}.
+ *
+ * @param <V> the type of the volume
+ */
 public class LanternBlockVolumeWorker<V extends BlockVolume> implements BlockVolumeWorker<V> {
 
     protected final V volume;
 
+    // Whether the cells of the volume will be processed in parallel
+    private volatile boolean parallel;
+
     public LanternBlockVolumeWorker(V volume) {
         this.volume = volume;
     }
 
+    /**
+     * Sets whether the volume should be processed in parallel. The procedures
+     * that are passed to this worker must be thread safe in parallel mode, and
+     * the visiting order of the blocks is undefined. The destination volumes
+     * are still only modified by the thread that calls the worker.
+     *
+     * @param parallel whether the volume should be processed in parallel
+     * @return this worker, for chaining
+     */
+    public LanternBlockVolumeWorker<V> setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Gets whether the volume will be processed in parallel.
+     *
+     * @return is parallel
+     */
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
     @Override
     public V getVolume() {
         return this.volume;
@@ -55,24 +87,9 @@ public V getVolume() {
     @Override
     public void map(BlockVolumeMapper mapper, MutableBlockVolume destination) {
         final Vector3i offset = align(destination);
-        final int xOffset = offset.getX();
-        final int yOffset = offset.getY();
-        final int zOffset = offset.getZ();
         final UnmodifiableBlockVolume unmodifiableVolume = this.volume.getUnmodifiableBlockView();
-        final int xMin = unmodifiableVolume.getBlockMin().getX();
-        final int yMin = unmodifiableVolume.getBlockMin().getY();
-        final int zMin = unmodifiableVolume.getBlockMin().getZ();
-        final int xMax = unmodifiableVolume.getBlockMax().getX();
-        final int yMax = unmodifiableVolume.getBlockMax().getY();
-        final int zMax = unmodifiableVolume.getBlockMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BlockState block = mapper.map(unmodifiableVolume, x, y, z);
-                    destination.setBlock(x + xOffset, y + yOffset, z + zOffset, block);
-                }
-            }
-        }
+        WorkerSections.write(unmodifiableVolume.getBlockMin(), unmodifiableVolume.getBlockMax(), this.parallel,
+                (x, y, z) -> mapper.map(unmodifiableVolume, x, y, z), destination, offset);
     }
 
     @Override
@@ -82,69 +99,49 @@ public void merge(BlockVolume second, BlockVolumeMerger merger, MutableBlockVolu
         final int yOffsetSecond = offsetSecond.getY();
         final int zOffsetSecond = offsetSecond.getZ();
         final Vector3i offsetDestination = align(destination);
-        final int xOffsetDestination = offsetDestination.getX();
-        final int yOffsetDestination = offsetDestination.getY();
-        final int zOffsetDestination = offsetDestination.getZ();
         final UnmodifiableBlockVolume firstUnmodifiableVolume = this.volume.getUnmodifiableBlockView();
-        final int xMin = firstUnmodifiableVolume.getBlockMin().getX();
-        final int yMin = firstUnmodifiableVolume.getBlockMin().getY();
-        final int zMin = firstUnmodifiableVolume.getBlockMin().getZ();
-        final int xMax = firstUnmodifiableVolume.getBlockMax().getX();
-        final int yMax = firstUnmodifiableVolume.getBlockMax().getY();
-        final int zMax = firstUnmodifiableVolume.getBlockMax().getZ();
         final UnmodifiableBlockVolume secondUnmodifiableVolume = second.getUnmodifiableBlockView();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BlockState block = merger.merge(firstUnmodifiableVolume, x, y, z,
-                            secondUnmodifiableVolume, x + xOffsetSecond, y + yOffsetSecond, z + zOffsetSecond);
-                    destination.setBlock(x + xOffsetDestination, y + yOffsetDestination, z + zOffsetDestination, block);
-                }
-            }
-        }
+        WorkerSections.write(firstUnmodifiableVolume.getBlockMin(), firstUnmodifiableVolume.getBlockMax(), this.parallel,
+                (x, y, z) -> merger.merge(firstUnmodifiableVolume, x, y, z,
+                        secondUnmodifiableVolume, x + xOffsetSecond, y + yOffsetSecond, z + zOffsetSecond),
+                destination, offsetDestination);
     }
 
     @Override
     public void iterate(BlockVolumeVisitor<V> visitor) {
-        final int xMin = this.volume.getBlockMin().getX();
-        final int yMin = this.volume.getBlockMin().getY();
-        final int zMin = this.volume.getBlockMin().getZ();
-        final int xMax = this.volume.getBlockMax().getX();
-        final int yMax = this.volume.getBlockMax().getY();
-        final int zMax = this.volume.getBlockMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    visitor.visit(this.volume, x, y, z);
-                }
-            }
-        }
+        WorkerSections.forEach(this.volume.getBlockMin(), this.volume.getBlockMax(), this.parallel,
+                (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    for (int y = yMin; y <= yMax; y++) {
+                        for (int z = zMin; z <= zMax; z++) {
+                            for (int x = xMin; x <= xMax; x++) {
+                                visitor.visit(this.volume, x, y, z);
+                            }
+                        }
+                    }
+                    return null;
+                });
     }
 
     @Override
     public <T> T reduce(BlockVolumeReducer<T> reducer, BiFunction<T, T, T> merge, T identity) {
         final UnmodifiableBlockVolume unmodifiableVolume = this.volume.getUnmodifiableBlockView();
-        final int xMin = unmodifiableVolume.getBlockMin().getX();
-        final int yMin = unmodifiableVolume.getBlockMin().getY();
-        final int zMin = unmodifiableVolume.getBlockMin().getZ();
-        final int xMax = unmodifiableVolume.getBlockMax().getX();
-        final int yMax = unmodifiableVolume.getBlockMax().getY();
-        final int zMax = unmodifiableVolume.getBlockMax().getZ();
-        T reduction = identity;
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    reduction = reducer.reduce(unmodifiableVolume, x, y, z, reduction);
-                }
-            }
-        }
-        return reduction;
+        return WorkerSections.reduce(unmodifiableVolume.getBlockMin(), unmodifiableVolume.getBlockMax(), this.parallel, identity,
+                (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    for (int y = yMin; y <= yMax; y++) {
+                        for (int z = zMin; z <= zMax; z++) {
+                            for (int x = xMin; x <= xMax; x++) {
+                                reduction = reducer.reduce(unmodifiableVolume, x, y, z, reduction);
+                            }
+                        }
+                    }
+                    return reduction;
+                }, merge);
     }
 
     private Vector3i align(BlockVolume other) {
         final Vector3i thisSize = this.volume.getBlockSize();
         final Vector3i otherSize = other.getBlockSize();
-        checkArgument(otherSize.getX() >= thisSize.getX() && otherSize.getY() >= thisSize.getY() && otherSize.getY() >= thisSize.getY(),
+        checkArgument(otherSize.getX() >= thisSize.getX() && otherSize.getY() >= thisSize.getY() && otherSize.getZ() >= thisSize.getZ(),
                 "Other volume is smaller than work volume");
         return other.getBlockMin().sub(this.volume.getBlockMin());
     }
@@ -35,17 +35,23 @@ public LanternMutableBiomeAreaWorker(A area) {
         super(area);
     }
 
+    @Override
+    public LanternMutableBiomeAreaWorker<A> setParallel(boolean parallel) {
+        super.setParallel(parallel);
+        return this;
+    }
+
     @Override
     public void fill(BiomeAreaFiller filler) {
-        final int xMin = this.area.getBiomeMin().getX();
-        final int zMin = this.area.getBiomeMin().getY();
-        final int xMax = this.area.getBiomeMax().getX();
-        final int zMax = this.area.getBiomeMax().getY();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int x = xMin; x <= xMax; x++) {
-                final BiomeType biome = filler.produce(x, z);
-                this.area.setBiome(x, z, biome);
-            }
-        }
+        forEach(this.area.getBiomeMin(), this.area.getBiomeMax(), this.isParallel(),
+                (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            final BiomeType biome = filler.produce(x, z);
+                            this.area.setBiome(x, z, biome);
+                        }
+                    }
+                    return null;
+                });
     }
 }
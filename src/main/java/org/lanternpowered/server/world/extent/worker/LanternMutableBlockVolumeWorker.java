@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.server.world.extent.worker;
 
-import org.spongepowered.api.block.BlockState;
+import com.flowpowered.math.vector.Vector3i;
 import org.spongepowered.api.world.extent.MutableBlockVolume;
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeFiller;
@@ -36,21 +36,15 @@ public LanternMutableBlockVolumeWorker(V volume) {
         super(volume);
     }
 
+    @Override
+    public LanternMutableBlockVolumeWorker<V> setParallel(boolean parallel) {
+        super.setParallel(parallel);
+        return this;
+    }
+
     @Override
     public void fill(BlockVolumeFiller filler) {
-        final int xMin = this.volume.getBlockMin().getX();
-        final int yMin = this.volume.getBlockMin().getY();
-        final int zMin = this.volume.getBlockMin().getZ();
-        final int xMax = this.volume.getBlockMax().getX();
-        final int yMax = this.volume.getBlockMax().getY();
-        final int zMax = this.volume.getBlockMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BlockState block = filler.produce(x, y, z);
-                    this.volume.setBlock(x, y, z, block);
-                }
-            }
-        }
+        WorkerSections.write(this.volume.getBlockMin(), this.volume.getBlockMax(), this.isParallel(),
+                filler::produce, this.volume, Vector3i.ZERO);
     }
 }
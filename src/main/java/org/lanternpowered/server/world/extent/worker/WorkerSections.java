@@ -0,0 +1,297 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent.worker;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.game.registry.Registries;
+import org.lanternpowered.server.util.gen.block.ShortArrayMutableBlockBuffer;
+import org.lanternpowered.server.world.extent.BulkMutableBlockVolume;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+
+/**
+ * Splits volumes into cells that are aligned to the chunk sections
+ * (16x16x16 blocks), the blocks within a cell are visited in the same
+ * order as they are stored in a chunk section (x, then z, then y). This
+ * keeps the accesses of a worker within a single chunk section as long
+ * as possible and allows the cells to be processed in parallel.
+ *
+ * <p>The volumes themselves are never modified in parallel, the blocks
+ * that are written to a volume are collected per cell in a raw array and
+ * copied into the volume at once by the thread that started the work.</p>
+ */
+final class WorkerSections {
+
+    // The amount of cells that will be processed at least by a single task
+    private static final int MIN_CELLS_PER_TASK = 4;
+
+    // The bits of the size of a cell
+    private static final int CELL_BITS = 4;
+
+    /**
+     * Represents a operation that will be applied to a cell.
+     *
+     * @param <T> the type of the reduction
+     */
+    @FunctionalInterface
+    interface CellReducer<T> {
+
+        /**
+         * Applies the operation to the cell between the specified
+         * positions (inclusive).
+         *
+         * @param minX the minimum x coordinate
+         * @param minY the minimum y coordinate
+         * @param minZ the minimum z coordinate
+         * @param maxX the maximum x coordinate
+         * @param maxY the maximum y coordinate
+         * @param maxZ the maximum z coordinate
+         * @param reduction the current reduction
+         * @return the new reduction
+         */
+        T reduce(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, T reduction);
+    }
+
+    /**
+     * Produces the block state at a position.
+     */
+    @FunctionalInterface
+    interface BlockProducer {
+
+        /**
+         * Produces the block state at the specified position.
+         *
+         * @param x the x coordinate
+         * @param y the y coordinate
+         * @param z the z coordinate
+         * @return the block state
+         */
+        BlockState produce(int x, int y, int z);
+    }
+
+    /**
+     * Applies the reducer to all the cells between the specified positions (inclusive).
+     *
+     * <p>In sequential mode will the reduction be passed through all the cells, starting with
+     * the identity. In parallel mode will every task start with the identity and will the results
+     * of the tasks be combined with the merge function.</p>
+     *
+     * @param min the minimum position
+     * @param max the maximum position
+     * @param parallel whether the cells should be processed in parallel
+     * @param identity the identity of the reduction
+     * @param reducer the reducer
+     * @param merge the merge function
+     * @param <T> the type of the reduction
+     * @return the reduction
+     */
+    static <T> T reduce(Vector3i min, Vector3i max, boolean parallel, T identity,
+            CellReducer<T> reducer, BiFunction<T, T, T> merge) {
+        final Cells cells = new Cells(min, max);
+        if (parallel && cells.count >= MIN_CELLS_PER_TASK * 2) {
+            return ForkJoinPool.commonPool().invoke(new CellTask<>(cells, 0, cells.count, identity, reducer, merge));
+        }
+        return cells.reduce(0, cells.count, identity, reducer);
+    }
+
+    /**
+     * Applies the action to all the cells between the specified positions (inclusive).
+     *
+     * @param min the minimum position
+     * @param max the maximum position
+     * @param parallel whether the cells should be processed in parallel
+     * @param action the action
+     */
+    static void forEach(Vector3i min, Vector3i max, boolean parallel, CellReducer<Void> action) {
+        reduce(min, max, parallel, null, action, (a, b) -> null);
+    }
+
+    /**
+     * Writes the block states that are produced for all the positions between the specified
+     * positions (inclusive) into the destination, moved by the offset. The block states of
+     * a cell are collected in a raw array and copied into the destination at once, this
+     * allows a chunk to update its block counts and changes once per section.
+     *
+     * <p>In parallel mode are only the block states produced in parallel, the cells are
+     * copied into the destination by the calling thread once all of them are produced.</p>
+     *
+     * @param min the minimum position
+     * @param max the maximum position
+     * @param parallel whether the block states should be produced in parallel
+     * @param producer the block producer
+     * @param destination the destination volume
+     * @param offset the offset of the destination positions
+     */
+    static void write(Vector3i min, Vector3i max, boolean parallel, BlockProducer producer,
+            MutableBlockVolume destination, Vector3i offset) {
+        if (!parallel) {
+            forEach(min, max, false, (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                copy(produce(xMin, yMin, zMin, xMax, yMax, zMax, producer), destination, offset);
+                return null;
+            });
+            return;
+        }
+        final List<ShortArrayMutableBlockBuffer> cells = reduce(min, max, true, Collections.emptyList(),
+                (xMin, yMin, zMin, xMax, yMax, zMax, reduction) -> {
+                    // The identity is shared between the tasks, so it can't be modified
+                    final List<ShortArrayMutableBlockBuffer> cells0 = reduction.isEmpty() ? new ArrayList<>() : reduction;
+                    cells0.add(produce(xMin, yMin, zMin, xMax, yMax, zMax, producer));
+                    return cells0;
+                }, (first, second) -> {
+                    if (first.isEmpty()) {
+                        return second;
+                    }
+                    first.addAll(second);
+                    return first;
+                });
+        for (ShortArrayMutableBlockBuffer cell : cells) {
+            copy(cell, destination, offset);
+        }
+    }
+
+    private static ShortArrayMutableBlockBuffer produce(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+            BlockProducer producer) {
+        final int sizeX = maxX - minX + 1;
+        final int sizeY = maxY - minY + 1;
+        final int sizeZ = maxZ - minZ + 1;
+        // Uses the layout of the block buffers, the blocks of a column are stored next to each other
+        final short[] blocks = new short[sizeX * sizeY * sizeZ];
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    blocks[((x - minX) * sizeZ + (z - minZ)) * sizeY + (y - minY)] =
+                            Registries.getBlockRegistry().getStateInternalIdAndData(producer.produce(x, y, z));
+                }
+            }
+        }
+        return new ShortArrayMutableBlockBuffer(blocks, new Vector3i(minX, minY, minZ), new Vector3i(sizeX, sizeY, sizeZ));
+    }
+
+    private static void copy(ShortArrayMutableBlockBuffer cell, MutableBlockVolume destination, Vector3i offset) {
+        final Vector3i min = cell.getBlockMin();
+        final Vector3i max = cell.getBlockMax();
+        if (destination instanceof BulkMutableBlockVolume) {
+            ((BulkMutableBlockVolume) destination).copyBlocks(cell, min, max, min.add(offset));
+            return;
+        }
+        for (int y = min.getY(); y <= max.getY(); y++) {
+            for (int z = min.getZ(); z <= max.getZ(); z++) {
+                for (int x = min.getX(); x <= max.getX(); x++) {
+                    destination.setBlock(x + offset.getX(), y + offset.getY(), z + offset.getZ(), cell.getBlock(x, y, z));
+                }
+            }
+        }
+    }
+
+    private static final class Cells {
+
+        private final Vector3i min;
+        private final Vector3i max;
+
+        // The minimum cell coordinates
+        private final int cellMinX;
+        private final int cellMinY;
+        private final int cellMinZ;
+
+        // The amount of cells on each axis
+        private final int sizeX;
+        private final int sizeZ;
+
+        // The total amount of cells
+        private final int count;
+
+        private Cells(Vector3i min, Vector3i max) {
+            this.min = min;
+            this.max = max;
+            this.cellMinX = min.getX() >> CELL_BITS;
+            this.cellMinY = min.getY() >> CELL_BITS;
+            this.cellMinZ = min.getZ() >> CELL_BITS;
+            this.sizeX = (max.getX() >> CELL_BITS) - this.cellMinX + 1;
+            this.sizeZ = (max.getZ() >> CELL_BITS) - this.cellMinZ + 1;
+            final int sizeY = (max.getY() >> CELL_BITS) - this.cellMinY + 1;
+            this.count = this.sizeX * sizeY * this.sizeZ;
+        }
+
+        private <T> T reduce(int from, int to, T reduction, CellReducer<T> reducer) {
+            for (int i = from; i < to; i++) {
+                final int cx = this.cellMinX + i % this.sizeX;
+                final int cz = this.cellMinZ + (i / this.sizeX) % this.sizeZ;
+                final int cy = this.cellMinY + i / (this.sizeX * this.sizeZ);
+                reduction = reducer.reduce(
+                        Math.max(cx << CELL_BITS, this.min.getX()),
+                        Math.max(cy << CELL_BITS, this.min.getY()),
+                        Math.max(cz << CELL_BITS, this.min.getZ()),
+                        Math.min((cx << CELL_BITS) | 0xf, this.max.getX()),
+                        Math.min((cy << CELL_BITS) | 0xf, this.max.getY()),
+                        Math.min((cz << CELL_BITS) | 0xf, this.max.getZ()), reduction);
+            }
+            return reduction;
+        }
+    }
+
+    private static final class CellTask<T> extends RecursiveTask<T> {
+
+        private static final long serialVersionUID = 4125186137318155432L;
+
+        private final Cells cells;
+        private final int from;
+        private final int to;
+        private final T identity;
+        private final CellReducer<T> reducer;
+        private final BiFunction<T, T, T> merge;
+
+        private CellTask(Cells cells, int from, int to, T identity, CellReducer<T> reducer, BiFunction<T, T, T> merge) {
+            this.cells = cells;
+            this.from = from;
+            this.to = to;
+            this.identity = identity;
+            this.reducer = reducer;
+            this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            if (this.to - this.from <= MIN_CELLS_PER_TASK) {
+                return this.cells.reduce(this.from, this.to, this.identity, this.reducer);
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            final CellTask<T> first = new CellTask<>(this.cells, this.from, middle, this.identity, this.reducer, this.merge);
+            final CellTask<T> second = new CellTask<>(this.cells, middle, this.to, this.identity, this.reducer, this.merge);
+            second.fork();
+            final T result = first.compute();
+            return this.merge.apply(result, second.join());
+        }
+    }
+
+    private WorkerSections() {
+    }
+}
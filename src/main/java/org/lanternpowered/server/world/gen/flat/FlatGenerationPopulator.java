@@ -28,6 +28,7 @@
 
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.Lists;
+import org.lanternpowered.server.world.extent.BulkMutableBlockVolume;
 import org.lanternpowered.server.world.gen.LanternGeneratorType;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.world.World;
@@ -70,6 +71,22 @@ public void populate(World world, MutableBlockVolume buffer, ImmutableBiomeArea
         final Vector3i max = buffer.getBlockMax();
 
         final int height = this.blockStateCache.length;
+        if (buffer instanceof BulkMutableBlockVolume) {
+            final BulkMutableBlockVolume bulkBuffer = (BulkMutableBlockVolume) buffer;
+            final int maxY = Math.min(max.getY(), height - 1);
+            // Fill all the successive layers with the same block state at once
+            int y = Math.max(min.getY(), 0);
+            while (y <= maxY) {
+                final BlockState blockState = this.blockStateCache[y];
+                int y1 = y;
+                while (y1 < maxY && this.blockStateCache[y1 + 1] == blockState) {
+                    y1++;
+                }
+                bulkBuffer.fillBlocks(min.getX(), y, min.getZ(), max.getX(), y1, max.getZ(), blockState);
+                y = y1 + 1;
+            }
+            return;
+        }
         for (int x = min.getX(); x <= max.getX(); x++) {
             for (int z = min.getZ(); z <= max.getZ(); z++) {
                 for (int y = min.getY(); y <= max.getY(); y++) {
@@ -0,0 +1,196 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block.state;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lanternpowered.server.block.LanternBlockType;
+import org.lanternpowered.server.block.trait.LanternBlockTrait;
+import org.lanternpowered.server.block.type.BlockDirt;
+import org.lanternpowered.server.block.type.BlockGrass;
+import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.lanternpowered.server.game.registry.type.data.KeyRegistryModule;
+import org.lanternpowered.server.game.registry.util.RegistryHelper;
+import org.lanternpowered.server.util.ReflectionHelper;
+import org.spongepowered.api.CatalogType;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.block.trait.BlockTrait;
+import org.spongepowered.api.data.key.Key;
+import org.spongepowered.api.data.key.Keys;
+import org.spongepowered.api.util.Cycleable;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compares the precomputed transitions of the block states with
+ * the values that would be computed by searching the block states.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class LanternBlockStateMapTest {
+
+    private static BlockRegistryModule blockRegistry;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        // The catalog types of the trait values need the translations of the game
+        ReflectionHelper.setField(LanternGame.class.getDeclaredField("game"), null, mock(LanternGame.class, RETURNS_DEEP_STUBS));
+        // The block traits are bound to the keys
+        final KeyRegistryModule keyRegistry = new KeyRegistryModule();
+        keyRegistry.registerDefaults();
+        final Field field = KeyRegistryModule.class.getDeclaredField("mappings");
+        field.setAccessible(true);
+        RegistryHelper.mapFields(Keys.class, (Map<String, ?>) field.get(keyRegistry));
+        blockRegistry = new BlockRegistryModule();
+        blockRegistry.registerDefaults();
+    }
+
+    @Test
+    public void testWithTrait() {
+        for (BlockType blockType : blockRegistry.getAll()) {
+            for (BlockState state : blockType.getAllStates()) {
+                for (BlockTrait<?> trait : state.getTraits()) {
+                    final Key key = ((LanternBlockTrait) trait).getKey();
+                    for (Object value : trait.getPossibleValues()) {
+                        final BlockState expected = findState(blockType, state, trait, value);
+                        assertSame(expected, state.withTrait(trait, value).get());
+                        assertSame(expected, state.with(key, value).get());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithTraitName() {
+        for (BlockType blockType : blockRegistry.getAll()) {
+            for (BlockState state : blockType.getAllStates()) {
+                for (BlockTrait<?> trait : state.getTraits()) {
+                    for (Object value : trait.getPossibleValues()) {
+                        assertWithTraitName(blockType, state, trait, value.toString());
+                        if (value instanceof CatalogType) {
+                            assertWithTraitName(blockType, state, trait, ((CatalogType) value).getId().toUpperCase(Locale.ENGLISH));
+                        }
+                    }
+                    assertFalse(state.withTrait(trait, "unknown_value").isPresent());
+                }
+            }
+        }
+    }
+
+    private static void assertWithTraitName(BlockType blockType, BlockState state, BlockTrait<?> trait, String name) {
+        Object value = null;
+        for (Object object : trait.getPossibleValues()) {
+            if (object.toString().equals(name) || (object instanceof CatalogType && ((CatalogType) object).getId()
+                    .equalsIgnoreCase(name))) {
+                value = object;
+                break;
+            }
+        }
+        final Optional<BlockState> optState = state.withTrait(trait, name);
+        if (value == null) {
+            assertFalse(optState.isPresent());
+        } else {
+            assertSame(findState(blockType, state, trait, value), optState.get());
+        }
+    }
+
+    @Test
+    public void testCycleValue() {
+        for (BlockType blockType : blockRegistry.getAll()) {
+            for (BlockState state : blockType.getAllStates()) {
+                for (BlockTrait trait : state.getTraits()) {
+                    final Object value = state.getTraitMap().get(trait);
+                    final BlockState expected = findState(blockType, state, trait, cycleValue(trait, value));
+                    assertSame(expected, ((LanternBlockState) state).cycleTraitValue(trait).get());
+                    if (value instanceof Cycleable) {
+                        assertSame(expected, state.cycleValue(((LanternBlockTrait) trait).getKey()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedTrait() {
+        final BlockState state = blockRegistry.getById("minecraft:dirt").get().getDefaultState();
+        assertFalse(state.withTrait(BlockGrass.SNOWY, true).isPresent());
+        assertFalse(((LanternBlockState) state).cycleTraitValue(BlockGrass.SNOWY).isPresent());
+        assertFalse(blockRegistry.getById("minecraft:grass").get().getDefaultState().withTrait(BlockDirt.TYPE, "podzol").isPresent());
+    }
+
+    /**
+     * Searches the block state of the block type that has the same
+     * values as the specified state, except for the specified trait.
+     */
+    private static BlockState findState(BlockType blockType, BlockState state, BlockTrait<?> trait, Object value) {
+        final Map<BlockTrait<?>, Object> traitValues = new HashMap<>(state.getTraitMap());
+        traitValues.put(trait, value);
+        for (BlockState other : ((LanternBlockType) blockType).getBlockStateBase().getBlockStates()) {
+            if (other.getTraitMap().equals(traitValues)) {
+                return other;
+            }
+        }
+        throw new AssertionError("No block state found for " + traitValues);
+    }
+
+    /**
+     * Gets the value that follows the specified value, cycleable values are cycled
+     * until a value is found that is allowed by the trait, other values just
+     * follow the order of the possible values.
+     */
+    private static Object cycleValue(BlockTrait trait, Object value) {
+        if (value instanceof Cycleable) {
+            Object last = value;
+            Object next;
+            while ((next = ((Cycleable) last).cycleNext()) != value) {
+                if (trait.getPredicate().test(next)) {
+                    return next;
+                }
+                last = next;
+            }
+            return value;
+        }
+        final Iterator<?> it = trait.getPossibleValues().iterator();
+        while (it.hasNext()) {
+            if (it.next() == value) {
+                return it.hasNext() ? it.next() : trait.getPossibleValues().iterator().next();
+            }
+        }
+        return value;
+    }
+
+}
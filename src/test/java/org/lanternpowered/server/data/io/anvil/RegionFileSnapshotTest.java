@@ -0,0 +1,138 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+public class RegionFileSnapshotTest {
+
+    // The region files must not exist yet, otherwise a warning would be logged
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCopyOnWrite() throws IOException {
+        final RegionFile region = new RegionFile(new File(this.folder.getRoot(), "r.0.0.mca"));
+        try {
+            this.writeChunk(region, 1, 2, 1);
+            this.writeChunk(region, 3, 4, 2);
+
+            final RegionFile.Snapshot snapshot = region.snapshot(0);
+            assertEquals(2, snapshot.size());
+            final byte[] data = region.read(snapshot, 0);
+
+            // Overwrite the chunk with data of the same size, the
+            // sectors in the snapshot may not be reused
+            this.writeChunk(region, 1, 2, 3);
+            assertArrayEquals(data, region.read(snapshot, 0));
+            assertEquals(3, this.readChunk(region, 1, 2));
+            snapshot.release();
+            region.unpin(snapshot);
+
+            // The sectors are reclaimed once the snapshot is released
+            this.writeChunk(region, 3, 4, 4);
+            assertEquals(4, this.readChunk(region, 3, 4));
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    public void testRawCopy() throws IOException {
+        final File target = new File(this.folder.getRoot(), "r.1.0.mca");
+        final RegionFile source = new RegionFile(new File(this.folder.getRoot(), "r.0.0.mca"), ChunkCompressions.NONE);
+        try {
+            this.writeChunk(source, 5, 6, 7);
+            final RegionFile.Snapshot snapshot = source.snapshot(0);
+            final RegionFile region = new RegionFile(target);
+            try {
+                for (int i = 0; i < snapshot.size(); i++) {
+                    region.writeRaw(snapshot.getX(i), snapshot.getZ(i), source.read(snapshot, i), snapshot.getTimestamp(i));
+                }
+                // The compression of the raw data is preserved
+                assertEquals(7, this.readChunk(region, 5, 6));
+            } finally {
+                snapshot.release();
+                source.unpin(snapshot);
+                region.close();
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void testReopenedRegion() throws IOException {
+        final RegionFileCache cache = new RegionFileCache(this.folder.getRoot(), RegionFileCache.REGION_FILE_EXTENSION);
+        try {
+            this.writeChunk(cache.getRegionFile(1, 2), 1, 2, 1);
+            final RegionFile.Snapshot snapshot = cache.snapshot(0, 0, 0);
+            assertNotNull(snapshot);
+            final byte[] data = cache.read(snapshot, 0);
+
+            // The region file is closed and opened again, the new
+            // region file may not reuse the pinned sectors either
+            cache.clear();
+            this.writeChunk(cache.getRegionFile(1, 2), 1, 2, 2);
+            cache.clear();
+            this.writeChunk(cache.getRegionFile(3, 4), 3, 4, 3);
+            assertArrayEquals(data, cache.read(snapshot, 0));
+            assertEquals(2, this.readChunk(cache.getRegionFile(1, 2), 1, 2));
+            assertEquals(3, this.readChunk(cache.getRegionFile(3, 4), 3, 4));
+            cache.release(snapshot);
+        } finally {
+            cache.clear();
+        }
+    }
+
+    private void writeChunk(RegionFile region, int x, int z, int value) throws IOException {
+        try (DataOutputStream dos = region.getChunkDataOutputStream(x, z)) {
+            for (int i = 0; i < 1024; i++) {
+                dos.writeInt(value);
+            }
+        }
+    }
+
+    private int readChunk(RegionFile region, int x, int z) throws IOException {
+        try (DataInputStream dis = region.getChunkDataInputStream(x, z)) {
+            final int value = dis.readInt();
+            for (int i = 1; i < 1024; i++) {
+                assertEquals(value, dis.readInt());
+            }
+            return value;
+        }
+    }
+}
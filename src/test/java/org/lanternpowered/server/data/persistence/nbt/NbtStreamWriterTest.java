@@ -0,0 +1,95 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.persistence.nbt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class NbtStreamWriterTest {
+
+    @Test
+    public void test() throws IOException {
+        final byte[] bytes = { 4, 8, 15, 16, 23, 42 };
+        final int[] ints = { 1, -1, 95601 };
+
+        // Start with a small buffer so that it has to grow
+        final NbtStreamWriter writer = new NbtStreamWriter(4);
+        for (int i = 0; i < 2; i++) {
+            writer.reset();
+            writer.beginCompound("")
+                    .writeByte("A", 54)
+                    .writeShort("B", 5493)
+                    .writeInt("C", 95601)
+                    .writeLong("D", 950698203987L)
+                    .writeDouble("E", 9820.9843647895114d)
+                    .writeFloat("F", 9.5789f)
+                    .writeString("G", "Test\u00e9\u4e2d")
+                    .writeBoolean("H", true)
+                    .writeByteArray("I", bytes)
+                    .writeIntArray("J", ints)
+                    .beginCompoundList("K", 2);
+            for (int j = 0; j < 2; j++) {
+                writer.beginListElement()
+                        .writeString("A", "TestA")
+                        .endCompound();
+            }
+            writer.beginCompound("L")
+                    .writeInt("B", 6904)
+                    .endCompound()
+                    .endCompound();
+
+            final DataContainer container;
+            try (NbtDataContainerInputStream input = new NbtDataContainerInputStream(
+                    new ByteArrayInputStream(writer.getBuffer(), 0, writer.size()))) {
+                container = input.read();
+            }
+            assertEquals((byte) 54, container.get(DataQuery.of("A")).get());
+            assertEquals((short) 5493, container.get(DataQuery.of("B")).get());
+            assertEquals(95601, container.get(DataQuery.of("C")).get());
+            assertEquals(950698203987L, container.get(DataQuery.of("D")).get());
+            assertEquals(9820.9843647895114d, container.get(DataQuery.of("E")).get());
+            assertEquals(9.5789f, container.get(DataQuery.of("F")).get());
+            assertEquals("Test\u00e9\u4e2d", container.get(DataQuery.of("G")).get());
+            assertEquals(true, container.get(DataQuery.of("H")).get());
+            assertArrayEquals(bytes, (byte[]) container.get(DataQuery.of("I")).get());
+            assertArrayEquals(ints, (int[]) container.get(DataQuery.of("J")).get());
+            final List<DataView> views = container.getViewList(DataQuery.of("K")).get();
+            assertEquals(2, views.size());
+            for (DataView view : views) {
+                assertEquals("TestA", view.getString(DataQuery.of("A")).get());
+            }
+            assertEquals(6904, container.get(DataQuery.of("L", "B")).get());
+        }
+    }
+}
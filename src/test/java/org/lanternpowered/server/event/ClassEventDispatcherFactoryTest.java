@@ -0,0 +1,328 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.lanternpowered.server.event.gen.DefineableClassLoader;
+import org.spongepowered.api.event.Cancellable;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.event.filter.IsCancelled;
+import org.spongepowered.api.event.filter.type.Exclude;
+import org.spongepowered.api.event.filter.type.Include;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.api.util.Tristate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class ClassEventDispatcherFactoryTest {
+
+    private final PluginContainer plugin = mock(PluginContainer.class);
+
+    public static class TestEvent implements Event, Cancellable {
+
+        private final Cause cause = Cause.of(this);
+        private boolean cancelled;
+
+        @Override
+        public Cause getCause() {
+            return this.cause;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancel) {
+            this.cancelled = cancel;
+        }
+    }
+
+    public static class SubEvent extends TestEvent {
+    }
+
+    public static class OtherSubEvent extends TestEvent {
+    }
+
+    public static class OrderListener {
+
+        public final List<String> calls = new ArrayList<>();
+
+        @Listener(order = Order.LAST)
+        public void onLast(TestEvent event) {
+            this.calls.add("last");
+        }
+
+        @Listener(order = Order.POST)
+        public void onPost(TestEvent event) {
+            this.calls.add("post");
+        }
+
+        @Listener
+        public void onDefault(TestEvent event) {
+            this.calls.add("default");
+        }
+
+        @Listener(order = Order.FIRST)
+        public void onFirst(TestEvent event) {
+            this.calls.add("first");
+        }
+
+        @Listener(order = Order.PRE)
+        public void onPre(TestEvent event) {
+            this.calls.add("pre");
+        }
+    }
+
+    @Test
+    public void testOrder() {
+        final LanternEventManager eventManager = new LanternEventManager();
+        final OrderListener listener = new OrderListener();
+        eventManager.register(this.plugin, listener);
+        eventManager.post(new TestEvent());
+        assertEquals(Arrays.asList("pre", "first", "default", "last", "post"), listener.calls);
+    }
+
+    public static class CancellationListener {
+
+        public final List<String> calls = new ArrayList<>();
+
+        @Listener
+        public void onAny(TestEvent event) {
+            this.calls.add("any");
+        }
+
+        @Listener
+        @IsCancelled(Tristate.FALSE)
+        public void onNotCancelled(TestEvent event) {
+            this.calls.add("not cancelled");
+        }
+
+        @Listener
+        @IsCancelled(Tristate.TRUE)
+        public void onCancelled(TestEvent event) {
+            this.calls.add("cancelled");
+        }
+
+        @Listener
+        @IsCancelled(Tristate.UNDEFINED)
+        public void onUndefined(TestEvent event) {
+            this.calls.add("undefined");
+        }
+    }
+
+    @Test
+    public void testCancellationFilter() {
+        final LanternEventManager eventManager = new LanternEventManager();
+        final CancellationListener listener = new CancellationListener();
+        eventManager.register(this.plugin, listener);
+        assertFalse(eventManager.post(new TestEvent()));
+        assertEquals(ImmutableSet.of("any", "not cancelled", "undefined"), new HashSet<>(listener.calls));
+        listener.calls.clear();
+        final TestEvent event = new TestEvent();
+        event.setCancelled(true);
+        assertTrue(eventManager.post(event));
+        assertEquals(ImmutableSet.of("any", "cancelled", "undefined"), new HashSet<>(listener.calls));
+    }
+
+    public static class CancellingListener {
+
+        public final List<String> calls = new ArrayList<>();
+
+        @Listener(order = Order.FIRST)
+        public void onFirst(TestEvent event) {
+            this.calls.add("first");
+            event.setCancelled(true);
+        }
+
+        @Listener(order = Order.LAST)
+        @IsCancelled(Tristate.FALSE)
+        public void onIgnoreCancelled(TestEvent event) {
+            this.calls.add("ignore cancelled");
+        }
+
+        @Listener(order = Order.POST)
+        @IsCancelled(Tristate.TRUE)
+        public void onCancelled(TestEvent event) {
+            this.calls.add("cancelled");
+        }
+    }
+
+    @Test
+    public void testCancelledByListener() {
+        final LanternEventManager eventManager = new LanternEventManager();
+        final CancellingListener listener = new CancellingListener();
+        eventManager.register(this.plugin, listener);
+        // The later listeners see the cancellation of the earlier ones
+        assertTrue(eventManager.post(new TestEvent()));
+        assertEquals(Arrays.asList("first", "cancelled"), listener.calls);
+    }
+
+    public static class TypeListener {
+
+        public final List<String> calls = new ArrayList<>();
+
+        @Listener
+        public void onEvent(TestEvent event) {
+            this.calls.add("event");
+        }
+
+        @Listener
+        public void onSubEvent(SubEvent event) {
+            this.calls.add("sub event");
+        }
+
+        @Listener
+        @Include(SubEvent.class)
+        public void onIncluded(TestEvent event) {
+            this.calls.add("included");
+        }
+
+        @Listener
+        @Exclude(SubEvent.class)
+        public void onExcluded(TestEvent event) {
+            this.calls.add("excluded");
+        }
+    }
+
+    @Test
+    public void testTypeFilters() {
+        final LanternEventManager eventManager = new LanternEventManager();
+        final TypeListener listener = new TypeListener();
+        eventManager.register(this.plugin, listener);
+        eventManager.post(new TestEvent());
+        assertEquals(ImmutableSet.of("event", "excluded"), new HashSet<>(listener.calls));
+        listener.calls.clear();
+        eventManager.post(new SubEvent());
+        assertEquals(ImmutableSet.of("event", "sub event", "included"), new HashSet<>(listener.calls));
+        listener.calls.clear();
+        eventManager.post(new OtherSubEvent());
+        assertEquals(ImmutableSet.of("event", "excluded"), new HashSet<>(listener.calls));
+    }
+
+    public static class SingleListener {
+
+        public final List<String> calls;
+
+        public SingleListener(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Listener
+        public void onEvent(TestEvent event) {
+            this.calls.add("annotated");
+        }
+    }
+
+    @Test
+    public void testRebuildDispatchers() {
+        final LanternEventManager eventManager = new LanternEventManager();
+        final List<String> calls = new ArrayList<>();
+        final SingleListener listener = new SingleListener(calls);
+        // Cache the dispatcher of the sub event before there are any listeners
+        eventManager.post(new SubEvent());
+        // A listener of a parent type must replace the dispatcher of the sub event
+        eventManager.register(this.plugin, listener);
+        eventManager.post(new SubEvent());
+        assertEquals(Arrays.asList("annotated"), calls);
+        eventManager.unregisterListeners(listener);
+        eventManager.post(new SubEvent());
+        assertEquals(Arrays.asList("annotated"), calls);
+    }
+
+    @Test
+    public void testGeneratedDispatcher() throws Exception {
+        final DefineableClassLoader classLoader = new DefineableClassLoader(getClass().getClassLoader());
+        final ClassEventListenerFactory listenerFactory = new ClassEventListenerFactory(
+                "org.lanternpowered.server.event.test.listener", classLoader);
+        final ClassEventDispatcherFactory dispatcherFactory = new ClassEventDispatcherFactory(
+                "org.lanternpowered.server.event.test.dispatcher", classLoader);
+        final List<String> calls = new ArrayList<>();
+        final AnnotatedEventListener annotated = listenerFactory.create(new SingleListener(calls),
+                SingleListener.class.getMethod("onEvent", TestEvent.class));
+        final List<RegisteredListener<?>> listeners = Arrays.asList(
+                this.registration(annotated),
+                this.registration(event -> calls.add("plain")),
+                this.registration(event -> {
+                    throw new IllegalStateException("Expected failure");
+                }),
+                this.registration(event -> calls.add("after failure")));
+
+        final EventDispatcher dispatcher = dispatcherFactory.create(TestEvent.class, listeners);
+        assertFalse(dispatcher instanceof EventDispatcher.Simple);
+        // The generated listener is called through its exact type, the others through the interface
+        assertSame(annotated.getClass(), dispatcher.getClass().getDeclaredField("handler0").getType());
+        assertSame(EventListener.class, dispatcher.getClass().getDeclaredField("handler1").getType());
+        dispatcher.dispatch(new TestEvent());
+        final List<String> generatedCalls = new ArrayList<>(calls);
+        assertEquals(Arrays.asList("annotated", "plain", "after failure"), generatedCalls);
+
+        // The reflective dispatcher must behave the same way
+        calls.clear();
+        new EventDispatcher.Simple(listeners).dispatch(new TestEvent());
+        assertEquals(generatedCalls, calls);
+    }
+
+    @Test
+    public void testFallbackDispatcher() throws Exception {
+        final ClassEventDispatcherFactory dispatcherFactory = new ClassEventDispatcherFactory(
+                "org.lanternpowered.server.event.test.dispatcher", new DefineableClassLoader(getClass().getClassLoader()));
+        assertSame(EventDispatcher.EMPTY, dispatcherFactory.create(TestEvent.class, new ArrayList<>()));
+
+        final List<Integer> calls = new ArrayList<>();
+        final List<RegisteredListener<?>> listeners = new ArrayList<>();
+        for (int i = 0; i <= ClassEventDispatcherFactory.MAX_FUSED_LISTENERS; i++) {
+            final int index = i;
+            listeners.add(this.registration(event -> calls.add(index)));
+        }
+        final EventDispatcher dispatcher = dispatcherFactory.create(TestEvent.class, listeners);
+        assertTrue(dispatcher instanceof EventDispatcher.Simple);
+        dispatcher.dispatch(new TestEvent());
+        assertEquals(listeners.size(), calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            assertEquals(i, (int) calls.get(i));
+        }
+    }
+
+    private RegisteredListener<TestEvent> registration(EventListener<? super TestEvent> listener) {
+        return new RegisteredListener<>(this.plugin, TestEvent.class, Order.DEFAULT, listener);
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Test;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncTaskExecutorTest {
+
+    private AsyncTaskExecutor executor;
+
+    private static PluginContainer plugin(String id) {
+        final PluginContainer plugin = mock(PluginContainer.class);
+        when(plugin.getId()).thenReturn(id);
+        return plugin;
+    }
+
+    private AsyncTaskExecutor create(AsyncTaskExecutor.Quota quota) {
+        this.executor = new AsyncTaskExecutor(4, 2, false, id -> quota);
+        return this.executor;
+    }
+
+    private void awaitTermination() throws InterruptedException {
+        this.executor.shutdown();
+        assertTrue(this.executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws InterruptedException {
+        final AsyncTaskExecutor executor = this.create(new AsyncTaskExecutor.Quota(2, 100));
+        final PluginContainer plugin = plugin("test");
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            executor.execute(plugin, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ignored) {
+                }
+                running.decrementAndGet();
+            });
+        }
+        this.awaitTermination();
+        assertTrue(maxRunning.get() <= 2);
+        assertEquals(20, executor.getStatistics("test").get().getCompletedTasks());
+    }
+
+    @Test
+    public void testQueueRejection() throws InterruptedException {
+        final AsyncTaskExecutor executor = this.create(new AsyncTaskExecutor.Quota(1, 2));
+        final PluginContainer plugin = plugin("test");
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Runnable blocked = () -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {
+            }
+        };
+        // One running and two waiting tasks
+        executor.execute(plugin, blocked);
+        executor.execute(plugin, blocked);
+        executor.execute(plugin, blocked);
+        try {
+            executor.execute(plugin, blocked);
+            fail("The task should be rejected");
+        } catch (RejectedExecutionException ignored) {
+        }
+        final AsyncTaskExecutor.Statistics statistics = executor.getStatistics("test").get();
+        assertEquals(1, statistics.getRunningTasks());
+        assertEquals(2, statistics.getQueuedTasks());
+        assertEquals(3, statistics.getSubmittedTasks());
+        assertEquals(1, statistics.getRejectedTasks());
+        // Other owners aren't affected by the full queue
+        final CountDownLatch other = new CountDownLatch(1);
+        executor.execute(plugin("other"), other::countDown);
+        assertTrue(other.await(10, TimeUnit.SECONDS));
+        latch.countDown();
+        this.awaitTermination();
+        assertEquals(3, executor.getStatistics("test").get().getCompletedTasks());
+    }
+
+    @Test
+    public void testOrdering() throws InterruptedException {
+        final AsyncTaskExecutor executor = this.create(new AsyncTaskExecutor.Quota(1, 1000));
+        final PluginContainer plugin = plugin("test");
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            executor.execute(plugin, () -> order.add(value));
+        }
+        this.awaitTermination();
+        assertEquals(100, order.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void testStatistics() throws InterruptedException {
+        final AsyncTaskExecutor executor = this.create(AsyncTaskExecutor.Quota.UNLIMITED);
+        final PluginContainer plugin = plugin("test");
+        for (int i = 0; i < 10; i++) {
+            final int value = i;
+            executor.execute(plugin, () -> {
+                if (value % 2 == 0) {
+                    throw new IllegalStateException("Test failure");
+                }
+            });
+        }
+        this.awaitTermination();
+        final AsyncTaskExecutor.Statistics statistics = executor.getStatistics("test").get();
+        assertEquals(10, statistics.getSubmittedTasks());
+        assertEquals(10, statistics.getCompletedTasks());
+        assertEquals(5, statistics.getFailedTasks());
+        assertEquals(0, statistics.getRejectedTasks());
+        assertEquals(0, statistics.getRunningTasks());
+        assertEquals(0, statistics.getQueuedTasks());
+    }
+
+    @Test
+    public void testBlockingTasks() throws InterruptedException {
+        final AsyncTaskExecutor executor = this.create(AsyncTaskExecutor.Quota.UNLIMITED);
+        final PluginContainer plugin = plugin("test");
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        // Block more tasks than the pool has threads, the other tasks should still run
+        for (int i = 0; i < 8; i++) {
+            executor.createBlockingExecutorService(plugin).execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    latch.await();
+                } catch (InterruptedException ignored) {
+                }
+                running.decrementAndGet();
+            });
+        }
+        final CountDownLatch other = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(plugin, other::countDown);
+        }
+        assertTrue(other.await(10, TimeUnit.SECONDS));
+        latch.countDown();
+        this.awaitTermination();
+        assertTrue(maxRunning.get() <= 2);
+        assertEquals(8, executor.getStatistics("test:blocking").get().getCompletedTasks());
+    }
+}
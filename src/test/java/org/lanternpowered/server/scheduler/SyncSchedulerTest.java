@@ -0,0 +1,145 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.api.scheduler.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class SyncSchedulerTest {
+
+    private static ScheduledTask submit(SyncScheduler scheduler, Consumer<Task> consumer, long delay, long interval) {
+        final PluginContainer plugin = mock(PluginContainer.class);
+        when(plugin.getId()).thenReturn("test");
+        final ScheduledTask task = new ScheduledTask(ScheduledTask.TaskSynchronicity.SYNCHRONOUS, consumer,
+                "test", delay, true, interval, true, plugin);
+        scheduler.addTask(task);
+        return task;
+    }
+
+    private static void tick(SyncScheduler scheduler, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            scheduler.tick();
+        }
+    }
+
+    @Test
+    public void testDelay() {
+        final SyncScheduler scheduler = new SyncScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+        final ScheduledTask task = submit(scheduler, t -> counter.incrementAndGet(), 3, 0);
+        tick(scheduler, 2);
+        assertEquals(0, counter.get());
+        tick(scheduler, 1);
+        assertEquals(1, counter.get());
+        tick(scheduler, 5);
+        assertEquals(1, counter.get());
+        assertFalse(scheduler.getTask(task.getUniqueId()).isPresent());
+        assertEquals(1, task.getExecutionCount());
+    }
+
+    @Test
+    public void testDelayBeyondWheel() {
+        final SyncScheduler scheduler = new SyncScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+        submit(scheduler, t -> counter.incrementAndGet(), 1500, 0);
+        tick(scheduler, 1499);
+        assertEquals(0, counter.get());
+        tick(scheduler, 1);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testInterval() {
+        final SyncScheduler scheduler = new SyncScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+        submit(scheduler, t -> counter.incrementAndGet(), 0, 2);
+        tick(scheduler, 10);
+        assertEquals(5, counter.get());
+    }
+
+    @Test
+    public void testCancel() {
+        final SyncScheduler scheduler = new SyncScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+        final ScheduledTask task = submit(scheduler, t -> counter.incrementAndGet(), 5, 1);
+        tick(scheduler, 2);
+        assertTrue(task.cancel());
+        assertFalse(scheduler.getTask(task.getUniqueId()).isPresent());
+        tick(scheduler, 10);
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void testCancelFromTask() {
+        final SyncScheduler scheduler = new SyncScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+        submit(scheduler, t -> {
+            if (counter.incrementAndGet() == 3) {
+                t.cancel();
+            }
+        }, 0, 1);
+        tick(scheduler, 10);
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void testHeapOrder() {
+        final Random random = new Random(0L);
+        final ScheduledTaskHeap heap = new ScheduledTaskHeap();
+        final List<ScheduledTask> tasks = new ArrayList<>();
+        final PluginContainer plugin = mock(PluginContainer.class);
+        for (int i = 0; i < 500; i++) {
+            final ScheduledTask task = new ScheduledTask(ScheduledTask.TaskSynchronicity.SYNCHRONOUS, t -> {},
+                    "test", 0, false, 0, false, plugin);
+            task.deadline = random.nextInt(10000);
+            heap.add(task);
+            tasks.add(task);
+        }
+        // Remove some random tasks from the middle of the heap
+        for (int i = 0; i < 100; i++) {
+            assertTrue(heap.remove(tasks.remove(random.nextInt(tasks.size()))));
+        }
+        assertEquals(tasks.size(), heap.size());
+        long last = Long.MIN_VALUE;
+        ScheduledTask task;
+        while ((task = heap.poll()) != null) {
+            assertTrue(task.deadline >= last);
+            last = task.deadline;
+        }
+    }
+}
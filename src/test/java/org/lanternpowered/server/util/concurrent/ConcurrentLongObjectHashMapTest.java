@@ -0,0 +1,116 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class ConcurrentLongObjectHashMapTest {
+
+    private static final int SIZE = 5000;
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xffffffffL);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        ConcurrentLongObjectHashMap<String> map = new ConcurrentLongObjectHashMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(key(-5, 10), "A"));
+        assertEquals("A", map.put(key(-5, 10), "B"));
+        assertEquals("B", map.get(key(-5, 10)));
+        assertEquals("B", map.putIfAbsent(key(-5, 10), "C"));
+        assertEquals(1, map.size());
+        assertFalse(map.remove(key(-5, 10), "C"));
+        assertTrue(map.remove(key(-5, 10), "B"));
+        assertNull(map.get(key(-5, 10)));
+        assertTrue(map.isEmpty());
+        // Revive the removed entry
+        assertNull(map.putIfAbsent(key(-5, 10), "D"));
+        assertEquals("D", map.get(key(-5, 10)));
+        assertEquals("D", map.remove(key(-5, 10)));
+        assertNull(map.remove(key(-5, 10)));
+    }
+
+    @Test
+    public void testComputeIfAbsent() {
+        ConcurrentLongObjectHashMap<String> map = new ConcurrentLongObjectHashMap<>();
+        assertEquals("A", map.computeIfAbsent(key(1, 2), key -> "A"));
+        assertEquals("A", map.computeIfAbsent(key(1, 2), key -> "B"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testCompute() {
+        ConcurrentLongObjectHashMap<String> map = new ConcurrentLongObjectHashMap<>();
+        assertNull(map.computeIfPresent(key(3, 4), (key, value) -> "A"));
+        assertTrue(map.isEmpty());
+        assertEquals("A", map.compute(key(3, 4), (key, value) -> value == null ? "A" : value + "B"));
+        assertEquals("AB", map.compute(key(3, 4), (key, value) -> value == null ? "A" : value + "B"));
+        assertEquals("ABC", map.computeIfPresent(key(3, 4), (key, value) -> value + "C"));
+        assertNull(map.computeIfPresent(key(3, 4), (key, value) -> null));
+        assertNull(map.get(key(3, 4)));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        ConcurrentLongObjectHashMap<Integer> map = new ConcurrentLongObjectHashMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(4815162342L);
+        for (int i = 0; i < SIZE * 10; i++) {
+            long key = key(random.nextInt(200) - 100, random.nextInt(200) - 100);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        final int[] count = new int[1];
+        map.forEachEntry((key, value) -> {
+            assertEquals(expected.get(key), value);
+            count[0]++;
+            return true;
+        });
+        assertEquals(expected.size(), count[0]);
+        assertEquals(expected.size(), map.values().size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertTrue(map.values().isEmpty());
+    }
+}
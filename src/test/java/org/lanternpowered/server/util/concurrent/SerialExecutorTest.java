@@ -0,0 +1,130 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SerialExecutorTest {
+
+    private static final int TASKS = 10000;
+
+    @Test
+    public void testOrder() throws InterruptedException {
+        final ExecutorService service = Executors.newFixedThreadPool(4);
+        try {
+            final SerialExecutor executor = new SerialExecutor(service);
+            final List<Integer> values = new CopyOnWriteArrayList<>();
+            final AtomicInteger running = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                final int value = i;
+                executor.execute(() -> {
+                    assertEquals(1, running.incrementAndGet());
+                    values.add(value);
+                    running.decrementAndGet();
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < TASKS; i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testChained() throws InterruptedException {
+        final ExecutorService service = Executors.newFixedThreadPool(4);
+        try {
+            final SerialExecutor executor = new SerialExecutor(service);
+            final SettableFuture<Void> future = SettableFuture.create();
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            executor.executeChained(() -> {
+                started.countDown();
+                return future;
+            });
+            executor.execute(done::countDown);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // The second task must wait for the chained future
+            assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+            assertEquals(1, executor.getQueuedTaskCount());
+            future.set(null);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectedChained() {
+        final AtomicBoolean reject = new AtomicBoolean();
+        final SerialExecutor executor = new SerialExecutor(task -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException();
+            }
+            task.run();
+        });
+        final SettableFuture<Void> future = SettableFuture.create();
+        final AtomicInteger executed = new AtomicInteger();
+        executor.executeChained(() -> future);
+        executor.execute(executed::incrementAndGet);
+        assertEquals(1, executor.getQueuedTaskCount());
+        // Resuming after the chained future is rejected, the pending task is discarded
+        reject.set(true);
+        future.set(null);
+        assertEquals(0, executor.getQueuedTaskCount());
+        assertEquals(0, executed.get());
+        // The rejection is thrown to the caller, the executor isn't stuck as running
+        try {
+            executor.execute(executed::incrementAndGet);
+            fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+        assertEquals(0, executor.getQueuedTaskCount());
+        // The executor continues once the backing executor accepts tasks again
+        reject.set(false);
+        executor.execute(executed::incrementAndGet);
+        assertEquals(1, executed.get());
+    }
+}
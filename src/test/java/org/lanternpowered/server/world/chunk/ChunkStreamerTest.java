@@ -0,0 +1,122 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.flowpowered.math.vector.Vector3d;
+import org.junit.Test;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.session.Session;
+import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
+import org.lanternpowered.server.world.LanternWorld;
+import org.mockito.ArgumentCaptor;
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.world.Dimension;
+
+import java.util.List;
+
+public class ChunkStreamerTest {
+
+    private static LanternWorld mockWorld() {
+        final Dimension dimension = mock(Dimension.class);
+        when(dimension.hasSky()).thenReturn(true);
+        final LanternWorld world = mock(LanternWorld.class);
+        when(world.getDimension()).thenReturn(dimension);
+        return world;
+    }
+
+    private static LanternPlayer mockPlayer(Session session) {
+        final LanternPlayer player = mock(LanternPlayer.class);
+        when(player.getPosition()).thenReturn(new Vector3d(8, 64, 8));
+        when(player.getViewDistance()).thenReturn(1);
+        when(player.getConnection()).thenReturn(session);
+        return player;
+    }
+
+    @Test
+    public void testSendLoadedChunks() {
+        final LanternChunkManager chunkManager = mock(LanternChunkManager.class);
+        final LanternChunk chunk = mock(LanternChunk.class);
+        when(chunkManager.getChunk(0, 0)).thenReturn(chunk);
+
+        final Session session = mock(Session.class);
+        final LanternPlayer player = mockPlayer(session);
+        final ChunkStreamer streamer = new ChunkStreamer(chunkManager, mockWorld());
+        streamer.addPlayer(player);
+        streamer.pulse();
+
+        // Only the loaded chunk is send, the other chunks are requested
+        final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(session).send(captor.capture());
+        final MessagePlayOutChunkData message = (MessagePlayOutChunkData) captor.getValue();
+        assertSame(chunk, message.getChunk());
+        assertEquals(true, message.hasSkyLight());
+        verify(chunk).addViewer(player);
+        verify(chunkManager, never()).getOrCreateChunkAsync(eq(0), eq(0), any(Cause.class), anyBoolean());
+        verify(chunkManager, atLeastOnce()).getOrCreateChunkAsync(eq(1), eq(1), any(Cause.class), eq(true));
+
+        // The chunk isn't send twice
+        streamer.pulse();
+        verify(session).send(any(Message.class));
+    }
+
+    @Test
+    public void testShareChunkData() {
+        final LanternChunkManager chunkManager = mock(LanternChunkManager.class);
+        final LanternChunk chunk = mock(LanternChunk.class);
+        when(chunkManager.getChunk(anyInt(), anyInt())).thenReturn(chunk);
+
+        final Session session1 = mock(Session.class);
+        final Session session2 = mock(Session.class);
+        final ChunkStreamer streamer = new ChunkStreamer(chunkManager, mockWorld());
+        streamer.addPlayer(mockPlayer(session1));
+        streamer.addPlayer(mockPlayer(session2));
+        streamer.pulse();
+
+        // Both players receive messages that encode the content of the
+        // chunk itself, so the encoded data can be cached per chunk version
+        for (Session session : new Session[] { session1, session2 }) {
+            final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+            verify(session, atLeastOnce()).send(captor.capture());
+            final List<Message> messages = captor.getAllValues();
+            assertEquals(8, messages.size());
+            for (Message message : messages) {
+                assertSame(chunk, ((MessagePlayOutChunkData) message).getChunk());
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.junit.Test;
+import org.lanternpowered.server.util.gen.block.ShortArrayMutableBlockBuffer;
+import org.spongepowered.api.util.PositionOutOfBoundsException;
+
+public class LanternChunkTest {
+
+    private static final short STONE = 1 << 4;
+    private static final short GRASS = 2 << 4;
+
+    private static LanternChunk newChunk() {
+        final LanternChunk chunk = new LanternChunk(null, 0, 0);
+        chunk.initializeEmpty();
+        return chunk;
+    }
+
+    private static ShortArrayMutableBlockBuffer newBuffer(Vector3i start, Vector3i size) {
+        final short[] blocks = new short[size.getX() * size.getY() * size.getZ()];
+        for (int x = 0; x < size.getX(); x++) {
+            for (int z = 0; z < size.getZ(); z++) {
+                for (int y = 0; y < size.getY(); y++) {
+                    blocks[(x * size.getZ() + z) * size.getY() + y] = type(x, y, z);
+                }
+            }
+        }
+        return new ShortArrayMutableBlockBuffer(blocks, start, size);
+    }
+
+    private static short type(int x, int y, int z) {
+        // Leave some air blocks in the buffer
+        return (x + y + z) % 3 == 0 ? 0 : (short) ((1 + x + z * 4 + y * 16) << 4);
+    }
+
+    private static int countNonAir(LanternChunk chunk, int sy) {
+        int count = 0;
+        for (int x = 0; x < LanternChunk.CHUNK_SECTION_SIZE; x++) {
+            for (int z = 0; z < LanternChunk.CHUNK_SECTION_SIZE; z++) {
+                for (int y = 0; y < LanternChunk.CHUNK_SECTION_SIZE; y++) {
+                    if (chunk.getType(x, (sy << 4) | y, z) != 0) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testFillSectionCounts() {
+        final LanternChunk chunk = newChunk();
+        chunk.fillTypes(0, 0, 0, 15, 20, 15, STONE);
+        assertEquals(LanternChunk.CHUNK_SECTION_VOLUME, chunk.getSections()[0].nonAirCount);
+        assertEquals(16 * 16 * 5, chunk.getSections()[1].nonAirCount);
+        assertEquals(STONE, chunk.getType(3, 20, 3));
+        assertEquals(0, chunk.getType(3, 21, 3));
+        // Replacing blocks doesn't change the count
+        chunk.fillTypes(2, 10, 2, 5, 18, 5, GRASS);
+        assertEquals(LanternChunk.CHUNK_SECTION_VOLUME, chunk.getSections()[0].nonAirCount);
+        assertEquals(16 * 16 * 5, chunk.getSections()[1].nonAirCount);
+        assertEquals(GRASS, chunk.getType(5, 18, 5));
+        assertEquals(STONE, chunk.getType(6, 18, 5));
+        // Removing all the blocks destroys the section
+        chunk.fillTypes(0, 16, 0, 15, 20, 15, (short) 0);
+        assertNull(chunk.getSections()[1]);
+        chunk.fillTypes(0, 0, 0, 15, 0, 15, (short) 0);
+        assertEquals(LanternChunk.CHUNK_SECTION_VOLUME - 16 * 16, chunk.getSections()[0].nonAirCount);
+    }
+
+    @Test
+    public void testCopyLayout() {
+        final LanternChunk chunk = newChunk();
+        final Vector3i size = new Vector3i(4, 40, 3);
+        final ShortArrayMutableBlockBuffer buffer = newBuffer(new Vector3i(-10, 5, 20), size);
+        final Vector3i destination = new Vector3i(7, 12, 9);
+        chunk.copyBlocks(buffer, new Vector3i(-10, 5, 20), new Vector3i(-7, 44, 22), destination);
+        for (int x = 0; x < size.getX(); x++) {
+            for (int z = 0; z < size.getZ(); z++) {
+                for (int y = 0; y < size.getY(); y++) {
+                    assertEquals(type(x, y, z), chunk.getType(destination.getX() + x,
+                            destination.getY() + y, destination.getZ() + z));
+                }
+            }
+        }
+        // The blocks around the destination are untouched
+        assertEquals(0, chunk.getType(6, 12, 9));
+        assertEquals(0, chunk.getType(7, 11, 9));
+        assertEquals(0, chunk.getType(7, 52, 9));
+        assertEquals(0, chunk.getType(11, 12, 9));
+        assertEquals(0, chunk.getType(7, 12, 12));
+    }
+
+    @Test
+    public void testCopySectionCounts() {
+        final LanternChunk chunk = newChunk();
+        chunk.fillTypes(0, 0, 0, 15, 31, 15, STONE);
+        final ShortArrayMutableBlockBuffer buffer = newBuffer(Vector3i.ZERO, new Vector3i(16, 40, 16));
+        chunk.copyBlocks(buffer, Vector3i.ZERO, new Vector3i(15, 39, 15), new Vector3i(0, 10, 0));
+        for (int sy = 0; sy < 4; sy++) {
+            final LanternChunk.ChunkSection section = chunk.getSections()[sy];
+            assertNotNull(section);
+            assertEquals(countNonAir(chunk, sy), section.nonAirCount);
+        }
+        assertNull(chunk.getSections()[4]);
+        // Copying only air into a missing section doesn't create it
+        final ShortArrayMutableBlockBuffer air = new ShortArrayMutableBlockBuffer(Vector3i.ZERO, new Vector3i(16, 16, 16));
+        chunk.copyBlocks(air, Vector3i.ZERO, new Vector3i(15, 15, 15), new Vector3i(0, 64, 0));
+        assertNull(chunk.getSections()[4]);
+        // Copying only air over a section destroys it
+        chunk.copyBlocks(air, Vector3i.ZERO, new Vector3i(15, 15, 15), new Vector3i(0, 48, 0));
+        assertNull(chunk.getSections()[3]);
+    }
+
+    @Test
+    public void testCopyNormalizesAir() {
+        final LanternChunk chunk = newChunk();
+        final ShortArrayMutableBlockBuffer buffer = new ShortArrayMutableBlockBuffer(
+                new short[] { 5, STONE }, Vector3i.ZERO, new Vector3i(1, 2, 1));
+        chunk.copyBlocks(buffer, Vector3i.ZERO, new Vector3i(0, 1, 0), Vector3i.ZERO);
+        assertEquals(0, chunk.getType(0, 0, 0));
+        assertEquals(STONE, chunk.getType(0, 1, 0));
+        assertEquals(1, chunk.getSections()[0].nonAirCount);
+    }
+
+    @Test(expected = PositionOutOfBoundsException.class)
+    public void testCopyOutOfBounds() {
+        final LanternChunk chunk = newChunk();
+        final ShortArrayMutableBlockBuffer buffer = newBuffer(Vector3i.ZERO, new Vector3i(4, 4, 4));
+        chunk.copyBlocks(buffer, Vector3i.ZERO, new Vector3i(3, 3, 3), new Vector3i(13, 0, 0));
+    }
+
+    @Test(expected = PositionOutOfBoundsException.class)
+    public void testCopySourceOutOfBounds() {
+        final LanternChunk chunk = newChunk();
+        final ShortArrayMutableBlockBuffer buffer = newBuffer(Vector3i.ZERO, new Vector3i(4, 4, 4));
+        chunk.copyBlocks(buffer, Vector3i.ZERO, new Vector3i(4, 3, 3), Vector3i.ZERO);
+    }
+}
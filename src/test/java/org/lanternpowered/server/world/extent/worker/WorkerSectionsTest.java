@@ -0,0 +1,57 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://github.com/LanternPowered>
+ * Copyright (c) Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.junit.Test;
+
+public class WorkerSectionsTest {
+
+    private static final Vector3i MIN = new Vector3i(-20, 3, -5);
+    private static final Vector3i MAX = new Vector3i(40, 70, 33);
+
+    private static final long VOLUME = 61L * 68L * 39L;
+
+    @Test
+    public void testSequential() {
+        assertEquals(VOLUME, this.countBlocks(false));
+    }
+
+    @Test
+    public void testParallel() {
+        assertEquals(VOLUME, this.countBlocks(true));
+    }
+
+    private long countBlocks(boolean parallel) {
+        return WorkerSections.reduce(MIN, MAX, parallel, 0L, (minX, minY, minZ, maxX, maxY, maxZ, reduction) -> {
+            // Every cell must be contained by a single chunk section
+            assertTrue(minX >> 4 == maxX >> 4 && minY >> 4 == maxY >> 4 && minZ >> 4 == maxZ >> 4);
+            return reduction + (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        }, Long::sum);
+    }
+}